@@ -0,0 +1,97 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Room;
+import com.hotelreservation.service.AvailabilityIndex;
+import com.hotelreservation.service.InventoryService;
+import com.hotelreservation.service.RoomService;
+import com.hotelreservation.service.SplitStay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability search for one room type and a three-night stay, answered by the in-memory
+ * {@link AvailabilityIndex} and by the SQL query against the embedded database, next to the number of rooms
+ * left for the stay read from the room type inventory ledger and the best-fitting room picked by the index,
+ * and the split-stay search over a fortnight, for which no single room is usually free.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    @Param({"300"})
+    public int roomCount;
+
+    @Param({"100000"})
+    public int bookingCount;
+
+    private RoomService roomService;
+    private InventoryService inventoryService;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private LocalDate fortnightCheckOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.load(new SyntheticData(roomCount, bookingCount, 42));
+        if (!AvailabilityIndex.getInstance().load()) {
+            throw new IllegalStateException("Availability index failed to load");
+        }
+        roomService = new RoomService();
+        inventoryService = new InventoryService();
+        checkIn = SyntheticData.START_DATE.plusDays(200);
+        checkOut = checkIn.plusDays(3);
+        fortnightCheckOut = checkIn.plusDays(14);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Room> availabilityIndex() {
+        return AvailabilityIndex.getInstance().findAvailableRooms("Deluxe", checkIn, checkOut);
+    }
+
+    @Benchmark
+    public List<Room> availabilitySql() {
+        return roomService.getAvailableRoomsFromDatabase("Deluxe", checkIn, checkOut);
+    }
+
+    @Benchmark
+    public int inventoryLedger() {
+        return inventoryService.getMinimumRemaining("Deluxe", checkIn, checkOut);
+    }
+
+    @Benchmark
+    public Room bestFitRoom() {
+        return AvailabilityIndex.getInstance().findBestFitRoom("Deluxe", checkIn, checkOut, Collections.emptySet());
+    }
+
+    @Benchmark
+    public List<SplitStay> splitStays() {
+        return AvailabilityIndex.getInstance().findSplitStays("Deluxe", checkIn, fortnightCheckOut, false, List.of(), 5);
+    }
+}
@@ -0,0 +1,118 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.ImportEntity;
+import com.hotelreservation.service.ImportResult;
+import com.hotelreservation.service.ImportService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the bookings of a synthetic data set into an empty Bookings table, either from a CSV file through
+ * {@link ImportService} (COPY into staging, then one set-based merge) or one {@link BookingService#createBooking}
+ * call per booking. Each invocation starts from the same rooms and guests with no bookings.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+
+    @Param({"20000"})
+    public int bookingCount;
+
+    private ImportService importService;
+    private BookingService bookingService;
+    private List<Booking> bookings;
+    private Map<String, Guest> guests;
+    private Path csv;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        EmbeddedDatabase.start();
+        SyntheticData data = new SyntheticData(200, bookingCount, 42);
+        EmbeddedDatabase.load(data);
+        importService = new ImportService();
+        bookingService = new BookingService();
+        bookings = data.getBookings();
+        guests = new HashMap<>();
+        for (Guest guest : data.getGuests()) {
+            guests.put(guest.getGuestId(), guest);
+        }
+
+        csv = Files.createTempFile("bookings", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", ImportEntity.BOOKINGS.getColumns()));
+            writer.newLine();
+            for (Booking booking : bookings) {
+                writer.write(String.join(",", booking.getBookingId(), booking.getGuestId(), booking.getRoomId(),
+                        "", booking.getInDate().toString(), booking.getOutDate().toString(), "",
+                        booking.getPaymentStatus(), booking.getBookingStatus()));
+                writer.newLine();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearBookings() throws SQLException {
+        try (Connection conn = EmbeddedDatabase.openConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE Bookings");
+            stmt.execute("TRUNCATE import_jobs CASCADE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public ImportResult copyImport() {
+        ImportResult result = importService.importCsv(ImportEntity.BOOKINGS, csv, null);
+        if (!result.isMerged() || result.getRowsMerged() != bookings.size()) {
+            throw new IllegalStateException("Import did not merge every booking: " + result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int rowByRow() {
+        int created = 0;
+        for (Booking booking : bookings) {
+            if (bookingService.createBooking(booking, guests.get(booking.getGuestId()))) {
+                created++;
+            }
+        }
+        return created;
+    }
+}
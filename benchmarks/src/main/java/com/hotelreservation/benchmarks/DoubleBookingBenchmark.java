@@ -0,0 +1,115 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.ReservationResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stress test of {@link BookingService#reserveRoom(Booking, Guest)}: many threads book a handful of rooms
+ * over a short date window, so most attempts conflict. Reports reservation throughput, and fails the run
+ * if any room ends up booked twice for overlapping dates. With {@code exclusionConstraint=false} the
+ * database constraint is dropped, leaving the striped room locks and conditional insert as the only guard.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class DoubleBookingBenchmark {
+
+    private static final int WINDOW_DAYS = 60;
+
+    @Param({"20"})
+    public int roomCount;
+
+    @Param({"true", "false"})
+    public boolean exclusionConstraint;
+
+    private BookingService bookingService;
+    private List<Guest> guests;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder taken = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        EmbeddedDatabase.start();
+        SyntheticData data = new SyntheticData(roomCount, 0, 42);
+        EmbeddedDatabase.load(data);
+        if (exclusionConstraint) {
+            EmbeddedDatabase.runScript("/com/hotelreservation/db/migration/V3__booking_exclusion.sql");
+        } else {
+            try (Connection conn = EmbeddedDatabase.openConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE Bookings DROP CONSTRAINT IF EXISTS bookings_room_no_overlap");
+            }
+        }
+        bookingService = new BookingService();
+        guests = data.getGuests();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        String sql = "SELECT count(*) FROM Bookings a JOIN Bookings b ON a.roomId = b.roomId AND a.bookingId < b.bookingId " +
+                "AND a.inDate < b.outDate AND b.inDate < a.outDate " +
+                "WHERE a.bookingStatus IS DISTINCT FROM 'Cancelled' AND b.bookingStatus IS DISTINCT FROM 'Cancelled'";
+        long overlaps;
+        try (Connection conn = EmbeddedDatabase.openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            overlaps = rs.getLong(1);
+        }
+        System.out.printf("%nReservations: %d created, %d rejected as room taken, %d double bookings%n",
+                created.sum(), taken.sum(), overlaps);
+        EmbeddedDatabase.stop();
+        if (overlaps > 0) {
+            throw new IllegalStateException(overlaps + " overlapping bookings of the same room were created");
+        }
+    }
+
+    @Benchmark
+    public ReservationResult reserveRoom() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkIn = SyntheticData.START_DATE.plusDays(random.nextInt(WINDOW_DAYS));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+        Guest guest = guests.get(random.nextInt(guests.size()));
+        Booking booking = new Booking(UUID.randomUUID().toString(), guest.getGuestId(),
+                String.valueOf(101 + random.nextInt(roomCount)), null, checkIn, checkOut, null, "Pending", "Confirmed");
+
+        ReservationResult result = bookingService.reserveRoom(booking, guest);
+        if (result == ReservationResult.CREATED) {
+            created.increment();
+        } else if (result == ReservationResult.ROOM_TAKEN) {
+            taken.increment();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.SchemaMigrator;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A PostgreSQL server embedded in the benchmark JVM, standing in for the production database.
+ * Starting it points {@link DatabaseConnection} at it through system properties, so it must be started
+ * before any service touches the database.
+ */
+public class EmbeddedDatabase {
+
+    private static EmbeddedPostgres postgres;
+    private static String url;
+
+    /**
+     * Starts the embedded server once per JVM and creates the application schema with the application's migrations.
+     */
+    public static synchronized void start() {
+        if (postgres != null) {
+            return;
+        }
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+            url = postgres.getJdbcUrl("postgres", "postgres");
+            System.setProperty("SUPABASE_DB_URL", url);
+            System.setProperty("SUPABASE_DB_USER", "postgres");
+            System.setProperty("SUPABASE_DB_PASSWORD", "");
+            if (!SchemaMigrator.migrate()) {
+                throw new IllegalStateException("Failed to migrate the embedded database");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start embedded PostgreSQL", e);
+        }
+    }
+
+    /**
+     * Replaces the contents of the Rooms, Guests and Bookings tables with the given data set.
+     *
+     * @param data the data to load
+     */
+    public static void load(SyntheticData data) {
+        try (Connection conn = openConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("TRUNCATE room_holds, Bookings, Guests, Rooms");
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Rooms (roomId, roomType, roomPrice, availability) VALUES (?, ?, ?, ?)")) {
+                for (Room room : data.getRooms()) {
+                    pstmt.setString(1, room.getRoomId());
+                    pstmt.setString(2, room.getRoomType());
+                    pstmt.setDouble(3, room.getRoomPrice());
+                    pstmt.setBoolean(4, room.isAvailability());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Guests (guestId, firstName, lastName, middleName, password, contactNumber) VALUES (?, ?, ?, ?, ?, ?)")) {
+                int pending = 0;
+                for (Guest guest : data.getGuests()) {
+                    pstmt.setString(1, guest.getGuestId());
+                    pstmt.setString(2, guest.getFirstName());
+                    pstmt.setString(3, guest.getLastName());
+                    pstmt.setString(4, guest.getMiddleName());
+                    pstmt.setString(5, guest.getPassword());
+                    pstmt.setString(6, guest.getContactNumber());
+                    pstmt.addBatch();
+                    if (++pending % 5000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Bookings (bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                int pending = 0;
+                for (Booking booking : data.getBookings()) {
+                    pstmt.setString(1, booking.getBookingId());
+                    pstmt.setString(2, booking.getGuestId());
+                    pstmt.setString(3, booking.getRoomId());
+                    pstmt.setString(4, booking.getVoucherNumber());
+                    pstmt.setDate(5, Date.valueOf(booking.getInDate()));
+                    pstmt.setDate(6, Date.valueOf(booking.getOutDate()));
+                    pstmt.setString(7, booking.getSpecialPreference());
+                    pstmt.setString(8, booking.getPaymentStatus());
+                    pstmt.setString(9, booking.getBookingStatus());
+                    pstmt.addBatch();
+                    if (++pending % 5000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load benchmark data", e);
+        }
+    }
+
+    /**
+     * Opens a direct, unpooled connection to the embedded server.
+     *
+     * @return a new connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, "postgres", "");
+    }
+
+    /**
+     * Closes the application's connection pool and stops the embedded server.
+     */
+    public static synchronized void stop() {
+        DatabaseConnection.shutdown();
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            postgres = null;
+        }
+    }
+
+    /**
+     * Runs a SQL script from the classpath against the embedded server.
+     *
+     * @param resource the classpath location of the script
+     * @throws IOException if the script is missing or fails
+     */
+    public static void runScript(String resource) throws IOException {
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing script " + resource);
+            }
+            String sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            try (Connection conn = openConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to run " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Guest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a guest's display name, called once per visible row by the reservations table.
+ * Run with {@code -prof gc} to see the allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GuestNameBenchmark {
+
+    private Guest withMiddleName;
+    private Guest withoutMiddleName;
+
+    @Setup
+    public void setUp() {
+        withMiddleName = new Guest("G1", "Maria", "Santos", "Reyes", null, "09171234567");
+        withoutMiddleName = new Guest("G2", "Jose", "Cruz", "", null, "09181234567");
+    }
+
+    @Benchmark
+    public String fullNameWithMiddleName() {
+        return withMiddleName.getFullName();
+    }
+
+    @Benchmark
+    public String fullNameWithoutMiddleName() {
+        return withoutMiddleName.getFullName();
+    }
+
+    @Benchmark
+    public Object fullNameProperty() {
+        return withMiddleName.fullNameProperty();
+    }
+}
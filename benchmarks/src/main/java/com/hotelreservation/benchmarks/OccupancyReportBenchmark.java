@@ -0,0 +1,65 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.service.AnalyticsService;
+import com.hotelreservation.service.OccupancyStats;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Year-long occupancy reports read from the daily rollup, by day and room type and summed per room type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyReportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int bookingCount;
+
+    private AnalyticsService analyticsService;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.load(new SyntheticData(300, bookingCount, 42));
+        analyticsService = new AnalyticsService();
+        fromDate = SyntheticData.START_DATE;
+        toDate = fromDate.plusYears(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<OccupancyStats> dailyStatsForYear() {
+        return analyticsService.getDailyStats(fromDate, toDate);
+    }
+
+    @Benchmark
+    public List<OccupancyStats> statsByRoomTypeForYear() {
+        return analyticsService.getStatsByRoomType(fromDate, toDate);
+    }
+}
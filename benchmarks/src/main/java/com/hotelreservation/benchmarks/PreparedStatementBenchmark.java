@@ -0,0 +1,99 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.GuestService;
+import com.hotelreservation.service.RoomService;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the registered point lookups with and without the per-connection statement cache, across driver
+ * prepare thresholds ({@code 0} never prepares server-side statements for uncached SQL). Prints the
+ * first-execution and reused-execution latencies of every registered statement at the end of each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreparedStatementBenchmark {
+
+    @Param({"0", "1", "5"})
+    public String prepareThreshold;
+
+    @Param({"true", "false"})
+    public String statementCache;
+
+    private GuestService guestService;
+    private BookingService bookingService;
+    private RoomService roomService;
+    private List<Guest> guests;
+    private List<Booking> bookings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("DB_PREPARE_THRESHOLD", prepareThreshold);
+        System.setProperty("DB_STATEMENT_CACHE", statementCache);
+        EmbeddedDatabase.start();
+        SyntheticData data = new SyntheticData(300, 10_000, 42);
+        EmbeddedDatabase.load(data);
+        guestService = new GuestService();
+        bookingService = new BookingService();
+        roomService = new RoomService();
+        guests = data.getGuests();
+        bookings = data.getBookings();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        for (NamedStatement statement : StatementRegistry.getStatements()) {
+            if (statement.getFirstExecutions().getCount() > 0) {
+                System.out.println(statement);
+            }
+        }
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public Guest getGuestById() {
+        return guestService.getGuestById(guests.get(ThreadLocalRandom.current().nextInt(guests.size())).getGuestId());
+    }
+
+    @Benchmark
+    public Booking getBookingWithGuestInfo() {
+        return bookingService.getBookingWithGuestInfo(
+                bookings.get(ThreadLocalRandom.current().nextInt(bookings.size())).getBookingId());
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRoomsFromDatabase() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkIn = SyntheticData.START_DATE.plusDays(random.nextInt(365));
+        return roomService.getAvailableRoomsFromDatabase(
+                SyntheticData.ROOM_TYPES[random.nextInt(SyntheticData.ROOM_TYPES.length)], checkIn, checkIn.plusDays(3));
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.RoomService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of the list queries against the embedded database: query, transfer and mapping of every
+ * row of the ResultSet into model objects, next to the same room list served by the room catalog, and the
+ * streaming variant that fetches bookings in chunks and maps each one without keeping the list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultSetMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bookingCount;
+
+    private BookingService bookingService;
+    private RoomService roomService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.load(new SyntheticData(300, bookingCount, 42));
+        bookingService = new BookingService();
+        roomService = new RoomService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookings() {
+        return bookingService.getAllBookings();
+    }
+
+    @Benchmark
+    public void forEachBooking(Blackhole blackhole) {
+        bookingService.forEachBooking(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Room> getAllRooms() {
+        return roomService.getAllRoomsFromDatabase();
+    }
+
+    @Benchmark
+    public List<Room> getAllRoomsFromCatalog() {
+        return roomService.getAllRooms();
+    }
+}
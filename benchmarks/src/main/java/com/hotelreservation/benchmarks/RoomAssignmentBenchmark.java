@@ -0,0 +1,54 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.service.AssignmentPlan;
+import com.hotelreservation.service.RoomAssigner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning the re-assignment of about a year of future bookings of one room type with {@link RoomAssigner},
+ * in memory, without the database round trips of {@code AssignmentService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomAssignmentBenchmark {
+
+    @Param({"300"})
+    public int roomCount;
+
+    @Param({"24000"})
+    public int bookingCount;
+
+    private SyntheticData data;
+    private LocalDate fromDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new SyntheticData(roomCount, bookingCount, 42);
+        fromDate = SyntheticData.START_DATE.plusDays(30);
+    }
+
+    @Benchmark
+    public AssignmentPlan planReassignment() {
+        return RoomAssigner.plan("Deluxe", fromDate, data.getRooms(), data.getBookings(), List.of());
+    }
+}
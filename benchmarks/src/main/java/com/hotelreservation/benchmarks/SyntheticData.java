@@ -0,0 +1,88 @@
+package com.hotelreservation.benchmarks;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.model.Room;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic hotel data for the benchmarks: rooms of three types, guests, and
+ * non-overlapping bookings laid out room by room from a fixed start date.
+ */
+public class SyntheticData {
+
+    public static final LocalDate START_DATE = LocalDate.of(2023, 1, 1);
+    public static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite"};
+
+    private static final String[] FIRST_NAMES = {"Maria", "Jose", "Ana", "Juan", "Liza", "Mark", "Grace", "Paolo",
+            "Angela", "Miguel", "Carmen", "Rafael", "Sofia", "Daniel", "Isabel", "Gabriel"};
+    private static final String[] LAST_NAMES = {"Santos", "Reyes", "Cruz", "Bautista", "Garcia", "Mendoza", "Torres",
+            "Flores", "Villanueva", "Ramos", "Aquino", "Castillo", "Navarro", "Domingo", "Rivera", "Dela Cruz"};
+
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<Guest> guests = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+
+    /**
+     * Generates a data set.
+     *
+     * @param roomCount    the number of rooms
+     * @param bookingCount the number of bookings, spread evenly over the rooms
+     * @param seed         the random seed
+     */
+    public SyntheticData(int roomCount, int bookingCount, long seed) {
+        Random random = new Random(seed);
+
+        for (int i = 0; i < roomCount; i++) {
+            String type = ROOM_TYPES[i % ROOM_TYPES.length];
+            double price = 2500 + 1500 * (i % ROOM_TYPES.length);
+            rooms.add(new Room(String.valueOf(101 + i), type, price, true));
+        }
+
+        int guestCount = Math.max(1, bookingCount / 3);
+        for (int i = 0; i < guestCount; i++) {
+            String middle = random.nextInt(3) == 0 ? LAST_NAMES[random.nextInt(LAST_NAMES.length)] : "";
+            guests.add(new Guest("G" + i,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    middle,
+                    null,
+                    "09" + (100000000 + random.nextInt(899999999))));
+        }
+
+        int perRoom = (bookingCount + roomCount - 1) / Math.max(1, roomCount);
+        int created = 0;
+        for (int r = 0; r < roomCount && created < bookingCount; r++) {
+            LocalDate day = START_DATE.plusDays(random.nextInt(3));
+            for (int b = 0; b < perRoom && created < bookingCount; b++) {
+                int nights = 1 + random.nextInt(6);
+                Guest guest = guests.get(random.nextInt(guests.size()));
+                Booking booking = new Booking(
+                        String.format("B%08d-%04x", created, random.nextInt(0x10000)),
+                        guest.getGuestId(),
+                        rooms.get(r).getRoomId(),
+                        "V" + (100000 + random.nextInt(900000)),
+                        day,
+                        day.plusDays(nights),
+                        random.nextInt(10) == 0 ? "Late check-in" : null,
+                        random.nextBoolean() ? "Paid" : "Pending",
+                        "Confirmed");
+                booking.setGuest(guest);
+                booking.setRoomType(rooms.get(r).getRoomType());
+                bookings.add(booking);
+                created++;
+                day = day.plusDays(nights + random.nextInt(3));
+            }
+        }
+    }
+
+    // Getters
+
+    public List<Room> getRooms() { return rooms; }
+    public List<Guest> getGuests() { return guests; }
+    public List<Booking> getBookings() { return bookings; }
+}
@@ -0,0 +1,85 @@
+package com.hotelreservation.viewmodel;
+
+import com.hotelreservation.benchmarks.SyntheticData;
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.service.BookingPage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Local (offline) booking search over the loaded bookings:
+ * {@link MainViewModel#searchBookings(String)} end to end including the ObservableList update,
+ * the {@link BookingSearchIndex} lookup alone, and the original full scan for comparison.
+ * Lives in the view-model package to load bookings into the view model without the JavaFX toolkit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class SearchBookingsBenchmark {
+
+    @Param({"10000", "100000", "500000", "1000000"})
+    public int bookingCount;
+
+    /** A guest surname, a voucher prefix, a two-character term and a term that matches nothing. */
+    @Param({"villanueva", "v1234", "dl", "zzzz"})
+    public String searchTerm;
+
+    private List<Booking> bookings;
+    private MainViewModel viewModel;
+    private BookingSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookings = new SyntheticData(300, bookingCount, 42).getBookings();
+
+        viewModel = new MainViewModel();
+        viewModel.serverSearchProperty().set(false);
+        viewModel.showFirstPage(new BookingPage(bookings, false, -1));
+
+        index = new BookingSearchIndex();
+        index.addAll(bookings);
+    }
+
+    @Benchmark
+    public int viewModelSearch() {
+        viewModel.searchBookings(searchTerm);
+        return viewModel.getBookings().size();
+    }
+
+    @Benchmark
+    public List<Booking> indexSearch() {
+        return index.search(searchTerm);
+    }
+
+    @Benchmark
+    public List<Booking> fullScan() {
+        return bookings.stream()
+                .filter(booking ->
+                        booking.getBookingId().toLowerCase().contains(searchTerm.toLowerCase()) ||
+                                booking.getGuest().getFullName().toLowerCase().contains(searchTerm.toLowerCase()) ||
+                                booking.getRoomId().toLowerCase().contains(searchTerm.toLowerCase()) ||
+                                booking.getVoucherNumber().toLowerCase().contains(searchTerm.toLowerCase()) ||
+                                booking.getInDate().toString().contains(searchTerm) ||
+                                booking.getOutDate().toString().contains(searchTerm)
+                )
+                .collect(Collectors.toList());
+    }
+}
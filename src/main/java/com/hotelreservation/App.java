@@ -1,8 +1,19 @@
 package com.hotelreservation;
 
 import com.hotelreservation.model.Staff;
+import com.hotelreservation.service.AvailabilityIndex;
+import com.hotelreservation.service.ChangeNotifier;
+import com.hotelreservation.service.HoldService;
+import com.hotelreservation.service.InventoryService;
+import com.hotelreservation.service.RoomCatalog;
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.MetricsServer;
+import com.hotelreservation.util.SchemaMigrator;
 import com.hotelreservation.view.MainViewController;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -22,20 +33,66 @@ public class App extends Application {
 
     private static final Logger logger = LoggerFactory.getLogger(App.class);
     private static Stage primaryStage;
+    private boolean schemaReady;
 
     /**
-     * Starts the application by showing the login view.
+     * Pre-warms the database connection pool and applies any pending schema migrations before the first view is
+     * shown, then starts building the in-memory availability index, room catalog and room holds and reconciling the
+     * room type inventory in the background, then starts following changes made by other instances and serving
+     * metrics on localhost. If the migrations fail, nothing else is started and {@link #start(Stage)} reports the
+     * error and exits, since the services would run against a schema they do not expect.
+     * Runs on the JavaFX launcher thread, so the handshakes and migrations do not block the UI.
+     */
+    @Override
+    public void init() {
+        DatabaseConnection.initialize();
+        schemaReady = SchemaMigrator.migrate();
+        if (!schemaReady) {
+            logger.error("The database schema could not be brought up to date; not starting");
+            return;
+        }
+        DatabaseExecutor.supplyAsync(AvailabilityIndex.getInstance()::load);
+        DatabaseExecutor.supplyAsync(RoomCatalog.getInstance()::getRooms);
+        DatabaseExecutor.supplyAsync(new InventoryService()::reconcile);
+        DatabaseExecutor.supplyAsync(HoldService.getInstance()::load);
+        ChangeNotifier.getInstance().start();
+        MetricsServer.start();
+    }
+
+    /**
+     * Starts the application by showing the login view, or reports that the database schema could not be
+     * migrated and exits.
      *
      * @param stage the primary stage for the application
      * @throws IOException if an error occurs while loading the view
      */
     @Override
     public void start(Stage stage) throws IOException {
+        if (!schemaReady) {
+            showErrorAlert("Database Error", "The database schema could not be brought up to date, so the application "
+                    + "cannot start. The log names the migration that failed.");
+            Platform.exit();
+            return;
+        }
         logger.info("Starting Hotel Reservation System");
         primaryStage = stage;
         showLoginView();
     }
 
+    /**
+     * Stops the change listener and the metrics endpoint, releases this instance's room holds, lets pending database work
+     * finish and releases the pooled database connections when the application exits.
+     */
+    @Override
+    public void stop() {
+        logger.info("Stopping Hotel Reservation System");
+        ChangeNotifier.getInstance().stop();
+        MetricsServer.stop();
+        HoldService.getInstance().shutdown();
+        DatabaseExecutor.shutdown();
+        DatabaseConnection.shutdown();
+    }
+
     /**
      * Displays the login view where staff members can authenticate.
      *
@@ -84,6 +141,19 @@ public class App extends Application {
         alert.showAndWait();
     }
 
+    /**
+     * Displays an error alert for each failure a view model reports through its error message property.
+     *
+     * @param errorMessage the view model's error message property
+     */
+    public static void showErrorAlerts(ObservableValue<String> errorMessage) {
+        errorMessage.addListener((observable, oldValue, message) -> {
+            if (message != null) {
+                showErrorAlert("Error", message);
+            }
+        });
+    }
+
     /**
      * Displays an informational alert with the specified title and content.
      *
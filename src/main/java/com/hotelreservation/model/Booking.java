@@ -9,6 +9,9 @@ import java.time.LocalDate;
  */
 public class Booking {
 
+    /** Booking status of a cancelled booking, which no longer holds its room. */
+    public static final String STATUS_CANCELLED = "Cancelled";
+
     private String bookingId;
     private String guestId;
     private String roomId;
@@ -19,6 +22,7 @@ public class Booking {
     private String paymentStatus;
     private String bookingStatus;
     private Guest guest;
+    private String roomType;
 
     /**
      * Constructs a Booking object with the specified details.
@@ -74,6 +78,18 @@ public class Booking {
     public String getBookingStatus() { return bookingStatus; }
     public void setBookingStatus(String bookingStatus) { this.bookingStatus = bookingStatus; }
 
+    /**
+     * Returns whether this booking holds its room for its stay, i.e. whether it has not been cancelled.
+     *
+     * @return true if the booking occupies its room
+     */
+    public boolean occupiesRoom() {
+        return !STATUS_CANCELLED.equals(bookingStatus);
+    }
+
     public Guest getGuest() { return guest; }
     public void setGuest(Guest guest) { this.guest = guest; }
+
+    public String getRoomType() { return roomType; }
+    public void setRoomType(String roomType) { this.roomType = roomType; }
 }
@@ -0,0 +1,205 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for occupancy and revenue reports: occupancy rate, ADR (average daily rate) and RevPAR
+ * (revenue per available room) by day and room type.
+ * Reports read the daily rollup maintained by {@code V7__occupancy_rollup.sql} as bookings are written, so a
+ * year-long report reads one row per day and room type rather than every booking. Bookings append their nights
+ * to the deltas of {@code V13__occupancy_deltas.sql} rather than updating the rollup rows, so each report first
+ * folds the deltas into the rollup. Room nights available are the current number of rooms of each type times
+ * the number of days.
+ */
+public class AnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final String ROOM_INVENTORY = "inventory AS (SELECT roomType, count(*) AS rooms FROM Rooms GROUP BY roomType)";
+
+    private static final String DAILY_STATS = "WITH " + ROOM_INVENTORY + ", " +
+            "sold AS (SELECT stay_date, room_type, rooms_sold, revenue FROM occupancy_daily_current " +
+            "WHERE stay_date >= ? AND stay_date < ?) " +
+            "SELECT night::date AS stay_date, i.roomType, i.rooms, coalesce(o.rooms_sold, 0) AS rooms_sold, " +
+            "coalesce(o.revenue, 0) AS revenue " +
+            "FROM generate_series(?::date, ?::date - 1, interval '1 day') AS night CROSS JOIN inventory i " +
+            "LEFT JOIN sold o ON o.stay_date = night::date AND o.room_type = i.roomType " +
+            "ORDER BY stay_date, i.roomType";
+
+    private static final String STATS_BY_ROOM_TYPE = "WITH " + ROOM_INVENTORY + ", " +
+            "sold AS (SELECT room_type, sum(rooms_sold) AS rooms_sold, sum(revenue) AS revenue FROM occupancy_daily_current " +
+            "WHERE stay_date >= ? AND stay_date < ? GROUP BY room_type) " +
+            "SELECT i.roomType, i.rooms, coalesce(s.rooms_sold, 0) AS rooms_sold, coalesce(s.revenue, 0) AS revenue " +
+            "FROM inventory i LEFT JOIN sold s ON s.room_type = i.roomType ORDER BY i.roomType";
+
+    private static final String COMPACT = "SELECT occupancy_compact()";
+
+    private static final String REBUILD = "SELECT occupancy_rebuild()";
+
+    /**
+     * Retrieves the figures of each room type for each day of a range.
+     *
+     * @param fromDate the first day
+     * @param toDate   the day after the last day
+     * @return the figures ordered by day and room type, or an empty list if there was an error
+     */
+    public List<OccupancyStats> getDailyStats(LocalDate fromDate, LocalDate toDate) {
+        List<OccupancyStats> stats = new ArrayList<>();
+        return Metrics.timed("AnalyticsService.getDailyStats", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(DAILY_STATS)) {
+
+                compact(conn);
+                pstmt.setDate(1, Date.valueOf(fromDate));
+                pstmt.setDate(2, Date.valueOf(toDate));
+                pstmt.setDate(3, Date.valueOf(fromDate));
+                pstmt.setDate(4, Date.valueOf(toDate));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        stats.add(new OccupancyStats(
+                                rs.getDate("stay_date").toLocalDate(),
+                                rs.getString("roomType"),
+                                rs.getLong("rooms"),
+                                rs.getLong("rooms_sold"),
+                                rs.getDouble("revenue")
+                        ));
+                    }
+                }
+                op.rows(stats.size());
+            }
+            return stats;
+        }, e -> {
+            logger.error("Error fetching daily occupancy", e);
+            return stats;
+        });
+    }
+
+    /**
+     * Retrieves the figures of each room type over a range of days.
+     *
+     * @param fromDate the first day
+     * @param toDate   the day after the last day
+     * @return the figures ordered by room type, or an empty list if there was an error
+     */
+    public List<OccupancyStats> getStatsByRoomType(LocalDate fromDate, LocalDate toDate) {
+        List<OccupancyStats> stats = new ArrayList<>();
+        long days = Math.max(0, ChronoUnit.DAYS.between(fromDate, toDate));
+        return Metrics.timed("AnalyticsService.getStatsByRoomType", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(STATS_BY_ROOM_TYPE)) {
+
+                compact(conn);
+                pstmt.setDate(1, Date.valueOf(fromDate));
+                pstmt.setDate(2, Date.valueOf(toDate));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        stats.add(new OccupancyStats(
+                                null,
+                                rs.getString("roomType"),
+                                rs.getLong("rooms") * days,
+                                rs.getLong("rooms_sold"),
+                                rs.getDouble("revenue")
+                        ));
+                    }
+                }
+                op.rows(stats.size());
+            }
+            return stats;
+        }, e -> {
+            logger.error("Error fetching occupancy by room type", e);
+            return stats;
+        });
+    }
+
+    /**
+     * Folds the deltas appended by bookings since the last report into the rollup, keeping the deltas a report
+     * adds up small. The report reads the deltas committed after this as well.
+     */
+    private static void compact(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(COMPACT)) {
+            pstmt.execute();
+        }
+    }
+
+    /**
+     * Retrieves the figures of all room types together over a range of days.
+     *
+     * @param fromDate the first day
+     * @param toDate   the day after the last day
+     * @return the figures, or null if there was an error
+     */
+    public OccupancyStats getTotalStats(LocalDate fromDate, LocalDate toDate) {
+        List<OccupancyStats> byRoomType = getStatsByRoomType(fromDate, toDate);
+        if (byRoomType.isEmpty()) {
+            return null;
+        }
+        long available = 0;
+        long sold = 0;
+        double revenue = 0;
+        for (OccupancyStats stats : byRoomType) {
+            available += stats.getRoomNightsAvailable();
+            sold += stats.getRoomNightsSold();
+            revenue += stats.getRevenue();
+        }
+        return new OccupancyStats(null, null, available, sold, revenue);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getDailyStats(LocalDate, LocalDate)}.
+     *
+     * @param fromDate the first day
+     * @param toDate   the day after the last day
+     * @return a future completed with the figures
+     */
+    public CompletableFuture<List<OccupancyStats>> getDailyStatsAsync(LocalDate fromDate, LocalDate toDate) {
+        return DatabaseExecutor.supplyAsync(() -> getDailyStats(fromDate, toDate));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getStatsByRoomType(LocalDate, LocalDate)}.
+     *
+     * @param fromDate the first day
+     * @param toDate   the day after the last day
+     * @return a future completed with the figures
+     */
+    public CompletableFuture<List<OccupancyStats>> getStatsByRoomTypeAsync(LocalDate fromDate, LocalDate toDate) {
+        return DatabaseExecutor.supplyAsync(() -> getStatsByRoomType(fromDate, toDate));
+    }
+
+    /**
+     * Recomputes the daily rollup from the current bookings, repricing every booking at its room's current price.
+     * Only needed if the rollup is suspected to have drifted, e.g. after bookings were changed with triggers disabled.
+     *
+     * @return true if the rollup was rebuilt, false if there was an error
+     */
+    public boolean rebuildRollup() {
+        return Metrics.timed("AnalyticsService.rebuildRollup", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(REBUILD)) {
+                pstmt.execute();
+                logger.info("Rebuilt the occupancy rollup");
+                return true;
+            }
+        }, e -> {
+            logger.error("Error rebuilding the occupancy rollup", e);
+            return false;
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.hotelreservation.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A proposed re-assignment of the future bookings of one room type to other rooms of the same type,
+ * made by {@link RoomAssigner#plan} and written by {@link AssignmentService#applyPlan(AssignmentPlan)}.
+ * The moves only make sense together: taken one by one, a move may go to a room another move is about to vacate.
+ */
+public class AssignmentPlan {
+
+    private final String roomType;
+    private final LocalDate fromDate;
+    private final List<Move> moves;
+    private final int shortGapNightsBefore;
+    private final int shortGapNightsAfter;
+
+    /**
+     * Constructs an AssignmentPlan.
+     *
+     * @param roomType             the room type re-assigned
+     * @param fromDate             the first check-in date of the bookings that may move
+     * @param moves                the bookings to move
+     * @param shortGapNightsBefore unsellable nights between bookings with the current assignment
+     * @param shortGapNightsAfter  unsellable nights between bookings once the moves are applied
+     */
+    public AssignmentPlan(String roomType, LocalDate fromDate, List<Move> moves, int shortGapNightsBefore, int shortGapNightsAfter) {
+        this.roomType = roomType;
+        this.fromDate = fromDate;
+        this.moves = Collections.unmodifiableList(moves);
+        this.shortGapNightsBefore = shortGapNightsBefore;
+        this.shortGapNightsAfter = shortGapNightsAfter;
+    }
+
+    /**
+     * Returns whether the plan moves nothing, because the current assignment cannot be improved.
+     *
+     * @return true if there are no moves
+     */
+    public boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    // Getters
+
+    public String getRoomType() { return roomType; }
+    public LocalDate getFromDate() { return fromDate; }
+    public List<Move> getMoves() { return moves; }
+    public int getShortGapNightsBefore() { return shortGapNightsBefore; }
+    public int getShortGapNightsAfter() { return shortGapNightsAfter; }
+
+    @Override
+    public String toString() {
+        return roomType + " from " + fromDate + ": " + moves.size() + " moves, unsellable gap nights "
+                + shortGapNightsBefore + " -> " + shortGapNightsAfter;
+    }
+
+    /**
+     * One booking moving to another room for the same dates.
+     */
+    public static class Move {
+        private final String bookingId;
+        private final String fromRoomId;
+        private final String toRoomId;
+        private final LocalDate inDate;
+        private final LocalDate outDate;
+
+        /**
+         * Constructs a Move.
+         *
+         * @param bookingId  the booking to move
+         * @param fromRoomId the room it is in now
+         * @param toRoomId   the room it moves to
+         * @param inDate     its check-in date
+         * @param outDate    its check-out date
+         */
+        public Move(String bookingId, String fromRoomId, String toRoomId, LocalDate inDate, LocalDate outDate) {
+            this.bookingId = bookingId;
+            this.fromRoomId = fromRoomId;
+            this.toRoomId = toRoomId;
+            this.inDate = inDate;
+            this.outDate = outDate;
+        }
+
+        // Getters
+
+        public String getBookingId() { return bookingId; }
+        public String getFromRoomId() { return fromRoomId; }
+        public String getToRoomId() { return toRoomId; }
+        public LocalDate getInDate() { return inDate; }
+        public LocalDate getOutDate() { return outDate; }
+
+        @Override
+        public String toString() {
+            return bookingId + ": " + fromRoomId + " -> " + toRoomId + " (" + inDate + " to " + outDate + ")";
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for re-assigning future bookings to rooms so that fewer unsellable gaps are left between them.
+ * {@link #planReassignment(String, LocalDate)} reads the bookings of a room type and lets {@link RoomAssigner}
+ * propose moves; {@link #applyPlan(AssignmentPlan)} writes them in one transaction, or not at all if any of the
+ * bookings changed in the meantime. Guests already in house are never moved.
+ * Requires the room overlap exclusion constraint of {@code V3__booking_exclusion.sql} to be deferrable.
+ */
+public class AssignmentService {
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentService.class);
+
+    private static final String TYPE_BOOKINGS = "SELECT b.bookingId, b.roomId, b.inDate, b.outDate, b.bookingStatus " +
+            "FROM Bookings b JOIN Rooms r ON r.roomId = b.roomId " +
+            "WHERE r.roomType = ? AND b.outDate > ? AND b.bookingStatus IS DISTINCT FROM '" + Booking.STATUS_CANCELLED + "'";
+
+    private static final String BOOKING_MOVE = "UPDATE Bookings SET roomId = ? " +
+            "WHERE bookingId = ? AND roomId = ? AND inDate = ? AND outDate = ? AND bookingStatus IS DISTINCT FROM ?";
+
+    /**
+     * Proposes moves of the bookings of a room type checking in on or after a date that leave fewer unsellable
+     * gaps between bookings. Bookings checking in earlier, including guests in house, stay where they are, and
+     * rooms held for reservations in progress are left alone.
+     *
+     * @param roomType the room type to re-assign
+     * @param fromDate the first check-in date of the bookings that may move; dates before tomorrow are treated as tomorrow
+     * @return the plan, or null if there was an error
+     */
+    public AssignmentPlan planReassignment(String roomType, LocalDate fromDate) {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        LocalDate from = fromDate.isBefore(tomorrow) ? tomorrow : fromDate;
+        List<Booking> bookings = new ArrayList<>();
+
+        return Metrics.timed("AssignmentService.planReassignment", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(TYPE_BOOKINGS)) {
+
+                pstmt.setString(1, roomType);
+                pstmt.setDate(2, Date.valueOf(from));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        bookings.add(new Booking(rs.getString("bookingId"), null, rs.getString("roomId"), null,
+                                rs.getDate("inDate").toLocalDate(), rs.getDate("outDate").toLocalDate(),
+                                null, null, rs.getString("bookingStatus")));
+                    }
+                }
+                op.rows(bookings.size());
+            }
+            long start = System.nanoTime();
+            List<Room> rooms = RoomCatalog.getInstance().getRoomsOfType(roomType);
+            AssignmentPlan plan = RoomAssigner.plan(roomType, from, rooms, bookings, HoldService.getInstance().getActiveHolds());
+            logger.info("Planned re-assignment of {} {} bookings over {} rooms in {} ms: {}", bookings.size(), roomType,
+                    rooms.size(), (System.nanoTime() - start) / 1_000_000, plan);
+            return plan;
+        }, e -> {
+            logger.error("Error reading bookings to re-assign", e);
+            return null;
+        });
+    }
+
+    /**
+     * Moves the bookings of a plan to their new rooms, in one transaction. Nothing is moved if any of the bookings
+     * was changed or cancelled since the plan was made, or if a new booking now occupies one of the target rooms.
+     *
+     * @param plan the plan made by {@link #planReassignment(String, LocalDate)}
+     * @return the number of bookings moved, or -1 if the bookings changed since the plan was made or there was an error
+     */
+    public int applyPlan(AssignmentPlan plan) {
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        Set<String> roomIds = new TreeSet<>();
+        for (AssignmentPlan.Move move : plan.getMoves()) {
+            roomIds.add(move.getFromRoomId());
+            roomIds.add(move.getToRoomId());
+        }
+
+        return Metrics.timed("AssignmentService.applyPlan", op -> {
+            RoomLocks.Held roomLocks = RoomLocks.lock(roomIds);
+            try (roomLocks;
+                 Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement();
+                     PreparedStatement pstmt = conn.prepareStatement(BOOKING_MOVE)) {
+                    // Bookings may trade rooms, so overlaps are only checked once all of them have moved
+                    stmt.execute("SET CONSTRAINTS bookings_room_no_overlap DEFERRED");
+                    for (AssignmentPlan.Move move : plan.getMoves()) {
+                        pstmt.setString(1, move.getToRoomId());
+                        pstmt.setString(2, move.getBookingId());
+                        pstmt.setString(3, move.getFromRoomId());
+                        pstmt.setDate(4, Date.valueOf(move.getInDate()));
+                        pstmt.setDate(5, Date.valueOf(move.getOutDate()));
+                        pstmt.setString(6, Booking.STATUS_CANCELLED);
+                        pstmt.addBatch();
+                    }
+                    for (int count : pstmt.executeBatch()) {
+                        if (count == 0) {
+                            conn.rollback();
+                            logger.info("Bookings of {} changed since the re-assignment was planned; nothing moved", plan.getRoomType());
+                            return -1;
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (BookingService.isRoomTaken(e)) {
+                        logger.info("A room of {} was booked since the re-assignment was planned; nothing moved", plan.getRoomType());
+                        return -1;
+                    }
+                    throw e;
+                }
+
+                for (AssignmentPlan.Move move : plan.getMoves()) {
+                    AvailabilityIndex.getInstance().moveBooking(move.getBookingId(), move.getToRoomId());
+                }
+                op.rows(plan.getMoves().size());
+                logger.info("Moved {} {} bookings; unsellable gap nights {} -> {}", plan.getMoves().size(), plan.getRoomType(),
+                        plan.getShortGapNightsBefore(), plan.getShortGapNightsAfter());
+                return plan.getMoves().size();
+            }
+        }, e -> {
+            logger.error("Error re-assigning bookings", e);
+            return -1;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #planReassignment(String, LocalDate)}, run on the database worker threads.
+     *
+     * @param roomType the room type to re-assign
+     * @param fromDate the first check-in date of the bookings that may move
+     * @return a future completed with the plan, or null if there was an error
+     */
+    public CompletableFuture<AssignmentPlan> planReassignmentAsync(String roomType, LocalDate fromDate) {
+        return DatabaseExecutor.supplyAsync(() -> planReassignment(roomType, fromDate));
+    }
+
+    /**
+     * Asynchronous variant of {@link #applyPlan(AssignmentPlan)}, run on the database worker threads.
+     *
+     * @param plan the plan to apply
+     * @return a future completed with the number of bookings moved, or -1 if nothing was moved because of a change or an error
+     */
+    public CompletableFuture<Integer> applyPlanAsync(AssignmentPlan plan) {
+        return DatabaseExecutor.supplyAsync(() -> applyPlan(plan));
+    }
+}
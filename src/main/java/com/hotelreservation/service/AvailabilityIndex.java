@@ -0,0 +1,528 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory index of which rooms are booked on which nights, used to answer availability searches
+ * without a database round trip.
+ * Each room keeps its booked stays as a sorted interval array over epoch days, with a running maximum of the
+ * check-out days, so "is this room free for [checkIn, checkOut)" is a binary search.
+ * The index is built from the database at start-up and kept current by the booking and room services.
+ */
+public class AvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private static final AvailabilityIndex INSTANCE = new AvailabilityIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Room> roomsById = new HashMap<>();
+    private Map<String, List<Room>> roomsByType = new HashMap<>();
+    private Map<String, RoomIntervals> intervalsByRoom = new HashMap<>();
+    private Map<String, BookedStay> staysByBooking = new HashMap<>();
+    private volatile boolean loaded;
+
+    private boolean loading;
+    private final List<Runnable> changesDuringLoad = new ArrayList<>();
+
+    /**
+     * Returns the shared availability index.
+     *
+     * @return the availability index
+     */
+    public static AvailabilityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns true once the index has been built and can answer availability searches.
+     *
+     * @return true if the index is loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * (Re)builds the index from the Rooms and Bookings tables.
+     * Changes recorded while the tables are being read are replayed on top of the new index.
+     *
+     * @return true if the index was built, false if the database could not be read
+     */
+    public boolean load() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            changesDuringLoad.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Map<String, Room> rooms = new HashMap<>();
+        Map<String, BookedStay> stays = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("SELECT roomId, roomType, roomPrice, availability FROM Rooms")) {
+                while (rs.next()) {
+                    Room room = new Room(
+                            rs.getString("roomId"),
+                            rs.getString("roomType"),
+                            rs.getDouble("roomPrice"),
+                            rs.getBoolean("availability")
+                    );
+                    rooms.put(room.getRoomId(), room);
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT bookingId, roomId, inDate, outDate FROM Bookings " +
+                    "WHERE bookingStatus IS DISTINCT FROM '" + Booking.STATUS_CANCELLED + "'")) {
+                while (rs.next()) {
+                    BookedStay stay = new BookedStay(
+                            rs.getString("roomId"),
+                            rs.getDate("inDate").toLocalDate().toEpochDay(),
+                            rs.getDate("outDate").toLocalDate().toEpochDay()
+                    );
+                    stays.put(rs.getString("bookingId"), stay);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error loading availability index", e);
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                changesDuringLoad.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+
+        Map<String, RoomIntervals> intervals = new HashMap<>();
+        Map<String, List<Map.Entry<String, BookedStay>>> staysByRoom = new HashMap<>();
+        for (Map.Entry<String, BookedStay> entry : stays.entrySet()) {
+            staysByRoom.computeIfAbsent(entry.getValue().roomId, id -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<String, List<Map.Entry<String, BookedStay>>> entry : staysByRoom.entrySet()) {
+            intervals.put(entry.getKey(), RoomIntervals.of(entry.getValue()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            roomsById = rooms;
+            roomsByType = groupByType(rooms);
+            intervalsByRoom = intervals;
+            staysByBooking = stays;
+            loading = false;
+            for (Runnable change : changesDuringLoad) {
+                change.run();
+            }
+            changesDuringLoad.clear();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Availability index loaded: {} rooms, {} bookings in {} ms", rooms.size(), stays.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Finds the rooms of the given type that are open for sale and have no booking overlapping
+     * the half-open stay {@code [checkInDate, checkOutDate)}.
+     *
+     * @param roomType     the type of room to look for
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return copies of the available rooms, ordered by room ID
+     */
+    public List<Room> findAvailableRooms(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        List<Room> available = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Room room : roomsByType.getOrDefault(roomType, Collections.emptyList())) {
+                if (!room.isAvailability()) {
+                    continue;
+                }
+                RoomIntervals intervals = intervalsByRoom.get(room.getRoomId());
+                if (intervals == null || !intervals.overlaps(from, to)) {
+                    available.add(new Room(room.getRoomId(), room.getRoomType(), room.getRoomPrice(), room.isAvailability()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return available;
+    }
+
+    /**
+     * Finds the room of the given type that best fits the half-open stay {@code [checkInDate, checkOutDate)}:
+     * among the rooms that are open for sale and free for the stay, the one whose neighbouring bookings the stay
+     * fits between most snugly, as measured by {@link RoomAssigner}.
+     *
+     * @param roomType     the type of room to look for
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @param excluded     IDs of rooms not to consider, e.g. because they are held
+     * @return a copy of the best fitting room, or null if no room of the type is free for the stay
+     */
+    public Room findBestFitRoom(String roomType, LocalDate checkInDate, LocalDate checkOutDate, Set<String> excluded) {
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        Room best = null;
+        long bestCost = Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            for (Room room : roomsByType.getOrDefault(roomType, Collections.emptyList())) {
+                if (!room.isAvailability() || excluded.contains(room.getRoomId())) {
+                    continue;
+                }
+                RoomIntervals intervals = intervalsByRoom.getOrDefault(room.getRoomId(), RoomIntervals.EMPTY);
+                if (intervals.overlaps(from, to)) {
+                    continue;
+                }
+                long cost = RoomAssigner.fitCost(intervals.gapBefore(from), intervals.gapAfter(to));
+                if (cost < bestCost) {
+                    best = room;
+                    bestCost = cost;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return best != null ? new Room(best.getRoomId(), best.getRoomType(), best.getRoomPrice(), best.isAvailability()) : null;
+    }
+
+    /**
+     * Finds the ways to spread the half-open stay {@code [checkInDate, checkOutDate)} over rooms with the fewest
+     * room changes, for when no single room is free for all of it; see {@link SplitStaySearch}.
+     * Only rooms open for sale are used, and nights held for other reservations count as taken.
+     *
+     * @param roomType          the type of room asked for
+     * @param checkInDate       the check-in date
+     * @param checkOutDate      the check-out date
+     * @param includeOtherTypes whether rooms of other types may be used for some nights, ranked below the
+     *                          asked-for type
+     * @param holds             the active holds
+     * @param limit             the maximum number of plans to return
+     * @return the plans, fewest room changes first, with copies of the rooms; empty if some night has no free room
+     */
+    public List<SplitStay> findSplitStays(String roomType, LocalDate checkInDate, LocalDate checkOutDate,
+                                         boolean includeOtherTypes, List<RoomHold> holds, int limit) {
+        long from = checkInDate.toEpochDay();
+        int nights = (int) (checkOutDate.toEpochDay() - from);
+        if (nights <= 0) {
+            return new ArrayList<>();
+        }
+        List<Room> rooms = new ArrayList<>();
+        List<boolean[]> freeNights = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            // The asked-for type first, so it wins ties
+            List<Room> candidates = new ArrayList<>(roomsByType.getOrDefault(roomType, Collections.emptyList()));
+            if (includeOtherTypes) {
+                for (Map.Entry<String, List<Room>> entry : new TreeMap<>(roomsByType).entrySet()) {
+                    if (!entry.getKey().equals(roomType)) {
+                        candidates.addAll(entry.getValue());
+                    }
+                }
+            }
+            for (Room room : candidates) {
+                if (!room.isAvailability()) {
+                    continue;
+                }
+                boolean[] free = new boolean[nights];
+                Arrays.fill(free, true);
+                intervalsByRoom.getOrDefault(room.getRoomId(), RoomIntervals.EMPTY).markTaken(from, free);
+                rooms.add(new Room(room.getRoomId(), room.getRoomType(), room.getRoomPrice(), room.isAvailability()));
+                freeNights.add(free);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Integer> roomIndexes = new HashMap<>();
+        for (int r = 0; r < rooms.size(); r++) {
+            roomIndexes.put(rooms.get(r).getRoomId(), r);
+        }
+        for (RoomHold hold : holds) {
+            Integer index = roomIndexes.get(hold.getRoomId());
+            if (index != null) {
+                long start = Math.max(hold.getCheckInDate().toEpochDay(), from);
+                long end = Math.min(hold.getCheckOutDate().toEpochDay(), from + nights);
+                Arrays.fill(freeNights.get(index), (int) Math.max(0, start - from), (int) Math.max(0, end - from), false);
+            }
+        }
+        return SplitStaySearch.search(rooms, freeNights.toArray(new boolean[0][]), roomType, checkInDate, limit);
+    }
+
+    /**
+     * Records a created or updated booking. A cancelled booking releases its nights.
+     *
+     * @param booking the booking as stored in the database
+     */
+    public void recordBooking(Booking booking) {
+        String bookingId = booking.getBookingId();
+        BookedStay stay = booking.occupiesRoom() && booking.getRoomId() != null
+                ? new BookedStay(booking.getRoomId(), booking.getInDate().toEpochDay(), booking.getOutDate().toEpochDay())
+                : null;
+        applyChange(() -> {
+            removeStay(bookingId);
+            if (stay != null) {
+                staysByBooking.put(bookingId, stay);
+                intervalsByRoom.merge(stay.roomId, RoomIntervals.EMPTY.with(bookingId, stay),
+                        (existing, ignored) -> existing.with(bookingId, stay));
+            }
+        });
+    }
+
+    /**
+     * Moves a booking to another room for the same nights.
+     *
+     * @param bookingId the ID of the moved booking
+     * @param roomId    the room it moved to
+     */
+    public void moveBooking(String bookingId, String roomId) {
+        applyChange(() -> {
+            BookedStay previous = staysByBooking.get(bookingId);
+            if (previous != null) {
+                removeStay(bookingId);
+                BookedStay stay = new BookedStay(roomId, previous.start, previous.end);
+                staysByBooking.put(bookingId, stay);
+                intervalsByRoom.merge(roomId, RoomIntervals.EMPTY.with(bookingId, stay),
+                        (existing, ignored) -> existing.with(bookingId, stay));
+            }
+        });
+    }
+
+    /**
+     * Removes a booking from the index, releasing its nights.
+     *
+     * @param bookingId the ID of the removed booking
+     */
+    public void removeBooking(String bookingId) {
+        applyChange(() -> removeStay(bookingId));
+    }
+
+    /**
+     * Records a created or updated room.
+     *
+     * @param room the room as stored in the database
+     */
+    public void recordRoom(Room room) {
+        Room copy = new Room(room.getRoomId(), room.getRoomType(), room.getRoomPrice(), room.isAvailability());
+        applyChange(() -> {
+            roomsById.put(copy.getRoomId(), copy);
+            roomsByType = groupByType(roomsById);
+        });
+    }
+
+    /**
+     * Removes a deleted room from the index.
+     *
+     * @param roomId the ID of the deleted room
+     */
+    public void removeRoom(String roomId) {
+        applyChange(() -> {
+            if (roomsById.remove(roomId) != null) {
+                roomsByType = groupByType(roomsById);
+            }
+        });
+    }
+
+    private void applyChange(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                changesDuringLoad.add(change);
+            }
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeStay(String bookingId) {
+        BookedStay previous = staysByBooking.remove(bookingId);
+        if (previous != null) {
+            RoomIntervals intervals = intervalsByRoom.get(previous.roomId);
+            if (intervals != null) {
+                intervalsByRoom.put(previous.roomId, intervals.without(bookingId));
+            }
+        }
+    }
+
+    private static Map<String, List<Room>> groupByType(Map<String, Room> rooms) {
+        Map<String, List<Room>> byType = new HashMap<>();
+        for (Room room : new TreeMap<>(rooms).values()) {
+            byType.computeIfAbsent(room.getRoomType(), type -> new ArrayList<>()).add(room);
+        }
+        return byType;
+    }
+
+    /**
+     * The nights [start, end) of one booking, as epoch days, in one room.
+     */
+    private static final class BookedStay {
+        private final String roomId;
+        private final long start;
+        private final long end;
+
+        private BookedStay(String roomId, long start, long end) {
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Immutable sorted interval array for one room.
+     * {@code maxEnds[i]} is the latest check-out among the first {@code i + 1} stays, so any stay overlapping
+     * {@code [from, to)} exists exactly when the stays starting before {@code to} reach past {@code from}.
+     */
+    private static final class RoomIntervals {
+        private static final RoomIntervals EMPTY = new RoomIntervals(new long[0], new long[0], new String[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+        private final String[] bookingIds;
+
+        private RoomIntervals(long[] starts, long[] ends, String[] bookingIds) {
+            this.starts = starts;
+            this.ends = ends;
+            this.bookingIds = bookingIds;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        private static RoomIntervals of(List<Map.Entry<String, BookedStay>> stays) {
+            stays.sort((a, b) -> Long.compare(a.getValue().start, b.getValue().start));
+            long[] starts = new long[stays.size()];
+            long[] ends = new long[stays.size()];
+            String[] ids = new String[stays.size()];
+            for (int i = 0; i < stays.size(); i++) {
+                starts[i] = stays.get(i).getValue().start;
+                ends[i] = stays.get(i).getValue().end;
+                ids[i] = stays.get(i).getKey();
+            }
+            return new RoomIntervals(starts, ends, ids);
+        }
+
+        private boolean overlaps(long from, long to) {
+            int startingBefore = countStartsBefore(to);
+            return startingBefore > 0 && maxEnds[startingBefore - 1] > from;
+        }
+
+        /**
+         * Returns the free nights between the last stay starting before {@code from} and {@code from},
+         * or {@link Long#MAX_VALUE} if no stay starts before it.
+         */
+        private long gapBefore(long from) {
+            int startingBefore = countStartsBefore(from);
+            return startingBefore > 0 ? from - maxEnds[startingBefore - 1] : Long.MAX_VALUE;
+        }
+
+        /**
+         * Returns the free nights between {@code to} and the first stay starting on or after it,
+         * or {@link Long#MAX_VALUE} if there is none.
+         */
+        private long gapAfter(long to) {
+            int startingBefore = countStartsBefore(to);
+            return startingBefore < starts.length ? starts[startingBefore] - to : Long.MAX_VALUE;
+        }
+
+        /**
+         * Clears the nights in {@code free}, which start on day {@code from}, that a stay in this room covers.
+         */
+        private void markTaken(long from, boolean[] free) {
+            long to = from + free.length;
+            for (int i = countStartsBefore(to) - 1; i >= 0 && maxEnds[i] > from; i--) {
+                long start = Math.max(starts[i], from);
+                long end = Math.min(ends[i], to);
+                if (start < end) {
+                    Arrays.fill(free, (int) (start - from), (int) (end - from), false);
+                }
+            }
+        }
+
+        private int countStartsBefore(long day) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private RoomIntervals with(String bookingId, BookedStay stay) {
+            int at = countStartsBefore(stay.start);
+            int length = starts.length;
+            long[] newStarts = Arrays.copyOf(starts, length + 1);
+            long[] newEnds = Arrays.copyOf(ends, length + 1);
+            String[] newIds = Arrays.copyOf(bookingIds, length + 1);
+            System.arraycopy(starts, at, newStarts, at + 1, length - at);
+            System.arraycopy(ends, at, newEnds, at + 1, length - at);
+            System.arraycopy(bookingIds, at, newIds, at + 1, length - at);
+            newStarts[at] = stay.start;
+            newEnds[at] = stay.end;
+            newIds[at] = bookingId;
+            return new RoomIntervals(newStarts, newEnds, newIds);
+        }
+
+        private RoomIntervals without(String bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i].equals(bookingId)) {
+                    int length = starts.length;
+                    long[] newStarts = new long[length - 1];
+                    long[] newEnds = new long[length - 1];
+                    String[] newIds = new String[length - 1];
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(bookingIds, 0, newIds, 0, i);
+                    System.arraycopy(starts, i + 1, newStarts, i, length - i - 1);
+                    System.arraycopy(ends, i + 1, newEnds, i, length - i - 1);
+                    System.arraycopy(bookingIds, i + 1, newIds, i, length - i - 1);
+                    return new RoomIntervals(newStarts, newEnds, newIds);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link BookingService#createBookings(List)}.
+ * The batch is all-or-nothing: either every booking was created, or none was and each row says why.
+ */
+public class BatchBookingResult {
+
+    /**
+     * What happened to one booking of the batch.
+     */
+    public enum Status {
+        /** The booking was created. */
+        CREATED,
+        /** The booking was rejected before anything was written, e.g. missing room or invalid dates. */
+        INVALID,
+        /** The booking's room is already booked for overlapping dates, which rolled back the whole batch. */
+        ROOM_TAKEN,
+        /** Writing this booking failed, which rolled back the whole batch. */
+        FAILED,
+        /** The booking was valid, but the batch was rolled back because another row failed. */
+        ROLLED_BACK
+    }
+
+    /**
+     * The result for one booking of the batch, in the order the bookings were submitted.
+     */
+    public static class RowResult {
+        private final Booking booking;
+        private final Status status;
+        private final String message;
+
+        /**
+         * Constructs a RowResult.
+         *
+         * @param booking the submitted booking
+         * @param status  what happened to it
+         * @param message a human-readable reason when the booking was not created, otherwise null
+         */
+        public RowResult(Booking booking, Status status, String message) {
+            this.booking = booking;
+            this.status = status;
+            this.message = message;
+        }
+
+        // Getters
+
+        public Booking getBooking() { return booking; }
+        public Status getStatus() { return status; }
+        public String getMessage() { return message; }
+    }
+
+    private final boolean committed;
+    private final List<RowResult> rows;
+
+    /**
+     * Constructs a BatchBookingResult.
+     *
+     * @param committed true if all bookings were created
+     * @param rows      the per-booking results, in submission order
+     */
+    public BatchBookingResult(boolean committed, List<RowResult> rows) {
+        this.committed = committed;
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    // Getters
+
+    public boolean isCommitted() { return committed; }
+    public List<RowResult> getRows() { return rows; }
+
+    /**
+     * Returns the reason of the first row that caused the batch to fail.
+     *
+     * @return the failure message, or null if the batch was committed
+     */
+    public String getFailureMessage() {
+        for (RowResult row : rows) {
+            if (row.getStatus() != Status.CREATED && row.getStatus() != Status.ROLLED_BACK) {
+                return row.getMessage();
+            }
+        }
+        return committed ? null : "The bookings could not be saved.";
+    }
+}
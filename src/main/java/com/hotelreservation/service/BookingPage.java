@@ -0,0 +1,43 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+
+import java.util.List;
+
+/**
+ * One page of bookings returned by {@link BookingService#getBookingsPage(BookingQuery, Booking, int)}.
+ */
+public class BookingPage {
+
+    private final List<Booking> bookings;
+    private final boolean hasMore;
+    private final long syncVersion;
+
+    /**
+     * Constructs a BookingPage with the specified bookings.
+     *
+     * @param bookings    the bookings on this page, in query order
+     * @param hasMore     true if further bookings follow the last one on this page
+     * @param syncVersion for a first page, the version to request later changes from; negative if not available
+     */
+    public BookingPage(List<Booking> bookings, boolean hasMore, long syncVersion) {
+        this.bookings = bookings;
+        this.hasMore = hasMore;
+        this.syncVersion = syncVersion;
+    }
+
+    // Getters
+
+    public List<Booking> getBookings() { return bookings; }
+    public boolean hasMore() { return hasMore; }
+    public long getSyncVersion() { return syncVersion; }
+
+    /**
+     * Returns the last booking on this page, which is the key for requesting the next page.
+     *
+     * @return the last booking, or null if the page is empty
+     */
+    public Booking getLastBooking() {
+        return bookings.isEmpty() ? null : bookings.get(bookings.size() - 1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+
+import java.time.LocalDate;
+
+/**
+ * Filter and sort order for listing bookings page by page.
+ * Bookings are ordered by check-in date and then booking ID, which is also the key used to continue from one page to the next.
+ */
+public class BookingQuery {
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final boolean descending;
+
+    /**
+     * Constructs a BookingQuery with the specified date range and sort order.
+     *
+     * @param fromDate   only bookings whose stay ends after this date are listed (null for no lower bound)
+     * @param toDate     only bookings whose stay starts before this date are listed (null for no upper bound)
+     * @param descending true to list the latest check-in dates first
+     */
+    public BookingQuery(LocalDate fromDate, LocalDate toDate, boolean descending) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns a query for all bookings in ascending check-in order.
+     *
+     * @return the unfiltered query
+     */
+    public static BookingQuery all() {
+        return new BookingQuery(null, null, false);
+    }
+
+    /**
+     * Returns whether a booking passes the date range filter of this query.
+     *
+     * @param booking the booking to check
+     * @return true if the booking would be listed by this query
+     */
+    public boolean matches(Booking booking) {
+        return (fromDate == null || booking.getOutDate().isAfter(fromDate))
+                && (toDate == null || booking.getInDate().isBefore(toDate));
+    }
+
+    /**
+     * Compares two bookings in the order this query lists them.
+     *
+     * @param a the first booking
+     * @param b the second booking
+     * @return a negative number if {@code a} is listed before {@code b}, zero if they are the same key, positive otherwise
+     */
+    public int compare(Booking a, Booking b) {
+        int order = a.getInDate().compareTo(b.getInDate());
+        if (order == 0) {
+            order = a.getBookingId().compareTo(b.getBookingId());
+        }
+        return descending ? -order : order;
+    }
+
+    // Getters
+
+    public LocalDate getFromDate() { return fromDate; }
+    public LocalDate getToDate() { return toDate; }
+    public boolean isDescending() { return descending; }
+}
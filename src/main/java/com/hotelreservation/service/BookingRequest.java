@@ -0,0 +1,30 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+
+/**
+ * One booking to create together with the guest it belongs to, as submitted to
+ * {@link BookingService#createBookings(java.util.List)}.
+ */
+public class BookingRequest {
+
+    private final Booking booking;
+    private final Guest guest;
+
+    /**
+     * Constructs a BookingRequest for the specified booking and guest.
+     *
+     * @param booking the booking to create
+     * @param guest   the guest associated with the booking; created if it does not exist yet
+     */
+    public BookingRequest(Booking booking, Guest guest) {
+        this.booking = booking;
+        this.guest = guest;
+    }
+
+    // Getters
+
+    public Booking getBooking() { return booking; }
+    public Guest getGuest() { return guest; }
+}
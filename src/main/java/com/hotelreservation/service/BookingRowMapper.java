@@ -0,0 +1,104 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.util.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps rows of the booking list query ({@code BOOKING_LIST_SELECT} in {@link BookingService}) to bookings with their
+ * guests and room types. Column indexes are resolved on the first row.
+ * When guests are shared, a guest appearing on several bookings of the result is materialized once; streaming
+ * callers turn sharing off so memory does not grow with the number of rows.
+ */
+class BookingRowMapper implements RowMapper<Booking> {
+
+    private final Map<String, Guest> guestsById;
+    private boolean resolved;
+    private int bookingId;
+    private int guestId;
+    private int roomId;
+    private int voucherNumber;
+    private int inDate;
+    private int outDate;
+    private int specialPreference;
+    private int paymentStatus;
+    private int bookingStatus;
+    private int roomType;
+    private int joinedGuestId;
+    private int firstName;
+    private int lastName;
+    private int middleName;
+    private int contactNumber;
+
+    /**
+     * Constructs a BookingRowMapper for one result set.
+     *
+     * @param shareGuests true to map each guest of the result only once
+     */
+    BookingRowMapper(boolean shareGuests) {
+        this.guestsById = shareGuests ? new HashMap<>() : null;
+    }
+
+    @Override
+    public Booking map(ResultSet rs) throws SQLException {
+        if (!resolved) {
+            resolve(rs);
+        }
+        Booking booking = new Booking(
+                rs.getString(bookingId),
+                rs.getString(guestId),
+                rs.getString(roomId),
+                rs.getString(voucherNumber),
+                rs.getDate(inDate).toLocalDate(),
+                rs.getDate(outDate).toLocalDate(),
+                rs.getString(specialPreference),
+                rs.getString(paymentStatus),
+                rs.getString(bookingStatus)
+        );
+        booking.setRoomType(rs.getString(roomType));
+
+        String joinedId = rs.getString(joinedGuestId);
+        if (joinedId != null) {
+            Guest guest = guestsById != null ? guestsById.get(joinedId) : null;
+            if (guest == null) {
+                guest = new Guest(
+                        joinedId,
+                        rs.getString(firstName),
+                        rs.getString(lastName),
+                        rs.getString(middleName),
+                        null, // Passwords are never needed for listing bookings
+                        rs.getString(contactNumber)
+                );
+                if (guestsById != null) {
+                    guestsById.put(joinedId, guest);
+                }
+            }
+            booking.setGuest(guest);
+        }
+        return booking;
+    }
+
+    private void resolve(ResultSet rs) throws SQLException {
+        bookingId = rs.findColumn("bookingId");
+        guestId = rs.findColumn("guestId");
+        roomId = rs.findColumn("roomId");
+        voucherNumber = rs.findColumn("voucherNumber");
+        inDate = rs.findColumn("inDate");
+        outDate = rs.findColumn("outDate");
+        specialPreference = rs.findColumn("specialPreference");
+        paymentStatus = rs.findColumn("paymentStatus");
+        bookingStatus = rs.findColumn("bookingStatus");
+        roomType = rs.findColumn("roomType");
+        joinedGuestId = rs.findColumn("joinedGuestId");
+        firstName = rs.findColumn("firstName");
+        lastName = rs.findColumn("lastName");
+        middleName = rs.findColumn("middleName");
+        contactNumber = rs.findColumn("contactNumber");
+        resolved = true;
+    }
+}
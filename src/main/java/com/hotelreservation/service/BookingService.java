@@ -3,10 +3,26 @@ package com.hotelreservation.service;
 import com.hotelreservation.model.Booking;
 import com.hotelreservation.model.Guest;
 import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.QueryCancellation;
+import com.hotelreservation.util.StatementRegistry;
+import com.hotelreservation.util.StreamingQuery;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +35,52 @@ public class BookingService {
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
     private GuestService guestService;
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final String BOOKING_LIST_COLUMNS =
+            "b.bookingId, b.guestId, b.roomId, b.voucherNumber, b.inDate, b.outDate, " +
+            "b.specialPreference, b.paymentStatus, b.bookingStatus, " +
+            "g.guestId AS joinedGuestId, g.firstName, g.lastName, g.middleName, g.contactNumber, r.roomType";
+
+    private static final String BOOKING_LIST_FROM =
+            "FROM Bookings b " +
+            "LEFT JOIN Guests g ON b.guestId = g.guestId " +
+            "LEFT JOIN Rooms r ON b.roomId = r.roomId";
+
+    private static final String BOOKING_LIST_SELECT = "SELECT " + BOOKING_LIST_COLUMNS + " " + BOOKING_LIST_FROM;
+
+    // Bookings changed since a version, and bookings whose guest changed since then; each branch walks its own
+    // row_xid index, which an OR across the join could not
+    private static final NamedStatement BOOKING_CHANGES = StatementRegistry.register("booking.changesSince",
+            BOOKING_LIST_SELECT + " WHERE b.row_xid >= ? " +
+            "UNION " +
+            "SELECT " + BOOKING_LIST_COLUMNS + " FROM Guests g " +
+            "JOIN Bookings b ON b.guestId = g.guestId " +
+            "LEFT JOIN Rooms r ON b.roomId = r.roomId " +
+            "WHERE g.row_xid >= ?");
+
+    private static final String BOOKING_STREAM_SELECT = BOOKING_LIST_SELECT + " ORDER BY b.inDate, b.bookingId";
+
+    private static final NamedStatement GUEST_UPSERT = StatementRegistry.register("guest.upsert",
+            "INSERT INTO Guests (guestId, firstName, lastName, middleName, password, contactNumber) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (guestId) DO NOTHING");
+
+    // Writes the booking only if the room is free for the stay, in a single statement
+    private static final NamedStatement BOOKING_RESERVE = StatementRegistry.register("booking.reserve",
+            "INSERT INTO Bookings (bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus) " +
+            "SELECT ?, ?, ?, ?, CAST(? AS date), CAST(? AS date), ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Bookings WHERE roomId = ? AND inDate < CAST(? AS date) AND outDate > CAST(? AS date) " +
+            "AND bookingStatus IS DISTINCT FROM 'Cancelled')");
+
+    private static final NamedStatement BOOKING_WITH_GUEST_INFO = StatementRegistry.register("booking.withGuestInfo",
+            "SELECT b.bookingId, b.guestId, b.roomId, b.voucherNumber, b.inDate, b.outDate, " +
+            "b.specialPreference, b.paymentStatus, b.bookingStatus, " +
+            "g.firstName, g.lastName, g.middleName, g.contactNumber, r.roomType " +
+            "FROM Bookings b " +
+            "JOIN Guests g ON b.guestId = g.guestId " +
+            "LEFT JOIN Rooms r ON b.roomId = r.roomId " +
+            "WHERE b.bookingId = ?");
+
     /**
      * Constructs a BookingService with a new GuestService instance.
      */
@@ -27,37 +89,235 @@ public class BookingService {
     }
 
     /**
-     * Retrieves all bookings from the database.
+     * Retrieves all bookings from the database together with their guests and room types.
+     * Bookings, guests and rooms are fetched in a single joined query, and a guest shared by several bookings
+     * is materialized only once.
      *
      * @return a list of all bookings
      */
     public List<Booking> getAllBookings() {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM Bookings";
+        BookingRowMapper mapper = new BookingRowMapper(true);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        return Metrics.timed("BookingService.getAllBookings", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(BOOKING_LIST_SELECT)) {
 
-            while (rs.next()) {
-                Booking booking = new Booking(
-                        rs.getString("bookingId"),
-                        rs.getString("guestId"),
-                        rs.getString("roomId"),
-                        rs.getString("voucherNumber"),
-                        rs.getDate("inDate").toLocalDate(),
-                        rs.getDate("outDate").toLocalDate(),
-                        rs.getString("specialPreference"),
-                        rs.getString("paymentStatus"),
-                        rs.getString("bookingStatus")
-                );
-                bookings.add(booking);
+                while (rs.next()) {
+                    bookings.add(mapper.map(rs));
+                }
+                op.rows(bookings.size());
             }
-        } catch (SQLException e) {
+            return bookings;
+        }, e -> {
             logger.error("Error fetching all bookings", e);
+            return bookings;
+        });
+    }
+
+    /**
+     * Passes every booking, with its guest and room type, to an action as the rows are read, in check-in order.
+     * Rows are fetched in chunks of {@link StreamingQuery#getFetchSize()} and each guest is mapped per booking,
+     * so memory use does not depend on the number of bookings; intended for exports and bulk processing.
+     *
+     * @param action the action to apply to each booking
+     * @return the number of bookings read, or -1 if they could not be read completely
+     */
+    public long forEachBooking(Consumer<? super Booking> action) {
+        return Metrics.timed("BookingService.forEachBooking", op -> {
+            long count = StreamingQuery.forEach(BOOKING_STREAM_SELECT, new BookingRowMapper(false), action);
+            op.rows(count);
+            return count;
+        }, e -> {
+            logger.error("Error streaming bookings", e);
+            return -1L;
+        });
+    }
+
+    /**
+     * Returns every booking, with its guest and room type, as a lazily read stream in check-in order.
+     * The stream holds a database connection until it is closed, so use it in a try-with-resources block.
+     *
+     * @return the stream of bookings
+     * @throws SQLException if the query cannot be started
+     * @see StreamingQuery#stream(String, com.hotelreservation.util.RowMapper)
+     */
+    public Stream<Booking> streamAllBookings() throws SQLException {
+        return StreamingQuery.stream(BOOKING_STREAM_SELECT, new BookingRowMapper(false));
+    }
+
+    /**
+     * Retrieves one page of bookings, with their guests and room types, using keyset pagination.
+     * Bookings are ordered by (inDate, bookingId); the next page starts strictly after the given booking,
+     * so the cost of a page does not grow with how far the user has scrolled.
+     * The first page also carries the sync version to pass to {@link #getBookingChangesSince(long)} later.
+     *
+     * @param query the date range filter and sort order
+     * @param after the last booking of the previous page, or null for the first page
+     * @param limit the maximum number of bookings on the page
+     * @return the page of bookings
+     */
+    public BookingPage getBookingsPage(BookingQuery query, Booking after, int limit) {
+        List<Booking> bookings = new ArrayList<>();
+        BookingRowMapper mapper = new BookingRowMapper(true);
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(BOOKING_LIST_SELECT).append(" WHERE TRUE");
+
+        if (query.getFromDate() != null) {
+            sql.append(" AND b.outDate > ?");
+            params.add(Date.valueOf(query.getFromDate()));
+        }
+        if (query.getToDate() != null) {
+            sql.append(" AND b.inDate < ?");
+            params.add(Date.valueOf(query.getToDate()));
         }
+        if (after != null) {
+            sql.append(query.isDescending() ? " AND (b.inDate, b.bookingId) < (?, ?)" : " AND (b.inDate, b.bookingId) > (?, ?)");
+            params.add(Date.valueOf(after.getInDate()));
+            params.add(after.getBookingId());
+        }
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        sql.append(" ORDER BY b.inDate ").append(direction).append(", b.bookingId ").append(direction).append(" LIMIT ?");
+        params.add(limit + 1);
+
+        return Metrics.timed("BookingService.getBookingsPage", op -> {
+            long syncVersion = RowVersions.UNAVAILABLE;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+                if (after == null) {
+                    syncVersion = RowVersions.current(conn);
+                }
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
 
-        return bookings;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        bookings.add(mapper.map(rs));
+                    }
+                }
+                op.rows(bookings.size());
+            }
+            boolean hasMore = bookings.size() > limit;
+            if (hasMore) {
+                bookings.remove(bookings.size() - 1);
+            }
+            return new BookingPage(bookings, hasMore, syncVersion);
+        }, e -> {
+            logger.error("Error fetching bookings page", e);
+            return new BookingPage(new ArrayList<>(), false, RowVersions.UNAVAILABLE);
+        });
+    }
+
+    /**
+     * Retrieves the bookings created, updated or deleted since a sync version, using the transaction IDs of
+     * {@code V11__sync_watermark.sql}. A booking also counts as changed when its guest changed, since the guest's name
+     * is shown with it. The cost is proportional to the number of changes rather than the number of bookings.
+     * Changes of a transaction still running at the previous sync are returned again.
+     *
+     * @param version the version returned by the previous sync, or by the first page of {@link #getBookingsPage}
+     * @return the changed bookings with their guests and room types, the IDs of deleted bookings and the next
+     *         version, an expired change set if the version predates purged tombstones, or null if the changes
+     *         cannot be read
+     */
+    public ChangeSet<Booking> getBookingChangesSince(long version) {
+        List<Booking> changed = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        BookingRowMapper mapper = new BookingRowMapper(true);
+
+        return Metrics.timed("BookingService.getBookingChangesSince", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(BOOKING_CHANGES.getSql())) {
+
+                long latest = RowVersions.next(conn);
+                pstmt.setLong(1, version);
+                pstmt.setLong(2, version);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapper.map(rs));
+                    }
+                }
+                RowVersions.readDeletedSince(conn, "bookings", version, removedIds);
+                if (RowVersions.isPurgedSince(conn, version)) {
+                    logger.info("Booking sync version {} predates purged tombstones; a full reload is needed", version);
+                    return ChangeSet.<Booking>expired();
+                }
+
+                logger.debug("Booking changes since version {}: {} changed, {} removed", version, changed.size(), removedIds.size());
+                op.rows(changed.size() + removedIds.size());
+                return new ChangeSet<>(changed, removedIds, latest);
+            }
+        }, e -> {
+            logger.error("Error fetching booking changes", e);
+            return null;
+        });
+    }
+
+    /**
+     * Searches all bookings in the database for a term, case-insensitively, in the booking ID, the guest's full name,
+     * the room ID and the voucher number, and returns the best matches.
+     * Matching uses substring LIKE predicates served by the trigram indexes in {@code V2__booking_search.sql};
+     * matches are ranked by trigram similarity and then by most recent check-in.
+     *
+     * @param searchTerm the term to search for
+     * @param limit      the maximum number of bookings to return
+     * @return the top matching bookings with their guests and room types
+     */
+    public List<Booking> searchBookings(String searchTerm, int limit) {
+        return searchBookings(searchTerm, limit, new QueryCancellation());
+    }
+
+    private List<Booking> searchBookings(String searchTerm, int limit, QueryCancellation cancellation) {
+        List<Booking> bookings = new ArrayList<>();
+        BookingRowMapper mapper = new BookingRowMapper(true);
+        String term = searchTerm.toLowerCase();
+        String pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        String fullName = "lower(guest_full_name(g.firstName, g.middleName, g.lastName))";
+        String sql = "WITH matches AS (" +
+                "SELECT bookingId FROM Bookings WHERE lower(bookingId) LIKE ? " +
+                "UNION SELECT bookingId FROM Bookings WHERE lower(roomId) LIKE ? " +
+                "UNION SELECT bookingId FROM Bookings WHERE lower(voucherNumber) LIKE ? " +
+                "UNION SELECT b.bookingId FROM Guests g JOIN Bookings b ON b.guestId = g.guestId " +
+                "WHERE " + fullName + " LIKE ?) " +
+                BOOKING_LIST_SELECT + " WHERE b.bookingId IN (SELECT bookingId FROM matches) " +
+                "ORDER BY GREATEST(similarity(lower(b.bookingId), ?), similarity(lower(b.roomId), ?), " +
+                "similarity(coalesce(lower(b.voucherNumber), ''), ?), similarity(coalesce(" + fullName + ", ''), ?)) DESC, " +
+                "b.inDate DESC, b.bookingId DESC LIMIT ?";
+
+        return Metrics.timed("BookingService.searchBookings", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                for (int i = 1; i <= 4; i++) {
+                    pstmt.setString(i, pattern);
+                }
+                for (int i = 5; i <= 8; i++) {
+                    pstmt.setString(i, term);
+                }
+                pstmt.setInt(9, limit);
+                pstmt.setQueryTimeout(10);
+
+                cancellation.register(pstmt);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        bookings.add(mapper.map(rs));
+                    }
+                }
+                op.rows(bookings.size());
+            } catch (SQLException e) {
+                // A cancelled search was replaced by a newer one and does not count as failed
+                if (!cancellation.isCancelled()) {
+                    throw e;
+                }
+                logger.debug("Booking search for '{}' was cancelled", searchTerm);
+            }
+            return bookings;
+        }, e -> {
+            logger.error("Error searching bookings", e);
+            return bookings;
+        });
     }
 
     /**
@@ -66,36 +326,328 @@ public class BookingService {
      * @param booking the booking to create
      * @param guest   the guest associated with the booking
      * @return true if the booking was created successfully, false otherwise
+     * @see #reserveRoom(Booking, Guest)
      */
     public boolean createBooking(Booking booking, Guest guest) {
-        // Create or update the guest
-        if (guestService.getGuestById(guest.getGuestId()) == null) {
-            if (!guestService.createGuest(guest)) {
-                return false;
-            }
+        return reserveRoom(booking, guest) == ReservationResult.CREATED;
+    }
+
+    /**
+     * Books a room for a guest, unless the room is already booked for overlapping dates.
+     * The guest is created if needed (a guest without an ID gets a generated one) and the booking is inserted
+     * in one transaction. Within this process, bookings of the same room are serialized by {@link RoomLocks}
+     * and the insert only writes a row if no overlapping booking exists; across processes, the
+     * {@code bookings_room_no_overlap} exclusion constraint rejects the loser of a race.
+     *
+     * @param booking the booking to create
+     * @param guest   the guest associated with the booking
+     * @return CREATED, ROOM_TAKEN if the stay overlaps an existing booking of the room, or FAILED on errors
+     */
+    public ReservationResult reserveRoom(Booking booking, Guest guest) {
+        if (guest.getGuestId() == null) {
+            guest.setGuestId(UUID.randomUUID().toString());
         }
+        booking.setGuestId(guest.getGuestId());
 
-        String sql = "INSERT INTO Bookings (bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        RoomLocks.Held roomLocks = RoomLocks.lock(Collections.singletonList(booking.getRoomId()));
+        return Metrics.timed("BookingService.reserveRoom", op -> {
+            try (roomLocks;
+                 Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement guestStmt = conn.prepareStatement(GUEST_UPSERT.getSql());
+                     PreparedStatement bookingStmt = conn.prepareStatement(BOOKING_RESERVE.getSql())) {
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, booking.getBookingId());
-            pstmt.setString(2, guest.getGuestId());
-            pstmt.setString(3, booking.getRoomId());
-            pstmt.setString(4, booking.getVoucherNumber());
-            pstmt.setDate(5, Date.valueOf(booking.getInDate()));
-            pstmt.setDate(6, Date.valueOf(booking.getOutDate()));
-            pstmt.setString(7, booking.getSpecialPreference());
-            pstmt.setString(8, booking.getPaymentStatus());
-            pstmt.setString(9, booking.getBookingStatus());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+                    guestStmt.setString(1, guest.getGuestId());
+                    guestStmt.setString(2, guest.getFirstName());
+                    guestStmt.setString(3, guest.getLastName());
+                    guestStmt.setString(4, guest.getMiddleName());
+                    guestStmt.setString(5, guest.getPassword());
+                    guestStmt.setString(6, guest.getContactNumber());
+                    guestStmt.executeUpdate();
+
+                    bookingStmt.setString(1, booking.getBookingId());
+                    bookingStmt.setString(2, guest.getGuestId());
+                    bookingStmt.setString(3, booking.getRoomId());
+                    bookingStmt.setString(4, booking.getVoucherNumber());
+                    bookingStmt.setDate(5, Date.valueOf(booking.getInDate()));
+                    bookingStmt.setDate(6, Date.valueOf(booking.getOutDate()));
+                    bookingStmt.setString(7, booking.getSpecialPreference());
+                    bookingStmt.setString(8, booking.getPaymentStatus());
+                    bookingStmt.setString(9, booking.getBookingStatus());
+                    bookingStmt.setString(10, booking.getRoomId());
+                    bookingStmt.setDate(11, Date.valueOf(booking.getOutDate()));
+                    bookingStmt.setDate(12, Date.valueOf(booking.getInDate()));
+
+                    if (bookingStmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        logger.info("Room {} is already booked between {} and {}", booking.getRoomId(), booking.getInDate(), booking.getOutDate());
+                        return ReservationResult.ROOM_TAKEN;
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (isRoomTaken(e)) {
+                        logger.info("Room {} was booked concurrently between {} and {}", booking.getRoomId(), booking.getInDate(), booking.getOutDate());
+                        return ReservationResult.ROOM_TAKEN;
+                    }
+                    throw e;
+                }
+
+                op.rows(1);
+                booking.setGuest(guest);
+                AvailabilityIndex.getInstance().recordBooking(booking);
+                return ReservationResult.CREATED;
+            }
+        }, e -> {
             logger.error("Error creating booking", e);
-            return false;
+            return ReservationResult.FAILED;
+        });
+    }
+
+    /**
+     * Returns whether a failed write was rejected by the room overlap exclusion constraint.
+     */
+    static boolean isRoomTaken(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (EXCLUSION_VIOLATION.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates several bookings at once, e.g. for a tour group, in a single transaction.
+     * Guests that do not exist yet are created (guests without an ID get a generated one), and all bookings are
+     * inserted using JDBC batches, so a group costs a handful of round trips instead of several per booking.
+     * The outcome is all-or-nothing: if any booking is invalid, its room is already taken for overlapping dates,
+     * or it cannot be written, nothing is saved.
+     *
+     * @param requests the bookings to create, each with its guest
+     * @return the overall outcome and one result per request, in the same order
+     */
+    public BatchBookingResult createBookings(List<BookingRequest> requests) {
+        List<BatchBookingResult.RowResult> rows = new ArrayList<>();
+        boolean valid = true;
+        for (BookingRequest request : requests) {
+            String problem = validate(request.getBooking());
+            rows.add(new BatchBookingResult.RowResult(request.getBooking(),
+                    problem == null ? BatchBookingResult.Status.CREATED : BatchBookingResult.Status.INVALID, problem));
+            valid &= problem == null;
+        }
+        for (int i = 0; valid && i < requests.size(); i++) {
+            Booking booking = requests.get(i).getBooking();
+            for (int j = 0; j < i; j++) {
+                Booking other = requests.get(j).getBooking();
+                if (booking.getRoomId().equals(other.getRoomId())
+                        && booking.getInDate().isBefore(other.getOutDate()) && other.getInDate().isBefore(booking.getOutDate())) {
+                    rows.set(i, new BatchBookingResult.RowResult(booking, BatchBookingResult.Status.INVALID,
+                            "Room " + booking.getRoomId() + " is booked twice for overlapping dates in this group."));
+                    valid = false;
+                    break;
+                }
+            }
+        }
+        if (!valid || requests.isEmpty()) {
+            return new BatchBookingResult(false, markRolledBack(rows));
+        }
+
+        Map<String, Guest> guests = new LinkedHashMap<>();
+        for (BookingRequest request : requests) {
+            Guest guest = request.getGuest();
+            if (guest.getGuestId() == null) {
+                guest.setGuestId(UUID.randomUUID().toString());
+            }
+            request.getBooking().setGuestId(guest.getGuestId());
+            guests.putIfAbsent(guest.getGuestId(), guest);
+        }
+
+        String bookingSql = "INSERT INTO Bookings (bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        List<String> roomIds = new ArrayList<>();
+        for (BookingRequest request : requests) {
+            roomIds.add(request.getBooking().getRoomId());
+        }
+
+        return Metrics.timed("BookingService.createBookings", op -> {
+            RoomLocks.Held roomLocks = RoomLocks.lock(roomIds);
+            try (roomLocks;
+                 Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                int failedRow = -1;
+                try (PreparedStatement guestStmt = conn.prepareStatement(GUEST_UPSERT.getSql());
+                     PreparedStatement bookingStmt = conn.prepareStatement(bookingSql)) {
+
+                    if (markTakenRooms(conn, requests, rows)) {
+                        conn.rollback();
+                        return new BatchBookingResult(false, markRolledBack(rows));
+                    }
+
+                    for (Guest guest : guests.values()) {
+                        guestStmt.setString(1, guest.getGuestId());
+                        guestStmt.setString(2, guest.getFirstName());
+                        guestStmt.setString(3, guest.getLastName());
+                        guestStmt.setString(4, guest.getMiddleName());
+                        guestStmt.setString(5, guest.getPassword());
+                        guestStmt.setString(6, guest.getContactNumber());
+                        guestStmt.addBatch();
+                    }
+                    guestStmt.executeBatch();
+
+                    for (BookingRequest request : requests) {
+                        bindBatchBooking(bookingStmt, request.getBooking());
+                        bookingStmt.addBatch();
+                    }
+                    Savepoint beforeBookings = conn.setSavepoint();
+                    try {
+                        bookingStmt.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        // With reWriteBatchedInserts the update counts do not map one-to-one to the bookings,
+                        // so the inserts are replayed one at a time to find the booking that failed
+                        conn.rollback(beforeBookings);
+                        failedRow = findFailedBooking(bookingStmt, requests);
+                        throw e;
+                    }
+
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    markFailedRow(rows, e, failedRow);
+                    throw e;
+                }
+
+                op.rows(requests.size());
+                AvailabilityIndex index = AvailabilityIndex.getInstance();
+                for (BookingRequest request : requests) {
+                    request.getBooking().setGuest(request.getGuest());
+                    index.recordBooking(request.getBooking());
+                }
+                logger.info("Created {} bookings for {} guests in one transaction", requests.size(), guests.size());
+                return new BatchBookingResult(true, rows);
+            }
+        }, e -> {
+            logger.error("Error creating {} bookings in batch; rolled back", requests.size(), e);
+            return new BatchBookingResult(false, markRolledBack(rows));
+        });
+    }
+
+    private static String validate(Booking booking) {
+        if (booking.getBookingId() == null) {
+            return "Booking has no ID.";
+        }
+        if (booking.getRoomId() == null) {
+            return "Booking " + booking.getBookingId() + " has no room.";
+        }
+        if (booking.getInDate() == null || booking.getOutDate() == null || !booking.getOutDate().isAfter(booking.getInDate())) {
+            return "Booking " + booking.getBookingId() + " must check out after it checks in.";
+        }
+        return null;
+    }
+
+    /**
+     * Looks up, in one query, the existing bookings that overlap any booking of the batch,
+     * and marks the batch rows whose room is taken as ROOM_TAKEN.
+     *
+     * @return true if any row was marked
+     */
+    private static boolean markTakenRooms(Connection conn, List<BookingRequest> requests,
+                                          List<BatchBookingResult.RowResult> rows) throws SQLException {
+        Set<String> roomIds = new HashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (BookingRequest request : requests) {
+            Booking booking = request.getBooking();
+            roomIds.add(booking.getRoomId());
+            from = from == null || booking.getInDate().isBefore(from) ? booking.getInDate() : from;
+            to = to == null || booking.getOutDate().isAfter(to) ? booking.getOutDate() : to;
+        }
+
+        String sql = "SELECT roomId, inDate, outDate FROM Bookings WHERE roomId = ANY (?) AND inDate < ? AND outDate > ? " +
+                "AND bookingStatus IS DISTINCT FROM 'Cancelled'";
+        boolean taken = false;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", roomIds.toArray()));
+            pstmt.setDate(2, Date.valueOf(to));
+            pstmt.setDate(3, Date.valueOf(from));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String roomId = rs.getString("roomId");
+                    LocalDate inDate = rs.getDate("inDate").toLocalDate();
+                    LocalDate outDate = rs.getDate("outDate").toLocalDate();
+                    for (int i = 0; i < requests.size(); i++) {
+                        Booking booking = requests.get(i).getBooking();
+                        if (booking.getRoomId().equals(roomId) && booking.getInDate().isBefore(outDate)
+                                && inDate.isBefore(booking.getOutDate()) && rows.get(i).getStatus() != BatchBookingResult.Status.ROOM_TAKEN) {
+                            rows.set(i, new BatchBookingResult.RowResult(booking, BatchBookingResult.Status.ROOM_TAKEN,
+                                    "Room " + roomId + " is already booked between " + inDate + " and " + outDate + "."));
+                            taken = true;
+                        }
+                    }
+                }
+            }
+        }
+        return taken;
+    }
+
+    private static void bindBatchBooking(PreparedStatement bookingStmt, Booking booking) throws SQLException {
+        bookingStmt.setString(1, booking.getBookingId());
+        bookingStmt.setString(2, booking.getGuestId());
+        bookingStmt.setString(3, booking.getRoomId());
+        bookingStmt.setString(4, booking.getVoucherNumber());
+        bookingStmt.setDate(5, Date.valueOf(booking.getInDate()));
+        bookingStmt.setDate(6, Date.valueOf(booking.getOutDate()));
+        bookingStmt.setString(7, booking.getSpecialPreference());
+        bookingStmt.setString(8, booking.getPaymentStatus());
+        bookingStmt.setString(9, booking.getBookingStatus());
+    }
+
+    /**
+     * Inserts the bookings of a failed batch one at a time, in order, until one fails. The transaction must have
+     * been rolled back to before the batch; it is left aborted by the failing insert.
+     *
+     * @return the index of the booking that failed, or -1 if every insert succeeded this time
+     */
+    private static int findFailedBooking(PreparedStatement bookingStmt, List<BookingRequest> requests) throws SQLException {
+        bookingStmt.clearBatch();
+        for (int i = 0; i < requests.size(); i++) {
+            bindBatchBooking(bookingStmt, requests.get(i).getBooking());
+            try {
+                bookingStmt.executeUpdate();
+            } catch (SQLException e) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the booking whose insert failed as FAILED, or ROOM_TAKEN if its room was booked concurrently.
+     * When the failed booking is not known, for example because the guests could not be written, the first
+     * booking is marked.
+     */
+    private static void markFailedRow(List<BatchBookingResult.RowResult> rows, SQLException e, int failedRow) {
+        String message = e.getNextException() != null ? e.getNextException().getMessage() : e.getMessage();
+        BatchBookingResult.Status status = BatchBookingResult.Status.FAILED;
+        if (isRoomTaken(e)) {
+            status = BatchBookingResult.Status.ROOM_TAKEN;
+            message = "A room of the group was booked concurrently for overlapping dates.";
         }
+        int marked = failedRow >= 0 && failedRow < rows.size() ? failedRow : 0;
+        BatchBookingResult.RowResult row = rows.get(marked);
+        rows.set(marked, new BatchBookingResult.RowResult(row.getBooking(), status, message));
+    }
+
+    /**
+     * Turns every row still marked CREATED into ROLLED_BACK, for a batch that was not committed.
+     */
+    private static List<BatchBookingResult.RowResult> markRolledBack(List<BatchBookingResult.RowResult> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            BatchBookingResult.RowResult row = rows.get(i);
+            if (row.getStatus() == BatchBookingResult.Status.CREATED) {
+                rows.set(i, new BatchBookingResult.RowResult(row.getBooking(), BatchBookingResult.Status.ROLLED_BACK, null));
+            }
+        }
+        return rows;
     }
 
     /**
@@ -105,18 +657,33 @@ public class BookingService {
      * @return the booking with guest details, or null if not found
      */
     public Booking getBookingWithGuestInfo(String bookingId) {
-        String sql = "SELECT b.*, g.firstName, g.lastName, g.middleName, g.contactNumber " +
-                "FROM Bookings b " +
-                "JOIN Guests g ON b.guestId = g.guestId " +
-                "WHERE b.bookingId = ?";
+        return Metrics.timed("BookingService.getBookingWithGuestInfo", op -> {
+            Booking booking = readBookingWithGuestInfo(bookingId);
+            op.rows(booking != null ? 1 : 0);
+            return booking;
+        }, e -> {
+            logger.error("Error fetching booking with guest info", e);
+            return null;
+        });
+    }
 
+    /**
+     * Reads a booking along with its guest, telling a booking that does not exist apart from one that could not
+     * be read.
+     *
+     * @param bookingId the ID of the booking
+     * @return the booking with guest details, or null if there is no such booking
+     * @throws SQLException if the booking could not be read
+     */
+    Booking readBookingWithGuestInfo(String bookingId) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(BOOKING_WITH_GUEST_INFO.getSql())) {
 
             pstmt.setString(1, bookingId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
                 Booking booking = new Booking(
                         rs.getString("bookingId"),
                         rs.getString("guestId"),
@@ -139,41 +706,171 @@ public class BookingService {
                 );
 
                 booking.setGuest(guest);
+                booking.setRoomType(rs.getString("roomType"));
                 return booking;
             }
-        } catch (SQLException e) {
-            logger.error("Error fetching booking with guest info", e);
         }
-
-        return null;
     }
 
     /**
      * Updates the details of an existing booking.
+     * The update is refused if it would make the booking overlap another booking of the same room.
      *
      * @param booking the booking with updated details
      * @return true if the update was successful, false otherwise
      */
     public boolean updateBooking(Booking booking) {
-        String sql = "UPDATE Bookings SET roomId = ?, voucherNumber = ?, inDate = ?, outDate = ?, specialPreference = ?, paymentStatus = ?, bookingStatus = ? WHERE bookingId = ?";
+        // A booking moved onto dates or a room that are already taken is not updated
+        String sql = "UPDATE Bookings SET roomId = ?, voucherNumber = ?, inDate = ?, outDate = ?, specialPreference = ?, paymentStatus = ?, bookingStatus = ? " +
+                "WHERE bookingId = ? AND (? = 'Cancelled' OR NOT EXISTS (SELECT 1 FROM Bookings o WHERE o.roomId = ? AND o.bookingId <> ? " +
+                "AND o.inDate < ? AND o.outDate > ? AND o.bookingStatus IS DISTINCT FROM 'Cancelled'))";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, booking.getRoomId());
-            pstmt.setString(2, booking.getVoucherNumber());
-            pstmt.setDate(3, Date.valueOf(booking.getInDate()));
-            pstmt.setDate(4, Date.valueOf(booking.getOutDate()));
-            pstmt.setString(5, booking.getSpecialPreference());
-            pstmt.setString(6, booking.getPaymentStatus());
-            pstmt.setString(7, booking.getBookingStatus());
-            pstmt.setString(8, booking.getBookingId());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+        return Metrics.timed("BookingService.updateBooking", op -> {
+            RoomLocks.Held roomLocks = RoomLocks.lock(Collections.singletonList(booking.getRoomId()));
+            try (roomLocks;
+                 Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setString(1, booking.getRoomId());
+                pstmt.setString(2, booking.getVoucherNumber());
+                pstmt.setDate(3, Date.valueOf(booking.getInDate()));
+                pstmt.setDate(4, Date.valueOf(booking.getOutDate()));
+                pstmt.setString(5, booking.getSpecialPreference());
+                pstmt.setString(6, booking.getPaymentStatus());
+                pstmt.setString(7, booking.getBookingStatus());
+                pstmt.setString(8, booking.getBookingId());
+                pstmt.setString(9, booking.getBookingStatus());
+                pstmt.setString(10, booking.getRoomId());
+                pstmt.setString(11, booking.getBookingId());
+                pstmt.setDate(12, Date.valueOf(booking.getOutDate()));
+                pstmt.setDate(13, Date.valueOf(booking.getInDate()));
+
+                int affectedRows = pstmt.executeUpdate();
+                op.rows(affectedRows);
+                if (affectedRows > 0) {
+                    AvailabilityIndex.getInstance().recordBooking(booking);
+                }
+                return affectedRows > 0;
+            } catch (SQLException e) {
+                if (!isRoomTaken(e)) {
+                    throw e;
+                }
+                logger.info("Room {} is already booked between {} and {}", booking.getRoomId(), booking.getInDate(), booking.getOutDate());
+                return false;
+            }
+        }, e -> {
             logger.error("Error updating booking", e);
             return false;
-        }
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAllBookings()}, run on the database worker threads.
+     *
+     * @return a future completed with the list of all bookings
+     */
+    public CompletableFuture<List<Booking>> getAllBookingsAsync() {
+        return DatabaseExecutor.supplyAsync(this::getAllBookings);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBookingsPage(BookingQuery,Booking,int)}, run on the database worker threads.
+     *
+     * @param query the date range filter and sort order
+     * @param after the last booking of the previous page, or null for the first page
+     * @param limit the maximum number of bookings on the page
+     *
+     * @return a future completed with the page of bookings
+     */
+    public CompletableFuture<BookingPage> getBookingsPageAsync(BookingQuery query, Booking after, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> getBookingsPage(query, after, limit));
+    }
+
+    /**
+     * Asynchronous variant of {@link #searchBookings(String,int)}, run on the database worker threads.
+     * Cancelling the returned future also cancels the query on the server if it is still running.
+     *
+     * @param searchTerm the term to search for
+     * @param limit      the maximum number of bookings to return
+     *
+     * @return a future completed with the top matching bookings
+     */
+    public CompletableFuture<List<Booking>> searchBookingsAsync(String searchTerm, int limit) {
+        QueryCancellation cancellation = new QueryCancellation();
+        CompletableFuture<List<Booking>> search = DatabaseExecutor.supplyAsync(() -> searchBookings(searchTerm, limit, cancellation));
+        search.whenComplete((result, error) -> {
+            if (search.isCancelled()) {
+                cancellation.cancel();
+            }
+        });
+        return search;
+    }
+
+    /**
+     * Asynchronous variant of {@link #createBooking(Booking,Guest)}, run on the database worker threads.
+     *
+     * @param booking the booking to create
+     * @param guest the guest associated with the booking
+     *
+     * @return a future completed with true if the booking was created successfully
+     */
+    public CompletableFuture<Boolean> createBookingAsync(Booking booking, Guest guest) {
+        return DatabaseExecutor.supplyAsync(() -> createBooking(booking, guest));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBookingChangesSince(long)}, run on the database worker threads.
+     *
+     * @param version the version returned by the previous sync
+     *
+     * @return a future completed with the changes, or null if they cannot be read
+     */
+    public CompletableFuture<ChangeSet<Booking>> getBookingChangesSinceAsync(long version) {
+        return DatabaseExecutor.supplyAsync(() -> getBookingChangesSince(version));
+    }
+
+    /**
+     * Asynchronous variant of {@link #reserveRoom(Booking, Guest)}, run on the database worker threads.
+     *
+     * @param booking the booking to create
+     * @param guest   the guest associated with the booking
+     *
+     * @return a future completed with the outcome of the reservation
+     */
+    public CompletableFuture<ReservationResult> reserveRoomAsync(Booking booking, Guest guest) {
+        return DatabaseExecutor.supplyAsync(() -> reserveRoom(booking, guest));
+    }
+
+    /**
+     * Asynchronous variant of {@link #createBookings(List)}, run on the database worker threads.
+     *
+     * @param requests the bookings to create, each with its guest
+     *
+     * @return a future completed with the overall outcome and per-booking results
+     */
+    public CompletableFuture<BatchBookingResult> createBookingsAsync(List<BookingRequest> requests) {
+        return DatabaseExecutor.supplyAsync(() -> createBookings(requests));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBookingWithGuestInfo(String)}, run on the database worker threads.
+     *
+     * @param bookingId the ID of the booking
+     *
+     * @return a future completed with the booking with guest details, or null if not found
+     */
+    public CompletableFuture<Booking> getBookingWithGuestInfoAsync(String bookingId) {
+        return DatabaseExecutor.supplyAsync(() -> getBookingWithGuestInfo(bookingId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateBooking(Booking)}, run on the database worker threads.
+     *
+     * @param booking the booking with updated details
+     *
+     * @return a future completed with true if the update was successful
+     */
+    public CompletableFuture<Boolean> updateBookingAsync(Booking booking) {
+        return DatabaseExecutor.supplyAsync(() -> updateBooking(booking));
     }
 }
@@ -0,0 +1,296 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens for the row change notifications sent by the triggers in {@code V4__change_notify.sql}, so that changes
+ * made by other front-desk machines reach this one without periodic reloads.
+ * A background thread holds a dedicated, unpooled connection that LISTENs on the {@code hotel_changes} channel.
+ * For each changed row it reads the row back, patches the shared caches ({@link AvailabilityIndex},
+ * {@link RoomCatalog} and the holds of {@link HoldService}) and passes the row on to the registered
+ * {@link DataChangeListener}s.
+ * Notifications arriving together are coalesced per row. A row is only dropped from the caches when its
+ * notification says it was deleted or when reading it back finds no row; if it cannot be read, the caches keep it
+ * and are reloaded once the database answers again. If the connection drops, the notifier reconnects
+ * with backoff and, since notifications may have been missed meanwhile, reloads the caches and asks the
+ * listeners to resync. Bulk writes such as imports announce themselves with a single {@link #RESYNC}
+ * notification, which triggers the same reload.
+ * The listener thread also purges the sync tombstones older than {@link RowVersions#TOMBSTONE_RETENTION_HOURS}
+ * once an hour.
+ */
+public class ChangeNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private static final ChangeNotifier INSTANCE = new ChangeNotifier();
+
+    static final String CHANNEL = "hotel_changes";
+    static final String RESYNC = "RESYNC";
+    private static final String DELETE = "DELETE";
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final BookingService bookingService = new BookingService();
+    private final RoomService roomService = new RoomService();
+    private final GuestService guestService = new GuestService();
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+    // Set when a changed row could not be read back; only touched by the listener thread
+    private boolean resyncPending;
+    private long nextPurge = System.nanoTime();
+
+    /**
+     * Returns the shared change notifier.
+     *
+     * @return the change notifier
+     */
+    public static ChangeNotifier getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts listening for changes in the background. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "db-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops listening and closes the dedicated connection.
+     */
+    public synchronized void stop() {
+        running = false;
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing change listener connection", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Registers a listener for changed rows.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener(DataChangeListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void run() {
+        long backoff = 1_000;
+        boolean missedChanges = false;
+        while (running) {
+            try (Connection conn = DatabaseConnection.openDedicatedConnection()) {
+                connection = conn;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for database changes on channel {}", CHANNEL);
+                backoff = 1_000;
+                if (missedChanges) {
+                    resyncPending = true;
+                    missedChanges = false;
+                }
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    if (resyncPending) {
+                        resyncPending = !resync();
+                    }
+                    if (System.nanoTime() - nextPurge >= 0) {
+                        purgeTombstones(conn);
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        dispatch(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                missedChanges = true;
+                logger.warn("Change listener connection lost; reconnecting in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            } finally {
+                connection = null;
+            }
+        }
+        logger.info("Change listener stopped");
+    }
+
+    private void dispatch(PGNotification[] notifications) {
+        // Last operation per row; the row is read back unless it was deleted
+        Map<String, String[]> changes = new LinkedHashMap<>();
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(":", 3);
+            if (parts.length == 3 && RESYNC.equals(parts[1])) {
+                logger.info("Bulk change '{}' announced; reloading everything", parts[2]);
+                resyncPending = !resync();
+                return;
+            } else if (parts.length == 3) {
+                changes.put(parts[0] + ":" + parts[2], parts);
+            } else {
+                logger.warn("Ignoring malformed change notification '{}'", notification.getParameter());
+            }
+        }
+        logger.debug("Applying {} changed row(s) from {} notification(s)", changes.size(), notifications.length);
+
+        for (String[] change : changes.values()) {
+            String table = change[0];
+            boolean deleted = DELETE.equals(change[1]);
+            String id = change[2];
+            try {
+                switch (table) {
+                    case "bookings":
+                        applyBookingChange(id, deleted);
+                        break;
+                    case "rooms":
+                        applyRoomChange(id, deleted);
+                        break;
+                    case "guests":
+                        applyGuestChange(id, deleted);
+                        break;
+                    case "room_holds":
+                        if (!HoldService.getInstance().applyHoldChange(id)) {
+                            resyncPending = true;
+                        }
+                        break;
+                    default:
+                        logger.debug("Ignoring change to table {}", table);
+                }
+            } catch (SQLException e) {
+                // Keep what the caches have; they are reloaded once the database can be read again
+                logger.warn("Could not read back changed row {} {}; reloading caches shortly", table, id, e);
+                resyncPending = true;
+            } catch (RuntimeException e) {
+                logger.error("Error applying change to {} {}", table, id, e);
+            }
+        }
+    }
+
+    private void applyBookingChange(String bookingId, boolean deleted) throws SQLException {
+        Booking booking = deleted ? null : bookingService.readBookingWithGuestInfo(bookingId);
+        if (booking == null) {
+            AvailabilityIndex.getInstance().removeBooking(bookingId);
+            for (DataChangeListener listener : listeners) {
+                listener.bookingRemoved(bookingId);
+            }
+        } else {
+            AvailabilityIndex.getInstance().recordBooking(booking);
+            for (DataChangeListener listener : listeners) {
+                listener.bookingChanged(booking);
+            }
+        }
+    }
+
+    private void applyRoomChange(String roomId, boolean deleted) throws SQLException {
+        Room room = deleted ? null : roomService.readRoomById(roomId);
+        if (room == null) {
+            AvailabilityIndex.getInstance().removeRoom(roomId);
+            RoomCatalog.getInstance().remove(roomId);
+            for (DataChangeListener listener : listeners) {
+                listener.roomRemoved(roomId);
+            }
+        } else {
+            AvailabilityIndex.getInstance().recordRoom(room);
+            RoomCatalog.getInstance().put(room);
+            for (DataChangeListener listener : listeners) {
+                listener.roomChanged(room);
+            }
+        }
+    }
+
+    private void applyGuestChange(String guestId, boolean deleted) throws SQLException {
+        Guest guest = deleted ? null : guestService.readGuestById(guestId);
+        if (guest == null) {
+            for (DataChangeListener listener : listeners) {
+                listener.guestRemoved(guestId);
+            }
+        } else {
+            for (DataChangeListener listener : listeners) {
+                listener.guestChanged(guest);
+            }
+        }
+    }
+
+    private void purgeTombstones(Connection conn) {
+        nextPurge = System.nanoTime() + PURGE_INTERVAL_NANOS;
+        try {
+            long purged = RowVersions.purgeTombstones(conn);
+            if (purged > 0) {
+                logger.info("Purged {} sync tombstone(s) older than {} hours", purged, RowVersions.TOMBSTONE_RETENTION_HOURS);
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not purge sync tombstones; trying again in an hour", e);
+        }
+    }
+
+    /**
+     * Reloads the caches and, once they are reloaded, asks the listeners to resync.
+     *
+     * @return true if the caches were reloaded, false if the database could not be read
+     */
+    private boolean resync() {
+        logger.info("Reloading caches from the database");
+        RoomCatalog.getInstance().invalidate();
+        boolean reloaded = AvailabilityIndex.getInstance().load() & HoldService.getInstance().load();
+        if (!reloaded) {
+            logger.warn("Could not reload the caches; trying again in {} ms", POLL_TIMEOUT_MS);
+            return false;
+        }
+        for (DataChangeListener listener : listeners) {
+            listener.resynced();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.hotelreservation.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rows changed since a sync version, as returned by the incremental sync queries of the services.
+ * Apply the removals first and then the changed rows; a row deleted and re-created since the last sync
+ * appears in both. An {@linkplain #isExpired() expired} change set carries nothing: the requested version predates
+ * the tombstones still kept, and the caller must reload everything instead.
+ *
+ * @param <T> the type of the changed rows
+ */
+public class ChangeSet<T> {
+
+    private final List<T> changed;
+    private final List<String> removedIds;
+    private final long version;
+
+    /**
+     * Constructs a ChangeSet.
+     *
+     * @param changed    the rows created or updated since the requested version
+     * @param removedIds the IDs of the rows deleted since the requested version
+     * @param version    the version to request the next changes from
+     */
+    public ChangeSet(List<T> changed, List<String> removedIds, long version) {
+        this.changed = Collections.unmodifiableList(changed);
+        this.removedIds = Collections.unmodifiableList(removedIds);
+        this.version = version;
+    }
+
+    /**
+     * Returns a change set telling the caller that the requested version is too old to sync from.
+     *
+     * @param <T> the type of the changed rows
+     * @return an expired change set
+     */
+    static <T> ChangeSet<T> expired() {
+        return new ChangeSet<>(List.of(), List.of(), RowVersions.UNAVAILABLE);
+    }
+
+    // Getters
+
+    public List<T> getChanged() { return changed; }
+    public List<String> getRemovedIds() { return removedIds; }
+    public long getVersion() { return version; }
+
+    /**
+     * Returns true if the requested version predates purged tombstones, so deletes may be missing and the caller
+     * must reload everything.
+     *
+     * @return true if the change set is expired
+     */
+    public boolean isExpired() {
+        return version == RowVersions.UNAVAILABLE;
+    }
+
+    /**
+     * Returns true if nothing changed since the requested version.
+     *
+     * @return true if there are no changed or removed rows
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && removedIds.isEmpty();
+    }
+}
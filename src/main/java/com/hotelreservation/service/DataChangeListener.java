@@ -0,0 +1,69 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.model.Room;
+
+/**
+ * Receives the rows changed in the database, by this or any other instance of the application,
+ * as reported by the {@link ChangeNotifier}. Callbacks run on the notifier's background thread,
+ * after the shared service caches have been updated; implementations that touch the UI must hop
+ * to the JavaFX application thread themselves.
+ */
+public interface DataChangeListener {
+
+    /**
+     * Called when a booking was created or updated.
+     *
+     * @param booking the booking as now stored, with its guest and room type
+     */
+    default void bookingChanged(Booking booking) {
+    }
+
+    /**
+     * Called when a booking was deleted.
+     *
+     * @param bookingId the ID of the deleted booking
+     */
+    default void bookingRemoved(String bookingId) {
+    }
+
+    /**
+     * Called when a room was created or updated.
+     *
+     * @param room the room as now stored
+     */
+    default void roomChanged(Room room) {
+    }
+
+    /**
+     * Called when a room was deleted.
+     *
+     * @param roomId the ID of the deleted room
+     */
+    default void roomRemoved(String roomId) {
+    }
+
+    /**
+     * Called when a guest was created or updated.
+     *
+     * @param guest the guest as now stored
+     */
+    default void guestChanged(Guest guest) {
+    }
+
+    /**
+     * Called when a guest was deleted.
+     *
+     * @param guestId the ID of the deleted guest
+     */
+    default void guestRemoved(String guestId) {
+    }
+
+    /**
+     * Called after the notifier reconnected to the database, when notifications may have been missed.
+     * Listeners should reload what they show.
+     */
+    default void resynced() {
+    }
+}
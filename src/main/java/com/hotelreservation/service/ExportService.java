@@ -0,0 +1,152 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for exporting bookings to CSV files, e.g. for the night audit.
+ * Rows are produced by {@code COPY ... TO STDOUT} and written to the file as the driver reads them, so the export
+ * never holds more than a buffer of rows in memory; the database is only read as fast as the file is written.
+ * Files whose name ends in {@code .gz} are gzip-compressed. The export is written next to the target file and
+ * moved into place once complete, so a failed export never leaves a truncated file behind.
+ */
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private static final String BOOKING_EXPORT_SELECT = "SELECT b.bookingId, b.guestId, g.firstName, g.lastName, " +
+            "b.roomId, r.roomType, r.roomPrice, b.voucherNumber, b.inDate, b.outDate, b.specialPreference, " +
+            "b.paymentStatus, b.bookingStatus " +
+            "FROM Bookings b LEFT JOIN Guests g ON g.guestId = b.guestId LEFT JOIN Rooms r ON r.roomId = b.roomId";
+
+    /**
+     * Exports the bookings matching the filters to a CSV file with a header line, ordered by check-in date
+     * and booking ID. The date range has the same meaning as in {@link BookingQuery}.
+     *
+     * @param fromDate only bookings whose stay ends after this date are exported (null for no lower bound)
+     * @param toDate   only bookings whose stay starts before this date are exported (null for no upper bound)
+     * @param statuses the booking statuses to export (null or empty for all)
+     * @param target   the file to write; replaced if it exists, and gzip-compressed if its name ends in {@code .gz}
+     * @return the number of bookings exported, or -1 if the export failed
+     */
+    public long exportBookings(LocalDate fromDate, LocalDate toDate, Collection<String> statuses, Path target) {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long start = System.nanoTime();
+
+        return Metrics.timed("ExportService.exportBookings", op -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                String sql = "COPY (" + bookingQuery(pgConnection, fromDate, toDate, statuses) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+
+                long rows;
+                long bytes = 0;
+                try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                     OutputStream out = openOutput(channel, target)) {
+                    CopyOut copyOut = pgConnection.getCopyAPI().copyOut(sql);
+                    try {
+                        byte[] row;
+                        while ((row = copyOut.readFromCopy()) != null) {
+                            out.write(row);
+                            bytes += row.length;
+                        }
+                        rows = copyOut.getHandledRowCount();
+                    } finally {
+                        if (copyOut.isActive()) {
+                            copyOut.cancelCopy();
+                        }
+                    }
+                }
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                op.rows(rows);
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                logger.info("Exported {} bookings ({} bytes of CSV) to {} in {} ms", rows, bytes, target, millis);
+                return rows;
+            }
+        }, e -> {
+            logger.error("Error exporting bookings to {}", target, e);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException deleteError) {
+                logger.warn("Could not delete the partial export {}", partial, deleteError);
+            }
+            return -1L;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #exportBookings(LocalDate, LocalDate, Collection, Path)}.
+     *
+     * @param fromDate only bookings whose stay ends after this date are exported (null for no lower bound)
+     * @param toDate   only bookings whose stay starts before this date are exported (null for no upper bound)
+     * @param statuses the booking statuses to export (null or empty for all)
+     * @param target   the file to write
+     * @return a future completed with the number of bookings exported, or -1 if the export failed
+     */
+    public CompletableFuture<Long> exportBookingsAsync(LocalDate fromDate, LocalDate toDate, Collection<String> statuses, Path target) {
+        return DatabaseExecutor.supplyAsync(() -> exportBookings(fromDate, toDate, statuses, target));
+    }
+
+    /**
+     * Builds the export query with the filters inlined, since COPY does not accept bind parameters.
+     */
+    private static String bookingQuery(PGConnection conn, LocalDate fromDate, LocalDate toDate,
+                                       Collection<String> statuses) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        if (fromDate != null) {
+            conditions.add("b.outDate > DATE '" + fromDate + "'");
+        }
+        if (toDate != null) {
+            conditions.add("b.inDate < DATE '" + toDate + "'");
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            List<String> literals = new ArrayList<>();
+            for (String status : statuses) {
+                literals.add("'" + conn.escapeLiteral(status) + "'");
+            }
+            conditions.add("b.bookingStatus IN (" + String.join(", ", literals) + ")");
+        }
+
+        StringBuilder sql = new StringBuilder(BOOKING_EXPORT_SELECT);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return sql.append(" ORDER BY b.inDate, b.bookingId").toString();
+    }
+
+    private static OutputStream openOutput(FileChannel channel, Path target) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        if (target.getFileName().toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER_BYTES);
+        }
+        return new BufferedOutputStream(out, WRITE_BUFFER_BYTES);
+    }
+}
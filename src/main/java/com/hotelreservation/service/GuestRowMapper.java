@@ -0,0 +1,42 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.util.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows with the columns of the Guests table to guests. Column indexes are resolved on the first row.
+ */
+class GuestRowMapper implements RowMapper<Guest> {
+
+    private boolean resolved;
+    private int guestId;
+    private int firstName;
+    private int lastName;
+    private int middleName;
+    private int password;
+    private int contactNumber;
+
+    @Override
+    public Guest map(ResultSet rs) throws SQLException {
+        if (!resolved) {
+            guestId = rs.findColumn("guestId");
+            firstName = rs.findColumn("firstName");
+            lastName = rs.findColumn("lastName");
+            middleName = rs.findColumn("middleName");
+            password = rs.findColumn("password");
+            contactNumber = rs.findColumn("contactNumber");
+            resolved = true;
+        }
+        return new Guest(
+                rs.getString(guestId),
+                rs.getString(firstName),
+                rs.getString(lastName),
+                rs.getString(middleName),
+                rs.getString(password),
+                rs.getString(contactNumber)
+        );
+    }
+}
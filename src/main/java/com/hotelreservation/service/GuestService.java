@@ -2,10 +2,17 @@ package com.hotelreservation.service;
 
 import com.hotelreservation.model.Guest;
 import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
+import com.hotelreservation.util.StreamingQuery;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,22 +24,44 @@ import org.slf4j.LoggerFactory;
 public class GuestService {
     private static final Logger logger = LoggerFactory.getLogger(GuestService.class);
 
+    private static final NamedStatement GUEST_BY_ID = StatementRegistry.register("guest.byId",
+            "SELECT guestId, firstName, lastName, middleName, password, contactNumber FROM Guests WHERE guestId = ?");
+
+    private static final String ALL_GUESTS = "SELECT guestId, firstName, lastName, middleName, password, contactNumber FROM Guests";
+
     /**
      * Retrieves a guest by their guest ID.
      *
      * @param guestId the ID of the guest
-     * @return the guest with the specified ID, or null if not found
+     * @return the guest with the specified ID, or null if not found or it cannot be read
      */
     public Guest getGuestById(String guestId) {
-        String sql = "SELECT * FROM Guests WHERE guestId = ?";
+        return Metrics.timed("GuestService.getGuestById", op -> {
+            Guest guest = readGuestById(guestId);
+            op.rows(guest != null ? 1 : 0);
+            return guest;
+        }, e -> {
+            logger.error("Error fetching guest by ID", e);
+            return null;
+        });
+    }
 
+    /**
+     * Reads a guest, telling a guest that does not exist apart from one that could not be read.
+     *
+     * @param guestId the ID of the guest
+     * @return the guest, or null if there is no such guest
+     * @throws SQLException if the guest could not be read
+     */
+    Guest readGuestById(String guestId) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(GUEST_BY_ID.getSql())) {
 
             pstmt.setString(1, guestId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
                 return new Guest(
                         rs.getString("guestId"),
                         rs.getString("firstName"),
@@ -42,11 +71,7 @@ public class GuestService {
                         rs.getString("contactNumber")
                 );
             }
-        } catch (SQLException e) {
-            logger.error("Error fetching guest by ID", e);
         }
-
-        return null;
     }
 
     /**
@@ -58,22 +83,25 @@ public class GuestService {
     public boolean createGuest(Guest guest) {
         String sql = "INSERT INTO Guests (guestId, firstName, lastName, middleName, password, contactNumber) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, guest.getGuestId());
-            pstmt.setString(2, guest.getFirstName());
-            pstmt.setString(3, guest.getLastName());
-            pstmt.setString(4, guest.getMiddleName());
-            pstmt.setString(5, guest.getPassword());
-            pstmt.setString(6, guest.getContactNumber());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+        return Metrics.timed("GuestService.createGuest", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setString(1, guest.getGuestId());
+                pstmt.setString(2, guest.getFirstName());
+                pstmt.setString(3, guest.getLastName());
+                pstmt.setString(4, guest.getMiddleName());
+                pstmt.setString(5, guest.getPassword());
+                pstmt.setString(6, guest.getContactNumber());
+
+                int affectedRows = pstmt.executeUpdate();
+                op.rows(affectedRows);
+                return affectedRows > 0;
+            }
+        }, e -> {
             logger.error("Error creating guest", e);
             return false;
-        }
+        });
     }
 
     /**
@@ -83,28 +111,40 @@ public class GuestService {
      */
     public List<Guest> getAllGuests() {
         List<Guest> guests = new ArrayList<>();
-        String sql = "SELECT * FROM Guests";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Guest guest = new Guest(
-                        rs.getString("guestId"),
-                        rs.getString("firstName"),
-                        rs.getString("lastName"),
-                        rs.getString("middleName"),
-                        rs.getString("password"),
-                        rs.getString("contactNumber")
-                );
-                guests.add(guest);
+        return Metrics.timed("GuestService.getAllGuests", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(ALL_GUESTS)) {
+
+                GuestRowMapper mapper = new GuestRowMapper();
+                while (rs.next()) {
+                    guests.add(mapper.map(rs));
+                }
+                op.rows(guests.size());
             }
-        } catch (SQLException e) {
+            return guests;
+        }, e -> {
             logger.error("Error fetching all guests", e);
-        }
+            return guests;
+        });
+    }
 
-        return guests;
+    /**
+     * Passes every guest to an action as the rows are read, fetching them in chunks of
+     * {@link StreamingQuery#getFetchSize()} so memory use does not depend on the number of guests.
+     *
+     * @param action the action to apply to each guest
+     * @return the number of guests read, or -1 if they could not be read completely
+     */
+    public long forEachGuest(Consumer<? super Guest> action) {
+        return Metrics.timed("GuestService.forEachGuest", op -> {
+            long count = StreamingQuery.forEach(ALL_GUESTS, new GuestRowMapper(), action);
+            op.rows(count);
+            return count;
+        }, e -> {
+            logger.error("Error streaming guests", e);
+            return -1L;
+        });
     }
 
     /**
@@ -116,21 +156,66 @@ public class GuestService {
     public boolean updateGuest(Guest guest) {
         String sql = "UPDATE Guests SET firstName = ?, lastName = ?, middleName = ?, password = ?, contactNumber = ? WHERE guestId = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, guest.getFirstName());
-            pstmt.setString(2, guest.getLastName());
-            pstmt.setString(3, guest.getMiddleName());
-            pstmt.setString(4, guest.getPassword());
-            pstmt.setString(5, guest.getContactNumber());
-            pstmt.setString(6, guest.getGuestId());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+        return Metrics.timed("GuestService.updateGuest", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setString(1, guest.getFirstName());
+                pstmt.setString(2, guest.getLastName());
+                pstmt.setString(3, guest.getMiddleName());
+                pstmt.setString(4, guest.getPassword());
+                pstmt.setString(5, guest.getContactNumber());
+                pstmt.setString(6, guest.getGuestId());
+
+                int affectedRows = pstmt.executeUpdate();
+                op.rows(affectedRows);
+                return affectedRows > 0;
+            }
+        }, e -> {
             logger.error("Error updating guest", e);
             return false;
-        }
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #getGuestById(String)}, run on the database worker threads.
+     *
+     * @param guestId the ID of the guest
+     *
+     * @return a future completed with the guest with the specified ID, or null if not found
+     */
+    public CompletableFuture<Guest> getGuestByIdAsync(String guestId) {
+        return DatabaseExecutor.supplyAsync(() -> getGuestById(guestId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #createGuest(Guest)}, run on the database worker threads.
+     *
+     * @param guest the guest to create
+     *
+     * @return a future completed with true if the guest was created successfully
+     */
+    public CompletableFuture<Boolean> createGuestAsync(Guest guest) {
+        return DatabaseExecutor.supplyAsync(() -> createGuest(guest));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAllGuests()}, run on the database worker threads.
+     *
+     * @return a future completed with the list of all guests
+     */
+    public CompletableFuture<List<Guest>> getAllGuestsAsync() {
+        return DatabaseExecutor.supplyAsync(this::getAllGuests);
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateGuest(Guest)}, run on the database worker threads.
+     *
+     * @param guest the guest with updated details
+     *
+     * @return a future completed with true if the update was successful
+     */
+    public CompletableFuture<Boolean> updateGuestAsync(Guest guest) {
+        return DatabaseExecutor.supplyAsync(() -> updateGuest(guest));
     }
 }
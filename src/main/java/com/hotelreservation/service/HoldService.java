@@ -0,0 +1,396 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for the short-lived room holds of {@code V9__room_holds.sql}. Selecting a room in the reservation
+ * window holds it for the stay, so availability searches by other clerks stop offering it until the booking is made,
+ * the hold is released, or its time-to-live ({@code HOLD_TTL_SECONDS}, default 600) runs out.
+ * The active holds of all instances are kept in memory, filled at start-up and kept current by the
+ * {@link ChangeNotifier}, so searches answered from the {@link AvailabilityIndex} can skip held rooms without a
+ * round trip. Each hold's expiry is a task on a single timer thread, scheduled once when the hold becomes known and
+ * cancelled when it is released, so open holds cost nothing while they wait and are released on time without polling.
+ * The exclusion constraint of {@code V15__room_hold_exclusion.sql} keeps two holds of a room from overlapping, however
+ * the clerks race, and when any known hold runs out the instance deletes every expired hold, including those of
+ * instances that stopped without releasing theirs.
+ */
+public class HoldService {
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    private static final HoldService INSTANCE = new HoldService(DatabaseConnection.longSetting("HOLD_TTL_SECONDS", 600));
+
+    private static final String HOLD_COLUMNS =
+            "hold_id, roomId, inDate, outDate, (extract(epoch FROM expires_at - now()) * 1000)::bigint AS remaining_ms";
+
+    // Expired holds of the room are deleted before the insert (the count makes them go first), since the
+    // room_holds_no_overlap exclusion constraint counts them until then. An overlapping hold, even one being
+    // placed at the same moment, makes the insert do nothing.
+    private static final NamedStatement HOLD_PLACE = StatementRegistry.register("hold.place",
+            "WITH expired AS (DELETE FROM room_holds WHERE roomId = ? AND expires_at <= now() RETURNING 1) " +
+            "INSERT INTO room_holds (hold_id, roomId, inDate, outDate, expires_at) " +
+            "SELECT ?, ?, ?, ?, now() + make_interval(secs => ?) " +
+            "WHERE (SELECT count(*) FROM expired) >= 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM Bookings WHERE roomId = ? AND inDate < ? AND outDate > ? " +
+            "AND bookingStatus IS DISTINCT FROM 'Cancelled') " +
+            "ON CONFLICT DO NOTHING " +
+            "RETURNING " + HOLD_COLUMNS);
+
+    private static final NamedStatement HOLD_BY_ID = StatementRegistry.register("hold.byId",
+            "SELECT " + HOLD_COLUMNS + " FROM room_holds WHERE hold_id = ? AND expires_at > now()");
+
+    private static final NamedStatement HOLD_RELEASE = StatementRegistry.register("hold.release",
+            "DELETE FROM room_holds WHERE hold_id = ANY(?)");
+
+    // The hold that ran out is named as well, in case this instance's clock is a little ahead of the database's
+    private static final NamedStatement HOLD_SWEEP = StatementRegistry.register("hold.sweep",
+            "DELETE FROM room_holds WHERE expires_at <= now() OR hold_id = ?");
+
+    private final long ttlSeconds;
+    private final Map<String, TrackedHold> holds = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    private HoldService(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Released holds leave the timer's queue immediately instead of at their original expiry
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Returns the shared hold service.
+     *
+     * @return the hold service
+     */
+    public static HoldService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Deletes the expired holds left behind by instances that stopped abruptly and loads the active holds
+     * of all instances into memory. Holds placed by this instance are kept.
+     *
+     * @return true if the holds were loaded, false if the database could not be read
+     */
+    public boolean load() {
+        return Metrics.timed("HoldService.load", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement()) {
+
+                int purged = stmt.executeUpdate("DELETE FROM room_holds WHERE expires_at <= now()");
+                Set<String> active = new HashSet<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT " + HOLD_COLUMNS + " FROM room_holds")) {
+                    while (rs.next()) {
+                        RoomHold hold = mapHold(rs);
+                        active.add(hold.getHoldId());
+                        track(hold, rs.getLong("remaining_ms"), false);
+                    }
+                }
+                for (TrackedHold tracked : new ArrayList<>(holds.values())) {
+                    if (!tracked.own && !active.contains(tracked.hold.getHoldId())) {
+                        untrack(tracked.hold.getHoldId());
+                    }
+                }
+                op.rows(active.size());
+                logger.info("Loaded {} active room holds; deleted {} expired", active.size(), purged);
+                return true;
+            }
+        }, e -> {
+            logger.error("Error loading room holds", e);
+            return false;
+        });
+    }
+
+    /**
+     * Holds a room for a stay, unless it is booked or held by someone else for overlapping dates.
+     * The hold is released automatically once its time-to-live runs out.
+     *
+     * @param roomId       the room to hold
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return the hold, or null if the room is taken or there was an error
+     */
+    public RoomHold placeHold(String roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return Metrics.timed("HoldService.placeHold", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(HOLD_PLACE.getSql())) {
+
+                pstmt.setString(1, roomId);
+                pstmt.setString(2, UUID.randomUUID().toString());
+                pstmt.setString(3, roomId);
+                pstmt.setDate(4, Date.valueOf(checkInDate));
+                pstmt.setDate(5, Date.valueOf(checkOutDate));
+                pstmt.setLong(6, ttlSeconds);
+                pstmt.setString(7, roomId);
+                pstmt.setDate(8, Date.valueOf(checkOutDate));
+                pstmt.setDate(9, Date.valueOf(checkInDate));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        logger.info("Room {} is booked or held between {} and {}", roomId, checkInDate, checkOutDate);
+                        return null;
+                    }
+                    RoomHold hold = mapHold(rs);
+                    track(hold, rs.getLong("remaining_ms"), true);
+                    op.rows(1);
+                    logger.debug("Placed {}", hold);
+                    return hold;
+                }
+            }
+        }, e -> {
+            logger.error("Error holding room {}", roomId, e);
+            return null;
+        });
+    }
+
+    /**
+     * Releases holds, e.g. because the room was deselected, booked, or the reservation window was closed.
+     * The rooms are offered by this instance's searches again immediately.
+     *
+     * @param holdIds the IDs of the holds to release
+     * @return true if the holds were deleted, false if there was an error; they then run out on their own
+     */
+    public boolean releaseHolds(Collection<String> holdIds) {
+        if (holdIds.isEmpty()) {
+            return true;
+        }
+        for (String holdId : holdIds) {
+            untrack(holdId);
+        }
+        return Metrics.timed("HoldService.releaseHolds", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(HOLD_RELEASE.getSql())) {
+
+                pstmt.setArray(1, conn.createArrayOf("text", holdIds.toArray()));
+                op.rows(pstmt.executeUpdate());
+                return true;
+            }
+        }, e -> {
+            logger.error("Error releasing room holds {}", holdIds, e);
+            return false;
+        });
+    }
+
+    /**
+     * Returns the IDs of the rooms held by anyone for a night of the half-open stay {@code [checkInDate, checkOutDate)}.
+     *
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return the held room IDs
+     */
+    public Set<String> getHeldRoomIds(LocalDate checkInDate, LocalDate checkOutDate) {
+        if (holds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> held = new HashSet<>();
+        for (TrackedHold tracked : holds.values()) {
+            if (tracked.hold.overlaps(checkInDate, checkOutDate)) {
+                held.add(tracked.hold.getRoomId());
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Returns the active holds of all instances.
+     *
+     * @return the holds, in no particular order
+     */
+    public List<RoomHold> getActiveHolds() {
+        List<RoomHold> active = new ArrayList<>();
+        for (TrackedHold tracked : holds.values()) {
+            active.add(tracked.hold);
+        }
+        return active;
+    }
+
+    /**
+     * Asynchronous variant of {@link #placeHold(String, LocalDate, LocalDate)}, run on the database worker threads.
+     *
+     * @param roomId       the room to hold
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return a future completed with the hold, or null if the room is taken or there was an error
+     */
+    public CompletableFuture<RoomHold> placeHoldAsync(String roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return DatabaseExecutor.supplyAsync(() -> placeHold(roomId, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Asynchronous variant of {@link #releaseHolds(Collection)}, run on the database worker threads.
+     * The rooms are offered by this instance's searches again as soon as this method returns.
+     *
+     * @param holdIds the IDs of the holds to release
+     * @return a future completed with true if the holds were deleted, false if there was an error
+     */
+    public CompletableFuture<Boolean> releaseHoldsAsync(Collection<String> holdIds) {
+        List<String> ids = new ArrayList<>(holdIds);
+        for (String holdId : ids) {
+            untrack(holdId);
+        }
+        return DatabaseExecutor.supplyAsync(() -> releaseHolds(ids));
+    }
+
+    /**
+     * Stops the expiry timer and releases the holds placed by this instance. Call before the database workers
+     * and the connection pool shut down.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        List<String> own = new ArrayList<>();
+        for (TrackedHold tracked : holds.values()) {
+            if (tracked.own) {
+                own.add(tracked.hold.getHoldId());
+            }
+        }
+        if (!own.isEmpty()) {
+            logger.info("Releasing {} room holds on shutdown", own.size());
+            releaseHolds(own);
+        }
+    }
+
+    /**
+     * Applies a hold inserted or deleted by any instance, as reported by the {@link ChangeNotifier}.
+     * A hold that could not be read is left as it is.
+     *
+     * @param holdId the ID of the changed hold
+     * @return true if the change was applied, false if the hold could not be read
+     */
+    boolean applyHoldChange(String holdId) {
+        return Metrics.timed("HoldService.applyHoldChange", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(HOLD_BY_ID.getSql())) {
+
+                pstmt.setString(1, holdId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        track(mapHold(rs), rs.getLong("remaining_ms"), false);
+                        op.rows(1);
+                    } else {
+                        untrack(holdId);
+                    }
+                }
+                return true;
+            }
+        }, e -> {
+            logger.error("Error reading room hold {}", holdId, e);
+            return false;
+        });
+    }
+
+    /**
+     * Starts tracking a hold and schedules its expiry. A hold that is already tracked is left as it is.
+     */
+    private void track(RoomHold hold, long remainingMs, boolean own) {
+        TrackedHold tracked = new TrackedHold(hold, own);
+        if (holds.putIfAbsent(hold.getHoldId(), tracked) != null) {
+            return;
+        }
+        try {
+            tracked.expiry = timer.schedule(() -> expire(hold.getHoldId()), Math.max(0, remainingMs), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the hold runs out in the database on its own
+            holds.remove(hold.getHoldId(), tracked);
+        }
+    }
+
+    private void untrack(String holdId) {
+        TrackedHold tracked = holds.remove(holdId);
+        if (tracked != null && tracked.expiry != null) {
+            tracked.expiry.cancel(false);
+        }
+    }
+
+    /**
+     * Deletes a hold that ran out together with all other expired holds, whichever instance placed them, so the
+     * holds of an instance that stopped abruptly do not stay in the table until the next start-up.
+     *
+     * @return the number of holds deleted, or -1 if there was an error
+     */
+    private int deleteExpiredHolds(String expiredHoldId) {
+        return Metrics.timed("HoldService.deleteExpiredHolds", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(HOLD_SWEEP.getSql())) {
+
+                pstmt.setString(1, expiredHoldId);
+                int deleted = pstmt.executeUpdate();
+                op.rows(deleted);
+                return deleted;
+            }
+        }, e -> {
+            logger.error("Error deleting expired room holds", e);
+            return -1;
+        });
+    }
+
+    /**
+     * Runs on the timer thread when a hold's time-to-live is up, for the holds of every instance. The expired
+     * holds are deleted on a database worker, so the timer never waits for the database; any instance that
+     * knows of a hold deletes it, in case the one that placed it has stopped.
+     */
+    private void expire(String holdId) {
+        TrackedHold tracked = holds.remove(holdId);
+        if (tracked == null) {
+            return;
+        }
+        logger.info("Room hold {} on room {} expired", holdId, tracked.hold.getRoomId());
+        try {
+            DatabaseExecutor.supplyAsync(() -> deleteExpiredHolds(holdId));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Database workers stopped; expired hold {} is left for the next start-up", holdId);
+        }
+    }
+
+    private RoomHold mapHold(ResultSet rs) throws SQLException {
+        return new RoomHold(rs.getString("hold_id"), rs.getString("roomId"),
+                rs.getDate("inDate").toLocalDate(), rs.getDate("outDate").toLocalDate(),
+                Instant.now().plusMillis(rs.getLong("remaining_ms")));
+    }
+
+    /**
+     * A hold known to this instance, with its scheduled expiry.
+     */
+    private static class TrackedHold {
+        private final RoomHold hold;
+        private final boolean own;
+        private volatile ScheduledFuture<?> expiry;
+
+        private TrackedHold(RoomHold hold, boolean own) {
+            this.hold = hold;
+            this.own = own;
+        }
+    }
+}
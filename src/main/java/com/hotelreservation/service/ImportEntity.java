@@ -0,0 +1,35 @@
+package com.hotelreservation.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The kinds of records {@link ImportService} can load, with the CSV columns each expects, in order.
+ * The first line of an import file must name these columns.
+ */
+public enum ImportEntity {
+    /** Rooms; a blank roomId gets a generated one. */
+    ROOMS("rooms", "import_rooms", "roomId", "roomType", "roomPrice", "availability"),
+    /** Guests; existing guests are updated, keeping their password when the file has none. */
+    GUESTS("guests", "import_guests", "guestId", "firstName", "lastName", "middleName", "password", "contactNumber"),
+    /** Bookings of existing rooms and guests; dates are ISO dates such as 2024-03-01. */
+    BOOKINGS("bookings", "import_bookings", "bookingId", "guestId", "roomId", "voucherNumber", "inDate", "outDate",
+            "specialPreference", "paymentStatus", "bookingStatus");
+
+    private final String key;
+    private final String stagingTable;
+    private final List<String> columns;
+
+    ImportEntity(String key, String stagingTable, String... columns) {
+        this.key = key;
+        this.stagingTable = stagingTable;
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    // Getters
+
+    public String getKey() { return key; }
+    public String getStagingTable() { return stagingTable; }
+    public List<String> getColumns() { return columns; }
+}
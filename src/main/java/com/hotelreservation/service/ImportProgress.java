@@ -0,0 +1,80 @@
+package com.hotelreservation.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A progress report of a running import, passed to the listener given to {@link ImportService}.
+ */
+public class ImportProgress {
+
+    /**
+     * The stage an import is in.
+     */
+    public enum Phase {
+        /** CSV records are being copied into the staging table. */
+        LOADING,
+        /** Staged rows are being validated and merged into the application tables. */
+        MERGING,
+        /** The import has finished, successfully or not. */
+        DONE
+    }
+
+    private final long jobId;
+    private final Phase phase;
+    private final long recordsRead;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs an ImportProgress report.
+     *
+     * @param jobId        the import job
+     * @param phase        the current stage
+     * @param recordsRead  CSV records read so far, including those read by earlier attempts of the job
+     * @param bytesRead    bytes of the file read so far
+     * @param totalBytes   the size of the file
+     * @param elapsedNanos time spent by this attempt so far
+     */
+    public ImportProgress(long jobId, Phase phase, long recordsRead, long bytesRead, long totalBytes, long elapsedNanos) {
+        this.jobId = jobId;
+        this.phase = phase;
+        this.recordsRead = recordsRead;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the share of the file read so far.
+     *
+     * @return a fraction between 0 and 1
+     */
+    public double getFractionRead() {
+        return totalBytes == 0 ? 1 : Math.min(1, bytesRead / (double) totalBytes);
+    }
+
+    /**
+     * Returns the read throughput of this attempt.
+     *
+     * @return bytes read per second
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    // Getters
+
+    public long getJobId() { return jobId; }
+    public Phase getPhase() { return phase; }
+    public long getRecordsRead() { return recordsRead; }
+    public long getBytesRead() { return bytesRead; }
+    public long getTotalBytes() { return totalBytes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return "job " + jobId + " " + phase + ": " + recordsRead + " records, "
+                + String.format("%.1f%%, %.1f MB/s", getFractionRead() * 100, getBytesPerSecond() / 1_000_000);
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotelreservation.service;
+
+/**
+ * Outcome of an import by {@link ImportService}.
+ * A failed import keeps its job, so importing the same file again resumes it.
+ */
+public class ImportResult {
+
+    private final long jobId;
+    private final boolean merged;
+    private final long recordsRead;
+    private final long rowsMerged;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final String error;
+
+    /**
+     * Constructs an ImportResult.
+     *
+     * @param jobId         the import job, or -1 if no job could be created
+     * @param merged        true if the rows were merged into the application tables
+     * @param recordsRead   CSV records read, including those read by earlier attempts of the job
+     * @param rowsMerged    rows inserted or updated in the application tables
+     * @param rowsRejected  rows that failed validation; see the import_rejects table
+     * @param elapsedMillis time taken by this attempt
+     * @param error         why the import stopped, or null if it succeeded
+     */
+    public ImportResult(long jobId, boolean merged, long recordsRead, long rowsMerged, long rowsRejected,
+                        long elapsedMillis, String error) {
+        this.jobId = jobId;
+        this.merged = merged;
+        this.recordsRead = recordsRead;
+        this.rowsMerged = rowsMerged;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    // Getters
+
+    public long getJobId() { return jobId; }
+    public boolean isMerged() { return merged; }
+    public long getRecordsRead() { return recordsRead; }
+    public long getRowsMerged() { return rowsMerged; }
+    public long getRowsRejected() { return rowsRejected; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public String getError() { return error; }
+
+    @Override
+    public String toString() {
+        return "job " + jobId + (merged ? " merged " : " not merged ") + rowsMerged + " of " + recordsRead
+                + " records (" + rowsRejected + " rejected) in " + elapsedMillis + " ms"
+                + (error != null ? ": " + error : "");
+    }
+}
@@ -0,0 +1,526 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for loading rooms, guests and bookings in bulk from CSV files, e.g. when onboarding a property
+ * or migrating from another system, using the tables of {@code V6__bulk_import.sql}.
+ * Records are streamed with COPY into a staging table in chunks of {@code DB_IMPORT_CHUNK_RECORDS} (default 50000),
+ * each committed with the number of records read so far, so importing the same file again after a failure resumes
+ * after the last committed chunk. The staged rows are then validated and merged into the application tables with
+ * a few set-based statements in one transaction; rows failing validation are recorded in {@code import_rejects}.
+ * The merge suppresses the per-row change notifications and announces a single resync instead.
+ */
+public class ImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    private static final int CHUNK_RECORDS = (int) Math.max(1, DatabaseConnection.longSetting("DB_IMPORT_CHUNK_RECORDS", 50_000));
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private static final String STATUS_LOADING = "LOADING";
+    private static final String STATUS_LOADED = "LOADED";
+    private static final String STATUS_MERGED = "MERGED";
+
+    private static final String NOT_REJECTED =
+            "NOT EXISTS (SELECT 1 FROM import_rejects r WHERE r.job_id = s.job_id AND r.record_no = s.record_no)";
+
+    private static final String[] ROOM_MERGE = {
+            "INSERT INTO import_rejects (job_id, record_no, reason) " +
+            "SELECT job_id, record_no, reason FROM (" +
+            "SELECT s.job_id, s.record_no, CASE " +
+            "WHEN char_length(trim(s.roomId)) > 20 THEN 'Room ID longer than 20 characters' " +
+            "WHEN coalesce(trim(s.roomType), '') = '' THEN 'Missing room type' " +
+            "WHEN char_length(trim(s.roomType)) > 50 THEN 'Room type longer than 50 characters' " +
+            "WHEN import_to_numeric(s.roomPrice) IS NULL OR import_to_numeric(s.roomPrice) < 0 THEN 'Invalid room price' " +
+            // roomPrice is NUMERIC(10, 2), rounded to cents on insert
+            "WHEN round(import_to_numeric(s.roomPrice), 2) >= 1e8 THEN 'Room price of 100000000 or more' " +
+            "WHEN s.availability IS NOT NULL AND lower(trim(s.availability)) NOT IN ('true', 'false', 't', 'f', 'yes', 'no', '1', '0') " +
+            "THEN 'Invalid availability' " +
+            "END AS reason FROM import_rooms s WHERE s.job_id = ?) checked " +
+            "WHERE reason IS NOT NULL ON CONFLICT DO NOTHING",
+
+            "INSERT INTO Rooms (roomId, roomType, roomPrice, availability) " +
+            "SELECT roomId, roomType, roomPrice, availability FROM (" +
+            "SELECT DISTINCT ON (trim(s.roomId)) trim(s.roomId) AS roomId, trim(s.roomType) AS roomType, " +
+            "import_to_numeric(s.roomPrice) AS roomPrice, coalesce(lower(trim(s.availability)) IN ('true', 't', 'yes', '1'), TRUE) AS availability " +
+            "FROM import_rooms s WHERE s.job_id = ? AND coalesce(trim(s.roomId), '') <> '' AND " + NOT_REJECTED + " " +
+            "ORDER BY trim(s.roomId), s.record_no DESC) latest " +
+            "ON CONFLICT (roomId) DO UPDATE SET roomType = EXCLUDED.roomType, roomPrice = EXCLUDED.roomPrice, " +
+            "availability = EXCLUDED.availability",
+
+            // Rooms without an ID get one from the Rooms default
+            "INSERT INTO Rooms (roomType, roomPrice, availability) " +
+            "SELECT trim(s.roomType), import_to_numeric(s.roomPrice), coalesce(lower(trim(s.availability)) IN ('true', 't', 'yes', '1'), TRUE) " +
+            "FROM import_rooms s WHERE s.job_id = ? AND coalesce(trim(s.roomId), '') = '' AND " + NOT_REJECTED + " " +
+            "ORDER BY s.record_no"
+    };
+
+    private static final String[] GUEST_MERGE = {
+            "INSERT INTO import_rejects (job_id, record_no, reason) " +
+            "SELECT job_id, record_no, reason FROM (" +
+            "SELECT s.job_id, s.record_no, CASE " +
+            "WHEN coalesce(trim(s.guestId), '') = '' THEN 'Missing guest ID' " +
+            "WHEN char_length(trim(s.guestId)) > 64 THEN 'Guest ID longer than 64 characters' " +
+            "WHEN greatest(char_length(s.firstName), char_length(s.lastName), char_length(s.middleName)) > 100 " +
+            "THEN 'Name longer than 100 characters' " +
+            "WHEN char_length(s.password) > 255 THEN 'Password longer than 255 characters' " +
+            "WHEN char_length(s.contactNumber) > 50 THEN 'Contact number longer than 50 characters' " +
+            "END AS reason FROM import_guests s WHERE s.job_id = ?) checked " +
+            "WHERE reason IS NOT NULL ON CONFLICT DO NOTHING",
+
+            "INSERT INTO Guests (guestId, firstName, lastName, middleName, password, contactNumber) " +
+            "SELECT guestId, firstName, lastName, middleName, password, contactNumber FROM (" +
+            "SELECT DISTINCT ON (trim(s.guestId)) trim(s.guestId) AS guestId, s.firstName, s.lastName, s.middleName, " +
+            "s.password, s.contactNumber " +
+            "FROM import_guests s WHERE s.job_id = ? AND " + NOT_REJECTED + " " +
+            "ORDER BY trim(s.guestId), s.record_no DESC) latest " +
+            "ON CONFLICT (guestId) DO UPDATE SET firstName = EXCLUDED.firstName, lastName = EXCLUDED.lastName, " +
+            "middleName = EXCLUDED.middleName, password = coalesce(EXCLUDED.password, Guests.password), " +
+            "contactNumber = EXCLUDED.contactNumber"
+    };
+
+    private static final String[] BOOKING_MERGE = {
+            "INSERT INTO import_rejects (job_id, record_no, reason) " +
+            "SELECT job_id, record_no, reason FROM (" +
+            "SELECT s.job_id, s.record_no, CASE " +
+            "WHEN coalesce(trim(s.bookingId), '') = '' THEN 'Missing booking ID' " +
+            "WHEN char_length(trim(s.bookingId)) > 64 THEN 'Booking ID longer than 64 characters' " +
+            "WHEN char_length(s.voucherNumber) > 64 THEN 'Voucher number longer than 64 characters' " +
+            "WHEN char_length(s.paymentStatus) > 30 OR char_length(trim(s.bookingStatus)) > 30 " +
+            "THEN 'Payment or booking status longer than 30 characters' " +            "WHEN import_to_date(s.inDate) IS NULL OR import_to_date(s.outDate) IS NULL THEN 'Invalid check-in or check-out date' " +
+            "WHEN import_to_date(s.outDate) <= import_to_date(s.inDate) THEN 'Check-out must be after check-in' " +
+            "WHEN NOT EXISTS (SELECT 1 FROM Rooms r WHERE r.roomId = trim(s.roomId)) THEN 'Unknown room' " +
+            "WHEN s.guestId IS NOT NULL AND NOT EXISTS (SELECT 1 FROM Guests g WHERE g.guestId = trim(s.guestId)) THEN 'Unknown guest' " +
+            "WHEN trim(s.bookingStatus) IS DISTINCT FROM 'Cancelled' AND EXISTS (SELECT 1 FROM Bookings b " +
+            "WHERE b.roomId = trim(s.roomId) AND b.bookingId <> trim(s.bookingId) " +
+            "AND b.inDate < import_to_date(s.outDate) AND b.outDate > import_to_date(s.inDate) " +
+            "AND b.bookingStatus IS DISTINCT FROM 'Cancelled') THEN 'Room already booked for overlapping dates' " +
+            "END AS reason FROM import_bookings s WHERE s.job_id = ?) checked " +
+            "WHERE reason IS NOT NULL ON CONFLICT DO NOTHING",
+
+            // Within the file, a booking starting before an earlier-starting booking of the same room has ended is
+            // rejected; this is conservative when several bookings overlap in a chain
+            "INSERT INTO import_rejects (job_id, record_no, reason) " +
+            "SELECT job_id, record_no, 'Overlaps another booking of the same room in this file' FROM (" +
+            "SELECT job_id, record_no, inDate, max(outDate) OVER (PARTITION BY roomId ORDER BY inDate, record_no " +
+            "ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING) AS previousOut FROM (" +
+            "SELECT DISTINCT ON (trim(s.bookingId)) s.job_id, s.record_no, trim(s.roomId) AS roomId, " +
+            "import_to_date(s.inDate) AS inDate, import_to_date(s.outDate) AS outDate, trim(s.bookingStatus) AS bookingStatus " +
+            "FROM import_bookings s WHERE s.job_id = ? AND " + NOT_REJECTED + " " +
+            "ORDER BY trim(s.bookingId), s.record_no DESC) latest " +
+            "WHERE bookingStatus IS DISTINCT FROM 'Cancelled') ordered " +
+            "WHERE inDate < previousOut ON CONFLICT DO NOTHING",
+
+            "INSERT INTO Bookings (bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus) " +
+            "SELECT bookingId, guestId, roomId, voucherNumber, inDate, outDate, specialPreference, paymentStatus, bookingStatus FROM (" +
+            "SELECT DISTINCT ON (trim(s.bookingId)) trim(s.bookingId) AS bookingId, trim(s.guestId) AS guestId, " +
+            "trim(s.roomId) AS roomId, s.voucherNumber, import_to_date(s.inDate) AS inDate, import_to_date(s.outDate) AS outDate, " +
+            "s.specialPreference, s.paymentStatus, trim(s.bookingStatus) AS bookingStatus " +
+            "FROM import_bookings s WHERE s.job_id = ? AND " + NOT_REJECTED + " " +
+            "ORDER BY trim(s.bookingId), s.record_no DESC) latest " +
+            "ON CONFLICT (bookingId) DO UPDATE SET guestId = EXCLUDED.guestId, roomId = EXCLUDED.roomId, " +
+            "voucherNumber = EXCLUDED.voucherNumber, inDate = EXCLUDED.inDate, outDate = EXCLUDED.outDate, " +
+            "specialPreference = EXCLUDED.specialPreference, paymentStatus = EXCLUDED.paymentStatus, " +
+            "bookingStatus = EXCLUDED.bookingStatus"
+    };
+
+    /**
+     * Imports a CSV file, or resumes the unfinished import of the same file.
+     * The file must be UTF-8, with a header line naming the columns of the entity in order
+     * (see {@link ImportEntity#getColumns()}); empty unquoted fields are read as missing values.
+     * A file counts as the same file when its name, size and a SHA-256 hash of its content match an unfinished
+     * import of the same entity.
+     *
+     * @param entity   the kind of records in the file
+     * @param file     the CSV file
+     * @param progress receives a report after each committed chunk and at each phase change; may be null
+     * @return the outcome of the import
+     */
+    public ImportResult importCsv(ImportEntity entity, Path file, Consumer<ImportProgress> progress) {
+        long start = System.nanoTime();
+        Consumer<ImportProgress> listener = progress != null ? progress : report -> { };
+        // Set as the import gets under way, so a failure can be recorded against the job
+        long[] jobId = {-1};
+        long[] recordsRead = {0};
+
+        return Metrics.timed("ImportService.importCsv", op -> {
+            long size = Files.size(file);
+            Job job = findOrCreateJob(entity, file.getFileName().toString(), size, hash(file));
+            jobId[0] = job.jobId;
+            recordsRead[0] = job.recordsRead;
+            if (STATUS_LOADING.equals(job.status)) {
+                if (recordsRead[0] > 0) {
+                    logger.info("Resuming import job {} of {} after {} records", job.jobId, file, recordsRead[0]);
+                }
+                recordsRead[0] = load(entity, file, job, size, start, listener);
+            }
+
+            listener.accept(new ImportProgress(job.jobId, ImportProgress.Phase.MERGING, recordsRead[0], size, size, System.nanoTime() - start));
+            long[] counts = merge(entity, job.jobId);
+            op.rows(counts[0]);
+            if (entity == ImportEntity.ROOMS) {
+                RoomCatalog.getInstance().invalidate();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            listener.accept(new ImportProgress(job.jobId, ImportProgress.Phase.DONE, recordsRead[0], size, size, elapsed));
+            ImportResult result = new ImportResult(job.jobId, true, recordsRead[0], counts[0], counts[1],
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), null);
+            logger.info("Imported {} from {}: {}", entity.getKey(), file, result);
+            return result;
+        }, e -> {
+            logger.error("Error importing {} from {}", entity.getKey(), file, e);
+            if (jobId[0] >= 0) {
+                recordFailure(jobId[0], e.getMessage());
+            }
+            long elapsed = System.nanoTime() - start;
+            listener.accept(new ImportProgress(jobId[0], ImportProgress.Phase.DONE, recordsRead[0], 0, 0, elapsed));
+            return new ImportResult(jobId[0], false, recordsRead[0], 0, 0, TimeUnit.NANOSECONDS.toMillis(elapsed), e.getMessage());
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #importCsv(ImportEntity, Path, Consumer)}, run on the database worker threads.
+     * Progress reports are delivered on the worker thread.
+     *
+     * @param entity   the kind of records in the file
+     * @param file     the CSV file
+     * @param progress receives progress reports; may be null
+     * @return a future completed with the outcome of the import
+     */
+    public CompletableFuture<ImportResult> importCsvAsync(ImportEntity entity, Path file, Consumer<ImportProgress> progress) {
+        return DatabaseExecutor.supplyAsync(() -> importCsv(entity, file, progress));
+    }
+
+    private static Job findOrCreateJob(ImportEntity entity, String sourceName, long sourceSize, String sourceHash)
+            throws SQLException {
+        String findSql = "SELECT job_id, status, records_read FROM import_jobs " +
+                "WHERE entity = ? AND source_name = ? AND source_size = ? AND source_hash = ? AND status <> ? " +
+                "ORDER BY job_id DESC LIMIT 1";
+        String createSql = "INSERT INTO import_jobs (entity, source_name, source_size, source_hash) VALUES (?, ?, ?, ?) " +
+                "RETURNING job_id";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(findSql)) {
+                pstmt.setString(1, entity.getKey());
+                pstmt.setString(2, sourceName);
+                pstmt.setLong(3, sourceSize);
+                pstmt.setString(4, sourceHash);
+                pstmt.setString(5, STATUS_MERGED);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new Job(rs.getLong("job_id"), rs.getString("status"), rs.getLong("records_read"));
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(createSql)) {
+                pstmt.setString(1, entity.getKey());
+                pstmt.setString(2, sourceName);
+                pstmt.setLong(3, sourceSize);
+                pstmt.setString(4, sourceHash);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    return new Job(rs.getLong("job_id"), STATUS_LOADING, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the content of a file, so an import only resumes on the file it started with.
+     *
+     * @return the SHA-256 hash of the file, in hexadecimal
+     */
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Copies the records of the file not yet loaded into the staging table, one transaction per chunk.
+     *
+     * @return the total number of records read from the file
+     */
+    private static long load(ImportEntity entity, Path file, Job job, long size, long start,
+                             Consumer<ImportProgress> listener) throws SQLException, IOException {
+        List<String> columns = entity.getColumns();
+        String copySql = "COPY " + entity.getStagingTable() + " (job_id, record_no, " + String.join(", ", columns) +
+                ") FROM STDIN WITH (FORMAT csv)";
+        String rejectSql = "INSERT INTO import_rejects (job_id, record_no, reason) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+        String progressSql = "UPDATE import_jobs SET records_read = ?, status = ?, error = NULL, updated_at = now() WHERE job_id = ?";
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             Connection conn = DatabaseConnection.getConnection()) {
+            long bytesRead = 0;
+            String header = readRecord(reader);
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            bytesRead += header.getBytes(StandardCharsets.UTF_8).length + 1;
+            checkHeader(header.startsWith("\uFEFF") ? header.substring(1) : header, columns);
+
+            long recordsRead = 0;
+            String record;
+            while (recordsRead < job.recordsRead && (record = readRecord(reader)) != null) {
+                bytesRead += record.getBytes(StandardCharsets.UTF_8).length + 1;
+                recordsRead++;
+            }
+
+            conn.setAutoCommit(false);
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            while (true) {
+                List<Long> malformed = new ArrayList<>();
+                int chunk = 0;
+                CopyIn copyIn = copyManager.copyIn(copySql);
+                try {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_BYTES + 1024);
+                    while (chunk < CHUNK_RECORDS && (record = readRecord(reader)) != null) {
+                        chunk++;
+                        recordsRead++;
+                        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+                        bytesRead += bytes.length + 1;
+                        if (countFields(record) != columns.size()) {
+                            malformed.add(recordsRead);
+                            continue;
+                        }
+                        buffer.write((job.jobId + "," + recordsRead + ",").getBytes(StandardCharsets.US_ASCII));
+                        buffer.write(bytes);
+                        buffer.write('\n');
+                        if (buffer.size() >= COPY_BUFFER_BYTES) {
+                            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                            buffer.reset();
+                        }
+                    }
+                    if (buffer.size() > 0) {
+                        copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    }
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+
+                if (!malformed.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(rejectSql)) {
+                        for (long recordNo : malformed) {
+                            pstmt.setLong(1, job.jobId);
+                            pstmt.setLong(2, recordNo);
+                            pstmt.setString(3, "Expected " + columns.size() + " fields");
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+                boolean finished = chunk < CHUNK_RECORDS;
+                try (PreparedStatement pstmt = conn.prepareStatement(progressSql)) {
+                    pstmt.setLong(1, recordsRead);
+                    pstmt.setString(2, finished ? STATUS_LOADED : STATUS_LOADING);
+                    pstmt.setLong(3, job.jobId);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+
+                ImportProgress report = new ImportProgress(job.jobId, ImportProgress.Phase.LOADING, recordsRead, bytesRead, size,
+                        System.nanoTime() - start);
+                logger.info("Import {}", report);
+                listener.accept(report);
+                if (finished) {
+                    break;
+                }
+            }
+            return recordsRead;
+        }
+    }
+
+    /**
+     * Validates the staged rows of a job and merges them into the application tables in one transaction.
+     *
+     * @return the number of rows merged and the number of rows rejected
+     */
+    private static long[] merge(ImportEntity entity, long jobId) throws SQLException {
+        String[] statements;
+        switch (entity) {
+            case ROOMS:
+                statements = ROOM_MERGE;
+                break;
+            case GUESTS:
+                statements = GUEST_MERGE;
+                break;
+            default:
+                statements = BOOKING_MERGE;
+                break;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL hotel.suppress_notify = 'on'");
+            }
+
+            long merged = 0;
+            for (String sql : statements) {
+                int count = executeForJob(conn, sql, jobId);
+                if (!sql.startsWith("INSERT INTO import_rejects")) {
+                    merged += count;
+                }
+            }
+
+            long rejected;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT count(*) FROM import_rejects WHERE job_id = ?")) {
+                pstmt.setLong(1, jobId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    rejected = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE import_jobs SET status = ?, rows_merged = ?, rows_rejected = ?, error = NULL, updated_at = now() WHERE job_id = ?")) {
+                pstmt.setString(1, STATUS_MERGED);
+                pstmt.setLong(2, merged);
+                pstmt.setLong(3, rejected);
+                pstmt.setLong(4, jobId);
+                pstmt.executeUpdate();
+            }
+            executeForJob(conn, "DELETE FROM " + entity.getStagingTable() + " WHERE job_id = ?", jobId);
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+                pstmt.setString(1, ChangeNotifier.CHANNEL);
+                pstmt.setString(2, "all:" + ChangeNotifier.RESYNC + ":import " + jobId);
+                pstmt.execute();
+            }
+            conn.commit();
+            return new long[]{merged, rejected};
+        }
+    }
+
+    private static int executeForJob(Connection conn, String sql, long jobId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int parameters = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                pstmt.setLong(i, jobId);
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static void recordFailure(long jobId, String error) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE import_jobs SET error = ?, updated_at = now() WHERE job_id = ?")) {
+            pstmt.setString(1, error);
+            pstmt.setLong(2, jobId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error recording the failure of import job {}", jobId, e);
+        }
+    }
+
+    private static void checkHeader(String header, List<String> columns) throws IOException {
+        String[] names = header.split(",", -1);
+        boolean matches = names.length == columns.size();
+        for (int i = 0; matches && i < names.length; i++) {
+            matches = names[i].trim().replace("\"", "").equalsIgnoreCase(columns.get(i));
+        }
+        if (!matches) {
+            throw new IOException("Expected the header " + String.join(",", columns) + " but found " + header);
+        }
+    }
+
+    /**
+     * Reads one CSV record, which spans several lines when a quoted field contains line breaks.
+     *
+     * @return the record without its line terminator, or null at the end of the file
+     */
+    private static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || !hasOpenQuote(line)) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record) && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+        }
+        return record.toString();
+    }
+
+    private static boolean hasOpenQuote(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private static int countFields(String record) {
+        int fields = 1;
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * An import job as found or created at the start of an import.
+     */
+    private static final class Job {
+        private final long jobId;
+        private final String status;
+        private final long recordsRead;
+
+        private Job(long jobId, String status, long recordsRead) {
+            this.jobId = jobId;
+            this.status = status;
+            this.recordsRead = recordsRead;
+        }
+    }
+}
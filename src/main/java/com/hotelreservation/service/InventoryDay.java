@@ -0,0 +1,59 @@
+package com.hotelreservation.service;
+
+import java.time.LocalDate;
+
+/**
+ * The inventory of one room type on one night, as counted by the inventory ledger.
+ */
+public class InventoryDay {
+
+    private final String roomType;
+    private final LocalDate date;
+    private final int total;
+    private final int sold;
+    private final int held;
+    private final int outOfOrder;
+
+    /**
+     * Constructs an InventoryDay.
+     *
+     * @param roomType   the room type
+     * @param date       the night
+     * @param total      rooms of the type
+     * @param sold       rooms taken by bookings that are not cancelled
+     * @param held       rooms held for reservations in progress
+     * @param outOfOrder rooms of the type that are not available for sale
+     */
+    public InventoryDay(String roomType, LocalDate date, int total, int sold, int held, int outOfOrder) {
+        this.roomType = roomType;
+        this.date = date;
+        this.total = total;
+        this.sold = sold;
+        this.held = held;
+        this.outOfOrder = outOfOrder;
+    }
+
+    /**
+     * Returns the number of rooms of the type that can still be sold for the night.
+     *
+     * @return the remaining rooms, never negative
+     */
+    public int getRemaining() {
+        return Math.max(0, total - sold - held - outOfOrder);
+    }
+
+    // Getters
+
+    public String getRoomType() { return roomType; }
+    public LocalDate getDate() { return date; }
+    public int getTotal() { return total; }
+    public int getSold() { return sold; }
+    public int getHeld() { return held; }
+    public int getOutOfOrder() { return outOfOrder; }
+
+    @Override
+    public String toString() {
+        return roomType + " " + date + ": " + getRemaining() + " of " + total + " left (" + sold + " sold, "
+                + held + " held, " + outOfOrder + " out of order)";
+    }
+}
@@ -0,0 +1,211 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service class for the room type inventory ledger of {@code V8__inventory_ledger.sql}: how many rooms of a type
+ * are left on each night, read from per-night counters with a single range scan of the ledger's primary key.
+ * The counters are maintained by triggers in the same transaction as every booking and room write;
+ * {@link #reconcile()} checks them against a recount from the Rooms and Bookings tables and rebuilds them if
+ * they have drifted.
+ */
+public class InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final NamedStatement INVENTORY_RANGE = StatementRegistry.register("inventory.range",
+            "SELECT stay_date, total, sold, held, out_of_order FROM room_type_inventory " +
+            "WHERE room_type = ? AND stay_date >= ? AND stay_date < ? ORDER BY stay_date");
+
+    private static final NamedStatement MINIMUM_REMAINING = StatementRegistry.register("inventory.minimumRemaining",
+            "SELECT count(*) AS nights, min(total - sold - held - out_of_order) AS remaining FROM room_type_inventory " +
+            "WHERE room_type = ? AND stay_date >= ? AND stay_date < ?");
+
+    private static final String DRIFT = "SELECT count(*) FROM room_type_inventory i " +
+            "FULL JOIN room_type_inventory_expected e ON e.room_type = i.room_type AND e.stay_date = i.stay_date " +
+            "LEFT JOIN (SELECT roomType, count(*) AS total, count(*) FILTER (WHERE NOT availability) AS out_of_order " +
+            "FROM Rooms GROUP BY roomType) c ON c.roomType = coalesce(i.room_type, e.room_type) " +
+            "WHERE i.room_type IS NULL OR i.total <> coalesce(c.total, 0) OR i.out_of_order <> coalesce(c.out_of_order, 0) " +
+            "OR i.sold <> coalesce(e.sold, 0) OR i.held <> coalesce(e.held, 0)";
+
+    /**
+     * Retrieves the inventory of a room type for each night of a stay.
+     *
+     * @param roomType     the room type
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return one entry per night of {@code [checkInDate, checkOutDate)}, or an empty list if there was an error
+     */
+    public List<InventoryDay> getInventory(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<InventoryDay> inventory = new ArrayList<>();
+        return Metrics.timed("InventoryService.getInventory", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INVENTORY_RANGE.getSql())) {
+
+                pstmt.setString(1, roomType);
+                pstmt.setDate(2, Date.valueOf(checkInDate));
+                pstmt.setDate(3, Date.valueOf(checkOutDate));
+
+                // Nights without a ledger row have nothing sold or held; the room counts come from the catalog
+                InventoryDay unsold = unsoldNight(roomType, checkInDate);
+                LocalDate night = checkInDate;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDate date = rs.getDate("stay_date").toLocalDate();
+                        for (; night.isBefore(date); night = night.plusDays(1)) {
+                            inventory.add(new InventoryDay(roomType, night, unsold.getTotal(), 0, 0, unsold.getOutOfOrder()));
+                        }
+                        inventory.add(new InventoryDay(roomType, date, rs.getInt("total"), rs.getInt("sold"),
+                                rs.getInt("held"), rs.getInt("out_of_order")));
+                        night = date.plusDays(1);
+                    }
+                }
+                for (; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+                    inventory.add(new InventoryDay(roomType, night, unsold.getTotal(), 0, 0, unsold.getOutOfOrder()));
+                }
+                op.rows(inventory.size());
+            }
+            return inventory;
+        }, e -> {
+            logger.error("Error fetching room type inventory", e);
+            inventory.clear();
+            return inventory;
+        });
+    }
+
+    /**
+     * Returns the number of rooms of a type that can still be sold on every night of a stay,
+     * i.e. the smallest number remaining on any of its nights.
+     *
+     * @param roomType     the room type
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return the rooms left for the whole stay, or -1 if there was an error
+     */
+    public int getMinimumRemaining(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return Metrics.timed("InventoryService.getMinimumRemaining", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(MINIMUM_REMAINING.getSql())) {
+
+                pstmt.setString(1, roomType);
+                pstmt.setDate(2, Date.valueOf(checkInDate));
+                pstmt.setDate(3, Date.valueOf(checkOutDate));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    long nights = rs.getLong("nights");
+                    int remaining = rs.getInt("remaining");
+                    if (nights < ChronoUnit.DAYS.between(checkInDate, checkOutDate)) {
+                        // Some nights have no ledger row yet, so nothing is sold on them
+                        int unsold = unsoldNight(roomType, checkInDate).getRemaining();
+                        remaining = nights > 0 ? Math.min(remaining, unsold) : unsold;
+                    }
+                    op.rows(nights);
+                    return Math.max(0, remaining);
+                }
+            }
+        }, e -> {
+            logger.error("Error fetching remaining room type inventory", e);
+            return -1;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #getMinimumRemaining(String, LocalDate, LocalDate)}, run on the database worker threads.
+     *
+     * @param roomType     the room type
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return a future completed with the rooms left for the whole stay, or -1 if there was an error
+     */
+    public CompletableFuture<Integer> getMinimumRemainingAsync(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return DatabaseExecutor.supplyAsync(() -> getMinimumRemaining(roomType, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Compares the ledger with a recount from the Rooms and Bookings tables and, if any counter differs,
+     * rebuilds the ledger from the recount. The rebuild locks the ledger against concurrent bookings,
+     * which wait for it to finish; the comparison does not.
+     *
+     * @return the number of counter rows that differed, or -1 if there was an error
+     */
+    public long reconcile() {
+        long start = System.nanoTime();
+        return Metrics.timed("InventoryService.reconcile", op -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                long drift = countDrift(conn);
+                if (drift > 0) {
+                    conn.setAutoCommit(false);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("LOCK TABLE room_type_inventory IN EXCLUSIVE MODE");
+                        drift = countDrift(conn);
+                        if (drift > 0) {
+                            stmt.execute("SELECT inventory_rebuild()");
+                        }
+                    }
+                    conn.commit();
+                }
+                op.rows(drift);
+                if (drift > 0) {
+                    logger.warn("Rebuilt the room type inventory; {} counter rows had drifted", drift);
+                } else {
+                    logger.info("Room type inventory reconciled in {} ms; no drift", (System.nanoTime() - start) / 1_000_000);
+                }
+                return drift;
+            }
+        }, e -> {
+            logger.error("Error reconciling the room type inventory", e);
+            return -1L;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #reconcile()}, run on the database worker threads.
+     *
+     * @return a future completed with the number of counter rows that differed, or -1 if there was an error
+     */
+    public CompletableFuture<Long> reconcileAsync() {
+        return DatabaseExecutor.supplyAsync(this::reconcile);
+    }
+
+    private static long countDrift(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(DRIFT)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Returns the inventory of a night on which nothing of a type is sold or held, from the room catalog.
+     */
+    private static InventoryDay unsoldNight(String roomType, LocalDate date) {
+        List<Room> rooms = RoomCatalog.getInstance().getRoomsOfType(roomType);
+        int outOfOrder = 0;
+        for (Room room : rooms) {
+            if (!room.isAvailability()) {
+                outOfOrder++;
+            }
+        }
+        return new InventoryDay(roomType, date, rooms.size(), 0, 0, outOfOrder);
+    }
+}
@@ -2,11 +2,16 @@ package com.hotelreservation.service;
 
 import com.hotelreservation.model.Staff;
 import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +23,9 @@ import org.slf4j.LoggerFactory;
 public class LoginService {
     private static final Logger logger = LoggerFactory.getLogger(LoginService.class);
 
+    private static final NamedStatement STAFF_LOGIN = StatementRegistry.register("staff.login",
+            "SELECT staffId, firstName, lastName, middleName, password, position FROM Staffs WHERE staffId = ? AND password = ?");
+
     /**
      * Authenticates staff based on their staff ID and password.
      *
@@ -26,30 +34,43 @@ public class LoginService {
      * @return a Staff object if authentication is successful, null otherwise
      */
     public Staff authenticateStaff(String staffId, String password) {
-        String sql = "SELECT * FROM Staffs WHERE staffId = ? AND password = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return Metrics.timed("LoginService.authenticateStaff", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(STAFF_LOGIN.getSql())) {
 
-            pstmt.setString(1, staffId);
-            pstmt.setString(2, password);
+                pstmt.setString(1, staffId);
+                pstmt.setString(2, password);
 
-            ResultSet rs = pstmt.executeQuery();
+                ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return new Staff(
-                        rs.getString("staffId"),
-                        rs.getString("firstName"),
-                        rs.getString("lastName"),
-                        rs.getString("middleName"),
-                        rs.getString("password"),
-                        rs.getString("position")
-                );
+                if (rs.next()) {
+                    op.rows(1);
+                    return new Staff(
+                            rs.getString("staffId"),
+                            rs.getString("firstName"),
+                            rs.getString("lastName"),
+                            rs.getString("middleName"),
+                            rs.getString("password"),
+                            rs.getString("position")
+                    );
+                }
             }
-        } catch (SQLException e) {
+            return null;
+        }, e -> {
             logger.error("Error authenticating staff", e);
-        }
+            return null;
+        });
+    }
 
-        return null;
+    /**
+     * Asynchronous variant of {@link #authenticateStaff(String,String)}, run on the database worker threads.
+     *
+     * @param staffId the staff's ID
+     * @param password the staff's password
+     *
+     * @return a future completed with the authenticated Staff, or null if authentication failed
+     */
+    public CompletableFuture<Staff> authenticateStaffAsync(String staffId, String password) {
+        return DatabaseExecutor.supplyAsync(() -> authenticateStaff(staffId, password));
     }
 }
@@ -0,0 +1,75 @@
+package com.hotelreservation.service;
+
+import java.time.LocalDate;
+
+/**
+ * Occupancy and revenue figures for one room type, or all room types, over one day or a range of days,
+ * as reported by {@link AnalyticsService}.
+ */
+public class OccupancyStats {
+
+    private final LocalDate date;
+    private final String roomType;
+    private final long roomNightsAvailable;
+    private final long roomNightsSold;
+    private final double revenue;
+
+    /**
+     * Constructs an OccupancyStats.
+     *
+     * @param date                the day, or null for figures over a range of days
+     * @param roomType            the room type, or null for all room types
+     * @param roomNightsAvailable room nights on offer: rooms times days
+     * @param roomNightsSold      room nights taken by bookings that are not cancelled
+     * @param revenue             room revenue of the nights sold
+     */
+    public OccupancyStats(LocalDate date, String roomType, long roomNightsAvailable, long roomNightsSold, double revenue) {
+        this.date = date;
+        this.roomType = roomType;
+        this.roomNightsAvailable = roomNightsAvailable;
+        this.roomNightsSold = roomNightsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Returns the share of available room nights that were sold.
+     *
+     * @return the occupancy rate between 0 and 1, or 0 if no room nights were available
+     */
+    public double getOccupancyRate() {
+        return roomNightsAvailable > 0 ? (double) roomNightsSold / roomNightsAvailable : 0;
+    }
+
+    /**
+     * Returns the average daily rate: revenue per room night sold.
+     *
+     * @return the ADR, or 0 if no room nights were sold
+     */
+    public double getAverageDailyRate() {
+        return roomNightsSold > 0 ? revenue / roomNightsSold : 0;
+    }
+
+    /**
+     * Returns the revenue per available room night.
+     *
+     * @return the RevPAR, or 0 if no room nights were available
+     */
+    public double getRevenuePerAvailableRoom() {
+        return roomNightsAvailable > 0 ? revenue / roomNightsAvailable : 0;
+    }
+
+    // Getters
+
+    public LocalDate getDate() { return date; }
+    public String getRoomType() { return roomType; }
+    public long getRoomNightsAvailable() { return roomNightsAvailable; }
+    public long getRoomNightsSold() { return roomNightsSold; }
+    public double getRevenue() { return revenue; }
+
+    @Override
+    public String toString() {
+        return (date != null ? date + " " : "") + (roomType != null ? roomType : "all types")
+                + String.format(": occupancy %.1f%%, ADR %.2f, RevPAR %.2f", 100 * getOccupancyRate(),
+                getAverageDailyRate(), getRevenuePerAvailableRoom());
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotelreservation.service;
+
+/**
+ * Outcome of reserving a room with {@link BookingService#reserveRoom(com.hotelreservation.model.Booking, com.hotelreservation.model.Guest)}.
+ */
+public enum ReservationResult {
+    /** The booking was created. */
+    CREATED,
+    /** The room is already booked for dates overlapping the requested stay; nothing was written. */
+    ROOM_TAKEN,
+    /** The booking could not be written, e.g. because the database is unreachable. */
+    FAILED
+}
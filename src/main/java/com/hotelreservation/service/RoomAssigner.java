@@ -0,0 +1,233 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Chooses rooms for stays so that the calendar of each room type stays in as few, as long pieces as possible.
+ * Choosing a room for a stay is interval scheduling: the stay's dates are fixed, so the choice only decides which
+ * free stretch of nights it cuts into. A room fits best when the stay closes a gap exactly or touches a neighbouring
+ * booking, worse the larger the free stretches it leaves on either side, and worst when it leaves a gap of
+ * {@value #SHORT_GAP_NIGHTS} night between two bookings, which is practically unsellable.
+ * The same measure drives {@link AvailabilityIndex#findBestFitRoom} for a single stay and {@link #plan} for
+ * re-assigning all future bookings of a type at once.
+ */
+public final class RoomAssigner {
+
+    /** Gaps between two bookings of at most this many nights count as unsellable. */
+    static final int SHORT_GAP_NIGHTS = 1;
+
+    // A side without a neighbouring booking counts like a gap of a year
+    private static final long OPEN_GAP_NIGHTS = 365;
+    private static final long SHORT_GAP_COST = 10_000;
+    private static final long SPLIT_COST = 7;
+    // Moving a booking is worth it when it avoids an unsellable gap, not to shave a few free nights off a split
+    private static final long MOVE_COST = 20;
+
+    private RoomAssigner() {
+    }
+
+    /**
+     * Returns how badly a stay fits between its neighbouring bookings in a room; lower is better.
+     *
+     * @param gapBefore the free nights between the previous booking and the check-in, or {@link Long#MAX_VALUE} if there is none
+     * @param gapAfter  the free nights between the check-out and the next booking, or {@link Long#MAX_VALUE} if there is none
+     * @return the cost of putting the stay in the room
+     */
+    static long fitCost(long gapBefore, long gapAfter) {
+        return sideCost(gapBefore) + sideCost(gapAfter);
+    }
+
+    private static long sideCost(long gap) {
+        if (gap == 0) {
+            return 0;
+        }
+        if (gap <= SHORT_GAP_NIGHTS) {
+            return SHORT_GAP_COST;
+        }
+        return SPLIT_COST + Math.min(gap, OPEN_GAP_NIGHTS);
+    }
+
+    /**
+     * Re-assigns the bookings of one room type checking in on or after {@code fromDate} to the rooms of the type,
+     * keeping the bookings that check in earlier where they are. Bookings are placed in order of check-in, longest
+     * first, each in the open room it fits best, with a small penalty for leaving the room it is already in; rooms
+     * that are not open for sale only keep the bookings that cannot move. Placing in check-in order means every booking placed
+     * so far lies before the current one, so a room's fit only depends on its latest check-out (and on the holds in
+     * it), which keeps a year of bookings for a few hundred rooms to a few milliseconds. The result is proposed
+     * only if it leaves fewer unsellable nights between bookings than the current assignment.
+     *
+     * @param roomType the room type to re-assign
+     * @param fromDate the first check-in date of the bookings that may move
+     * @param rooms    the rooms; rooms of other types are ignored
+     * @param bookings the bookings in those rooms checking out after {@code fromDate}; cancelled ones and bookings in
+     *                 other rooms are ignored
+     * @param holds    the active holds, whose rooms and nights are kept free of moved bookings
+     * @return the plan, without moves if the assignment cannot be improved
+     */
+    public static AssignmentPlan plan(String roomType, LocalDate fromDate, List<Room> rooms, List<Booking> bookings, List<RoomHold> holds) {
+        long from = fromDate.toEpochDay();
+        List<Room> typeRooms = new ArrayList<>();
+        Map<String, Integer> roomIndexes = new HashMap<>();
+        for (Room room : rooms) {
+            if (roomType.equals(room.getRoomType()) && !roomIndexes.containsKey(room.getRoomId())) {
+                roomIndexes.put(room.getRoomId(), typeRooms.size());
+                typeRooms.add(room);
+            }
+        }
+        int roomCount = typeRooms.size();
+
+        // Current assignment; the latest check-out of the bookings that stay or are already placed, per room
+        List<TreeMap<Long, Long>> current = newOccupancy(roomCount);
+        long[] lastEnds = new long[roomCount];
+        Arrays.fill(lastEnds, Long.MIN_VALUE);
+        List<Stay> movable = new ArrayList<>();
+        for (Booking booking : bookings) {
+            Integer index = roomIndexes.get(booking.getRoomId());
+            long start = booking.getInDate().toEpochDay();
+            long end = booking.getOutDate().toEpochDay();
+            if (index == null || !booking.occupiesRoom() || end <= from || end <= start) {
+                continue;
+            }
+            current.get(index).put(start, end);
+            if (start < from) {
+                lastEnds[index] = Math.max(lastEnds[index], end);
+            } else {
+                movable.add(new Stay(booking.getBookingId(), index, start, end));
+            }
+        }
+        List<TreeMap<Long, Long>> heldNights = new ArrayList<>(Collections.nCopies(roomCount, null));
+        for (RoomHold hold : holds) {
+            Integer index = roomIndexes.get(hold.getRoomId());
+            if (index != null) {
+                if (heldNights.get(index) == null) {
+                    heldNights.set(index, new TreeMap<>());
+                }
+                occupy(heldNights.get(index), hold.getCheckInDate().toEpochDay(), hold.getCheckOutDate().toEpochDay());
+            }
+        }
+        int shortGapsBefore = countShortGapNights(current);
+        movable.sort((a, b) -> a.start != b.start ? Long.compare(a.start, b.start) : Long.compare(b.end, a.end));
+
+        List<AssignmentPlan.Move> moves = new ArrayList<>();
+        for (Stay stay : movable) {
+            int best = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int i = 0; i < roomCount; i++) {
+                if (lastEnds[i] > stay.start || !typeRooms.get(i).isAvailability()) {
+                    continue;
+                }
+                long previousEnd = lastEnds[i];
+                long nextStart = Long.MAX_VALUE;
+                TreeMap<Long, Long> held = heldNights.get(i);
+                if (held != null) {
+                    Map.Entry<Long, Long> previous = held.lowerEntry(stay.end);
+                    if (previous != null && previous.getValue() > stay.start) {
+                        continue;
+                    }
+                    if (previous != null) {
+                        previousEnd = Math.max(previousEnd, previous.getValue());
+                    }
+                    Long next = held.ceilingKey(stay.end);
+                    nextStart = next != null ? next : Long.MAX_VALUE;
+                }
+                long cost = fitCost(previousEnd != Long.MIN_VALUE ? stay.start - previousEnd : Long.MAX_VALUE,
+                        nextStart != Long.MAX_VALUE ? nextStart - stay.end : Long.MAX_VALUE);
+                if (i != stay.roomIndex) {
+                    cost += MOVE_COST;
+                }
+                if (cost < bestCost || (cost == bestCost && i == stay.roomIndex)) {
+                    best = i;
+                    bestCost = cost;
+                }
+            }
+            if (best < 0) {
+                // The greedy order could not fit everything; keep the current assignment
+                return new AssignmentPlan(roomType, fromDate, new ArrayList<>(), shortGapsBefore, shortGapsBefore);
+            }
+            lastEnds[best] = stay.end;
+            if (best != stay.roomIndex) {
+                moves.add(new AssignmentPlan.Move(stay.bookingId, typeRooms.get(stay.roomIndex).getRoomId(),
+                        typeRooms.get(best).getRoomId(), LocalDate.ofEpochDay(stay.start), LocalDate.ofEpochDay(stay.end)));
+                current.get(stay.roomIndex).remove(stay.start);
+            }
+        }
+        for (AssignmentPlan.Move move : moves) {
+            current.get(roomIndexes.get(move.getToRoomId())).put(move.getInDate().toEpochDay(), move.getOutDate().toEpochDay());
+        }
+
+        int shortGapsAfter = countShortGapNights(current);
+        if (shortGapsAfter >= shortGapsBefore) {
+            return new AssignmentPlan(roomType, fromDate, new ArrayList<>(), shortGapsBefore, shortGapsBefore);
+        }
+        return new AssignmentPlan(roomType, fromDate, moves, shortGapsBefore, shortGapsAfter);
+    }
+
+    private static int countShortGapNights(List<TreeMap<Long, Long>> occupancy) {
+        int nights = 0;
+        for (TreeMap<Long, Long> stays : occupancy) {
+            long previousEnd = Long.MIN_VALUE;
+            for (Map.Entry<Long, Long> stay : stays.entrySet()) {
+                long gap = stay.getKey() - previousEnd;
+                if (previousEnd != Long.MIN_VALUE && gap > 0 && gap <= SHORT_GAP_NIGHTS) {
+                    nights += (int) gap;
+                }
+                previousEnd = Math.max(previousEnd, stay.getValue());
+            }
+        }
+        return nights;
+    }
+
+    private static List<TreeMap<Long, Long>> newOccupancy(int rooms) {
+        List<TreeMap<Long, Long>> occupancy = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            occupancy.add(new TreeMap<>());
+        }
+        return occupancy;
+    }
+
+    /**
+     * Marks the nights {@code [start, end)} as taken, merging them with the taken stretches they overlap or touch.
+     */
+    private static void occupy(TreeMap<Long, Long> occupancy, long start, long end) {
+        Map.Entry<Long, Long> previous = occupancy.floorEntry(start);
+        if (previous != null && previous.getValue() >= start) {
+            start = previous.getKey();
+            end = Math.max(end, previous.getValue());
+            occupancy.remove(previous.getKey());
+        }
+        Map.Entry<Long, Long> next = occupancy.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            occupancy.remove(next.getKey());
+            next = occupancy.ceilingEntry(start);
+        }
+        occupancy.put(start, end);
+    }
+
+    /**
+     * A booking's nights {@code [start, end)} as epoch days, in one room of the type.
+     */
+    private static final class Stay {
+        private final String bookingId;
+        private final int roomIndex;
+        private final long start;
+        private final long end;
+
+        private Stay(String bookingId, int roomIndex, long start, long end) {
+            this.bookingId = bookingId;
+            this.roomIndex = roomIndex;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
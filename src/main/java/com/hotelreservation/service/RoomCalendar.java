@@ -0,0 +1,284 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which rooms are booked on which nights over a window of days, for the availability grid.
+ * Each room has a bitset of one bit per night of the window, packed into longs, so a stay or a search over
+ * any range of nights is a handful of word-level AND/OR operations rather than a scan of bookings.
+ * A calendar is built by {@link RoomService#getRoomCalendar(LocalDate, int)} and kept current with
+ * {@link #recordBooking(Booking)} and {@link #removeBooking(String)}; it covers a fixed set of rooms and days,
+ * so a room change or a different window means loading a new calendar.
+ */
+public class RoomCalendar {
+
+    private final LocalDate startDate;
+    private final long startDay;
+    private final int days;
+    private final List<Room> rooms;
+    private final Map<String, Integer> roomIndexes = new HashMap<>();
+    private final long[][] booked;
+    private final Map<String, BookedNights> staysByBooking = new HashMap<>();
+
+    /**
+     * Constructs an empty RoomCalendar.
+     *
+     * @param startDate the first night of the window
+     * @param days      the number of nights in the window
+     * @param rooms     the rooms, in display order
+     */
+    RoomCalendar(LocalDate startDate, int days, List<Room> rooms) {
+        this.startDate = startDate;
+        this.startDay = startDate.toEpochDay();
+        this.days = days;
+        this.rooms = new ArrayList<>(rooms);
+        this.booked = new long[rooms.size()][(days + 63) >>> 6];
+        for (int i = 0; i < rooms.size(); i++) {
+            roomIndexes.put(rooms.get(i).getRoomId(), i);
+        }
+    }
+
+    /**
+     * Returns whether a room is booked on a night of the window.
+     *
+     * @param roomIndex the index of the room in {@link #getRooms()}
+     * @param day       the night, counted from the start of the window
+     * @return true if a booking holds the room that night
+     */
+    public synchronized boolean isBooked(int roomIndex, int day) {
+        return day >= 0 && day < days && (booked[roomIndex][day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * Returns the number of nights of the window on which a room is booked.
+     *
+     * @param roomIndex the index of the room in {@link #getRooms()}
+     * @return the number of booked nights
+     */
+    public synchronized int countBookedNights(int roomIndex) {
+        int count = 0;
+        for (long word : booked[roomIndex]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the rooms of a type that are open for sale and free for every night of {@code [checkInDate, checkOutDate)}.
+     * Nights outside the window are not known to the calendar and count as booked.
+     *
+     * @param roomType     the type of room to look for
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return the free rooms, in display order
+     */
+    public synchronized List<Room> findFreeRooms(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<Room> free = new ArrayList<>();
+        int from = (int) (checkInDate.toEpochDay() - startDay);
+        int to = (int) (checkOutDate.toEpochDay() - startDay);
+        if (from < 0 || to > days || from >= to) {
+            return free;
+        }
+        long[] stay = new long[booked.length > 0 ? booked[0].length : 0];
+        setRange(stay, from, to);
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            if (room.isAvailability() && room.getRoomType().equals(roomType) && !intersects(booked[i], stay)) {
+                free.add(room);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds the first night of the window from which some room of a type is free for a number of consecutive nights.
+     *
+     * @param roomType the type of room to look for
+     * @param nights   the number of nights to stay
+     * @return the earliest check-in date within the window, or null if no room of the type is free that long
+     */
+    public synchronized LocalDate findFirstFreeStart(String roomType, int nights) {
+        if (nights <= 0 || nights > days) {
+            return null;
+        }
+        int words = (days + 63) >>> 6;
+        long[] inWindow = new long[words];
+        setRange(inWindow, 0, days);
+        long[] free = new long[words];
+        long[] starts = new long[words];
+
+        int first = Integer.MAX_VALUE;
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            if (!room.isAvailability() || !room.getRoomType().equals(roomType)) {
+                continue;
+            }
+            for (int w = 0; w < words; w++) {
+                free[w] = ~booked[i][w] & inWindow[w];
+            }
+            // Bit d of starts survives only if nights d, d + 1, ..., d + nights - 1 are all free
+            System.arraycopy(free, 0, starts, 0, words);
+            for (int shift = 1; shift < nights; shift++) {
+                andShiftedRight(starts, free, shift);
+            }
+            for (int w = 0; w < words && (w << 6) < first; w++) {
+                if (starts[w] != 0) {
+                    first = Math.min(first, (w << 6) + Long.numberOfTrailingZeros(starts[w]));
+                    break;
+                }
+            }
+        }
+        return first == Integer.MAX_VALUE ? null : startDate.plusDays(first);
+    }
+
+    /**
+     * Records a created or updated booking. A cancelled booking releases its nights.
+     *
+     * @param booking the booking as stored in the database
+     */
+    public synchronized void recordBooking(Booking booking) {
+        removeBooking(booking.getBookingId());
+        if (booking.getRoomId() != null && booking.occupiesRoom()) {
+            addStay(booking.getBookingId(), booking.getRoomId(), booking.getInDate(), booking.getOutDate());
+        }
+    }
+
+    /**
+     * Removes a booking from the calendar, releasing its nights.
+     *
+     * @param bookingId the ID of the removed booking
+     */
+    public synchronized void removeBooking(String bookingId) {
+        BookedNights stay = staysByBooking.remove(bookingId);
+        if (stay == null) {
+            return;
+        }
+        clearRange(booked[stay.roomIndex], stay.from, stay.to);
+        // Bookings of a room should not overlap, but if they do, the nights of the others stay booked
+        for (BookedNights other : staysByBooking.values()) {
+            if (other.roomIndex == stay.roomIndex && other.from < stay.to && other.to > stay.from) {
+                setRange(booked[stay.roomIndex], other.from, other.to);
+            }
+        }
+    }
+
+    /**
+     * Marks the nights of a booking, clipped to the window, as booked.
+     */
+    synchronized void addStay(String bookingId, String roomId, LocalDate inDate, LocalDate outDate) {
+        Integer roomIndex = roomIndexes.get(roomId);
+        if (roomIndex == null) {
+            return;
+        }
+        BookedNights stay = new BookedNights(roomIndex, clip(inDate.toEpochDay() - startDay), clip(outDate.toEpochDay() - startDay));
+        if (stay.from < stay.to) {
+            staysByBooking.put(bookingId, stay);
+            setRange(booked[roomIndex], stay.from, stay.to);
+        }
+    }
+
+    private int clip(long day) {
+        return (int) Math.max(0, Math.min(days, day));
+    }
+
+    /**
+     * Sets bits {@code [from, to)}, a whole word at a time where the range covers it.
+     */
+    private static void setRange(long[] bits, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bits[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            bits[w] = -1L;
+        }
+        bits[lastWord] |= lastMask;
+    }
+
+    private static void clearRange(long[] bits, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        bits[firstWord] &= ~firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            bits[w] = 0;
+        }
+        bits[lastWord] &= ~lastMask;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & b[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ANDs into {@code target} the bits of {@code source} moved down by {@code shift}, so that bit d of the
+     * result also requires bit {@code d + shift} of the source.
+     */
+    private static void andShiftedRight(long[] target, long[] source, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int w = 0; w < target.length; w++) {
+            int low = w + wordShift;
+            long shifted = low < source.length ? source[low] >>> bitShift : 0;
+            if (bitShift != 0 && low + 1 < source.length) {
+                shifted |= source[low + 1] << (64 - bitShift);
+            }
+            target[w] &= shifted;
+        }
+    }
+
+    /**
+     * Returns a copy of the booked-night bitset of a room; bit d is night d of the window.
+     *
+     * @param roomIndex the index of the room in {@link #getRooms()}
+     * @return the bitset words
+     */
+    public synchronized long[] getBookedNights(int roomIndex) {
+        return Arrays.copyOf(booked[roomIndex], booked[roomIndex].length);
+    }
+
+    // Getters
+
+    public LocalDate getStartDate() { return startDate; }
+    public int getDays() { return days; }
+    public List<Room> getRooms() { return new ArrayList<>(rooms); }
+    public int getRoomCount() { return rooms.size(); }
+
+    /**
+     * The nights [from, to) of one booking within the window.
+     */
+    private static final class BookedNights {
+        private final int roomIndex;
+        private final int from;
+        private final int to;
+
+        private BookedNights(int roomIndex, int from, int to) {
+            this.roomIndex = roomIndex;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory catalog of the hotel's rooms and room types, in front of the Rooms table.
+ * The rooms are loaded on first use and kept for a time-to-live ({@code ROOM_CATALOG_TTL_SECONDS}, default 300),
+ * after which only the rooms changed since are read again, when the database has row versions;
+ * {@link RoomService} writes its changes through to the catalog, so a clerk sees their own edits immediately,
+ * and {@link #invalidate()} drops the cached rooms when they may have been changed elsewhere.
+ * Readers see an immutable snapshot and never block; callers receive copies of the cached rooms.
+ */
+public class RoomCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(RoomCatalog.class);
+
+    private static final RoomCatalog INSTANCE = new RoomCatalog(
+            TimeUnit.SECONDS.toNanos(DatabaseConnection.longSetting("ROOM_CATALOG_TTL_SECONDS", 300)));
+
+    private final long ttlNanos;
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private RoomCatalog(long ttlNanos) {
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * Returns the shared room catalog.
+     *
+     * @return the room catalog
+     */
+    public static RoomCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns all rooms, ordered by room ID, loading them from the database if they are not cached or have expired.
+     * If the database cannot be read, the expired rooms are returned if there are any, otherwise an empty list.
+     *
+     * @return copies of all rooms
+     */
+    public List<Room> getRooms() {
+        Snapshot current = current();
+        return current == null ? new ArrayList<>() : copies(current.roomsById.values());
+    }
+
+    /**
+     * Returns the distinct room types of all rooms, in alphabetical order.
+     *
+     * @return the room types
+     */
+    public List<String> getRoomTypes() {
+        Snapshot current = current();
+        return current == null ? new ArrayList<>() : new ArrayList<>(current.roomTypes);
+    }
+
+    /**
+     * Returns the rooms of one type, ordered by room ID.
+     *
+     * @param roomType the room type
+     * @return copies of the rooms of that type
+     */
+    public List<Room> getRoomsOfType(String roomType) {
+        Snapshot current = current();
+        List<Room> rooms = new ArrayList<>();
+        if (current != null) {
+            for (Room room : current.roomsById.values()) {
+                if (roomType.equals(room.getRoomType())) {
+                    rooms.add(copy(room));
+                }
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Writes a created or updated room through to the cached rooms.
+     *
+     * @param room the room as stored in the database
+     */
+    public synchronized void put(Room room) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            Map<String, Room> rooms = new TreeMap<>(current.roomsById);
+            rooms.put(room.getRoomId(), copy(room));
+            snapshot = new Snapshot(rooms, current.loadedAt, current.version);
+        }
+    }
+
+    /**
+     * Removes a deleted room from the cached rooms.
+     *
+     * @param roomId the ID of the deleted room
+     */
+    public synchronized void remove(String roomId) {
+        Snapshot current = snapshot;
+        if (current != null && current.roomsById.containsKey(roomId)) {
+            Map<String, Room> rooms = new TreeMap<>(current.roomsById);
+            rooms.remove(roomId);
+            snapshot = new Snapshot(rooms, current.loadedAt, current.version);
+        }
+    }
+
+    /**
+     * Drops the cached rooms, so the next read loads them from the database again.
+     */
+    public synchronized void invalidate() {
+        if (snapshot != null) {
+            snapshot = null;
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache counters.
+     *
+     * @return the current catalog statistics
+     */
+    public RoomCatalogStats getStats() {
+        Snapshot current = snapshot;
+        return new RoomCatalogStats(
+                current == null ? 0 : current.roomsById.size(),
+                hits.sum(),
+                misses.sum(),
+                loadFailures.sum(),
+                invalidations.sum(),
+                current == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.loadedAt)
+        );
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            hits.increment();
+            return current;
+        }
+        return load();
+    }
+
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            // Loaded by another thread while this one waited
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        if (current != null) {
+            invalidations.increment();
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Snapshot loaded;
+            ChangeSet<Room> changes = current != null && current.version != RowVersions.UNAVAILABLE
+                    ? RoomService.queryRoomChangesSince(conn, current.version) : null;
+            if (changes != null && !changes.isExpired()) {
+                // Refresh the expired rooms with just the rows changed since they were loaded
+                Map<String, Room> rooms = new TreeMap<>(current.roomsById);
+                for (String roomId : changes.getRemovedIds()) {
+                    rooms.remove(roomId);
+                }
+                for (Room room : changes.getChanged()) {
+                    rooms.put(room.getRoomId(), room);
+                }
+                loaded = new Snapshot(rooms, System.nanoTime(), changes.getVersion());
+                logger.debug("Room catalog refreshed with {} changed and {} removed rooms",
+                        changes.getChanged().size(), changes.getRemovedIds().size());
+            } else {
+                long version = RowVersions.current(conn);
+                Map<String, Room> rooms = new TreeMap<>();
+                for (Room room : RoomService.queryAllRooms(conn)) {
+                    rooms.put(room.getRoomId(), room);
+                }
+                loaded = new Snapshot(rooms, System.nanoTime(), version);
+                logger.debug("Room catalog loaded {} rooms", rooms.size());
+            }
+            snapshot = loaded;
+            return loaded;
+        } catch (SQLException e) {
+            loadFailures.increment();
+            logger.error("Error loading room catalog", e);
+            return current;
+        }
+    }
+
+    private static List<Room> copies(Iterable<Room> rooms) {
+        List<Room> copies = new ArrayList<>();
+        for (Room room : rooms) {
+            copies.add(copy(room));
+        }
+        return copies;
+    }
+
+    private static Room copy(Room room) {
+        return new Room(room.getRoomId(), room.getRoomType(), room.getRoomPrice(), room.isAvailability());
+    }
+
+    /**
+     * Immutable view of the cached rooms, replaced as a whole on every change.
+     */
+    private static final class Snapshot {
+        private final Map<String, Room> roomsById;
+        private final List<String> roomTypes;
+        private final long loadedAt;
+        private final long version;
+
+        private Snapshot(Map<String, Room> roomsById, long loadedAt, long version) {
+            this.roomsById = Collections.unmodifiableMap(roomsById);
+            TreeSet<String> types = new TreeSet<>();
+            for (Room room : roomsById.values()) {
+                if (room.getRoomType() != null) {
+                    types.add(room.getRoomType());
+                }
+            }
+            this.roomTypes = List.copyOf(types);
+            this.loadedAt = loadedAt;
+            this.version = version;
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt >= ttlNanos;
+        }
+    }
+}
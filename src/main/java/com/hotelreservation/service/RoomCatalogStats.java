@@ -0,0 +1,59 @@
+package com.hotelreservation.service;
+
+/**
+ * A point-in-time snapshot of the counters of the {@link RoomCatalog}.
+ */
+public class RoomCatalogStats {
+
+    private final int roomCount;
+    private final long hits;
+    private final long misses;
+    private final long loadFailures;
+    private final long invalidations;
+    private final long ageMillis;
+
+    /**
+     * Constructs a RoomCatalogStats snapshot with the specified counters.
+     *
+     * @param roomCount     rooms currently cached
+     * @param hits          reads answered from the cache since start-up
+     * @param misses        reads that had to load the rooms from the database
+     * @param loadFailures  loads that failed because the database could not be read
+     * @param invalidations explicit invalidations and TTL expiries
+     * @param ageMillis     time since the cached rooms were loaded, or -1 if nothing is cached
+     */
+    public RoomCatalogStats(int roomCount, long hits, long misses, long loadFailures, long invalidations, long ageMillis) {
+        this.roomCount = roomCount;
+        this.hits = hits;
+        this.misses = misses;
+        this.loadFailures = loadFailures;
+        this.invalidations = invalidations;
+        this.ageMillis = ageMillis;
+    }
+
+    // Getters
+
+    public int getRoomCount() { return roomCount; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getLoadFailures() { return loadFailures; }
+    public long getInvalidations() { return invalidations; }
+    public long getAgeMillis() { return ageMillis; }
+
+    /**
+     * Returns the share of reads answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 before the first read
+     */
+    public double getHitRatio() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    @Override
+    public String toString() {
+        return "rooms=" + roomCount + ", hits=" + hits + ", misses=" + misses
+                + ", hitRatio=" + String.format("%.3f", getHitRatio()) + ", loadFailures=" + loadFailures
+                + ", invalidations=" + invalidations + ", age=" + ageMillis + "ms";
+    }
+}
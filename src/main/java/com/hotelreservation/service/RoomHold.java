@@ -0,0 +1,57 @@
+package com.hotelreservation.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A short-lived hold on a room for a stay, placed while a reservation is being made; see {@link HoldService}.
+ */
+public class RoomHold {
+
+    private final String holdId;
+    private final String roomId;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final Instant expiresAt;
+
+    /**
+     * Constructs a RoomHold.
+     *
+     * @param holdId       the hold ID
+     * @param roomId       the held room
+     * @param checkInDate  the first night held
+     * @param checkOutDate the day after the last night held
+     * @param expiresAt    when the hold runs out, by this machine's clock
+     */
+    public RoomHold(String holdId, String roomId, LocalDate checkInDate, LocalDate checkOutDate, Instant expiresAt) {
+        this.holdId = holdId;
+        this.roomId = roomId;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Returns whether the hold covers any night of the half-open stay {@code [checkIn, checkOut)}.
+     *
+     * @param checkIn  the check-in date
+     * @param checkOut the check-out date
+     * @return true if the stays overlap
+     */
+    public boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+        return checkInDate.isBefore(checkOut) && checkOutDate.isAfter(checkIn);
+    }
+
+    // Getters
+
+    public String getHoldId() { return holdId; }
+    public String getRoomId() { return roomId; }
+    public LocalDate getCheckInDate() { return checkInDate; }
+    public LocalDate getCheckOutDate() { return checkOutDate; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    @Override
+    public String toString() {
+        return "hold " + holdId + " on room " + roomId + " for " + checkInDate + " to " + checkOutDate + " until " + expiresAt;
+    }
+}
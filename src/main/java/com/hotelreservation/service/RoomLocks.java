@@ -0,0 +1,69 @@
+package com.hotelreservation.service;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-process locks serializing writes that book the same room.
+ * Bookings for one room are checked and inserted one at a time within this process, so concurrent clerks
+ * do not race each other into the database; the exclusion constraint still guards against other processes.
+ * Rooms map onto a fixed number of stripes, so unrelated rooms rarely contend.
+ */
+final class RoomLocks {
+
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private RoomLocks() {
+    }
+
+    /**
+     * Locks the stripes of the given rooms, always in ascending stripe order so that two callers locking
+     * overlapping sets of rooms cannot deadlock.
+     *
+     * @param roomIds the rooms about to be booked
+     * @return the handle releasing the locks when closed
+     */
+    static Held lock(Collection<String> roomIds) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (String roomId : roomIds) {
+            stripes.add(stripe(roomId));
+        }
+        int[] held = new int[stripes.size()];
+        int count = 0;
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+            held[count++] = stripe;
+        }
+        return new Held(held);
+    }
+
+    private static int stripe(String roomId) {
+        return roomId == null ? 0 : Math.floorMod(roomId.hashCode(), STRIPES);
+    }
+
+    /**
+     * Stripes held by one caller; closing it releases them.
+     */
+    static final class Held implements AutoCloseable {
+        private final int[] stripes;
+
+        private Held(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        @Override
+        public void close() {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+}
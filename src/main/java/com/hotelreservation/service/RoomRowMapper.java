@@ -0,0 +1,36 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+import com.hotelreservation.util.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows with the columns of the Rooms table to rooms. Column indexes are resolved on the first row.
+ */
+class RoomRowMapper implements RowMapper<Room> {
+
+    private boolean resolved;
+    private int roomId;
+    private int roomType;
+    private int roomPrice;
+    private int availability;
+
+    @Override
+    public Room map(ResultSet rs) throws SQLException {
+        if (!resolved) {
+            roomId = rs.findColumn("roomId");
+            roomType = rs.findColumn("roomType");
+            roomPrice = rs.findColumn("roomPrice");
+            availability = rs.findColumn("availability");
+            resolved = true;
+        }
+        return new Room(
+                rs.getString(roomId),
+                rs.getString(roomType),
+                rs.getDouble(roomPrice),
+                rs.getBoolean(availability)
+        );
+    }
+}
@@ -1,12 +1,22 @@
 package com.hotelreservation.service;
 
+import com.hotelreservation.model.Booking;
 import com.hotelreservation.model.Room;
 import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.DatabaseExecutor;
+import com.hotelreservation.util.Metrics;
+import com.hotelreservation.util.NamedStatement;
+import com.hotelreservation.util.StatementRegistry;
+import com.hotelreservation.util.StreamingQuery;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,36 +24,50 @@ import org.slf4j.LoggerFactory;
 /**
  * Service class for managing room-related operations.
  * Provides functionality to get available rooms, add, update, or delete rooms, and fetch room types.
+ * Room and room type lookups are served by the {@link RoomCatalog}, which every change is written through to.
  */
 public class RoomService {
     private static final Logger logger = LoggerFactory.getLogger(RoomService.class);
 
+    // An anti-join per room rather than NOT IN over all overlapping bookings, so each room is one probe of
+    // idx_bookings_active_room_out that skips the room's past stays; the status literal and the room filter match
+    // the predicates of that index and of idx_rooms_type_available (V10__service_indexes.sql)
+    private static final NamedStatement AVAILABLE_ROOMS = StatementRegistry.register("room.available",
+            "SELECT r.roomId, r.roomType, r.roomPrice, r.availability FROM Rooms r WHERE r.roomType = ? AND r.availability " +
+            "AND NOT EXISTS (SELECT 1 FROM Bookings b WHERE b.roomId = r.roomId AND " +
+            "b.outDate > ? AND b.inDate < ? AND b.bookingStatus IS DISTINCT FROM '" + Booking.STATUS_CANCELLED + "') " +
+            "AND NOT EXISTS (SELECT 1 FROM room_holds h WHERE h.roomId = r.roomId AND " +
+            "h.inDate < ? AND h.outDate > ? AND h.expires_at > now()) " +
+            "ORDER BY r.roomId");
+
+    private static final NamedStatement ROOM_BY_ID = StatementRegistry.register("room.byId",
+            "SELECT roomId, roomType, roomPrice, availability FROM Rooms WHERE roomId = ?");
+
+    private static final String ALL_ROOMS = "SELECT roomId, roomType, roomPrice, availability FROM Rooms";
+
+    private static final String ROOM_CALENDAR = "SELECT r.roomId, r.roomType, r.roomPrice, r.availability, " +
+            "b.bookingId, b.inDate, b.outDate FROM Rooms r " +
+            "LEFT JOIN Bookings b ON b.roomId = r.roomId AND b.inDate < ? AND b.outDate > ? AND b.bookingStatus IS DISTINCT FROM ? " +
+            "ORDER BY r.roomType, r.roomId";
+
     /**
-     * Retrieves a list of all distinct room types available in the hotel.
+     * Retrieves a list of all distinct room types available in the hotel, from the {@link RoomCatalog}.
      *
-     * @return a list of room types
+     * @return a list of room types, in alphabetical order
      */
     public List<String> getAllRoomTypes() {
-        List<String> roomTypes = new ArrayList<>();
-        String sql = "SELECT DISTINCT roomType FROM Rooms";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                roomTypes.add(rs.getString("roomType"));
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching room types", e);
-        }
-
-        return roomTypes;
+        return Metrics.timed("RoomService.getAllRoomTypes", op -> {
+            List<String> roomTypes = RoomCatalog.getInstance().getRoomTypes();
+            op.rows(roomTypes.size());
+            return roomTypes;
+        });
     }
 
     /**
      * Retrieves a list of available rooms based on the specified room type and date range.
-     * A room is considered available if it matches the room type and is not booked during the provided date range.
+     * A room is considered available if it matches the room type, is open for sale, and no booking that has not
+     * been cancelled nor any active {@link HoldService hold} overlaps the stay {@code [checkInDate, checkOutDate)}.
+     * Answered from the in-memory {@link AvailabilityIndex} once it is loaded, otherwise from the database.
      *
      * @param roomType the type of room to look for
      * @param checkInDate the check-in date for the reservation
@@ -51,37 +75,155 @@ public class RoomService {
      * @return a list of available rooms
      */
     public List<Room> getAvailableRooms(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
-        List<Room> availableRooms = new ArrayList<>();
-        String sql = "SELECT * FROM Rooms r WHERE r.roomType = ? AND r.availability = true " +
-                "AND r.roomId NOT IN (SELECT b.roomId FROM Bookings b WHERE " +
-                "(b.inDate <= ? AND b.outDate >= ?) OR " +
-                "(b.inDate >= ? AND b.inDate < ?))";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return Metrics.timed("RoomService.getAvailableRooms", op -> {
+            AvailabilityIndex index = AvailabilityIndex.getInstance();
+            List<Room> rooms = index.isLoaded()
+                    ? findAvailableRoomsInIndex(roomType, checkInDate, checkOutDate)
+                    : getAvailableRoomsFromDatabase(roomType, checkInDate, checkOutDate);
+            op.rows(rooms.size());
+            return rooms;
+        });
+    }
 
-            pstmt.setString(1, roomType);
-            pstmt.setDate(2, Date.valueOf(checkOutDate));
-            pstmt.setDate(3, Date.valueOf(checkInDate));
-            pstmt.setDate(4, Date.valueOf(checkInDate));
-            pstmt.setDate(5, Date.valueOf(checkOutDate));
+    /**
+     * Picks the available room that best fits a stay, i.e. the one leaving the fewest and smallest unsellable gaps
+     * next to the bookings around it (see {@link RoomAssigner}). Rooms held by anyone are skipped.
+     * Answered from the in-memory {@link AvailabilityIndex} once it is loaded; until then the first available room
+     * from the database is returned.
+     *
+     * @param roomType the type of room to look for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @return the best fitting room, or null if no room of the type is available for the stay
+     */
+    public Room findBestFitRoom(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return Metrics.timed("RoomService.findBestFitRoom", op -> {
+            AvailabilityIndex index = AvailabilityIndex.getInstance();
+            if (index.isLoaded()) {
+                Room room = index.findBestFitRoom(roomType, checkInDate, checkOutDate,
+                        HoldService.getInstance().getHeldRoomIds(checkInDate, checkOutDate));
+                op.rows(room != null ? 1 : 0);
+                return room;
+            }
+            List<Room> rooms = getAvailableRoomsFromDatabase(roomType, checkInDate, checkOutDate);
+            op.rows(rooms.isEmpty() ? 0 : 1);
+            return rooms.isEmpty() ? null : rooms.get(0);
+        });
+    }
 
-            ResultSet rs = pstmt.executeQuery();
+    /**
+     * Finds the ways to split a stay over several rooms when no single room is free for all of it, with the fewest
+     * room changes first; see {@link SplitStaySearch}. Nights held for other reservations count as taken.
+     * Answered from the in-memory {@link AvailabilityIndex} only; until it is loaded, no split stays are offered.
+     *
+     * @param roomType the type of room asked for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @param includeOtherTypes whether rooms of other types may be used for some nights
+     * @param limit the maximum number of split stays to return
+     * @return the split stays, best first; empty if there are none or the index is not loaded
+     */
+    public List<SplitStay> findSplitStays(String roomType, LocalDate checkInDate, LocalDate checkOutDate, boolean includeOtherTypes, int limit) {
+        return Metrics.timed("RoomService.findSplitStays", op -> {
+            AvailabilityIndex index = AvailabilityIndex.getInstance();
+            if (!index.isLoaded()) {
+                logger.info("Availability index is not loaded; no split stays offered");
+                return new ArrayList<>();
+            }
+            List<SplitStay> splitStays = index.findSplitStays(roomType, checkInDate, checkOutDate, includeOtherTypes,
+                    HoldService.getInstance().getActiveHolds(), limit);
+            op.rows(splitStays.size());
+            return splitStays;
+        });
+    }
 
-            while (rs.next()) {
-                Room room = new Room(
-                        rs.getString("roomId"),
-                        rs.getString("roomType"),
-                        rs.getDouble("roomPrice"),
-                        rs.getBoolean("availability")
-                );
-                availableRooms.add(room);
+    /**
+     * Retrieves a list of available rooms by querying the database directly, bypassing the availability index.
+     *
+     * @param roomType the type of room to look for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @return a list of available rooms, ordered by room ID
+     */
+    public List<Room> getAvailableRoomsFromDatabase(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<Room> availableRooms = new ArrayList<>();
+        return Metrics.timed("RoomService.getAvailableRoomsFromDatabase", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(AVAILABLE_ROOMS.getSql())) {
+
+                pstmt.setString(1, roomType);
+                pstmt.setDate(2, Date.valueOf(checkInDate));
+                pstmt.setDate(3, Date.valueOf(checkOutDate));
+                pstmt.setDate(4, Date.valueOf(checkOutDate));
+                pstmt.setDate(5, Date.valueOf(checkInDate));
+
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    Room room = new Room(
+                            rs.getString("roomId"),
+                            rs.getString("roomType"),
+                            rs.getDouble("roomPrice"),
+                            rs.getBoolean("availability")
+                    );
+                    availableRooms.add(room);
+                }
+                op.rows(availableRooms.size());
             }
-        } catch (SQLException e) {
+            return availableRooms;
+        }, e -> {
             logger.error("Error fetching available rooms", e);
+            return availableRooms;
+        });
+    }
+
+    /**
+     * Checks that the availability index and the database agree on the available rooms for a search,
+     * logging the rooms on which they differ.
+     *
+     * @param roomType the type of room to look for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @return true if both return the same rooms, false if they differ or the index is not loaded
+     */
+    public boolean verifyAvailabilityIndex(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        AvailabilityIndex index = AvailabilityIndex.getInstance();
+        if (!index.isLoaded()) {
+            logger.warn("Availability index is not loaded; nothing to verify");
+            return false;
+        }
+
+        Set<String> fromIndex = new TreeSet<>();
+        for (Room room : findAvailableRoomsInIndex(roomType, checkInDate, checkOutDate)) {
+            fromIndex.add(room.getRoomId());
+        }
+        Set<String> fromDatabase = new TreeSet<>();
+        for (Room room : getAvailableRoomsFromDatabase(roomType, checkInDate, checkOutDate)) {
+            fromDatabase.add(room.getRoomId());
         }
 
-        return availableRooms;
+        if (fromIndex.equals(fromDatabase)) {
+            return true;
+        }
+        Set<String> onlyInIndex = new TreeSet<>(fromIndex);
+        onlyInIndex.removeAll(fromDatabase);
+        Set<String> onlyInDatabase = new TreeSet<>(fromDatabase);
+        onlyInDatabase.removeAll(fromIndex);
+        logger.warn("Availability index disagrees with database for {} {}..{}: only in index {}, only in database {}",
+                roomType, checkInDate, checkOutDate, onlyInIndex, onlyInDatabase);
+        return false;
+    }
+
+    /**
+     * Finds the available rooms in the availability index, leaving out the rooms held by anyone for the stay.
+     */
+    private List<Room> findAvailableRoomsInIndex(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<Room> rooms = AvailabilityIndex.getInstance().findAvailableRooms(roomType, checkInDate, checkOutDate);
+        Set<String> held = HoldService.getInstance().getHeldRoomIds(checkInDate, checkOutDate);
+        if (!held.isEmpty()) {
+            rooms.removeIf(room -> held.contains(room.getRoomId()));
+        }
+        return rooms;
     }
 
     /**
@@ -94,25 +236,30 @@ public class RoomService {
         String sql = "INSERT INTO Rooms (roomType, roomPrice, availability) " +
                 "VALUES (?, ?, ?) RETURNING roomId";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, room.getRoomType());
-            pstmt.setDouble(2, room.getRoomPrice());
-            pstmt.setBoolean(3, room.isAvailability());
-
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                String generatedId = rs.getString("roomId");
-                room.setRoomId(generatedId);
-                logger.info("Generated roomId: {}", generatedId);
+        return Metrics.timed("RoomService.addRoom", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setString(1, room.getRoomType());
+                pstmt.setDouble(2, room.getRoomPrice());
+                pstmt.setBoolean(3, room.isAvailability());
+
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    op.rows(1);
+                    String generatedId = rs.getString("roomId");
+                    room.setRoomId(generatedId);
+                    logger.info("Generated roomId: {}", generatedId);
+                    AvailabilityIndex.getInstance().recordRoom(room);
+                    RoomCatalog.getInstance().put(room);
+                }
+
+                return true;
             }
-
-            return true;
-        } catch (SQLException e) {
+        }, e -> {
             logger.error("SQL error when adding room: {}", e.getMessage());
             return false;
-        }
+        });
     }
 
 
@@ -125,20 +272,27 @@ public class RoomService {
     public boolean updateRoom(Room room) {
         String sql = "UPDATE Rooms SET roomType = ?, roomPrice = ?, availability = ? WHERE roomId = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, room.getRoomType());
-            pstmt.setDouble(2, room.getRoomPrice());
-            pstmt.setBoolean(3, room.isAvailability());
-            pstmt.setString(4, room.getRoomId());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+        return Metrics.timed("RoomService.updateRoom", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setString(1, room.getRoomType());
+                pstmt.setDouble(2, room.getRoomPrice());
+                pstmt.setBoolean(3, room.isAvailability());
+                pstmt.setString(4, room.getRoomId());
+
+                int affectedRows = pstmt.executeUpdate();
+                op.rows(affectedRows);
+                if (affectedRows > 0) {
+                    AvailabilityIndex.getInstance().recordRoom(room);
+                    RoomCatalog.getInstance().put(room);
+                }
+                return affectedRows > 0;
+            }
+        }, e -> {
             logger.error("Error updating room", e);
             return false;
-        }
+        });
     }
 
     /**
@@ -150,45 +304,351 @@ public class RoomService {
     public boolean deleteRoom(String roomId) {
         String sql = "DELETE FROM Rooms WHERE roomId = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return Metrics.timed("RoomService.deleteRoom", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, roomId);
+                pstmt.setString(1, roomId);
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
+                int affectedRows = pstmt.executeUpdate();
+                op.rows(affectedRows);
+                if (affectedRows > 0) {
+                    AvailabilityIndex.getInstance().removeRoom(roomId);
+                    RoomCatalog.getInstance().remove(roomId);
+                }
+                return affectedRows > 0;
+            }
+        }, e -> {
             logger.error("Error deleting room", e);
             return false;
-        }
+        });
     }
 
     /**
-     * Retrieves a list of all rooms in the hotel.
+     * Retrieves a room by its room ID from the database.
      *
-     * @return a list of all rooms
+     * @param roomId the ID of the room
+     * @return the room, or null if it does not exist or cannot be read
      */
-    public List<Room> getAllRooms() {
-        List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM Rooms";
+    public Room getRoomById(String roomId) {
+        return Metrics.timed("RoomService.getRoomById", op -> {
+            Room room = readRoomById(roomId);
+            op.rows(room != null ? 1 : 0);
+            return room;
+        }, e -> {
+            logger.error("Error fetching room {}", roomId, e);
+            return null;
+        });
+    }
 
+    /**
+     * Reads a room, telling a room that does not exist apart from one that could not be read.
+     *
+     * @param roomId the ID of the room
+     * @return the room, or null if there is no such room
+     * @throws SQLException if the room could not be read
+     */
+    Room readRoomById(String roomId) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(ROOM_BY_ID.getSql())) {
 
-            while (rs.next()) {
-                Room room = new Room(
+            pstmt.setString(1, roomId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Room(
                         rs.getString("roomId"),
                         rs.getString("roomType"),
                         rs.getDouble("roomPrice"),
                         rs.getBoolean("availability")
                 );
-                rooms.add(room);
             }
-        } catch (SQLException e) {
+        }
+    }
+
+    /**
+     * Retrieves a list of all rooms in the hotel, from the {@link RoomCatalog}.
+     *
+     * @return a list of all rooms, ordered by room ID
+     */
+    public List<Room> getAllRooms() {
+        return Metrics.timed("RoomService.getAllRooms", op -> {
+            List<Room> rooms = RoomCatalog.getInstance().getRooms();
+            op.rows(rooms.size());
+            return rooms;
+        });
+    }
+
+    /**
+     * Retrieves a list of all rooms by querying the database directly, bypassing the room catalog.
+     *
+     * @return a list of all rooms
+     */
+    public List<Room> getAllRoomsFromDatabase() {
+        return Metrics.timed("RoomService.getAllRoomsFromDatabase", op -> {
+            List<Room> rooms = queryAllRooms();
+            op.rows(rooms.size());
+            return rooms;
+        }, e -> {
             logger.error("Error fetching all rooms", e);
+            return new ArrayList<>();
+        });
+    }
+
+    /**
+     * Passes every room to an action as the rows are read from the database, fetching them in chunks of
+     * {@link StreamingQuery#getFetchSize()}. Unlike {@link #getAllRooms()}, this bypasses the room catalog.
+     *
+     * @param action the action to apply to each room
+     * @return the number of rooms read, or -1 if they could not be read completely
+     */
+    public long forEachRoom(Consumer<? super Room> action) {
+        return Metrics.timed("RoomService.forEachRoom", op -> {
+            long count = StreamingQuery.forEach(ALL_ROOMS, new RoomRowMapper(), action);
+            op.rows(count);
+            return count;
+        }, e -> {
+            logger.error("Error streaming rooms", e);
+            return -1L;
+        });
+    }
+
+    /**
+     * Reads all rooms from the database.
+     *
+     * @return a list of all rooms
+     * @throws SQLException if the rooms cannot be read
+     */
+    static List<Room> queryAllRooms() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryAllRooms(conn);
+        }
+    }
+
+    /**
+     * Reads all rooms from the database on the given connection.
+     *
+     * @param conn the connection to use
+     * @return a list of all rooms
+     * @throws SQLException if the rooms cannot be read
+     */
+    static List<Room> queryAllRooms(Connection conn) throws SQLException {
+        List<Room> rooms = new ArrayList<>();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ALL_ROOMS)) {
+
+            RoomRowMapper mapper = new RoomRowMapper();
+            while (rs.next()) {
+                rooms.add(mapper.map(rs));
+            }
         }
 
         return rooms;
     }
+
+    /**
+     * Retrieves the rooms created, updated or deleted since a sync version, using the transaction IDs of
+     * {@code V11__sync_watermark.sql}.
+     *
+     * @param version the version returned by the previous sync
+     * @return the changed rooms, the IDs of deleted rooms and the next version, an expired change set if the version
+     *         predates purged tombstones, or null if the changes cannot be read
+     */
+    public ChangeSet<Room> getRoomChangesSince(long version) {
+        return Metrics.timed("RoomService.getRoomChangesSince", op -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                ChangeSet<Room> changes = queryRoomChangesSince(conn, version);
+                op.rows(changes.getChanged().size() + changes.getRemovedIds().size());
+                return changes;
+            }
+        }, e -> {
+            logger.error("Error fetching room changes", e);
+            return null;
+        });
+    }
+
+    /**
+     * Reads the rooms changed since a sync version on the given connection.
+     *
+     * @param conn    the connection to use
+     * @param version the version returned by the previous sync
+     * @return the changed rooms, the IDs of deleted rooms and the next version, or an expired change set if the
+     *         version predates purged tombstones
+     * @throws SQLException if the changes cannot be read
+     */
+    static ChangeSet<Room> queryRoomChangesSince(Connection conn, long version) throws SQLException {
+        List<Room> changed = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        long latest = RowVersions.next(conn);
+        String sql = "SELECT roomId, roomType, roomPrice, availability FROM Rooms WHERE row_xid >= ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, version);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    changed.add(new Room(
+                            rs.getString("roomId"),
+                            rs.getString("roomType"),
+                            rs.getDouble("roomPrice"),
+                            rs.getBoolean("availability")
+                    ));
+                }
+            }
+        }
+        RowVersions.readDeletedSince(conn, "rooms", version, removedIds);
+        if (RowVersions.isPurgedSince(conn, version)) {
+            return ChangeSet.expired();
+        }
+        return new ChangeSet<>(changed, removedIds, latest);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAllRoomTypes()}, run on the database worker threads.
+     *
+     * @return a future completed with the list of room types
+     */
+    public CompletableFuture<List<String>> getAllRoomTypesAsync() {
+        return DatabaseExecutor.supplyAsync(this::getAllRoomTypes);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAvailableRooms(String,LocalDate,LocalDate)}, run on the database worker threads.
+     *
+     * @param roomType the type of room to look for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     *
+     * @return a future completed with the list of available rooms
+     */
+    public CompletableFuture<List<Room>> getAvailableRoomsAsync(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return DatabaseExecutor.supplyAsync(() -> getAvailableRooms(roomType, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Asynchronous variant of {@link #findBestFitRoom(String,LocalDate,LocalDate)}, run on the database worker threads.
+     *
+     * @param roomType the type of room to look for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @return a future completed with the best fitting room, or null if none is available
+     */
+    public CompletableFuture<Room> findBestFitRoomAsync(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        return DatabaseExecutor.supplyAsync(() -> findBestFitRoom(roomType, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Asynchronous variant of {@link #findSplitStays(String,LocalDate,LocalDate,boolean,int)}, run on the database worker threads.
+     *
+     * @param roomType the type of room asked for
+     * @param checkInDate the check-in date for the reservation
+     * @param checkOutDate the check-out date for the reservation
+     * @param includeOtherTypes whether rooms of other types may be used for some nights
+     * @param limit the maximum number of split stays to return
+     * @return a future completed with the split stays, best first
+     */
+    public CompletableFuture<List<SplitStay>> findSplitStaysAsync(String roomType, LocalDate checkInDate, LocalDate checkOutDate, boolean includeOtherTypes, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> findSplitStays(roomType, checkInDate, checkOutDate, includeOtherTypes, limit));
+    }
+
+    /**
+     * Asynchronous variant of {@link #addRoom(Room)}, run on the database worker threads.
+     *
+     * @param room the room to be added
+     *
+     * @return a future completed with true if the room was successfully added
+     */
+    public CompletableFuture<Boolean> addRoomAsync(Room room) {
+        return DatabaseExecutor.supplyAsync(() -> addRoom(room));
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateRoom(Room)}, run on the database worker threads.
+     *
+     * @param room the room with updated details
+     *
+     * @return a future completed with true if the room was successfully updated
+     */
+    public CompletableFuture<Boolean> updateRoomAsync(Room room) {
+        return DatabaseExecutor.supplyAsync(() -> updateRoom(room));
+    }
+
+    /**
+     * Asynchronous variant of {@link #deleteRoom(String)}, run on the database worker threads.
+     *
+     * @param roomId the ID of the room to delete
+     *
+     * @return a future completed with true if the room was successfully deleted
+     */
+    public CompletableFuture<Boolean> deleteRoomAsync(String roomId) {
+        return DatabaseExecutor.supplyAsync(() -> deleteRoom(roomId));
+    }
+
+    /**
+     * Builds the booking calendar of all rooms over a window of nights, in a single query.
+     *
+     * @param startDate the first night of the window
+     * @param days      the number of nights in the window
+     * @return the calendar, with rooms ordered by type and room ID, or null if there was an error
+     */
+    public RoomCalendar getRoomCalendar(LocalDate startDate, int days) {
+        return Metrics.timed("RoomService.getRoomCalendar", op -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(ROOM_CALENDAR)) {
+
+                pstmt.setDate(1, Date.valueOf(startDate.plusDays(days)));
+                pstmt.setDate(2, Date.valueOf(startDate));
+                pstmt.setString(3, Booking.STATUS_CANCELLED);
+
+                List<Room> rooms = new ArrayList<>();
+                List<Booking> stays = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Room room = null;
+                    while (rs.next()) {
+                        String roomId = rs.getString("roomId");
+                        if (room == null || !room.getRoomId().equals(roomId)) {
+                            room = new Room(roomId, rs.getString("roomType"), rs.getDouble("roomPrice"), rs.getBoolean("availability"));
+                            rooms.add(room);
+                        }
+                        String bookingId = rs.getString("bookingId");
+                        if (bookingId != null) {
+                            stays.add(new Booking(bookingId, null, roomId, null, rs.getDate("inDate").toLocalDate(),
+                                    rs.getDate("outDate").toLocalDate(), null, null, null));
+                        }
+                    }
+                }
+
+                RoomCalendar calendar = new RoomCalendar(startDate, days, rooms);
+                for (Booking stay : stays) {
+                    calendar.addStay(stay.getBookingId(), stay.getRoomId(), stay.getInDate(), stay.getOutDate());
+                }
+                op.rows(rooms.size() + stays.size());
+                return calendar;
+            }
+        }, e -> {
+            logger.error("Error loading room calendar", e);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRoomCalendar(LocalDate, int)}, run on the database worker threads.
+     *
+     * @param startDate the first night of the window
+     * @param days      the number of nights in the window
+     * @return a future completed with the calendar, or null if there was an error
+     */
+    public CompletableFuture<RoomCalendar> getRoomCalendarAsync(LocalDate startDate, int days) {
+        return DatabaseExecutor.supplyAsync(() -> getRoomCalendar(startDate, days));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAllRooms()}, run on the database worker threads.
+     *
+     * @return a future completed with the list of all rooms
+     */
+    public CompletableFuture<List<Room>> getAllRoomsAsync() {
+        return DatabaseExecutor.supplyAsync(this::getAllRooms);
+    }
 }
@@ -0,0 +1,123 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers for the sync cursors and tombstones of {@code V11__sync_watermark.sql} and {@code V16__sync_cleanup.sql}.
+ * A sync version is a transaction ID: the oldest transaction still running when the rows were read. Every row
+ * written by an earlier transaction had been committed (or rolled back) by then, so a later sync only needs the
+ * rows written by that transaction or a later one, whenever they commit.
+ * Tombstones older than {@link #TOMBSTONE_RETENTION_HOURS} are purged; a version that predates a purged tombstone
+ * can no longer be synced from.
+ */
+final class RowVersions {
+    private static final Logger logger = LoggerFactory.getLogger(RowVersions.class);
+
+    /** Version returned when the database has no row versions, meaning incremental sync is unavailable. */
+    static final long UNAVAILABLE = -1;
+
+    /** How long tombstones are kept, and so how long a client can go without syncing before it must reload. */
+    static final long TOMBSTONE_RETENTION_HOURS = Math.max(1, DatabaseConnection.longSetting("SYNC_TOMBSTONE_RETENTION_HOURS", 168));
+
+    private RowVersions() {
+    }
+
+    /**
+     * Returns the oldest transaction still running. Rows read after this call include every row written by an
+     * earlier transaction, so it is a safe starting point for a later incremental sync.
+     *
+     * @param conn the connection to use
+     * @return the current version, or {@link #UNAVAILABLE} if the database has no row versions
+     */
+    static long current(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint")) {
+            return rs.next() ? rs.getLong(1) : UNAVAILABLE;
+        } catch (SQLException e) {
+            logger.debug("Row versions are not available; incremental sync is disabled", e);
+            return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Reads the IDs of the rows of a table deleted since a version.
+     *
+     * @param conn       the connection to use
+     * @param table      the lowercase table name, e.g. "bookings"
+     * @param version    the version returned by the previous sync
+     * @param removedIds the list receiving the deleted row IDs
+     * @throws SQLException if the tombstones cannot be read
+     */
+    static void readDeletedSince(Connection conn, String table, long version, List<String> removedIds) throws SQLException {
+        String sql = "SELECT row_id FROM deleted_rows WHERE table_name = ? AND row_xid >= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setLong(2, version);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    removedIds.add(rs.getString("row_id"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if a tombstone written at or after a version has been purged, so the deletes since that version
+     * are incomplete and the caller must reload everything. Checked after reading the tombstones, so a purge
+     * running concurrently is either seen here or had not yet removed anything that was read.
+     *
+     * @param conn    the connection to use
+     * @param version the version returned by the previous sync
+     * @return true if the version predates a purged tombstone
+     * @throws SQLException if the purge horizon cannot be read
+     */
+    static boolean isPurgedSince(Connection conn, long version) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM deleted_rows_purged WHERE row_xid >= ?")) {
+            pstmt.setLong(1, version);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Deletes the tombstones older than {@link #TOMBSTONE_RETENTION_HOURS}.
+     *
+     * @param conn the connection to use
+     * @return the number of tombstones deleted
+     * @throws SQLException if the tombstones cannot be purged
+     */
+    static long purgeTombstones(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT deleted_rows_purge(make_interval(hours => ?))")) {
+            pstmt.setInt(1, (int) TOMBSTONE_RETENTION_HOURS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the version to start the next sync from, read before the changes themselves.
+     *
+     * @param conn the connection to use
+     * @return the next version
+     * @throws SQLException if the database has no row versions
+     */
+    static long next(Connection conn) throws SQLException {
+        long next = current(conn);
+        if (next == UNAVAILABLE) {
+            throw new SQLException("Row versions are not available");
+        }
+        return next;
+    }
+}
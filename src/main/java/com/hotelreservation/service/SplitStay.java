@@ -0,0 +1,88 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A stay spread over several rooms because no single room is free for all of its nights, as found by
+ * {@link RoomService#findSplitStays}. The segments follow each other without gaps, each in a different room
+ * from the one before.
+ */
+public class SplitStay {
+
+    private final List<Segment> segments;
+    private final int nightsInOtherTypes;
+
+    /**
+     * Constructs a SplitStay.
+     *
+     * @param segments           the rooms of the stay, in order
+     * @param nightsInOtherTypes the nights spent in rooms of another type than the one asked for
+     */
+    public SplitStay(List<Segment> segments, int nightsInOtherTypes) {
+        this.segments = Collections.unmodifiableList(segments);
+        this.nightsInOtherTypes = nightsInOtherTypes;
+    }
+
+    /**
+     * Returns how often the guest has to change rooms.
+     *
+     * @return the number of room changes; 0 if one room covers the whole stay
+     */
+    public int getRoomChanges() {
+        return segments.size() - 1;
+    }
+
+    // Getters
+
+    public List<Segment> getSegments() { return segments; }
+    public int getNightsInOtherTypes() { return nightsInOtherTypes; }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Segment segment : segments) {
+            if (text.length() > 0) {
+                text.append(", then ");
+            }
+            text.append(segment);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The consecutive nights {@code [checkInDate, checkOutDate)} of a split stay spent in one room.
+     */
+    public static class Segment {
+        private final Room room;
+        private final LocalDate checkInDate;
+        private final LocalDate checkOutDate;
+
+        /**
+         * Constructs a Segment.
+         *
+         * @param room         the room
+         * @param checkInDate  the first night in the room
+         * @param checkOutDate the day the guest leaves the room
+         */
+        public Segment(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+            this.room = room;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+        }
+
+        // Getters
+
+        public Room getRoom() { return room; }
+        public LocalDate getCheckInDate() { return checkInDate; }
+        public LocalDate getCheckOutDate() { return checkOutDate; }
+
+        @Override
+        public String toString() {
+            return "room " + room.getRoomId() + " (" + room.getRoomType() + ") " + checkInDate + " to " + checkOutDate;
+        }
+    }
+}
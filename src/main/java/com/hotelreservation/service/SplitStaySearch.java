@@ -0,0 +1,188 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the ways to spread a stay over several rooms with the fewest room changes.
+ * The search is a shortest path through a layered graph with one layer per night and one node per room free that
+ * night: staying in a room from one night to the next is free, changing rooms costs a move. Rooms of another type
+ * than the one asked for cost a little per night, and a move to a room that is not next door (same floor, room
+ * number one apart) a little more than one that is, so among the plans with the fewest moves the closest to
+ * what was asked for win. Because every room is reachable from every other, the best move into a room is either
+ * from the cheapest room of the previous night or from one of its two neighbours, so each night takes time linear
+ * in the number of rooms rather than quadratic.
+ */
+final class SplitStaySearch {
+
+    // Moves dominate: a plan with fewer room changes always ranks first
+    private static final long MOVE_COST = 1_000_000;
+    private static final long OTHER_TYPE_NIGHT_COST = 1_000;
+    private static final long FAR_MOVE_COST = 10;
+    private static final long UNREACHABLE = Long.MAX_VALUE / 2;
+
+    private SplitStaySearch() {
+    }
+
+    /**
+     * Returns the best plans for a stay, one per room the last night is spent in, best first.
+     *
+     * @param rooms        the candidate rooms
+     * @param freeNights   for each room, whether each night of the stay is free in it
+     * @param roomType     the room type asked for
+     * @param checkInDate  the check-in date
+     * @param limit        the maximum number of plans to return
+     * @return the plans, fewest room changes first; empty if some night has no free room at all
+     */
+    static List<SplitStay> search(List<Room> rooms, boolean[][] freeNights, String roomType, LocalDate checkInDate, int limit) {
+        int roomCount = rooms.size();
+        int nights = roomCount > 0 ? freeNights[0].length : 0;
+        if (nights == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        long[] typeCost = new long[roomCount];
+        for (int r = 0; r < roomCount; r++) {
+            typeCost[r] = roomType.equals(rooms.get(r).getRoomType()) ? 0 : OTHER_TYPE_NIGHT_COST;
+        }
+        int[][] neighbours = neighbours(rooms);
+
+        // previous[n][r] is the room of night n - 1 on the best path that spends night n in room r
+        int[][] previous = new int[nights][roomCount];
+        long[] cost = new long[roomCount];
+        for (int r = 0; r < roomCount; r++) {
+            cost[r] = freeNights[r][0] ? typeCost[r] : UNREACHABLE;
+            previous[0][r] = -1;
+        }
+        long[] next = new long[roomCount];
+        for (int n = 1; n < nights; n++) {
+            int cheapest = -1;
+            for (int r = 0; r < roomCount; r++) {
+                if (cost[r] < UNREACHABLE && (cheapest < 0 || cost[r] < cost[cheapest])) {
+                    cheapest = r;
+                }
+            }
+            if (cheapest < 0) {
+                return new ArrayList<>();
+            }
+            for (int r = 0; r < roomCount; r++) {
+                next[r] = UNREACHABLE;
+                if (!freeNights[r][n]) {
+                    continue;
+                }
+                long best = cost[r];
+                int from = r;
+                if (cost[cheapest] + MOVE_COST + FAR_MOVE_COST < best) {
+                    best = cost[cheapest] + MOVE_COST + FAR_MOVE_COST;
+                    from = cheapest;
+                }
+                for (int neighbour : neighbours[r]) {
+                    if (cost[neighbour] + MOVE_COST < best) {
+                        best = cost[neighbour] + MOVE_COST;
+                        from = neighbour;
+                    }
+                }
+                if (best < UNREACHABLE) {
+                    next[r] = best + typeCost[r];
+                    previous[n][r] = from;
+                }
+            }
+            long[] swap = cost;
+            cost = next;
+            next = swap;
+        }
+
+        List<Integer> ends = new ArrayList<>();
+        for (int r = 0; r < roomCount; r++) {
+            if (cost[r] < UNREACHABLE) {
+                ends.add(r);
+            }
+        }
+        long[] finalCost = cost;
+        ends.sort(Comparator.comparingLong((Integer r) -> finalCost[r]).thenComparing(r -> r));
+
+        List<SplitStay> plans = new ArrayList<>();
+        for (int end : ends.subList(0, Math.min(limit, ends.size()))) {
+            plans.add(trace(rooms, previous, end, roomType, checkInDate));
+        }
+        return plans;
+    }
+
+    private static SplitStay trace(List<Room> rooms, int[][] previous, int lastRoom, String roomType, LocalDate checkInDate) {
+        int nights = previous.length;
+        int[] roomOfNight = new int[nights];
+        int room = lastRoom;
+        for (int n = nights - 1; n >= 0; n--) {
+            roomOfNight[n] = room;
+            room = previous[n][room];
+        }
+
+        List<SplitStay.Segment> segments = new ArrayList<>();
+        int otherTypeNights = 0;
+        int segmentStart = 0;
+        for (int n = 0; n < nights; n++) {
+            if (!roomType.equals(rooms.get(roomOfNight[n]).getRoomType())) {
+                otherTypeNights++;
+            }
+            if (n == nights - 1 || roomOfNight[n + 1] != roomOfNight[n]) {
+                segments.add(new SplitStay.Segment(rooms.get(roomOfNight[n]),
+                        checkInDate.plusDays(segmentStart), checkInDate.plusDays(n + 1)));
+                segmentStart = n + 1;
+            }
+        }
+        return new SplitStay(segments, otherTypeNights);
+    }
+
+    /**
+     * Returns, for each room, the rooms next door: numeric room IDs on the same floor (same hundreds) one apart.
+     */
+    private static int[][] neighbours(List<Room> rooms) {
+        int roomCount = rooms.size();
+        Integer[] numbered = new Integer[roomCount];
+        long[] numbers = new long[roomCount];
+        int count = 0;
+        for (int r = 0; r < roomCount; r++) {
+            numbers[r] = roomNumber(rooms.get(r).getRoomId());
+            if (numbers[r] >= 0) {
+                numbered[count++] = r;
+            }
+        }
+        Arrays.sort(numbered, 0, count, Comparator.comparingLong(r -> numbers[r]));
+
+        int[][] neighbours = new int[roomCount][];
+        Arrays.fill(neighbours, new int[0]);
+        for (int i = 0; i < count; i++) {
+            int r = numbered[i];
+            List<Integer> adjacent = new ArrayList<>(2);
+            if (i > 0 && isNextDoor(numbers[numbered[i - 1]], numbers[r])) {
+                adjacent.add(numbered[i - 1]);
+            }
+            if (i + 1 < count && isNextDoor(numbers[r], numbers[numbered[i + 1]])) {
+                adjacent.add(numbered[i + 1]);
+            }
+            neighbours[r] = adjacent.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return neighbours;
+    }
+
+    private static boolean isNextDoor(long lower, long higher) {
+        return higher - lower == 1 && lower / 100 == higher / 100;
+    }
+
+    private static long roomNumber(String roomId) {
+        if (roomId == null || roomId.isEmpty() || roomId.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < roomId.length(); i++) {
+            if (!Character.isDigit(roomId.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(roomId);
+    }
+}
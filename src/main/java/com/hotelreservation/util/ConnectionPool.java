@@ -0,0 +1,355 @@
+package com.hotelreservation.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of physical JDBC connections.
+ * Connections are pre-warmed up to a minimum idle count, validated when they have been idle for a while,
+ * evicted when idle or too old, and reported when a caller holds one for longer than the leak threshold.
+ * Callers receive a proxy whose {@code close()} hands the physical connection back to the pool.
+ * Each physical connection also keeps prepared copies of the registered hot statements (see {@link StatementRegistry}).
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final ConnectionPoolConfig config;
+
+    private final Semaphore leases;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsEvicted = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+
+    /**
+     * Creates a pool for the given database and starts its housekeeping thread.
+     * No connections are opened until {@link #prewarm()} or the first {@link #getConnection()}.
+     *
+     * @param url                  the JDBC URL of the database
+     * @param connectionProperties the driver properties, including user and password
+     * @param config               the sizing and timeout settings of the pool
+     */
+    public ConnectionPool(String url, Properties connectionProperties, ConnectionPoolConfig config) {
+        this.url = url;
+        this.config = config;
+        this.connectionProperties = connectionProperties;
+        this.leases = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, config.getHousekeepingIntervalMs(),
+                config.getHousekeepingIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens connections until the pool holds at least the configured minimum number of idle connections.
+     */
+    public void prewarm() {
+        long start = System.nanoTime();
+        fillToMinimumIdle();
+        logger.info("Connection pool pre-warmed with {} connection(s) in {} ms", totalConnections.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the configured timeout if all connections are in use.
+     * The returned connection must be closed by the caller to give it back to the pool.
+     *
+     * @return a pooled {@link Connection}
+     * @throws SQLException if the pool is shut down, the wait times out, or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!leases.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLTransientConnectionException("Timed out after " + config.getConnectionTimeoutMs()
+                        + " ms waiting for a database connection (active=" + activeConnections.get()
+                        + ", max=" + config.getMaxSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        PooledEntry entry;
+        try {
+            entry = takeIdleOrCreate();
+        } catch (SQLException | RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+
+        long waited = System.nanoTime() - waitStart;
+        acquireCount.increment();
+        acquireWaitNanos.add(waited);
+        maxAcquireWaitNanos.accumulateAndGet(waited, Math::max);
+        Operation.recordConnectionAcquire(waited);
+        activeConnections.incrementAndGet();
+        return entry.lease();
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread.
+     * Connections currently on loan are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closePhysical(entry);
+        }
+        logger.info("Connection pool shut down");
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the pool counters.
+     *
+     * @return the current pool statistics
+     */
+    public PoolStats getStats() {
+        long acquires = acquireCount.sum();
+        return new PoolStats(
+                activeConnections.get(),
+                idle.size(),
+                totalConnections.get(),
+                config.getMaxSize(),
+                leases.getQueueLength(),
+                acquires,
+                acquires == 0 ? 0 : acquireWaitNanos.sum() / acquires,
+                maxAcquireWaitNanos.get(),
+                acquireTimeouts.sum(),
+                connectionsCreated.sum(),
+                connectionsEvicted.sum(),
+                leaksDetected.sum()
+        );
+    }
+
+    private PooledEntry takeIdleOrCreate() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) {
+                return entry;
+            }
+            closePhysical(entry);
+        }
+        return createEntry();
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long now = System.currentTimeMillis();
+        if (now - entry.createdAt >= config.getMaxLifetimeMs()) {
+            connectionsEvicted.increment();
+            return false;
+        }
+        if (now - entry.lastReturnedAt < config.getValidationIntervalMs()) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            logger.warn("Validation of pooled connection failed", e);
+            return false;
+        }
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        totalConnections.incrementAndGet();
+        connectionsCreated.increment();
+        logger.debug("Opened new pooled connection ({} total)", totalConnections.get());
+        return new PooledEntry(physical);
+    }
+
+    private void closePhysical(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        entry.statements.closeAll();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing pooled connection", e);
+        }
+    }
+
+    private void giveBack(PooledEntry entry) {
+        activeConnections.decrementAndGet();
+        try {
+            if (shutdown || entry.physical.isClosed()) {
+                closePhysical(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            logger.warn("Discarding pooled connection that could not be reset", e);
+            closePhysical(entry);
+        } finally {
+            leases.release();
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<PooledEntry> iterator = idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledEntry entry = iterator.next();
+                boolean expired = now - entry.createdAt >= config.getMaxLifetimeMs();
+                boolean idleTooLong = now - entry.lastReturnedAt >= config.getIdleTimeoutMs()
+                        && totalConnections.get() > config.getMinIdle();
+                if ((expired || idleTooLong) && idle.remove(entry)) {
+                    connectionsEvicted.increment();
+                    closePhysical(entry);
+                }
+            }
+            fillToMinimumIdle();
+            logger.debug("Connection pool stats: {}", getStats());
+        } catch (RuntimeException e) {
+            logger.error("Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void fillToMinimumIdle() {
+        while (!shutdown && idle.size() < config.getMinIdle() && leases.tryAcquire()) {
+            try {
+                PooledEntry entry = createEntry();
+                entry.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                logger.error("Error opening connection while filling the pool", e);
+                return;
+            } finally {
+                leases.release();
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool together with its bookkeeping timestamps.
+     */
+    private final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturnedAt;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical);
+        }
+
+        private Connection lease() {
+            Lease lease = new Lease(this);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, lease);
+        }
+    }
+
+    /**
+     * Invocation handler backing the connection handed to a caller.
+     * Closing it returns the physical connection to the pool exactly once; any later use fails.
+     * Preparing SQL registered with the {@link StatementRegistry} returns the connection's cached statement.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final ScheduledFuture<?> leakTask;
+
+        private Lease(PooledEntry entry) {
+            this.entry = entry;
+            long threshold = config.getLeakDetectionThresholdMs();
+            if (threshold > 0) {
+                Exception borrowedAt = new Exception("Connection borrowed here");
+                String thread = Thread.currentThread().getName();
+                this.leakTask = housekeeper.schedule(() -> {
+                    leaksDetected.increment();
+                    logger.warn("Possible connection leak: connection held by thread {} for more than {} ms",
+                            thread, threshold, borrowedAt);
+                }, threshold, TimeUnit.MILLISECONDS);
+            } else {
+                this.leakTask = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        if (leakTask != null) {
+                            leakTask.cancel(false);
+                        }
+                        giveBack(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (config.isStatementCacheEnabled() && "prepareStatement".equals(method.getName()) && args.length == 1) {
+                NamedStatement statement = StatementRegistry.find((String) args[0]);
+                if (statement != null) {
+                    return entry.statements.prepare(statement, (Connection) proxy);
+                }
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.hotelreservation.util;
+
+/**
+ * Sizing and timeout settings for a {@link ConnectionPool}.
+ */
+public class ConnectionPoolConfig {
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMs;
+    private final long housekeepingIntervalMs;
+    private final boolean statementCacheEnabled;
+
+    /**
+     * Constructs a ConnectionPoolConfig with the specified settings.
+     *
+     * @param maxSize                  the maximum number of physical connections, in use or idle
+     * @param minIdle                  the number of idle connections kept open and opened at start-up
+     * @param connectionTimeoutMs      how long a caller waits for a free connection before failing
+     * @param idleTimeoutMs            how long a connection above the minimum may sit idle before it is closed
+     * @param maxLifetimeMs            the age after which a connection is retired
+     * @param validationIntervalMs     how long a connection may sit idle before it is validated on checkout
+     * @param validationTimeoutSeconds the timeout passed to {@link java.sql.Connection#isValid(int)}
+     * @param leakDetectionThresholdMs how long a connection may be held before a leak is reported (0 disables)
+     * @param housekeepingIntervalMs   the interval between eviction and refill passes
+     * @param statementCacheEnabled    whether each connection caches the statements of the {@link StatementRegistry}
+     */
+    public ConnectionPoolConfig(int maxSize, int minIdle, long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                                long validationIntervalMs, int validationTimeoutSeconds, long leakDetectionThresholdMs,
+                                long housekeepingIntervalMs, boolean statementCacheEnabled) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.housekeepingIntervalMs = housekeepingIntervalMs;
+        this.statementCacheEnabled = statementCacheEnabled;
+    }
+
+    // Getters
+
+    public int getMaxSize() { return maxSize; }
+    public int getMinIdle() { return minIdle; }
+    public long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public long getMaxLifetimeMs() { return maxLifetimeMs; }
+    public long getValidationIntervalMs() { return validationIntervalMs; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+    public long getHousekeepingIntervalMs() { return housekeepingIntervalMs; }
+    public boolean isStatementCacheEnabled() { return statementCacheEnabled; }
+}
@@ -3,6 +3,7 @@ package com.hotelreservation.util;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,31 +11,173 @@ import io.github.cdimascio.dotenv.Dotenv;
 
 /**
  * Utility class for establishing a connection to the database.
- * Loads database connection details from environment variables and provides a method to get a connection to the PostgreSQL database.
+ * Loads database connection details from environment variables and hands out connections from a shared
+ * {@link ConnectionPool}, so that each call is an in-process checkout rather than a new network handshake.
+ * A JVM system property with the same name as an environment variable takes precedence over it.
  */
 public class DatabaseConnection {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
 
     // Load environment variables
-    private static final Dotenv dotenv = Dotenv.load();
-    private static final String URL = dotenv.get("SUPABASE_DB_URL");
-    private static final String USER = dotenv.get("SUPABASE_DB_USER");
-    private static final String PASSWORD = dotenv.get("SUPABASE_DB_PASSWORD");
+    private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+    private static final String URL = setting("SUPABASE_DB_URL");
+    private static final String USER = setting("SUPABASE_DB_USER");
+    private static final String PASSWORD = setting("SUPABASE_DB_PASSWORD");
+
+    private static volatile ConnectionPool pool;
 
     /**
-     * Establishes a connection to the PostgreSQL database using credentials from environment variables.
+     * Borrows a connection to the PostgreSQL database from the shared connection pool.
+     * Closing the returned connection gives it back to the pool.
      *
      * @return a {@link Connection} object to interact with the database
      * @throws SQLException if there is an error in establishing the database connection
      */
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    /**
+     * Creates the shared connection pool and opens its minimum number of idle connections.
+     * Intended to be called once at application start-up, off the JavaFX application thread.
+     */
+    public static void initialize() {
+        try {
+            getPool().prewarm();
+        } catch (SQLException e) {
+            logger.error("Failed to initialize the connection pool", e);
+        }
+    }
+
+    /**
+     * Closes the shared connection pool, if it was created.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            StatementRegistry.logSummary();
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Opens a connection outside the pool, for long-lived sessions such as LISTEN that must not hold a pooled
+     * connection. The caller owns the connection and must close it.
+     *
+     * @return a new, unpooled {@link Connection}
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        getPool(); // Loads the driver
+        return DriverManager.getConnection(URL, connectionProperties());
+    }
+
+    /**
+     * Returns the current statistics of the shared connection pool.
+     *
+     * @return the pool statistics
+     * @throws SQLException if the PostgreSQL JDBC driver cannot be loaded
+     */
+    public static PoolStats getPoolStats() throws SQLException {
+        return getPool().getStats();
+    }
+
+    /**
+     * Returns the configured maximum number of pooled connections.
+     *
+     * @return the maximum pool size
+     */
+    public static int getMaxPoolSize() {
+        return Math.max(1, intSetting("DB_POOL_MAX_SIZE", 10));
+    }
+
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() throws SQLException {
         try {
             Class.forName("org.postgresql.Driver");
-            logger.info("Connecting to database...");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
         } catch (ClassNotFoundException e) {
             logger.error("PostgreSQL JDBC Driver not found", e);
             throw new SQLException("PostgreSQL JDBC Driver not found", e);
         }
+
+        ConnectionPoolConfig config = new ConnectionPoolConfig(
+                getMaxPoolSize(),
+                intSetting("DB_POOL_MIN_IDLE", 2),
+                longSetting("DB_POOL_CONNECTION_TIMEOUT_MS", 10_000),
+                longSetting("DB_POOL_IDLE_TIMEOUT_MS", 600_000),
+                longSetting("DB_POOL_MAX_LIFETIME_MS", 1_800_000),
+                longSetting("DB_POOL_VALIDATION_INTERVAL_MS", 30_000),
+                intSetting("DB_POOL_VALIDATION_TIMEOUT_S", 2),
+                longSetting("DB_POOL_LEAK_DETECTION_MS", 60_000),
+                longSetting("DB_POOL_HOUSEKEEPING_INTERVAL_MS", 30_000),
+                !"false".equalsIgnoreCase(setting("DB_STATEMENT_CACHE"))
+        );
+        logger.info("Creating connection pool (max size {}, min idle {})", config.getMaxSize(), config.getMinIdle());
+        return new ConnectionPool(URL, connectionProperties(), config);
+    }
+
+    private static Properties connectionProperties() {
+        Properties properties = new Properties();
+        if (USER != null) {
+            properties.setProperty("user", USER);
+        }
+        if (PASSWORD != null) {
+            properties.setProperty("password", PASSWORD);
+        }
+        // Send JDBC batches as multi-row INSERTs
+        properties.setProperty("reWriteBatchedInserts", "true");
+        // Executions of the same SQL before the driver switches to a named server-side prepared statement;
+        // statements served from the statement cache switch on their first execution regardless
+        properties.setProperty("prepareThreshold", String.valueOf(longSetting("DB_PREPARE_THRESHOLD", 5)));
+        properties.setProperty("preparedStatementCacheQueries", String.valueOf(longSetting("DB_STATEMENT_CACHE_QUERIES", 256)));
+        return properties;
+    }
+
+    private static int intSetting(String key, int defaultValue) {
+        return (int) longSetting(key, defaultValue);
+    }
+
+    /**
+     * Returns a configuration value, from the JVM system properties if set there, otherwise from the environment.
+     *
+     * @param key the name of the setting
+     * @return the value, or null if it is not set
+     */
+    public static String setting(String key) {
+        String value = System.getProperty(key);
+        return value != null ? value : dotenv.get(key);
+    }
+
+    /**
+     * Returns a numeric configuration value, falling back to a default when it is missing or invalid.
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value to use when the setting is missing or not a number
+     * @return the configured value, or the default
+     */
+    public static long longSetting(String key, long defaultValue) {
+        String value = setting(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid value '{}' for {}", value, key);
+            return defaultValue;
+        }
     }
 }
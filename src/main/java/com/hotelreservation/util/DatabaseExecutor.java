@@ -0,0 +1,56 @@
+package com.hotelreservation.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility class that runs blocking database work on a dedicated pool of worker threads,
+ * keeping JDBC round trips off the JavaFX application thread.
+ * The number of workers matches the size of the connection pool, so queued work waits here rather than on a connection.
+ */
+public class DatabaseExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseExecutor.class);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            DatabaseConnection.getMaxPoolSize(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "db-worker-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Runs the given database call on a worker thread.
+     *
+     * @param call the blocking call to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result of the call
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    /**
+     * Stops accepting new work and waits briefly for running calls to finish.
+     */
+    public static void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Database workers did not finish within 5 seconds");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
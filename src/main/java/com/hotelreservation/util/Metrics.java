@@ -0,0 +1,250 @@
+package com.hotelreservation.util;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the measurements of every instrumented service {@link Operation}.
+ * Each operation's {@link OperationStats} is registered as a JMX MXBean when it is first used, and all
+ * operations, registered statements and connection pool counters can be rendered in the Prometheus text
+ * format for the {@link MetricsServer}.
+ * Operations slower than {@code DB_SLOW_QUERY_MS} (default 500, 0 disables) are logged as slow queries.
+ */
+public class Metrics {
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    private static final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private static final long slowQueryThresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(DatabaseConnection.longSetting("DB_SLOW_QUERY_MS", 500));
+
+    // Upper bounds of the exported latency buckets: 2^17 - 1 ns (about 131 us) up to 2^33 - 1 ns (about 8.6 s)
+    private static final int FIRST_BUCKET_BIT = 17;
+    private static final int LAST_BUCKET_BIT = 33;
+
+    private Metrics() {
+    }
+
+    /**
+     * A call of an instrumented operation, given the running {@link Operation} to record its rows on.
+     *
+     * @param <T> the type of the result
+     * @param <E> the type of the checked exception the call may throw
+     */
+    @FunctionalInterface
+    public interface TimedCall<T, E extends Exception> {
+        T call(Operation op) throws E;
+    }
+
+    /**
+     * Runs a call as an instrumented operation: times it, counts it as failed if it throws, and records it.
+     *
+     * @param name the operation name, such as "BookingService.getAllBookings"
+     * @param call the call to run
+     * @param <T>  the type of the result
+     * @param <E>  the type of the checked exception the call may throw
+     * @return the result of the call
+     * @throws E if the call throws it
+     */
+    public static <T, E extends Exception> T timed(String name, TimedCall<T, E> call) throws E {
+        Operation op = Operation.start(name);
+        try {
+            return call.call(op);
+        } catch (Exception | Error e) {
+            op.failed();
+            throw e;
+        } finally {
+            op.end();
+        }
+    }
+
+    /**
+     * Runs a call as an instrumented operation like {@link #timed(String, TimedCall)}, turning a checked
+     * exception into a result: the call is counted as failed and {@code onError} supplies the result instead,
+     * typically after logging the exception.
+     *
+     * @param name    the operation name, such as "BookingService.getAllBookings"
+     * @param call    the call to run
+     * @param onError the result to return when the call throws a checked exception
+     * @param <T>     the type of the result
+     * @param <E>     the type of the checked exception the call may throw
+     * @return the result of the call, or of {@code onError} if the call failed
+     */
+    public static <T, E extends Exception> T timed(String name, TimedCall<T, E> call, Function<? super E, T> onError) {
+        Operation op = Operation.start(name);
+        try {
+            return call.call(op);
+        } catch (RuntimeException | Error e) {
+            op.failed();
+            throw e;
+        } catch (Exception e) {
+            op.failed();
+            // Only E is checked in the call
+            @SuppressWarnings("unchecked")
+            E error = (E) e;
+            return onError.apply(error);
+        } finally {
+            op.end();
+        }
+    }
+
+    /**
+     * Returns the measurements of an operation, creating and registering them on first use.
+     *
+     * @param name the operation name
+     * @return the operation's statistics
+     */
+    public static OperationStats getOperation(String name) {
+        OperationStats stats = operations.get(name);
+        if (stats == null) {
+            stats = operations.computeIfAbsent(name, key -> {
+                OperationStats created = new OperationStats(key);
+                registerMBean(created);
+                return created;
+            });
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the measurements of every operation used so far, ordered by name.
+     *
+     * @return the operation statistics
+     */
+    public static List<OperationStats> getOperations() {
+        List<OperationStats> stats = new ArrayList<>(operations.values());
+        stats.sort(Comparator.comparing(OperationStats::getName));
+        return stats;
+    }
+
+    static long getSlowQueryThresholdNanos() {
+        return slowQueryThresholdNanos;
+    }
+
+    private static void registerMBean(OperationStats stats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.hotelreservation:type=Operation,name=" + ObjectName.quote(stats.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register JMX bean for operation {}", stats.getName(), e);
+        }
+    }
+
+    /**
+     * Renders all operations, registered statements and connection pool counters in the Prometheus text format.
+     *
+     * @return the exposition text
+     */
+    public static String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        List<OperationStats> stats = getOperations();
+
+        out.append("# HELP hotel_operation_duration_seconds Latency of service operations.\n");
+        out.append("# TYPE hotel_operation_duration_seconds histogram\n");
+        for (OperationStats operation : stats) {
+            appendHistogram(out, "hotel_operation_duration_seconds", label(operation.getName()), operation.getLatency());
+        }
+
+        out.append("# HELP hotel_operation_connection_acquire_seconds Time service operations waited for a pooled connection.\n");
+        out.append("# TYPE hotel_operation_connection_acquire_seconds summary\n");
+        for (OperationStats operation : stats) {
+            LatencyHistogram acquire = operation.getConnectionAcquire();
+            String labels = label(operation.getName());
+            appendSample(out, "hotel_operation_connection_acquire_seconds_sum", labels, seconds(acquire.getTotalNanos()));
+            appendSample(out, "hotel_operation_connection_acquire_seconds_count", labels, String.valueOf(acquire.getCount()));
+        }
+
+        out.append("# HELP hotel_operation_errors_total Service operations that failed.\n");
+        out.append("# TYPE hotel_operation_errors_total counter\n");
+        for (OperationStats operation : stats) {
+            appendSample(out, "hotel_operation_errors_total", label(operation.getName()), String.valueOf(operation.getErrors()));
+        }
+
+        out.append("# HELP hotel_operation_rows_total Rows returned or written by service operations.\n");
+        out.append("# TYPE hotel_operation_rows_total counter\n");
+        for (OperationStats operation : stats) {
+            appendSample(out, "hotel_operation_rows_total", label(operation.getName()), String.valueOf(operation.getRows()));
+        }
+
+        out.append("# HELP hotel_statement_duration_seconds Execution time of registered statements, on first use and on reuse of a connection's prepared copy.\n");
+        out.append("# TYPE hotel_statement_duration_seconds summary\n");
+        for (NamedStatement statement : StatementRegistry.getStatements()) {
+            appendStatement(out, statement.getName(), "first", statement.getFirstExecutions());
+            appendStatement(out, statement.getName(), "reused", statement.getReusedExecutions());
+        }
+
+        try {
+            PoolStats pool = DatabaseConnection.getPoolStats();
+            appendGauge(out, "hotel_pool_active_connections", "Connections currently on loan.", pool.getActiveConnections());
+            appendGauge(out, "hotel_pool_idle_connections", "Connections waiting in the pool.", pool.getIdleConnections());
+            appendGauge(out, "hotel_pool_waiting_threads", "Threads waiting for a connection.", pool.getWaitingThreads());
+            appendCounter(out, "hotel_pool_acquire_timeouts_total", "Checkouts that gave up waiting.", pool.getAcquireTimeouts());
+            appendCounter(out, "hotel_pool_leaks_detected_total", "Loans that exceeded the leak detection threshold.", pool.getLeaksDetected());
+        } catch (SQLException e) {
+            logger.debug("Connection pool statistics unavailable", e);
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        for (int bit = FIRST_BUCKET_BIT; bit <= LAST_BUCKET_BIT; bit++) {
+            long bound = (1L << bit) - 1;
+            appendSample(out, name + "_bucket", labels + ",le=\"" + seconds(bound) + "\"",
+                    String.valueOf(histogram.getCountAtOrBelow(bound)));
+        }
+        appendSample(out, name + "_bucket", labels + ",le=\"+Inf\"", String.valueOf(histogram.getCount()));
+        appendSample(out, name + "_sum", labels, seconds(histogram.getTotalNanos()));
+        appendSample(out, name + "_count", labels, String.valueOf(histogram.getCount()));
+    }
+
+    private static void appendStatement(StringBuilder out, String statement, String phase, LatencyHistogram histogram) {
+        String labels = "statement=\"" + escape(statement) + "\",phase=\"" + phase + "\"";
+        appendSample(out, "hotel_statement_duration_seconds_sum", labels, seconds(histogram.getTotalNanos()));
+        appendSample(out, "hotel_statement_duration_seconds_count", labels, String.valueOf(histogram.getCount()));
+    }
+
+    private static void appendGauge(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, String value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String label(String operation) {
+        return "operation=\"" + escape(operation) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
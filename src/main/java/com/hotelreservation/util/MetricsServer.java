@@ -0,0 +1,77 @@
+package com.hotelreservation.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves {@link Metrics#toPrometheusText()} at {@code http://127.0.0.1:<METRICS_PORT>/metrics}.
+ * Bound to the loopback interface only; {@code METRICS_PORT} defaults to 9404, and 0 disables the endpoint.
+ */
+public class MetricsServer {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+
+    private static HttpServer server;
+
+    private MetricsServer() {
+    }
+
+    /**
+     * Starts the metrics endpoint if it is enabled and not yet running.
+     * Failing to bind the port is logged and otherwise ignored, so a second instance on the same host still starts.
+     */
+    public static synchronized void start() {
+        int port = (int) DatabaseConnection.longSetting("METRICS_PORT", 9404);
+        if (server != null || port <= 0) {
+            return;
+        }
+        try {
+            HttpServer created = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            created.createContext("/metrics", MetricsServer::handle);
+            created.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            created.start();
+            server = created;
+            logger.info("Serving metrics at http://127.0.0.1:{}/metrics", port);
+        } catch (IOException e) {
+            logger.warn("Could not start the metrics endpoint on port {}", port, e);
+        }
+    }
+
+    /**
+     * Stops the metrics endpoint, if it is running.
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
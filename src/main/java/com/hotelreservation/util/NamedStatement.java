@@ -0,0 +1,33 @@
+package com.hotelreservation.util;
+
+/**
+ * A frequently executed SQL statement registered with the {@link StatementRegistry}.
+ * Pooled connections keep one prepared, server-side planned copy of each named statement and hand it out again
+ * whenever the same SQL is prepared, instead of parsing and planning it on every call.
+ * Execution latencies are recorded separately for the first execution on a connection, which pays for the
+ * parse and plan, and for later executions, which reuse them.
+ */
+public class NamedStatement {
+
+    private final String name;
+    private final String sql;
+    private final LatencyHistogram firstExecutions = new LatencyHistogram();
+    private final LatencyHistogram reusedExecutions = new LatencyHistogram();
+
+    NamedStatement(String name, String sql) {
+        this.name = name;
+        this.sql = sql;
+    }
+
+    // Getters
+
+    public String getName() { return name; }
+    public String getSql() { return sql; }
+    public LatencyHistogram getFirstExecutions() { return firstExecutions; }
+    public LatencyHistogram getReusedExecutions() { return reusedExecutions; }
+
+    @Override
+    public String toString() {
+        return name + " [first: " + firstExecutions + "] [reused: " + reusedExecutions + "]";
+    }
+}
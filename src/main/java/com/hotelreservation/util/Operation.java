@@ -0,0 +1,92 @@
+package com.hotelreservation.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One running call of an instrumented service operation.
+ * Service methods run their body through {@link Metrics#timed}, which starts the operation and ends it once the
+ * body returns or throws; while it runs, it is the current operation of its thread, so the {@link ConnectionPool} can charge connection acquire time to it.
+ * Ending it records the call in the operation's {@link OperationStats} and logs it if it was slow.
+ * Operations may nest, for example when one service method delegates to another.
+ */
+public class Operation {
+    private static final Logger logger = LoggerFactory.getLogger(Operation.class);
+
+    private static final ThreadLocal<Operation> current = new ThreadLocal<>();
+
+    private final OperationStats stats;
+    private final Operation parent;
+    private final long startNanos = System.nanoTime();
+    private long acquireNanos;
+    private long rows;
+    private boolean failed;
+
+    private Operation(OperationStats stats, Operation parent) {
+        this.stats = stats;
+        this.parent = parent;
+    }
+
+    /**
+     * Starts timing a call of an operation on the current thread.
+     *
+     * @param name the operation name, such as "BookingService.getAllBookings"
+     * @return the running operation, to be ended in a {@code finally} block
+     */
+    public static Operation start(String name) {
+        Operation operation = new Operation(Metrics.getOperation(name), current.get());
+        current.set(operation);
+        return operation;
+    }
+
+    /**
+     * Charges time spent waiting for a pooled connection to the current operation of this thread, if any.
+     *
+     * @param nanos the wait in nanoseconds
+     */
+    static void recordConnectionAcquire(long nanos) {
+        Operation operation = current.get();
+        if (operation != null) {
+            operation.acquireNanos += nanos;
+        }
+    }
+
+    /**
+     * Records the number of rows the call returned or wrote.
+     *
+     * @param count the row count
+     */
+    public void rows(long count) {
+        rows += count;
+    }
+
+    /**
+     * Marks the call as failed.
+     */
+    public void failed() {
+        failed = true;
+    }
+
+    /**
+     * Ends the call, records it, and logs it as a slow query if it exceeded the configured threshold.
+     */
+    public void end() {
+        long elapsed = System.nanoTime() - startNanos;
+        if (parent != null) {
+            parent.acquireNanos += acquireNanos;
+            current.set(parent);
+        } else {
+            current.remove();
+        }
+        stats.record(elapsed, acquireNanos, rows, failed);
+
+        long thresholdNanos = Metrics.getSlowQueryThresholdNanos();
+        if (thresholdNanos > 0 && elapsed >= thresholdNanos) {
+            logger.warn("Slow operation {}: {} ms (waited {} ms for a connection, {} rows{})", stats.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(acquireNanos), rows,
+                    failed ? ", failed" : "");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hotelreservation.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The accumulated measurements of one instrumented service operation: call latency, connection acquire time,
+ * errors and rows returned or written. Created and kept by {@link Metrics}.
+ */
+public class OperationStats implements OperationStatsMXBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void record(long elapsedNanos, long acquireNanos, long rowCount, boolean failed) {
+        latency.record(elapsedNanos);
+        if (acquireNanos > 0) {
+            connectionAcquire.record(acquireNanos);
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    // Getters
+
+    @Override
+    public String getName() { return name; }
+    public LatencyHistogram getLatency() { return latency; }
+    public LatencyHistogram getConnectionAcquire() { return connectionAcquire; }
+    @Override
+    public long getCalls() { return latency.getCount(); }
+    @Override
+    public long getErrors() { return errors.sum(); }
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public double getMeanMillis() {
+        return toMillis(latency.getMeanNanos());
+    }
+
+    @Override
+    public double getP50Millis() {
+        return toMillis(latency.getPercentileNanos(50));
+    }
+
+    @Override
+    public double getP99Millis() {
+        return toMillis(latency.getPercentileNanos(99));
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return toMillis(latency.getMaxNanos());
+    }
+
+    @Override
+    public double getMeanConnectionAcquireMillis() {
+        return toMillis(connectionAcquire.getMeanNanos());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + latency + ", errors=" + getErrors() + ", rows=" + getRows() + "]";
+    }
+}
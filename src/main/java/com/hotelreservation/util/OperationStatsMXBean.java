@@ -0,0 +1,26 @@
+package com.hotelreservation.util;
+
+/**
+ * JMX view of the counters of one instrumented service operation, registered as
+ * {@code com.hotelreservation:type=Operation,name=<operation>}.
+ */
+public interface OperationStatsMXBean {
+
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    double getMeanConnectionAcquireMillis();
+}
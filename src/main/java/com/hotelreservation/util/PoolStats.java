@@ -0,0 +1,80 @@
+package com.hotelreservation.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point-in-time snapshot of the counters of a {@link ConnectionPool}.
+ */
+public class PoolStats {
+
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int maxConnections;
+    private final int waitingThreads;
+    private final long acquireCount;
+    private final long averageWaitNanos;
+    private final long maxWaitNanos;
+    private final long acquireTimeouts;
+    private final long connectionsCreated;
+    private final long connectionsEvicted;
+    private final long leaksDetected;
+
+    /**
+     * Constructs a PoolStats snapshot with the specified counters.
+     *
+     * @param activeConnections  connections currently on loan
+     * @param idleConnections    connections waiting in the pool
+     * @param totalConnections   physical connections currently open
+     * @param maxConnections     the configured upper bound on physical connections
+     * @param waitingThreads     threads currently blocked waiting for a connection
+     * @param acquireCount       successful checkouts since start-up
+     * @param averageWaitNanos   average time spent waiting for a checkout
+     * @param maxWaitNanos       longest time spent waiting for a checkout
+     * @param acquireTimeouts    checkouts that gave up waiting
+     * @param connectionsCreated physical connections opened since start-up
+     * @param connectionsEvicted physical connections retired for age, idleness or failed validation
+     * @param leaksDetected      loans that exceeded the leak detection threshold
+     */
+    public PoolStats(int activeConnections, int idleConnections, int totalConnections, int maxConnections, int waitingThreads,
+                     long acquireCount, long averageWaitNanos, long maxWaitNanos, long acquireTimeouts,
+                     long connectionsCreated, long connectionsEvicted, long leaksDetected) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.maxConnections = maxConnections;
+        this.waitingThreads = waitingThreads;
+        this.acquireCount = acquireCount;
+        this.averageWaitNanos = averageWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.acquireTimeouts = acquireTimeouts;
+        this.connectionsCreated = connectionsCreated;
+        this.connectionsEvicted = connectionsEvicted;
+        this.leaksDetected = leaksDetected;
+    }
+
+    // Getters
+
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getTotalConnections() { return totalConnections; }
+    public int getMaxConnections() { return maxConnections; }
+    public int getWaitingThreads() { return waitingThreads; }
+    public long getAcquireCount() { return acquireCount; }
+    public long getAverageWaitNanos() { return averageWaitNanos; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+    public long getAcquireTimeouts() { return acquireTimeouts; }
+    public long getConnectionsCreated() { return connectionsCreated; }
+    public long getConnectionsEvicted() { return connectionsEvicted; }
+    public long getLeaksDetected() { return leaksDetected; }
+
+    @Override
+    public String toString() {
+        return "active=" + activeConnections + ", idle=" + idleConnections + ", total=" + totalConnections
+                + "/" + maxConnections + ", waiting=" + waitingThreads + ", acquires=" + acquireCount
+                + ", avgWait=" + TimeUnit.NANOSECONDS.toMicros(averageWaitNanos) + "us"
+                + ", maxWait=" + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms"
+                + ", timeouts=" + acquireTimeouts + ", created=" + connectionsCreated
+                + ", evicted=" + connectionsEvicted + ", leaks=" + leaksDetected;
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotelreservation.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets a caller cancel a database query that may be running on another thread.
+ * The query registers its statement before executing it; cancelling asks the server to abort the statement,
+ * or makes the registration fail if the statement has not started yet.
+ */
+public class QueryCancellation {
+    private static final Logger logger = LoggerFactory.getLogger(QueryCancellation.class);
+
+    private Statement statement;
+    private boolean cancelled;
+
+    /**
+     * Registers the statement that is about to be executed.
+     *
+     * @param statement the statement to cancel on request
+     * @throws SQLException if the query has already been cancelled
+     */
+    public synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query was cancelled before it started");
+        }
+        this.statement = statement;
+    }
+
+    /**
+     * Cancels the registered statement, or the query about to register one.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.debug("Error cancelling statement", e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the query has been cancelled.
+     *
+     * @return true if cancelled
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hotelreservation.util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to a model object.
+ * A mapper instance belongs to one result set, so implementations may resolve column indexes on the first row
+ * and reuse them for every later row instead of looking columns up by name each time.
+ *
+ * @param <T> the type of the mapped objects
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the row the result set is positioned on.
+     *
+     * @param rs the result set, positioned on a row
+     * @return the mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet rs) throws SQLException;
+}
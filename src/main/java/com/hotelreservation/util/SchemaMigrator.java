@@ -0,0 +1,173 @@
+package com.hotelreservation.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Brings the database schema up to date with the versioned migrations in {@code db/migration}, the only place
+ * the application's tables, indexes, triggers and functions are defined.
+ * Each migration {@code V<version>__<description>.sql} runs once, in its own transaction, and is recorded in the
+ * {@code schema_version} table with a checksum of its script. Instances starting at the same time take turns
+ * through an advisory lock, so each migration is applied by exactly one of them. A released migration is never
+ * edited; a migration whose script no longer matches its recorded checksum is reported but not run again.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "/com/hotelreservation/db/migration/";
+
+    // In the order they are applied; a new migration is appended with the next version
+    private static final String[] MIGRATIONS = {
+            "V1__baseline.sql",
+            "V2__booking_search.sql",
+            "V3__booking_exclusion.sql",
+            "V4__change_notify.sql",
+            "V5__row_versions.sql",
+            "V6__bulk_import.sql",
+            "V7__occupancy_rollup.sql",
+            "V8__inventory_ledger.sql",
+            "V9__room_holds.sql",
+            "V10__service_indexes.sql",
+            "V11__sync_watermark.sql",
+            "V12__import_resume.sql",
+            "V13__occupancy_deltas.sql",
+            "V14__inventory_lock_order.sql",
+            "V15__room_hold_exclusion.sql",
+            "V16__sync_cleanup.sql",
+            "V17__booking_keyset_index.sql",
+    };
+
+    // Advisory lock key shared by all instances migrating the same database
+    private static final long LOCK_KEY = 0x686f74656c4d6967L;
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description TEXT NOT NULL, " +
+            "script TEXT NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "execution_ms BIGINT NOT NULL, " +
+            "installed_at TIMESTAMPTZ NOT NULL DEFAULT now())";
+
+    private static final String RECORD_VERSION = "INSERT INTO schema_version " +
+            "(version, description, script, checksum, execution_ms) VALUES (?, ?, ?, ?, ?)";
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies the migrations that have not been applied to the database yet, in version order.
+     * Runs on a dedicated connection, since migrations may take a while and must not tie up the pool.
+     *
+     * @return true if the schema is up to date, false if a migration failed or the database could not be reached
+     */
+    public static boolean migrate() {
+        return Metrics.timed("SchemaMigrator.migrate", op -> {
+            try (Connection conn = DatabaseConnection.openDedicatedConnection();
+                 Statement stmt = conn.createStatement()) {
+
+                stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+                try {
+                    stmt.execute(CREATE_VERSION_TABLE);
+                    Map<Integer, Long> applied = appliedVersions(stmt);
+                    int count = 0;
+                    int latest = 0;
+                    for (String script : MIGRATIONS) {
+                        int version = version(script);
+                        String sql = readScript(script);
+                        long checksum = checksum(sql);
+                        latest = version;
+                        Long appliedChecksum = applied.get(version);
+                        if (appliedChecksum == null) {
+                            apply(conn, version, script, sql, checksum);
+                            count++;
+                        } else if (appliedChecksum != checksum) {
+                            logger.warn("Migration {} was changed after it was applied; not applying it again", script);
+                        }
+                    }
+                    for (int version : applied.keySet()) {
+                        if (version > latest) {
+                            logger.warn("Database has migration V{}, which this version of the application does not know", version);
+                        }
+                    }
+                    op.rows(count);
+                    logger.info("Database schema at V{}; {} migrations applied", latest, count);
+                    return true;
+                } finally {
+                    stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        }, e -> {
+            logger.error("Error migrating the database schema", e);
+            return false;
+        });
+    }
+
+    private static Map<Integer, Long> appliedVersions(Statement stmt) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, int version, String script, String sql, long checksum) throws SQLException {
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(RECORD_VERSION)) {
+            stmt.execute(sql);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            record.setInt(1, version);
+            record.setString(2, description(script));
+            record.setString(3, script);
+            record.setLong(4, checksum);
+            record.setLong(5, elapsedMs);
+            record.executeUpdate();
+            conn.commit();
+            logger.info("Applied migration {} in {} ms", script, elapsedMs);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration " + script + " failed", e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String readScript(String script) throws IOException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IOException("Missing migration " + LOCATION + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String description(String script) {
+        return script.substring(script.indexOf("__") + 2, script.length() - ".sql".length()).replace('_', ' ');
+    }
+
+    // Line endings are normalized, so a checkout with CRLF line endings does not look like an edited migration
+    private static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,169 @@
+package com.hotelreservation.util;
+
+import org.postgresql.PGStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The prepared copies of the {@link NamedStatement}s kept by one physical pooled connection.
+ * A caller preparing registered SQL gets the cached statement behind a proxy whose {@code close()} resets it
+ * for the next caller instead of closing it, so the driver keeps its parsed query and server-side plan.
+ * Cached statements are switched to server-side preparation from their first execution.
+ * Used only by the thread currently holding the connection.
+ */
+final class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Connection physical;
+    private final Map<NamedStatement, CachedStatement> statements = new HashMap<>();
+
+    StatementCache(Connection physical) {
+        this.physical = physical;
+    }
+
+    /**
+     * Returns the cached statement for a registered statement, preparing it on first use.
+     * If the cached statement is already handed out on this lease, a fresh, uncached one is prepared.
+     *
+     * @param statement the registered statement
+     * @param leased    the pooled connection the caller holds, returned by {@code getConnection()}
+     */
+    PreparedStatement prepare(NamedStatement statement, Connection leased) throws SQLException {
+        CachedStatement cached = statements.get(statement);
+        if (cached == null) {
+            PreparedStatement prepared = physical.prepareStatement(statement.getSql());
+            prepared.unwrap(PGStatement.class).setPrepareThreshold(1);
+            cached = new CachedStatement(statement, prepared);
+            statements.put(statement, cached);
+        } else if (cached.inUse) {
+            return physical.prepareStatement(statement.getSql());
+        }
+        cached.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Handle(cached, leased));
+    }
+
+    /**
+     * Closes every cached statement; called when the physical connection is retired.
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            try {
+                cached.prepared.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing cached statement {}", cached.statement.getName(), e);
+            }
+        }
+        statements.clear();
+    }
+
+    /**
+     * A prepared statement kept for reuse, with the number of times it has run on this connection.
+     */
+    private static final class CachedStatement {
+        private final NamedStatement statement;
+        private final PreparedStatement prepared;
+        private boolean inUse;
+        private long executions;
+
+        private CachedStatement(NamedStatement statement, PreparedStatement prepared) {
+            this.statement = statement;
+            this.prepared = prepared;
+        }
+    }
+
+    /**
+     * Invocation handler backing one hand-out of a cached statement.
+     * Closing it resets the statement and makes it available again; any later use of this hand-out fails.
+     */
+    private final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection leased;
+        private boolean closed;
+
+        private Handle(CachedStatement cached, Connection leased) {
+            this.cached = cached;
+            this.leased = leased;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.prepared.isClosed();
+                case "getConnection":
+                    return leased;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement.getName() + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            if (!name.startsWith("execute")) {
+                return call(method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return call(method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                NamedStatement statement = cached.statement;
+                (cached.executions++ == 0 ? statement.getFirstExecutions() : statement.getReusedExecutions()).record(elapsed);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(cached.prepared, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() throws SQLException {
+            PreparedStatement prepared = cached.prepared;
+            try {
+                if (prepared.getResultSet() != null) {
+                    prepared.getResultSet().close();
+                }
+                prepared.clearParameters();
+                prepared.clearBatch();
+                prepared.clearWarnings();
+                prepared.setQueryTimeout(0);
+                prepared.setFetchSize(0);
+                prepared.setMaxRows(0);
+                cached.inUse = false;
+            } catch (SQLException e) {
+                // A statement that cannot be reset is dropped and prepared again on next use
+                statements.remove(cached.statement);
+                prepared.close();
+                throw e;
+            }
+        }
+    }
+}
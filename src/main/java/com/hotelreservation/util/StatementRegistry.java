@@ -0,0 +1,76 @@
+package com.hotelreservation.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Central registry of the application's hot SQL statements.
+ * Services register their frequently executed queries once, as constants, and prepare them by their SQL as usual;
+ * the {@link ConnectionPool} recognizes registered SQL and serves it from a per-connection statement cache.
+ */
+public class StatementRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(StatementRegistry.class);
+
+    private static final Map<String, NamedStatement> statementsBySql = new ConcurrentHashMap<>();
+    private static final Map<String, NamedStatement> statementsByName = new ConcurrentHashMap<>();
+
+    private StatementRegistry() {
+    }
+
+    /**
+     * Registers a statement under a name.
+     *
+     * @param name a unique, dotted name such as "guest.byId"
+     * @param sql  the SQL of the statement
+     * @return the registered statement
+     * @throws IllegalArgumentException if the name is already registered for different SQL
+     */
+    public static NamedStatement register(String name, String sql) {
+        NamedStatement statement = statementsByName.computeIfAbsent(name, key -> new NamedStatement(name, sql));
+        if (!statement.getSql().equals(sql)) {
+            throw new IllegalArgumentException("Statement " + name + " is already registered with different SQL");
+        }
+        statementsBySql.putIfAbsent(sql, statement);
+        return statement;
+    }
+
+    /**
+     * Returns the registered statement with the given SQL.
+     *
+     * @param sql the SQL text
+     * @return the statement, or null if the SQL is not registered
+     */
+    public static NamedStatement find(String sql) {
+        return statementsBySql.get(sql);
+    }
+
+    /**
+     * Returns all registered statements, ordered by name.
+     *
+     * @return the registered statements
+     */
+    public static List<NamedStatement> getStatements() {
+        List<NamedStatement> statements = new ArrayList<>(statementsByName.values());
+        statements.sort(Comparator.comparing(NamedStatement::getName));
+        return statements;
+    }
+
+    /**
+     * Logs the latency histograms of every registered statement that has been executed.
+     */
+    public static void logSummary() {
+        Collection<NamedStatement> statements = getStatements();
+        for (NamedStatement statement : statements) {
+            if (statement.getFirstExecutions().getCount() > 0) {
+                logger.info("Statement {}", statement);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.hotelreservation.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs queries whose results are read in chunks of {@code DB_FETCH_SIZE} rows (default 1000) rather than buffered
+ * whole, so very large results can be processed in constant memory.
+ * The PostgreSQL driver only fetches through a cursor inside a transaction, so the pooled connection is switched
+ * out of autocommit for the duration of the query; the pool resets it when the connection is returned.
+ */
+public class StreamingQuery {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingQuery.class);
+
+    private static final int FETCH_SIZE = (int) Math.max(1, DatabaseConnection.longSetting("DB_FETCH_SIZE", 1000));
+
+    private StreamingQuery() {
+    }
+
+    /**
+     * Returns the configured number of rows fetched per round trip.
+     *
+     * @return the fetch size
+     */
+    public static int getFetchSize() {
+        return FETCH_SIZE;
+    }
+
+    /**
+     * Runs a query and passes each mapped row to an action as it is read.
+     *
+     * @param sql    the query, without parameters
+     * @param mapper the mapper for the rows of this query
+     * @param action the action to apply to each row
+     * @param <T>    the type of the mapped rows
+     * @return the number of rows read
+     * @throws SQLException if the query fails
+     */
+    public static <T> long forEach(String sql, RowMapper<T> mapper, Consumer<? super T> action) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                long count = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                        count++;
+                    }
+                }
+                conn.commit();
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Runs a query and returns its mapped rows as a lazily read stream.
+     * The stream holds a pooled connection until it is closed, so it must be used in a try-with-resources block.
+     * An error while reading rows is thrown from the terminal operation as an {@link IllegalStateException}
+     * whose cause is the {@link SQLException}.
+     *
+     * @param sql    the query, without parameters
+     * @param mapper the mapper for the rows of this query
+     * @param <T>    the type of the mapped rows
+     * @return the stream of rows
+     * @throws SQLException if the query cannot be started
+     */
+    public static <T> Stream<T> stream(String sql, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql);
+            stmt.setFetchSize(FETCH_SIZE);
+            rs = stmt.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            close(stmt, conn);
+            throw e;
+        }
+
+        PreparedStatement opened = stmt;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading streamed rows", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> close(opened, conn));
+    }
+
+    private static void close(PreparedStatement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            logger.debug("Error closing streamed statement", e);
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.debug("Error returning streamed connection", e);
+        }
+    }
+}
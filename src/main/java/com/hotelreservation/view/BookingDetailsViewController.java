@@ -47,6 +47,7 @@ public class BookingDetailsViewController {
      */
     public void setBooking(Booking booking) {
         viewModel = new BookingDetailsViewModel(booking);
+        App.showErrorAlerts(viewModel.errorMessageProperty());
         bindData();
     }
 
@@ -90,13 +91,15 @@ public class BookingDetailsViewController {
      */
     @FXML
     private void handleSave() {
-        if (viewModel.saveChanges()) {
-            specialPreferenceField.setEditable(false);
-            saveButton.setVisible(false);
-            App.showInfoAlert("Success", "Booking details updated successfully.");
-        } else {
-            App.showErrorAlert("Error", "Failed to update booking details.");
-        }
+        viewModel.saveChanges().thenAccept(saved -> {
+            if (saved) {
+                specialPreferenceField.setEditable(false);
+                saveButton.setVisible(false);
+                App.showInfoAlert("Success", "Booking details updated successfully.");
+            } else {
+                App.showErrorAlert("Error", "Failed to update booking details.");
+            }
+        });
     }
 
     /**
@@ -1,7 +1,6 @@
 package com.hotelreservation.view;
 
 import com.hotelreservation.App;
-import com.hotelreservation.model.Staff;
 import com.hotelreservation.viewmodel.LoginViewModel;
 import javafx.fxml.FXML;
 import javafx.scene.control.PasswordField;
@@ -33,6 +32,7 @@ public class LoginViewController {
      */
     public LoginViewController() {
         loginViewModel = new LoginViewModel();
+        App.showErrorAlerts(loginViewModel.errorMessageProperty());
     }
 
     /**
@@ -46,19 +46,19 @@ public class LoginViewController {
 
         logger.info("Login attempt for staff ID: {}", staffId);
 
-        Staff authenticatedStaff = loginViewModel.authenticate(staffId, password);
-
-        if (authenticatedStaff != null) {
-            logger.info("Login successful for staff ID: {}", staffId);
-            try {
-                App.showMainView(authenticatedStaff);
-            } catch (IOException e) {
-                logger.error("Failed to load main view", e);
-                App.showErrorAlert("Error", "Failed to load main view.");
+        loginViewModel.authenticate(staffId, password).thenAccept(authenticatedStaff -> {
+            if (authenticatedStaff != null) {
+                logger.info("Login successful for staff ID: {}", staffId);
+                try {
+                    App.showMainView(authenticatedStaff);
+                } catch (IOException e) {
+                    logger.error("Failed to load main view", e);
+                    App.showErrorAlert("Error", "Failed to load main view.");
+                }
+            } else {
+                logger.warn("Login failed for staff ID: {}", staffId);
+                App.showErrorAlert("Login Failed", "Invalid staff ID or password.");
             }
-        } else {
-            logger.warn("Login failed for staff ID: {}", staffId);
-            App.showErrorAlert("Login Failed", "Invalid staff ID or password.");
-        }
+        });
     }
 }
@@ -2,16 +2,23 @@ package com.hotelreservation.view;
 
 import com.hotelreservation.App;
 import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
 import com.hotelreservation.model.Room;
 import com.hotelreservation.model.Staff;
 import com.hotelreservation.viewmodel.MainViewModel;
+import javafx.animation.PauseTransition;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +60,15 @@ public class MainViewController {
     @FXML
     private TextField searchField;
 
+    @FXML
+    private CheckBox serverSearchCheckBox;
+
+    @FXML
+    private DatePicker fromDatePicker;
+
+    @FXML
+    private DatePicker toDatePicker;
+
     @FXML
     private Button newReservationButton;
 
@@ -61,6 +77,9 @@ public class MainViewController {
 
     private MainViewModel mainViewModel;
     private Staff currentStaff;
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(250));
+    private final Runnable loadMoreUntilScrollable = this::loadMoreIfNotScrollable;
+    private ScrollBar verticalScrollBar;
 
     /**
      * Initializes the main view, sets up the table columns, and binds data from the view model.
@@ -68,6 +87,7 @@ public class MainViewController {
      */
     public MainViewController() {
         mainViewModel = new MainViewModel();
+        App.showErrorAlerts(mainViewModel.errorMessageProperty());
     }
 
     /**
@@ -81,14 +101,20 @@ public class MainViewController {
         // Initialize the reservations table columns
         roomNumberColumn.setCellValueFactory(new PropertyValueFactory<>("roomId"));
         roomStateColumn.setCellValueFactory(new PropertyValueFactory<>("bookingStatus"));
-        roomTypeColumn.setCellValueFactory(new PropertyValueFactory<>("roomId")); // You may need to adjust this if room type is stored separately
-        guestNameColumn.setCellValueFactory(cellData -> cellData.getValue().getGuest().fullNameProperty());
+        roomTypeColumn.setCellValueFactory(new PropertyValueFactory<>("roomType"));
+        guestNameColumn.setCellValueFactory(cellData -> {
+            Guest guest = cellData.getValue().getGuest();
+            return guest != null ? guest.fullNameProperty() : new SimpleStringProperty("");
+        });
         voucherNumberColumn.setCellValueFactory(new PropertyValueFactory<>("voucherNumber"));
         inDateColumn.setCellValueFactory(new PropertyValueFactory<>("inDate"));
         outDateColumn.setCellValueFactory(new PropertyValueFactory<>("outDate"));
 
         // Bind data to table from viewmodel
         reservationsTable.setItems(mainViewModel.getBookings());
+        reservationsTable.placeholderProperty().bind(Bindings.when(mainViewModel.loadingProperty())
+                .then((Node) new Label("Loading reservations..."))
+                .otherwise((Node) new Label("No reservations found.")));
 
         // Handle selection of bookings in the table
         reservationsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -97,16 +123,86 @@ public class MainViewController {
             }
         });
 
-        // Listener for the search field
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            logger.info("Searching bookings with term: {}", newValue);
-            mainViewModel.searchBookings(newValue);
+        // Sorting by check-in date is done by the database; the other columns cannot be sorted
+        // because only part of the bookings is loaded at any time
+        for (TableColumn<Booking, ?> column : reservationsTable.getColumns()) {
+            column.setSortable(column == inDateColumn);
+        }
+        reservationsTable.setSortPolicy(table -> {
+            boolean descending = !table.getSortOrder().isEmpty()
+                    && table.getSortOrder().get(0).getSortType() == TableColumn.SortType.DESCENDING;
+            mainViewModel.setSortDescending(descending);
+            return true;
+        });
+
+        // Date range filter, applied by the database
+        fromDatePicker.valueProperty().addListener((observable, oldValue, newValue) ->
+                mainViewModel.setDateRange(newValue, toDatePicker.getValue()));
+        toDatePicker.valueProperty().addListener((observable, oldValue, newValue) ->
+                mainViewModel.setDateRange(fromDatePicker.getValue(), newValue));
+
+        // Load the next page when the user scrolls close to the end of the table
+        reservationsTable.skinProperty().addListener((observable, oldSkin, newSkin) -> attachLoadMoreOnScroll());
+        // Without enough rows to scroll there are no scroll events, so keep loading until the table can scroll
+        reservationsTable.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.removePostLayoutPulseListener(loadMoreUntilScrollable);
+            }
+            if (newScene != null) {
+                newScene.addPostLayoutPulseListener(loadMoreUntilScrollable);
+            }
+        });
+
+        // Listener for the search field; the search runs once typing pauses
+        serverSearchCheckBox.selectedProperty().bindBidirectional(mainViewModel.serverSearchProperty());
+        searchDebounce.setOnFinished(event -> {
+            logger.info("Searching bookings with term: {}", searchField.getText());
+            mainViewModel.searchBookings(searchField.getText());
         });
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchDebounce.playFromStart());
 
-        // Load the bookings from the viewmodel
+        // Load the bookings from the viewmodel in the background
         mainViewModel.loadBookings();
     }
 
+    /**
+     * Watches the vertical scroll bar of the reservations table and asks for the next page of bookings
+     * once the user has scrolled through most of the loaded rows.
+     */
+    private void attachLoadMoreOnScroll() {
+        for (Node node : reservationsTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar scrollBar = (ScrollBar) node;
+                verticalScrollBar = scrollBar;
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() * 0.9) {
+                        mainViewModel.loadMoreBookings();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Asks for the next page of bookings when, after a layout pass, the loaded rows do not fill the reservations
+     * table, so the rest of the bookings can be reached without a scroll bar. Does nothing while a page is loading
+     * or when all pages have been loaded.
+     */
+    private void loadMoreIfNotScrollable() {
+        if (verticalScrollBar != null && !verticalScrollBar.isVisible() && reservationsTable.getHeight() > 0
+                && !mainViewModel.loadingProperty().get()) {
+            mainViewModel.loadMoreBookings();
+        }
+    }
+
+    /**
+     * Brings the bookings table up to date with changes made since it was loaded.
+     */
+    @FXML
+    private void handleRefresh() {
+        mainViewModel.syncBookings();
+    }
+
     /**
      * Opens a new reservation window.
      */
@@ -121,6 +217,7 @@ public class MainViewController {
             Stage stage = new Stage();
             stage.setScene(new Scene(root));
             stage.setTitle("New Reservation");
+            stage.setOnHidden(event -> controller.dispose());
             stage.show();
         } catch (IOException e) {
             logger.error("Failed to open new reservation window", e);
@@ -128,6 +225,27 @@ public class MainViewController {
         }
     }
 
+    /**
+     * Opens the availability grid window showing which rooms are booked on which nights.
+     */
+    @FXML
+    private void handleAvailabilityGrid() {
+        logger.info("Opening availability grid window");
+        try {
+            FXMLLoader loader = new FXMLLoader(App.class.getResource("room-calendar-view.fxml"));
+            Parent root = loader.load();
+            RoomCalendarViewController controller = loader.getController();
+            Stage stage = new Stage();
+            stage.setScene(new Scene(root));
+            stage.setTitle("Availability Grid");
+            stage.setOnHidden(event -> controller.dispose());
+            stage.show();
+        } catch (IOException e) {
+            logger.error("Failed to open availability grid window", e);
+            App.showErrorAlert("Error", "Failed to open availability grid window.");
+        }
+    }
+
     /**
      * Opens a room management window for managing rooms.
      */
@@ -142,6 +260,7 @@ public class MainViewController {
             Stage stage = new Stage();
             stage.setScene(new Scene(root));
             stage.setTitle("Room Management");
+            stage.setOnHidden(event -> controller.dispose());
             stage.show();
         } catch (IOException e) {
             logger.error("Failed to open room management window", e);
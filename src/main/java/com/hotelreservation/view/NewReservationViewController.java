@@ -1,16 +1,21 @@
 package com.hotelreservation.view;
 
 import com.hotelreservation.App;
-import com.hotelreservation.model.Booking;
 import com.hotelreservation.model.Guest;
 import com.hotelreservation.model.Room;
 import com.hotelreservation.model.Staff;
+import com.hotelreservation.service.ReservationResult;
+import com.hotelreservation.service.SplitStay;
 import com.hotelreservation.viewmodel.NewReservationViewModel;
+import javafx.beans.binding.Bindings;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Controller class for managing the new reservation view.
@@ -30,6 +35,12 @@ public class NewReservationViewController {
     @FXML
     private TableView<Room> availableRoomsTable;
 
+    @FXML
+    private CheckBox splitAcrossTypesCheckBox;
+
+    @FXML
+    private ListView<SplitStay> splitStaysList;
+
     @FXML
     private TextField guestNameField;
 
@@ -50,6 +61,7 @@ public class NewReservationViewController {
      */
     public NewReservationViewController() {
         viewModel = new NewReservationViewModel();
+        App.showErrorAlerts(viewModel.errorMessageProperty());
     }
 
     /**
@@ -59,6 +71,23 @@ public class NewReservationViewController {
     private void initialize() {
         roomTypeComboBox.setItems(viewModel.getRoomTypes());
         availableRoomsTable.setItems(viewModel.getAvailableRooms());
+        // Selecting several rooms books them together as a group
+        availableRoomsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        // The room that fits the stay best is selected unless the clerk has already picked one
+        viewModel.suggestedRoomProperty().addListener((observable, oldRoom, newRoom) -> {
+            if (newRoom != null && availableRoomsTable.getSelectionModel().isEmpty()) {
+                availableRoomsTable.getSelectionModel().select(newRoom);
+                availableRoomsTable.scrollTo(newRoom);
+            }
+        });
+        // Selected rooms are held while the reservation is being made
+        availableRoomsTable.getSelectionModel().getSelectedItems().addListener((ListChangeListener<Room>) change ->
+                viewModel.holdRooms(new ArrayList<>(availableRoomsTable.getSelectionModel().getSelectedItems())));
+        // Split stays are only offered when no single room is free for the whole stay
+        splitStaysList.setItems(viewModel.getSplitStays());
+        splitStaysList.visibleProperty().bind(Bindings.isNotEmpty(viewModel.getSplitStays()));
+        splitStaysList.managedProperty().bind(splitStaysList.visibleProperty());
+        splitAcrossTypesCheckBox.selectedProperty().bindBidirectional(viewModel.splitAcrossTypesProperty());
         // Set up table columns for room details (room number, type, price, etc.)
     }
 
@@ -87,12 +116,15 @@ public class NewReservationViewController {
 
     /**
      * Handles the creation of a reservation once a room is selected, and guest details are entered.
+     * When several rooms are selected, they are booked together as a group under the entered guest.
+     * When no room is available and a split stay is selected instead, each of its rooms is booked for its nights.
      * Shows an error alert if any required information is missing.
      */
     @FXML
     private void handleMakeReservation() {
-        Room selectedRoom = availableRoomsTable.getSelectionModel().getSelectedItem();
-        if (selectedRoom == null) {
+        List<Room> selectedRooms = new ArrayList<>(availableRoomsTable.getSelectionModel().getSelectedItems());
+        SplitStay splitStay = splitStaysList.getSelectionModel().getSelectedItem();
+        if (selectedRooms.isEmpty() && splitStay == null) {
             App.showErrorAlert("Error", "Please select a room.");
             return;
         }
@@ -108,15 +140,43 @@ public class NewReservationViewController {
         }
 
         Guest guest = new Guest(null, guestName, "", "", "", guestContact);
-        Booking booking = viewModel.createBooking(selectedRoom, guest, checkInDatePicker.getValue(),
-                checkOutDatePicker.getValue(), voucherNumber, specialPreference);
-
-        if (booking != null) {
-            App.showInfoAlert("Success", "Reservation created successfully.");
-            closeWindow();
-        } else {
-            App.showErrorAlert("Error", "Failed to create reservation.");
+        if (selectedRooms.isEmpty()) {
+            viewModel.createSplitStayBooking(splitStay, guest, voucherNumber, specialPreference).thenAccept(result -> {
+                if (result.isCommitted()) {
+                    App.showInfoAlert("Success", "Split stay over " + splitStay.getSegments().size() + " rooms created successfully.");
+                    closeWindow();
+                } else {
+                    App.showErrorAlert("Error", "Failed to create split stay: " + result.getFailureMessage());
+                    handleSearchRooms();
+                }
+            });
+            return;
+        }
+        if (selectedRooms.size() > 1) {
+            viewModel.createGroupBooking(selectedRooms, guest, checkInDatePicker.getValue(),
+                    checkOutDatePicker.getValue(), voucherNumber, specialPreference).thenAccept(result -> {
+                if (result.isCommitted()) {
+                    App.showInfoAlert("Success", selectedRooms.size() + " reservations created successfully.");
+                    closeWindow();
+                } else {
+                    App.showErrorAlert("Error", "Failed to create group reservation: " + result.getFailureMessage());
+                }
+            });
+            return;
         }
+
+        viewModel.createBooking(selectedRooms.get(0), guest, checkInDatePicker.getValue(),
+                checkOutDatePicker.getValue(), voucherNumber, specialPreference).thenAccept(result -> {
+            if (result == ReservationResult.CREATED) {
+                App.showInfoAlert("Success", "Reservation created successfully.");
+                closeWindow();
+            } else if (result == ReservationResult.ROOM_TAKEN) {
+                App.showErrorAlert("Room taken", "This room has just been booked for overlapping dates. Please choose another room.");
+                handleSearchRooms();
+            } else {
+                App.showErrorAlert("Error", "Failed to create reservation.");
+            }
+        });
     }
 
     /**
@@ -127,6 +187,13 @@ public class NewReservationViewController {
         stage.close();
     }
 
+    /**
+     * Releases the rooms held by this reservation. Called when the window is closed.
+     */
+    public void dispose() {
+        viewModel.dispose();
+    }
+
     /**
      * Sets the current staff member who is handling the reservation.
      *
@@ -0,0 +1,165 @@
+package com.hotelreservation.view;
+
+import com.hotelreservation.App;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.service.RoomCalendar;
+import com.hotelreservation.viewmodel.RoomCalendarViewModel;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.Node;
+import javafx.scene.control.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Controller class for the availability grid (tape chart): one row per room and one column per night,
+ * with booked nights shaded. The table only creates cells for the rows in view, and each cell reads its
+ * night from the room calendar's bitset, so the grid stays responsive for long windows and many rooms.
+ */
+public class RoomCalendarViewController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomCalendarViewController.class);
+
+    private static final DateTimeFormatter DAY_HEADER = DateTimeFormatter.ofPattern("EEE\nd MMM");
+
+    @FXML
+    private TableView<Room> calendarTable;
+
+    @FXML
+    private TableColumn<Room, String> roomColumn;
+
+    @FXML
+    private DatePicker startDatePicker;
+
+    @FXML
+    private ComboBox<Integer> daysComboBox;
+
+    @FXML
+    private ComboBox<String> roomTypeComboBox;
+
+    @FXML
+    private TextField nightsField;
+
+    @FXML
+    private Label firstFreeLabel;
+
+    private RoomCalendarViewModel viewModel;
+
+    public RoomCalendarViewController() {
+        viewModel = new RoomCalendarViewModel();
+        App.showErrorAlerts(viewModel.errorMessageProperty());
+    }
+
+    /**
+     * Sets up the room column and the window controls, and loads the calendar.
+     */
+    @FXML
+    private void initialize() {
+        logger.info("Initializing RoomCalendarViewController");
+
+        roomColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue().getRoomId() + " " + cellData.getValue().getRoomType()));
+        calendarTable.setItems(viewModel.getRooms());
+        calendarTable.placeholderProperty().bind(Bindings.when(viewModel.loadingProperty())
+                .then((Node) new Label("Loading rooms..."))
+                .otherwise((Node) new Label("No rooms found.")));
+
+        startDatePicker.valueProperty().bindBidirectional(viewModel.startDateProperty());
+        daysComboBox.getItems().setAll(30, 60, 90);
+        daysComboBox.setValue(viewModel.daysProperty().get());
+        daysComboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null) {
+                viewModel.daysProperty().set(newValue);
+            }
+        });
+        roomTypeComboBox.setItems(viewModel.getRoomTypes());
+
+        viewModel.calendarProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null && (oldValue == null || !oldValue.getStartDate().equals(newValue.getStartDate())
+                    || oldValue.getDays() != newValue.getDays())) {
+                buildDayColumns(newValue);
+            }
+        });
+        viewModel.revisionProperty().addListener((observable, oldValue, newValue) -> calendarTable.refresh());
+
+        viewModel.loadCalendar();
+    }
+
+    /**
+     * Replaces the night columns with one column per night of the calendar's window.
+     *
+     * @param calendar the calendar just loaded
+     */
+    private void buildDayColumns(RoomCalendar calendar) {
+        calendarTable.getColumns().retainAll(List.of(roomColumn));
+        for (int day = 0; day < calendar.getDays(); day++) {
+            int night = day;
+            TableColumn<Room, Room> column = new TableColumn<>(calendar.getStartDate().plusDays(day).format(DAY_HEADER));
+            column.setSortable(false);
+            column.setReorderable(false);
+            column.setPrefWidth(44);
+            column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
+            column.setCellFactory(col -> new NightCell(night));
+            calendarTable.getColumns().add(column);
+        }
+    }
+
+    /**
+     * Shows the first date from which a room of the chosen type is free for the entered number of nights.
+     */
+    @FXML
+    private void handleFindFirstFree() {
+        String roomType = roomTypeComboBox.getValue();
+        int nights;
+        try {
+            nights = Integer.parseInt(nightsField.getText().trim());
+        } catch (NumberFormatException e) {
+            App.showErrorAlert("Error", "Please enter the number of nights.");
+            return;
+        }
+        if (roomType == null || nights <= 0) {
+            App.showErrorAlert("Error", "Please choose a room type and a positive number of nights.");
+            return;
+        }
+        LocalDate firstFree = viewModel.findFirstFreeStart(roomType, nights);
+        firstFreeLabel.setText(firstFree != null
+                ? roomType + " free for " + nights + " nights from " + firstFree
+                : "No " + roomType + " room is free for " + nights + " nights in this window.");
+    }
+
+    /**
+     * Releases the view model's subscriptions. Called when the availability grid window is closed.
+     */
+    public void dispose() {
+        viewModel.dispose();
+    }
+
+    /**
+     * A cell of the grid, shaded when its room is booked on its night.
+     */
+    private final class NightCell extends TableCell<Room, Room> {
+        private final int night;
+
+        private NightCell(int night) {
+            this.night = night;
+        }
+
+        @Override
+        protected void updateItem(Room room, boolean empty) {
+            super.updateItem(room, empty);
+            getStyleClass().removeAll("night-booked", "night-free");
+            RoomCalendar calendar = viewModel.calendarProperty().get();
+            if (empty || room == null || calendar == null || getIndex() >= calendar.getRoomCount()) {
+                return;
+            }
+            getStyleClass().add(calendar.isBooked(getIndex(), night) ? "night-booked" : "night-free");
+        }
+    }
+}
@@ -55,6 +55,7 @@ public class RoomManagementViewController {
      */
     public RoomManagementViewController() {
         viewModel = new RoomManagementViewModel();
+        App.showErrorAlerts(viewModel.errorMessageProperty());
     }
 
     /**
@@ -107,13 +108,14 @@ public class RoomManagementViewController {
         boolean availability = availabilityCheckBox.isSelected();
 
         // Room number is auto-generated
-        if (viewModel.addRoom(null, roomType, roomPrice, availability)) {
-            clearFields();
-            App.showInfoAlert("Success", "Room added successfully.");
-        } else {
-            App.showErrorAlert("Error", "Failed to add room.");
-        }
-        viewModel.loadRooms();
+        viewModel.addRoom(null, roomType, roomPrice, availability).thenAccept(added -> {
+            if (added) {
+                clearFields();
+                App.showInfoAlert("Success", "Room added successfully.");
+            } else {
+                App.showErrorAlert("Error", "Failed to add room.");
+            }
+        });
     }
 
     /**
@@ -134,12 +136,14 @@ public class RoomManagementViewController {
         double roomPrice = Double.parseDouble(roomPriceField.getText());
         boolean availability = availabilityCheckBox.isSelected();
 
-        if (viewModel.updateRoom(selectedRoom, roomNumber, roomType, roomPrice, availability)) {
-            clearFields();
-            App.showInfoAlert("Success", "Room updated successfully.");
-        } else {
-            App.showErrorAlert("Error", "Failed to update room.");
-        }
+        viewModel.updateRoom(selectedRoom, roomNumber, roomType, roomPrice, availability).thenAccept(updated -> {
+            if (updated) {
+                clearFields();
+                App.showInfoAlert("Success", "Room updated successfully.");
+            } else {
+                App.showErrorAlert("Error", "Failed to update room.");
+            }
+        });
     }
 
     /**
@@ -155,12 +159,53 @@ public class RoomManagementViewController {
             return;
         }
 
-        if (viewModel.deleteRoom(selectedRoom)) {
-            clearFields();
-            App.showInfoAlert("Success", "Room deleted successfully.");
-        } else {
-            App.showErrorAlert("Error", "Failed to delete room.");
+        viewModel.deleteRoom(selectedRoom).thenAccept(deleted -> {
+            if (deleted) {
+                clearFields();
+                App.showInfoAlert("Success", "Room deleted successfully.");
+            } else {
+                App.showErrorAlert("Error", "Failed to delete room.");
+            }
+        });
+    }
+
+    /**
+     * Handles re-assigning the future bookings of the selected room type to close unsellable gaps between them.
+     * Shows the proposed moves for confirmation before anything is changed.
+     */
+    @FXML
+    private void handleOptimizeAssignments() {
+        String roomType = roomTypeComboBox.getValue();
+        if (roomType == null) {
+            App.showErrorAlert("Error", "Please select a room type to optimize.");
+            return;
         }
+
+        viewModel.planReassignment(roomType).thenAccept(plan -> {
+            if (plan == null) {
+                App.showErrorAlert("Error", "Failed to plan room assignments.");
+                return;
+            }
+            if (plan.isEmpty()) {
+                App.showInfoAlert("Room Assignments", "The " + roomType + " bookings cannot be arranged with fewer gaps.");
+                return;
+            }
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                    "Move " + plan.getMoves().size() + " future " + roomType + " bookings to other rooms? Unsellable gap nights go from "
+                            + plan.getShortGapNightsBefore() + " to " + plan.getShortGapNightsAfter() + ".");
+            confirm.setHeaderText(null);
+            confirm.setTitle("Optimize Room Assignments");
+            if (confirm.showAndWait().filter(button -> button == ButtonType.OK).isEmpty()) {
+                return;
+            }
+            viewModel.applyReassignment(plan).thenAccept(moved -> {
+                if (moved >= 0) {
+                    App.showInfoAlert("Success", moved + " bookings moved.");
+                } else {
+                    App.showErrorAlert("Error", "Bookings changed while planning or could not be moved. Please try again.");
+                }
+            });
+        });
     }
 
     /**
@@ -181,4 +226,11 @@ public class RoomManagementViewController {
     public void setCurrentStaff(Staff staff) {
         this.currentStaff = staff;
     }
+
+    /**
+     * Releases the view model's subscriptions. Called when the room management window is closed.
+     */
+    public void dispose() {
+        viewModel.dispose();
+    }
 }
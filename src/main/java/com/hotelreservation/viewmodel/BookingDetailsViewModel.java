@@ -2,9 +2,12 @@ package com.hotelreservation.viewmodel;
 
 import com.hotelreservation.model.Booking;
 import com.hotelreservation.service.BookingService;
+import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * ViewModel class for managing the details of a booking.
  * Provides methods to retrieve and update booking details such as special preferences, payment status, and booking status.
@@ -13,6 +16,7 @@ public class BookingDetailsViewModel {
 
     private Booking booking;
     private BookingService bookingService;
+    private final RequestErrors errors = new RequestErrors();
 
     private StringProperty bookingId;
     private StringProperty roomNumber;
@@ -34,6 +38,15 @@ public class BookingDetailsViewModel {
         initializeProperties();
     }
 
+    /**
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+
     /**
      * Initializes the properties for binding to the UI.
      * This includes booking details such as booking ID, room number, guest name, dates, and preferences.
@@ -41,7 +54,7 @@ public class BookingDetailsViewModel {
     private void initializeProperties() {
         bookingId = new SimpleStringProperty(booking.getBookingId());
         roomNumber = new SimpleStringProperty(booking.getRoomId());
-        guestName = new SimpleStringProperty(booking.getGuest().getFullName());
+        guestName = new SimpleStringProperty(booking.getGuest() != null ? booking.getGuest().getFullName() : "");
         checkInDate = new SimpleStringProperty(booking.getInDate().toString());
         checkOutDate = new SimpleStringProperty(booking.getOutDate().toString());
         specialPreference = new SimpleStringProperty(booking.getSpecialPreference());
@@ -51,13 +64,14 @@ public class BookingDetailsViewModel {
 
     /**
      * Saves any changes made to the booking, such as changes to special preferences.
-     * Calls the BookingService to update the booking in the system.
+     * Calls the BookingService in the background to update the booking in the system.
      *
-     * @return true if the changes were saved successfully, false otherwise
+     * @return a future completed on the JavaFX application thread with true if the changes were saved successfully,
+     *         false otherwise
      */
-    public boolean saveChanges() {
+    public CompletableFuture<Boolean> saveChanges() {
         booking.setSpecialPreference(specialPreference.get());
-        return bookingService.updateBooking(booking);
+        return errors.track("save the booking", bookingService.updateBookingAsync(booking));
     }
 
     // Getter methods for properties
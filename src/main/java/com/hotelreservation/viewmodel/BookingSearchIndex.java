@@ -0,0 +1,252 @@
+package com.hotelreservation.viewmodel;
+
+import com.hotelreservation.model.Booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed, case-insensitive substring index over the searchable fields of a set of bookings:
+ * booking ID, guest full name, room ID, voucher number and ISO check-in/check-out dates.
+ * Each booking's fields are lowercased once into a search text, and every three-character window of every field
+ * is recorded in a posting list. A search intersects the posting lists of the query's trigrams and confirms the
+ * few remaining candidates against their search text, instead of lowercasing every field of every booking.
+ * Queries shorter than three characters fall back to scanning the precomputed search texts.
+ * Not thread-safe; intended to be owned by a view model and used from the JavaFX application thread.
+ */
+public class BookingSearchIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final List<Booking> documents = new ArrayList<>();
+    private final List<String> searchTexts = new ArrayList<>();
+    private final Map<String, Integer> documentsByBookingId = new HashMap<>();
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+    private int removedCount;
+
+    /**
+     * Removes every booking from the index.
+     */
+    public void clear() {
+        documents.clear();
+        searchTexts.clear();
+        documentsByBookingId.clear();
+        postingsByTrigram.clear();
+        removedCount = 0;
+    }
+
+    /**
+     * Adds bookings to the index, replacing earlier versions of the same bookings.
+     *
+     * @param bookings the bookings to add
+     */
+    public void addAll(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            add(booking);
+        }
+    }
+
+    /**
+     * Adds a booking to the index, replacing an earlier version of the same booking.
+     *
+     * @param booking the booking to add
+     */
+    public void add(Booking booking) {
+        remove(booking.getBookingId());
+
+        int document = documents.size();
+        String[] fields = searchFields(booking);
+        documents.add(booking);
+        searchTexts.add(String.join(String.valueOf(FIELD_SEPARATOR), fields));
+        documentsByBookingId.put(booking.getBookingId(), document);
+
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                postingsByTrigram.computeIfAbsent(trigram(field, i), key -> new Postings()).add(document);
+            }
+        }
+    }
+
+    /**
+     * Removes a booking from the index. Its posting entries are dropped lazily, when enough bookings
+     * have been removed to make rebuilding worthwhile.
+     *
+     * @param bookingId the ID of the booking to remove
+     */
+    public void remove(String bookingId) {
+        Integer document = documentsByBookingId.remove(bookingId);
+        if (document == null) {
+            return;
+        }
+        documents.set(document, null);
+        searchTexts.set(document, null);
+        removedCount++;
+        if (removedCount > 1024 && removedCount > documents.size() / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the number of bookings in the index.
+     *
+     * @return the number of indexed bookings
+     */
+    public int size() {
+        return documentsByBookingId.size();
+    }
+
+    /**
+     * Finds the bookings whose searchable fields contain the search term, ignoring case.
+     *
+     * @param searchTerm the term to search for
+     * @return the matching bookings, in the order they were added
+     */
+    public List<Booking> search(String searchTerm) {
+        String query = searchTerm.toLowerCase();
+        List<Booking> matches = new ArrayList<>();
+
+        if (query.length() < 3) {
+            for (int document = 0; document < documents.size(); document++) {
+                String text = searchTexts.get(document);
+                if (text != null && text.contains(query)) {
+                    matches.add(documents.get(document));
+                }
+            }
+            return matches;
+        }
+
+        Postings[] lists = new Postings[query.length() - 2];
+        for (int i = 0; i < lists.length; i++) {
+            Postings postings = postingsByTrigram.get(trigram(query, i));
+            if (postings == null) {
+                return matches;
+            }
+            lists[i] = postings;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].documents, lists[0].size);
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                candidateCount = lists[i].retainIn(candidates, candidateCount);
+            }
+        }
+
+        for (int i = 0; i < candidateCount; i++) {
+            int document = candidates[i];
+            String text = searchTexts.get(document);
+            if (text != null && text.contains(query)) {
+                matches.add(documents.get(document));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether an indexed booking's searchable fields contain the search term, ignoring case.
+     *
+     * @param bookingId  the ID of the indexed booking
+     * @param searchTerm the term to search for
+     * @return true if the booking is indexed and matches
+     */
+    public boolean matches(String bookingId, String searchTerm) {
+        Integer document = documentsByBookingId.get(bookingId);
+        return document != null && searchTexts.get(document).contains(searchTerm.toLowerCase());
+    }
+
+    private void compact() {
+        List<Booking> live = new ArrayList<>(documentsByBookingId.size());
+        for (Booking booking : documents) {
+            if (booking != null) {
+                live.add(booking);
+            }
+        }
+        clear();
+        addAll(live);
+    }
+
+    private static String[] searchFields(Booking booking) {
+        return new String[]{
+                lower(booking.getBookingId()),
+                booking.getGuest() != null ? lower(booking.getGuest().getFullName()) : "",
+                lower(booking.getRoomId()),
+                lower(booking.getVoucherNumber()),
+                booking.getInDate() != null ? booking.getInDate().toString() : "",
+                booking.getOutDate() != null ? booking.getOutDate().toString() : ""
+        };
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    /**
+     * Ascending list of the documents containing one trigram, without duplicates.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+
+        private void add(int document) {
+            if (size > 0 && documents[size - 1] == document) {
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        /**
+         * Keeps in {@code candidates} only the documents also present in this list.
+         *
+         * @return the number of candidates kept
+         */
+        private int retainIn(int[] candidates, int candidateCount) {
+            int kept = 0;
+            int position = 0;
+            for (int i = 0; i < candidateCount && position < size; i++) {
+                int candidate = candidates[i];
+                position = seek(candidate, position);
+                if (position < size && documents[position] == candidate) {
+                    candidates[kept++] = candidate;
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * Returns the first position at or after {@code from} holding a document not smaller than the target,
+         * galloping ahead before a binary search so long lists are skipped quickly.
+         */
+        private int seek(int target, int from) {
+            int step = 1;
+            int high = from;
+            while (high < size && documents[high] < target) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int low = from;
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (documents[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hotelreservation.viewmodel;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the most recent asynchronous request of one kind (for example "load bookings") for a view model.
+ * Submitting a new request cancels the previous one, and only the result of the latest request is published,
+ * always on the JavaFX application thread. A failed request is reported to the view model's {@link RequestErrors}.
+ * Must be used from the JavaFX application thread.
+ *
+ * @param <T> the type of the request result
+ */
+public class LatestRequest<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestRequest.class);
+
+    private final String name;
+    private final RequestErrors errors;
+    private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(false);
+    private CompletableFuture<T> current;
+
+    /**
+     * Constructs a LatestRequest with a name used in log and error messages.
+     *
+     * @param name   a short description of the request, e.g. "load bookings"
+     * @param errors where failures of the request are reported
+     */
+    LatestRequest(String name, RequestErrors errors) {
+        this.name = name;
+        this.errors = errors;
+    }
+
+    /**
+     * Makes the given request the current one, cancelling any request still in flight.
+     * When the request completes and is still current, {@code onResult} is invoked on the JavaFX application thread.
+     *
+     * @param request  the request that was just started
+     * @param onResult the consumer receiving the result
+     * @return a future completed on the JavaFX application thread once the result has been published
+     */
+    public CompletableFuture<T> submit(CompletableFuture<T> request, Consumer<T> onResult) {
+        cancel();
+        current = request;
+        running.set(true);
+
+        CompletableFuture<T> published = new CompletableFuture<>();
+        request.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (current != request) {
+                published.cancel(false);
+                return;
+            }
+            current = null;
+            running.set(false);
+            if (error == null) {
+                onResult.accept(result);
+                published.complete(result);
+            } else {
+                Throwable cause = RequestErrors.unwrap(error);
+                if (!(cause instanceof CancellationException)) {
+                    logger.error("Request '{}' failed", name, cause);
+                    errors.report(name, cause);
+                }
+                published.completeExceptionally(cause);
+            }
+        }));
+        return published;
+    }
+
+    /**
+     * Cancels the request in flight, if any; its result will not be published.
+     */
+    public void cancel() {
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns a property that is true while a request is in flight.
+     *
+     * @return the running property
+     */
+    public ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+}
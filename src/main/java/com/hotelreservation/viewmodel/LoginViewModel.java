@@ -2,6 +2,9 @@ package com.hotelreservation.viewmodel;
 
 import com.hotelreservation.model.Staff;
 import com.hotelreservation.service.LoginService;
+import javafx.beans.property.ReadOnlyStringProperty;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel class for handling login authentication for staff members.
@@ -10,6 +13,7 @@ import com.hotelreservation.service.LoginService;
 public class LoginViewModel {
 
     private LoginService loginService;
+    private final RequestErrors errors = new RequestErrors();
 
     /**
      * Constructor initializes the LoginViewModel with a LoginService instance.
@@ -19,13 +23,23 @@ public class LoginViewModel {
     }
 
     /**
-     * Authenticates the staff member using their staff ID and password.
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+
+    /**
+     * Authenticates the staff member using their staff ID and password in the background.
      *
      * @param staffId the staff member's ID
      * @param password the staff member's password
-     * @return the authenticated Staff object if credentials are valid, null otherwise
+     * @return a future completed on the JavaFX application thread with the authenticated Staff object
+     *         if credentials are valid, null otherwise
      */
-    public Staff authenticate(String staffId, String password) {
-        return loginService.authenticateStaff(staffId, password);
+    public CompletableFuture<Staff> authenticate(String staffId, String password) {
+        return errors.track("sign in", loginService.authenticateStaffAsync(staffId, password));
     }
 }
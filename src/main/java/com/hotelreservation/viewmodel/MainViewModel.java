@@ -1,22 +1,53 @@
 package com.hotelreservation.viewmodel;
 
 import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.service.BookingPage;
+import com.hotelreservation.service.BookingQuery;
 import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.ChangeNotifier;
+import com.hotelreservation.service.ChangeSet;
+import com.hotelreservation.service.DataChangeListener;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel class for managing bookings on the main view.
- * Provides functionality to load and search bookings based on a search term.
+ * Bookings are loaded page by page using keyset pagination, with the date range filter and sort order
+ * applied by the database. A search term either runs as a server-side search over all bookings,
+ * or filters the bookings loaded so far through a {@link BookingSearchIndex} kept in step with them.
+ * Bookings changed by other instances arrive through the {@link ChangeNotifier} and are patched in place.
  */
 public class MainViewModel {
 
+    private static final int PAGE_SIZE = 200;
+    private static final int SEARCH_LIMIT = 100;
+
     private BookingService bookingService;
     private ObservableList<Booking> bookings;
     private List<Booking> allBookings;
+    private final BookingSearchIndex searchIndex = new BookingSearchIndex();
+    private final RequestErrors errors = new RequestErrors();
+    private final LatestRequest<BookingPage> loadRequest = new LatestRequest<>("load bookings", errors);
+    private final LatestRequest<List<Booking>> searchRequest = new LatestRequest<>("search bookings", errors);
+    private final LatestRequest<ChangeSet<Booking>> syncRequest = new LatestRequest<>("sync bookings", errors);
+    private final BooleanProperty serverSearch = new SimpleBooleanProperty(true);
+
+    private BookingQuery query = BookingQuery.all();
+    private Booking lastLoaded;
+    private boolean hasMore;
+    private long syncVersion = -1;
+    private String searchTerm;
 
     /**
      * Constructor initializes the MainViewModel with a BookingService instance and an observable list for bookings.
@@ -24,6 +55,29 @@ public class MainViewModel {
     public MainViewModel() {
         bookingService = new BookingService();
         bookings = FXCollections.observableArrayList();
+        allBookings = new ArrayList<>();
+        serverSearch.addListener((observable, oldValue, newValue) -> applySearch());
+        ChangeNotifier.getInstance().addListener(new DataChangeListener() {
+            @Override
+            public void bookingChanged(Booking booking) {
+                Platform.runLater(() -> applyBookingChanged(booking));
+            }
+
+            @Override
+            public void bookingRemoved(String bookingId) {
+                Platform.runLater(() -> applyBookingRemoved(bookingId));
+            }
+
+            @Override
+            public void guestChanged(Guest guest) {
+                Platform.runLater(() -> applyGuestChanged(guest));
+            }
+
+            @Override
+            public void resynced() {
+                Platform.runLater(MainViewModel.this::syncBookings);
+            }
+        });
     }
 
     /**
@@ -36,33 +90,271 @@ public class MainViewModel {
     }
 
     /**
-     * Loads all bookings from the booking service and updates the bookings list.
+     * Returns a property that is true while a page of bookings is being loaded.
+     *
+     * @return the loading property
+     */
+    public ReadOnlyBooleanProperty loadingProperty() {
+        return loadRequest.runningProperty();
+    }
+
+    /**
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+
+    /**
+     * Discards the loaded bookings and loads the first page for the current filter and sort order in the background.
+     * The bookings list is updated on the JavaFX application thread; a load still in flight is superseded.
+     *
+     * @return a future completed on the JavaFX application thread once the list has been updated
+     */
+    public CompletableFuture<BookingPage> loadBookings() {
+        syncRequest.cancel();
+        return loadRequest.submit(bookingService.getBookingsPageAsync(query, null, PAGE_SIZE), this::showFirstPage);
+    }
+
+    /**
+     * Replaces the loaded bookings with a first page and re-applies the current search.
+     *
+     * @param page the first page of bookings
+     */
+    void showFirstPage(BookingPage page) {
+        allBookings = new ArrayList<>(page.getBookings());
+        searchIndex.clear();
+        searchIndex.addAll(allBookings);
+        lastLoaded = page.getLastBooking();
+        hasMore = page.hasMore();
+        syncVersion = page.getSyncVersion();
+        applySearch();
+    }
+
+    /**
+     * Brings the loaded bookings up to date with the database by fetching only the bookings changed since the
+     * last load or sync, and applying them as individual edits so the table keeps its selection and scroll position.
+     * Falls back to reloading the first page when the database does not support incremental sync, or when the last
+     * sync is so old that the deletes since then have been purged.
+     *
+     * @return a future completed on the JavaFX application thread once the changes have been applied
+     */
+    public CompletableFuture<?> syncBookings() {
+        if (syncVersion < 0) {
+            return loadBookings();
+        }
+        if (loadRequest.runningProperty().get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return syncRequest.submit(bookingService.getBookingChangesSinceAsync(syncVersion), changes -> {
+            if (changes == null) {
+                return;
+            }
+            if (changes.isExpired()) {
+                loadBookings();
+                return;
+            }
+            for (String bookingId : changes.getRemovedIds()) {
+                applyBookingRemoved(bookingId);
+            }
+            for (Booking booking : changes.getChanged()) {
+                applyBookingChanged(booking);
+            }
+            syncVersion = changes.getVersion();
+        });
+    }
+
+    /**
+     * Loads the next page of bookings, if there is one and no load is already in flight,
+     * and appends it to the bookings list. Intended to be called as the user scrolls towards the end of the table.
      */
-    public void loadBookings() {
-        allBookings = bookingService.getAllBookings();
-        bookings.setAll(allBookings);
+    public void loadMoreBookings() {
+        if (!hasMore || loadRequest.runningProperty().get() || isShowingServerSearch()) {
+            return;
+        }
+        loadRequest.submit(bookingService.getBookingsPageAsync(query, lastLoaded, PAGE_SIZE), page -> {
+            allBookings.addAll(page.getBookings());
+            searchIndex.addAll(page.getBookings());
+            lastLoaded = page.getLastBooking() != null ? page.getLastBooking() : lastLoaded;
+            hasMore = page.hasMore();
+            for (Booking booking : page.getBookings()) {
+                if (matches(booking)) {
+                    bookings.add(booking);
+                }
+            }
+        });
     }
 
     /**
-     * Filters the bookings based on the search term. The search is case-insensitive and checks various booking attributes.
+     * Applies a created or updated booking to the loaded bookings and the search index in place,
+     * keeping the table's selection and scroll position. The booking is placed according to the current
+     * sort order, and dropped if it no longer matches the date range filter. Bookings that sort after the
+     * last loaded page are left for a later page.
+     *
+     * @param booking the booking as stored in the database
+     */
+    public void applyBookingChanged(Booking booking) {
+        int loadedAt = indexOf(allBookings, booking.getBookingId());
+        if (loadedAt >= 0) {
+            allBookings.remove(loadedAt);
+        }
+        boolean loaded = query.matches(booking)
+                && (!hasMore || lastLoaded == null || query.compare(booking, lastLoaded) <= 0);
+        if (loaded) {
+            allBookings.add(insertionPoint(allBookings, booking), booking);
+            searchIndex.add(booking);
+        } else {
+            searchIndex.remove(booking.getBookingId());
+        }
+
+        int shownAt = indexOf(bookings, booking.getBookingId());
+        if (isShowingServerSearch()) {
+            // Server search results are patched, but not re-ranked
+            if (shownAt >= 0) {
+                bookings.set(shownAt, booking);
+            }
+            return;
+        }
+        boolean show = loaded && matches(booking);
+        if (shownAt >= 0 && show && isInOrder(bookings, shownAt, booking)) {
+            bookings.set(shownAt, booking);
+        } else {
+            if (shownAt >= 0) {
+                bookings.remove(shownAt);
+            }
+            if (show) {
+                bookings.add(insertionPoint(bookings, booking), booking);
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted booking from the loaded bookings, the search index and the table.
+     *
+     * @param bookingId the ID of the removed booking
+     */
+    public void applyBookingRemoved(String bookingId) {
+        int loadedAt = indexOf(allBookings, bookingId);
+        if (loadedAt >= 0) {
+            allBookings.remove(loadedAt);
+        }
+        searchIndex.remove(bookingId);
+        int shownAt = indexOf(bookings, bookingId);
+        if (shownAt >= 0) {
+            bookings.remove(shownAt);
+        }
+    }
+
+    /**
+     * Shows a changed guest's details on their loaded bookings.
+     *
+     * @param guest the guest as stored in the database
+     */
+    public void applyGuestChanged(Guest guest) {
+        for (Booking booking : new ArrayList<>(allBookings)) {
+            if (guest.getGuestId().equals(booking.getGuestId())) {
+                booking.setGuest(guest);
+                applyBookingChanged(booking);
+            }
+        }
+    }
+
+    /**
+     * Changes the check-in date sort order and reloads from the first page.
+     *
+     * @param descending true to list the latest check-in dates first
+     */
+    public void setSortDescending(boolean descending) {
+        if (query.isDescending() != descending) {
+            query = new BookingQuery(query.getFromDate(), query.getToDate(), descending);
+            loadBookings();
+        }
+    }
+
+    /**
+     * Restricts the listed bookings to stays overlapping the given date range and reloads from the first page.
+     *
+     * @param fromDate the start of the range, or null for no lower bound
+     * @param toDate   the end of the range, or null for no upper bound
+     */
+    public void setDateRange(LocalDate fromDate, LocalDate toDate) {
+        query = new BookingQuery(fromDate, toDate, query.isDescending());
+        loadBookings();
+    }
+
+    /**
+     * Returns the property selecting where searches run: true to search all bookings on the server and show
+     * the top matches, false to filter the bookings loaded so far.
+     *
+     * @return the server search property
+     */
+    public BooleanProperty serverSearchProperty() {
+        return serverSearch;
+    }
+
+    /**
+     * Searches bookings for the search term. The search is case-insensitive and checks various booking attributes.
+     * In server search mode the query runs in the background and a search still in flight is cancelled;
+     * otherwise the loaded bookings are filtered. An empty term shows the loaded bookings again.
      *
      * @param searchTerm the search term to filter bookings
      */
     public void searchBookings(String searchTerm) {
+        this.searchTerm = searchTerm;
+        applySearch();
+    }
+
+    private boolean isShowingServerSearch() {
+        return serverSearch.get() && searchTerm != null && !searchTerm.isEmpty();
+    }
+
+    private void applySearch() {
+        if (isShowingServerSearch()) {
+            searchRequest.submit(bookingService.searchBookingsAsync(searchTerm, SEARCH_LIMIT), bookings::setAll);
+            return;
+        }
+        searchRequest.cancel();
         if (searchTerm == null || searchTerm.isEmpty()) {
             bookings.setAll(allBookings);
         } else {
-            List<Booking> filteredBookings = allBookings.stream()
-                    .filter(booking ->
-                            booking.getBookingId().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                    booking.getGuest().getFullName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                    booking.getRoomId().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                    booking.getVoucherNumber().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                    booking.getInDate().toString().contains(searchTerm) ||
-                                    booking.getOutDate().toString().contains(searchTerm)
-                    )
-                    .collect(Collectors.toList());
-            bookings.setAll(filteredBookings);
+            bookings.setAll(searchIndex.search(searchTerm));
+        }
+    }
+
+    private int insertionPoint(List<Booking> list, Booking booking) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (query.compare(list.get(mid), booking) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean isInOrder(List<Booking> list, int index, Booking booking) {
+        return (index == 0 || query.compare(list.get(index - 1), booking) < 0)
+                && (index == list.size() - 1 || query.compare(booking, list.get(index + 1)) < 0);
+    }
+
+    private static int indexOf(List<Booking> list, String bookingId) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).getBookingId().equals(bookingId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(Booking booking) {
+        if (searchTerm == null || searchTerm.isEmpty()) {
+            return true;
         }
+        return searchIndex.matches(booking.getBookingId(), searchTerm);
     }
 }
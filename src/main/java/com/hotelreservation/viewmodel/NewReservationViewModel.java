@@ -3,25 +3,74 @@ package com.hotelreservation.viewmodel;
 import com.hotelreservation.model.Booking;
 import com.hotelreservation.model.Guest;
 import com.hotelreservation.model.Room;
+import com.hotelreservation.service.BatchBookingResult;
+import com.hotelreservation.service.BookingRequest;
 import com.hotelreservation.service.BookingService;
+import com.hotelreservation.service.HoldService;
+import com.hotelreservation.service.ReservationResult;
+import com.hotelreservation.service.RoomHold;
 import com.hotelreservation.service.RoomService;
+import com.hotelreservation.service.SplitStay;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel class for creating new reservations.
  * Provides functionality to search for available rooms and create new bookings.
+ * The rooms selected from a search are held for its dates with the {@link HoldService}, so other clerks' searches
+ * stop offering them; a hold is released when its room is deselected or booked, on a new search, and on
+ * {@link #dispose()}.
+ * When no single room is free for the whole stay, the search offers {@link SplitStay split stays} instead, which
+ * are booked together in one transaction without being held first.
  */
 public class NewReservationViewModel {
 
+    private static final Logger logger = LoggerFactory.getLogger(NewReservationViewModel.class);
+
+    private static final int SPLIT_STAY_LIMIT = 5;
+
     private RoomService roomService;
     private BookingService bookingService;
+    private final HoldService holdService = HoldService.getInstance();
     private ObservableList<String> roomTypes;
     private ObservableList<Room> availableRooms;
+    private final ObservableList<SplitStay> splitStays = FXCollections.observableArrayList();
+    private final BooleanProperty splitAcrossTypes = new SimpleBooleanProperty(false);
+    private final RequestErrors errors = new RequestErrors();
+    private final LatestRequest<List<String>> roomTypesRequest = new LatestRequest<>("load room types", errors);
+    private final LatestRequest<List<Room>> availableRoomsRequest = new LatestRequest<>("search available rooms", errors);
+    private final LatestRequest<Room> bestFitRequest = new LatestRequest<>("find best fitting room", errors);
+    private final ReadOnlyObjectWrapper<Room> suggestedRoom = new ReadOnlyObjectWrapper<>();
+    private final LatestRequest<List<SplitStay>> splitStaysRequest = new LatestRequest<>("find split stays", errors);
+
+    // Holds of the current search, by room ID; only touched on the JavaFX application thread
+    private final Map<String, String> holdIdsByRoom = new HashMap<>();
+    private final Set<String> pendingHolds = new HashSet<>();
+    private Set<String> selectedRoomIds = Collections.emptySet();
+    private LocalDate searchedCheckInDate;
+    private LocalDate searchedCheckOutDate;
+    private int holdGeneration;
 
     /**
      * Constructor initializes the NewReservationViewModel with services for room and booking management,
@@ -36,11 +85,10 @@ public class NewReservationViewModel {
     }
 
     /**
-     * Loads all available room types from the room service and updates the roomTypes list.
+     * Loads all available room types from the room service in the background and updates the roomTypes list.
      */
     private void loadRoomTypes() {
-        List<String> types = roomService.getAllRoomTypes();
-        roomTypes.setAll(types);
+        roomTypesRequest.submit(roomService.getAllRoomTypesAsync(), roomTypes::setAll);
     }
 
     /**
@@ -61,20 +109,176 @@ public class NewReservationViewModel {
         return availableRooms;
     }
 
+    /**
+     * Returns the split stays offered by the last search, best first; empty unless no single room was available.
+     *
+     * @return an observable list of split stays
+     */
+    public ObservableList<SplitStay> getSplitStays() {
+        return splitStays;
+    }
+
+    /**
+     * Whether split stays may use rooms of other types than the one searched for; they rank below split stays
+     * with the same number of room changes within the type. Off by default.
+     *
+     * @return the split across types property
+     */
+    public BooleanProperty splitAcrossTypesProperty() {
+        return splitAcrossTypes;
+    }
+
     /**
      * Searches for available rooms based on the specified room type, check-in date, and check-out date.
+     * The search runs in the background; a search still in flight is superseded by the new one.
+     * If no room is available, the split stays for the dates are looked up next.
      *
      * @param roomType the type of room to search for
      * @param checkInDate the desired check-in date
      * @param checkOutDate the desired check-out date
+     * @return a future completed on the JavaFX application thread once the available rooms have been updated
      */
-    public void searchAvailableRooms(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
-        List<Room> rooms = roomService.getAvailableRooms(roomType, checkInDate, checkOutDate);
-        availableRooms.setAll(rooms);
+    public CompletableFuture<List<Room>> searchAvailableRooms(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        // The holds of the previous search are released first, so its rooms are offered again
+        CompletableFuture<Boolean> released = releaseAllHolds();
+        searchedCheckInDate = checkInDate;
+        searchedCheckOutDate = checkOutDate;
+        suggestedRoom.set(null);
+        bestFitRequest.cancel();
+        splitStays.clear();
+        splitStaysRequest.cancel();
+        boolean acrossTypes = splitAcrossTypes.get();
+        return availableRoomsRequest.submit(
+                released.thenCompose(ignored -> roomService.getAvailableRoomsAsync(roomType, checkInDate, checkOutDate)),
+                rooms -> {
+                    availableRooms.setAll(rooms);
+                    if (!rooms.isEmpty()) {
+                        bestFitRequest.submit(roomService.findBestFitRoomAsync(roomType, checkInDate, checkOutDate),
+                                this::applyBestFit);
+                    } else {
+                        splitStaysRequest.submit(roomService.findSplitStaysAsync(roomType, checkInDate, checkOutDate,
+                                acrossTypes, SPLIT_STAY_LIMIT), splitStays::setAll);
+                    }
+                });
+    }
+
+    /**
+     * Returns the available room of the last search that fits the stay best, leaving the fewest unsellable gaps
+     * between bookings; null until it is known or if there is none.
+     *
+     * @return the suggested room property
+     */
+    public ReadOnlyObjectProperty<Room> suggestedRoomProperty() {
+        return suggestedRoom.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+
+    private void applyBestFit(Room bestFit) {
+        if (bestFit == null) {
+            return;
+        }
+        for (Room room : availableRooms) {
+            if (room.getRoomId().equals(bestFit.getRoomId())) {
+                suggestedRoom.set(room);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Holds the selected rooms for the dates of the last search and releases the holds of rooms no longer selected.
+     * Call whenever the selection changes. A room that someone else has just booked or held is not held.
+     *
+     * @param selectedRooms the rooms now selected
+     */
+    public void holdRooms(List<Room> selectedRooms) {
+        Set<String> selected = new HashSet<>();
+        for (Room room : selectedRooms) {
+            selected.add(room.getRoomId());
+        }
+        selectedRoomIds = selected;
+
+        List<String> deselected = new ArrayList<>(holdIdsByRoom.keySet());
+        deselected.removeAll(selected);
+        releaseHolds(deselected);
+
+        if (searchedCheckInDate == null) {
+            return;
+        }
+        int generation = holdGeneration;
+        for (String roomId : selected) {
+            if (!holdIdsByRoom.containsKey(roomId) && pendingHolds.add(roomId)) {
+                // A hold that could not be placed is only logged; the booking itself still checks the room is free
+                holdService.placeHoldAsync(roomId, searchedCheckInDate, searchedCheckOutDate).whenCompleteAsync(
+                        (hold, error) -> applyHold(roomId, error == null ? hold : null, generation), Platform::runLater);
+            }
+        }
+    }
+
+    /**
+     * Releases all holds of this reservation. Call when the reservation window closes.
+     */
+    public void dispose() {
+        availableRoomsRequest.cancel();
+        bestFitRequest.cancel();
+        splitStaysRequest.cancel();
+        roomTypesRequest.cancel();
+        selectedRoomIds = Collections.emptySet();
+        releaseAllHolds();
+    }
+
+    private void applyHold(String roomId, RoomHold hold, int generation) {
+        if (generation == holdGeneration) {
+            pendingHolds.remove(roomId);
+        }
+        if (hold == null) {
+            logger.info("Room {} could not be held; it may have just been booked or held by someone else", roomId);
+            return;
+        }
+        if (generation != holdGeneration || !selectedRoomIds.contains(roomId)) {
+            // Deselected, searched again or closed while the hold was being placed
+            holdService.releaseHoldsAsync(Collections.singletonList(hold.getHoldId()));
+            return;
+        }
+        holdIdsByRoom.put(roomId, hold.getHoldId());
+    }
+
+    private void releaseHolds(Collection<String> roomIds) {
+        List<String> holdIds = new ArrayList<>();
+        for (String roomId : roomIds) {
+            String holdId = holdIdsByRoom.remove(roomId);
+            if (holdId != null) {
+                holdIds.add(holdId);
+            }
+        }
+        if (!holdIds.isEmpty()) {
+            holdService.releaseHoldsAsync(holdIds);
+        }
+    }
+
+    private CompletableFuture<Boolean> releaseAllHolds() {
+        holdGeneration++;
+        pendingHolds.clear();
+        if (holdIdsByRoom.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        List<String> holdIds = new ArrayList<>(holdIdsByRoom.values());
+        holdIdsByRoom.clear();
+        return holdService.releaseHoldsAsync(holdIds);
     }
 
     /**
      * Creates a new booking for a guest with the specified room, dates, voucher number, and special preferences.
+     * If another clerk booked the room for overlapping dates in the meantime, nothing is saved
+     * and the result is {@link ReservationResult#ROOM_TAKEN}. Once the booking is created, the room's hold is released.
      *
      * @param room the room to be booked
      * @param guest the guest making the reservation
@@ -82,16 +286,72 @@ public class NewReservationViewModel {
      * @param checkOutDate the check-out date for the booking
      * @param voucherNumber the voucher number for the booking
      * @param specialPreference any special preferences the guest has
-     * @return the created Booking object, or null if the booking creation failed
+     * @return a future completed on the JavaFX application thread with the outcome of the reservation
      */
-    public Booking createBooking(Room room, Guest guest, LocalDate checkInDate, LocalDate checkOutDate, String voucherNumber, String specialPreference) {
+    public CompletableFuture<ReservationResult> createBooking(Room room, Guest guest, LocalDate checkInDate, LocalDate checkOutDate, String voucherNumber, String specialPreference) {
         String bookingId = UUID.randomUUID().toString();
         Booking booking = new Booking(bookingId, guest.getGuestId(), room.getRoomId(), voucherNumber,
                 checkInDate, checkOutDate, specialPreference, "Pending", "Confirmed");
 
-        if (bookingService.createBooking(booking, guest)) {
-            return booking;
+        return errors.track("create the reservation", bookingService.reserveRoomAsync(booking, guest)).thenApply(result -> {
+            if (result == ReservationResult.CREATED) {
+                releaseHolds(Collections.singletonList(room.getRoomId()));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Creates one booking per room for a group of guests travelling together, all under the given lead guest.
+     * The bookings are saved in a single transaction: either all of them are created, or none is.
+     *
+     * @param rooms the rooms to be booked
+     * @param guest the lead guest making the reservation
+     * @param checkInDate the check-in date for the bookings
+     * @param checkOutDate the check-out date for the bookings
+     * @param voucherNumber the voucher number for the bookings
+     * @param specialPreference any special preferences of the group
+     * @return a future completed on the JavaFX application thread with the outcome of the group booking
+     */
+    public CompletableFuture<BatchBookingResult> createGroupBooking(List<Room> rooms, Guest guest, LocalDate checkInDate, LocalDate checkOutDate, String voucherNumber, String specialPreference) {
+        List<BookingRequest> requests = new ArrayList<>();
+        for (Room room : rooms) {
+            Booking booking = new Booking(UUID.randomUUID().toString(), guest.getGuestId(), room.getRoomId(), voucherNumber,
+                    checkInDate, checkOutDate, specialPreference, "Pending", "Confirmed");
+            requests.add(new BookingRequest(booking, guest));
         }
-        return null;
+
+        return errors.track("create the reservations", bookingService.createBookingsAsync(requests)).thenApply(result -> {
+            if (result.isCommitted()) {
+                releaseAllHolds();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Books a split stay for a guest: one booking per room of the stay, saved in a single transaction, so either
+     * the guest gets every room of the stay or nothing is saved.
+     *
+     * @param splitStay the split stay to book
+     * @param guest the guest making the reservation
+     * @param voucherNumber the voucher number for the bookings
+     * @param specialPreference any special preferences the guest has
+     * @return a future completed on the JavaFX application thread with the outcome of the bookings
+     */
+    public CompletableFuture<BatchBookingResult> createSplitStayBooking(SplitStay splitStay, Guest guest, String voucherNumber, String specialPreference) {
+        List<BookingRequest> requests = new ArrayList<>();
+        for (SplitStay.Segment segment : splitStay.getSegments()) {
+            Booking booking = new Booking(UUID.randomUUID().toString(), guest.getGuestId(), segment.getRoom().getRoomId(), voucherNumber,
+                    segment.getCheckInDate(), segment.getCheckOutDate(), specialPreference, "Pending", "Confirmed");
+            requests.add(new BookingRequest(booking, guest));
+        }
+
+        return errors.track("create the reservations", bookingService.createBookingsAsync(requests)).thenApply(result -> {
+            if (result.isCommitted()) {
+                splitStays.remove(splitStay);
+            }
+            return result;
+        });
     }
 }
@@ -0,0 +1,66 @@
+package com.hotelreservation.viewmodel;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Collects the failures of a view model's background requests as messages for its view to show.
+ * Must be used from the JavaFX application thread.
+ */
+final class RequestErrors {
+
+    private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper();
+
+    /**
+     * Reports a failed request. A cancelled request is not a failure and is ignored.
+     *
+     * @param action what the request was doing, e.g. "load bookings"
+     * @param error  the failure
+     */
+    void report(String action, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        String detail = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        // Cleared first, so the same failure twice in a row still reaches the listeners
+        message.set(null);
+        message.set("Could not " + action + ": " + detail);
+    }
+
+    /**
+     * Hands the outcome of a request to the JavaFX application thread, reporting it if it failed.
+     * Unlike {@code thenApplyAsync(..., Platform::runLater)}, which passes a failure on from the thread it happened
+     * on, the returned future completes on the JavaFX application thread whether the request succeeded or not.
+     *
+     * @param action  what the request is doing, e.g. "add the room"
+     * @param request the request that was just started
+     * @param <T>     the type of the request result
+     * @return a future completed on the JavaFX application thread with the outcome of the request
+     */
+    <T> CompletableFuture<T> track(String action, CompletableFuture<T> request) {
+        return request.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                report(action, error);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Returns a property holding the message of the latest failure; it is briefly null before each new message.
+     *
+     * @return the message property
+     */
+    ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,184 @@
+package com.hotelreservation.viewmodel;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+import com.hotelreservation.service.ChangeNotifier;
+import com.hotelreservation.service.DataChangeListener;
+import com.hotelreservation.service.RoomCalendar;
+import com.hotelreservation.service.RoomService;
+import javafx.application.Platform;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * View model of the availability grid: rooms down the side, nights across the top, backed by a {@link RoomCalendar}.
+ * Booking changes are applied to the calendar as they arrive and bump the {@link #revisionProperty() revision}
+ * so the grid repaints; a different window, a room change or a resync loads a new calendar.
+ */
+public class RoomCalendarViewModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomCalendarViewModel.class);
+
+    private final RoomService roomService;
+    private final ObjectProperty<LocalDate> startDate = new SimpleObjectProperty<>(LocalDate.now());
+    private final IntegerProperty days = new SimpleIntegerProperty(30);
+    private final ReadOnlyObjectWrapper<RoomCalendar> calendar = new ReadOnlyObjectWrapper<>();
+    private final ReadOnlyIntegerWrapper revision = new ReadOnlyIntegerWrapper();
+    private final ObservableList<Room> rooms = FXCollections.observableArrayList();
+    private final ObservableList<String> roomTypes = FXCollections.observableArrayList();
+    private final RequestErrors errors = new RequestErrors();
+    private final LatestRequest<RoomCalendar> loadRequest = new LatestRequest<>("load room calendar", errors);
+    private final DataChangeListener changeListener = new DataChangeListener() {
+        @Override
+        public void bookingChanged(Booking booking) {
+            Platform.runLater(() -> applyBookingChanged(booking));
+        }
+
+        @Override
+        public void bookingRemoved(String bookingId) {
+            Platform.runLater(() -> applyBookingRemoved(bookingId));
+        }
+
+        @Override
+        public void roomChanged(Room room) {
+            Platform.runLater(() -> loadCalendar());
+        }
+
+        @Override
+        public void roomRemoved(String roomId) {
+            Platform.runLater(() -> loadCalendar());
+        }
+
+        @Override
+        public void resynced() {
+            Platform.runLater(() -> loadCalendar());
+        }
+    };
+
+    public RoomCalendarViewModel() {
+        roomService = new RoomService();
+        startDate.addListener((observable, oldValue, newValue) -> loadCalendar());
+        days.addListener((observable, oldValue, newValue) -> loadCalendar());
+        ChangeNotifier.getInstance().addListener(changeListener);
+    }
+
+    /**
+     * Stops following booking and room changes. Call when the availability grid window closes.
+     */
+    public void dispose() {
+        ChangeNotifier.getInstance().removeListener(changeListener);
+        loadRequest.cancel();
+    }
+
+    /**
+     * Loads the calendar for the current window in the background.
+     *
+     * @return a future completed once the calendar has been published
+     */
+    public CompletableFuture<RoomCalendar> loadCalendar() {
+        LocalDate start = startDate.get() != null ? startDate.get() : LocalDate.now();
+        logger.info("Loading room calendar for {} nights from {}", days.get(), start);
+        return loadRequest.submit(roomService.getRoomCalendarAsync(start, days.get()), this::applyCalendar);
+    }
+
+    /**
+     * Finds the first date within the window from which some room of a type is free for a number of nights.
+     *
+     * @param roomType the type of room to look for
+     * @param nights   the number of nights to stay
+     * @return the earliest check-in date, or null if there is none in the window or no calendar is loaded
+     */
+    public LocalDate findFirstFreeStart(String roomType, int nights) {
+        RoomCalendar current = calendar.get();
+        return current != null ? current.findFirstFreeStart(roomType, nights) : null;
+    }
+
+    private void applyCalendar(RoomCalendar loaded) {
+        if (loaded == null) {
+            logger.warn("Room calendar could not be loaded");
+            return;
+        }
+        calendar.set(loaded);
+        rooms.setAll(loaded.getRooms());
+        Set<String> types = new TreeSet<>();
+        for (Room room : rooms) {
+            types.add(room.getRoomType());
+        }
+        if (!roomTypes.equals(new ArrayList<>(types))) {
+            roomTypes.setAll(types);
+        }
+        revision.set(revision.get() + 1);
+    }
+
+    private void applyBookingChanged(Booking booking) {
+        RoomCalendar current = calendar.get();
+        if (current != null) {
+            current.recordBooking(booking);
+            revision.set(revision.get() + 1);
+        }
+    }
+
+    private void applyBookingRemoved(String bookingId) {
+        RoomCalendar current = calendar.get();
+        if (current != null) {
+            current.removeBooking(bookingId);
+            revision.set(revision.get() + 1);
+        }
+    }
+
+    public ObservableList<Room> getRooms() {
+        return rooms;
+    }
+
+    public ObservableList<String> getRoomTypes() {
+        return roomTypes;
+    }
+
+    public ObjectProperty<LocalDate> startDateProperty() {
+        return startDate;
+    }
+
+    public IntegerProperty daysProperty() {
+        return days;
+    }
+
+    public ReadOnlyObjectProperty<RoomCalendar> calendarProperty() {
+        return calendar.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty revisionProperty() {
+        return revision.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty loadingProperty() {
+        return loadRequest.runningProperty();
+    }
+
+    /**
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+}
@@ -2,27 +2,66 @@
 package com.hotelreservation.viewmodel;
 
 import com.hotelreservation.model.Room;
+import com.hotelreservation.service.AssignmentPlan;
+import com.hotelreservation.service.AssignmentService;
+import com.hotelreservation.service.ChangeNotifier;
+import com.hotelreservation.service.DataChangeListener;
 import com.hotelreservation.service.RoomService;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class RoomManagementViewModel {
 
     private static final Logger logger = LoggerFactory.getLogger(RoomManagementViewModel.class);
 
     private RoomService roomService;
+    private final AssignmentService assignmentService = new AssignmentService();
     private ObservableList<Room> rooms;
     private ObservableList<String> roomTypes;
+    private final RequestErrors errors = new RequestErrors();
+    private final LatestRequest<List<Room>> loadRequest = new LatestRequest<>("load rooms", errors);
+    private final DataChangeListener changeListener = new DataChangeListener() {
+        @Override
+        public void roomChanged(Room room) {
+            Platform.runLater(() -> applyRoomChanged(room));
+        }
+
+        @Override
+        public void roomRemoved(String roomId) {
+            Platform.runLater(() -> applyRoomRemoved(roomId));
+        }
+
+        @Override
+        public void resynced() {
+            Platform.runLater(() -> loadRooms());
+        }
+    };
 
     public RoomManagementViewModel() {
         roomService = new RoomService();
         rooms = FXCollections.observableArrayList();
         roomTypes = FXCollections.observableArrayList("Standard", "Deluxe", "Suite");
+        ChangeNotifier.getInstance().addListener(changeListener);
+    }
+
+    /**
+     * Stops following room changes made by other instances. Call when the room management window closes.
+     */
+    public void dispose() {
+        ChangeNotifier.getInstance().removeListener(changeListener);
+        loadRequest.cancel();
     }
 
     public ObservableList<Room> getRooms() {
@@ -33,43 +72,145 @@ public class RoomManagementViewModel {
         return roomTypes;
     }
 
-    public void loadRooms() {
+    /**
+     * Returns a property holding the message of the latest failed request, for the view to show.
+     *
+     * @return the error message property
+     */
+    public ReadOnlyStringProperty errorMessageProperty() {
+        return errors.messageProperty();
+    }
+
+    public CompletableFuture<List<Room>> loadRooms() {
         logger.info("Loading rooms");
-        List<Room> loadedRooms = roomService.getAllRooms();
-        rooms.setAll(loadedRooms);
+        return loadRequest.submit(roomService.getAllRoomsAsync(), this::applyRooms);
     }
 
-    public boolean addRoom(String roomNumber, String roomType, double roomPrice, boolean availability) {
+    public CompletableFuture<Boolean> addRoom(String roomNumber, String roomType, double roomPrice, boolean availability) {
         logger.info("Adding room with auto-generated ID");
 
         Room newRoom = new Room(null, roomType, roomPrice, availability);
-        if (roomService.addRoom(newRoom)) {
-            loadRooms();
-            return true;
-        }
-        return false;
+        return errors.track("add the room", roomService.addRoomAsync(newRoom)).thenApply(added -> {
+            if (added) {
+                applyRoomChanged(newRoom);
+            }
+            return added;
+        });
     }
 
 
-    public boolean updateRoom(Room room, String roomNumber, String roomType, double roomPrice, boolean availability) {
+    public CompletableFuture<Boolean> updateRoom(Room room, String roomNumber, String roomType, double roomPrice, boolean availability) {
         logger.info("Updating room: {}", room.getRoomId());
         room.setRoomId(roomNumber);
         room.setRoomType(roomType);
         room.setRoomPrice(roomPrice);
         room.setAvailability(availability);
-        if (roomService.updateRoom(room)) {
-            loadRooms(); // Reload to reflect changes
-            return true;
+        return errors.track("update the room", roomService.updateRoomAsync(room)).thenApply(updated -> {
+            if (updated) {
+                applyRoomChanged(room);
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Brings the rooms list in line with a freshly loaded list of rooms through individual edits,
+     * so reloading keeps the table's selection and touches only the rows that differ.
+     *
+     * @param loaded all rooms, as just loaded
+     */
+    private void applyRooms(List<Room> loaded) {
+        if (rooms.isEmpty()) {
+            rooms.setAll(loaded);
+            return;
+        }
+        Map<String, Room> loadedById = new HashMap<>();
+        for (Room room : loaded) {
+            loadedById.put(room.getRoomId(), room);
+        }
+        rooms.removeIf(room -> !loadedById.containsKey(room.getRoomId()));
+        for (Room room : loaded) {
+            int index = indexOf(room.getRoomId());
+            if (index < 0) {
+                rooms.add(room);
+            } else if (!isSame(rooms.get(index), room)) {
+                rooms.set(index, room);
+            }
         }
-        return false;
     }
 
-    public boolean deleteRoom(Room room) {
-        logger.info("Deleting room: {}", room.getRoomId());
-        if (roomService.deleteRoom(room.getRoomId())) {
-            rooms.remove(room);
-            return true;
+    private static boolean isSame(Room a, Room b) {
+        return Objects.equals(a.getRoomType(), b.getRoomType()) && a.getRoomPrice() == b.getRoomPrice()
+                && a.isAvailability() == b.isAvailability();
+    }
+
+    /**
+     * Applies a created or updated room to the rooms list in place, keeping the table's selection.
+     *
+     * @param room the room as stored in the database
+     */
+    public void applyRoomChanged(Room room) {
+        int index = indexOf(room.getRoomId());
+        if (index >= 0) {
+            rooms.set(index, room);
+        } else {
+            rooms.add(room);
+        }
+    }
+
+    /**
+     * Removes a deleted room from the rooms list.
+     *
+     * @param roomId the ID of the deleted room
+     */
+    public void applyRoomRemoved(String roomId) {
+        int index = indexOf(roomId);
+        if (index >= 0) {
+            rooms.remove(index);
+        }
+    }
+
+    private int indexOf(String roomId) {
+        for (int i = 0; i < rooms.size(); i++) {
+            if (rooms.get(i).getRoomId().equals(roomId)) {
+                return i;
+            }
         }
-        return false;
+        return -1;
+    }
+
+    /**
+     * Proposes moving the future bookings of a room type between its rooms so that fewer unsellable one-night gaps
+     * are left between bookings. Bookings checking in from tomorrow on may move.
+     *
+     * @param roomType the room type to re-assign
+     * @return a future completed on the JavaFX application thread with the plan, or null if there was an error
+     */
+    public CompletableFuture<AssignmentPlan> planReassignment(String roomType) {
+        logger.info("Planning room re-assignment for {}", roomType);
+        return errors.track("plan room assignments",
+                assignmentService.planReassignmentAsync(roomType, LocalDate.now().plusDays(1)));
+    }
+
+    /**
+     * Moves the bookings of a plan made by {@link #planReassignment(String)} to their new rooms.
+     *
+     * @param plan the plan to apply
+     * @return a future completed on the JavaFX application thread with the number of bookings moved,
+     *         or -1 if bookings changed since the plan was made or there was an error
+     */
+    public CompletableFuture<Integer> applyReassignment(AssignmentPlan plan) {
+        logger.info("Applying room re-assignment: {}", plan);
+        return errors.track("move the bookings", assignmentService.applyPlanAsync(plan));
+    }
+
+    public CompletableFuture<Boolean> deleteRoom(Room room) {
+        logger.info("Deleting room: {}", room.getRoomId());
+        return errors.track("delete the room", roomService.deleteRoomAsync(room.getRoomId())).thenApply(deleted -> {
+            if (deleted) {
+                applyRoomRemoved(room.getRoomId());
+            }
+            return deleted;
+        });
     }
 }
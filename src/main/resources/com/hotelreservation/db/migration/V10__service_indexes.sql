@@ -0,0 +1,26 @@
+-- Indexes for the service queries that until now relied on whatever indexes had been created by hand.
+-- Only bookings that are not cancelled hold a room, so the indexes for room searches are partial on exactly that
+-- predicate. Queries that want them spell it the same way, with the 'Cancelled' literal rather than a parameter,
+-- so the planner can prove the query implies the index predicate even for a generic prepared plan.
+-- Already covered elsewhere: the partial GiST (roomId, daterange(inDate, outDate)) index behind the room overlap
+-- exclusion constraint of V3__booking_exclusion.sql, for overlap tests written with daterange &&;
+-- Bookings.guestId (V2__booking_search.sql); and the primary keys used by
+-- BookingService.getBookingWithGuestInfo (bookingId, guestId) and LoginService.authenticateStaff (staffId).
+
+-- Stays per room in date order, whatever their status: the overlap checks of holds, bookings and imports,
+-- and the room calendar.
+CREATE INDEX IF NOT EXISTS idx_bookings_room_dates
+    ON Bookings (roomId, inDate, outDate);
+
+-- Active stays per room by check-out. An overlap test "outDate > check-in AND inDate < check-out" on one room
+-- starts at the first stay ending after the check-in, skipping the room's past stays, and reads the check-in
+-- from the index: the NOT EXISTS anti-join of RoomService.getAvailableRoomsFromDatabase probes it once per room,
+-- and AssignmentService reads the bookings still to come in the rooms of a type through it.
+CREATE INDEX IF NOT EXISTS idx_bookings_active_room_out
+    ON Bookings (roomId, outDate, inDate)
+    WHERE (bookingStatus IS DISTINCT FROM 'Cancelled');
+
+-- Rooms open for sale by type, in room order: the outer side of the availability search.
+CREATE INDEX IF NOT EXISTS idx_rooms_type_available
+    ON Rooms (roomType, roomId)
+    WHERE availability;
@@ -0,0 +1,44 @@
+-- Transaction IDs backing incremental sync (BookingService.getBookingChangesSince,
+-- RoomService.getRoomChangesSince), replacing the row versions of V5__row_versions.sql as the sync cursor.
+-- A row version is drawn when a row is written, not when its transaction commits, so a transaction committing
+-- late could commit a version below one a client had already synced past, and the change was never read.
+-- Every insert or update of a Rooms, Bookings or Guests row, and every tombstone, now also records the ID of the
+-- transaction that wrote it. A sync cursor is the oldest transaction still running when the sync read
+-- (pg_snapshot_xmin): every transaction before it has finished and its rows were read, and the next sync reads
+-- the rows of every transaction from it on. Rows of a transaction running across a sync are read twice, which
+-- applying a change again tolerates.
+
+ALTER TABLE Rooms ADD COLUMN IF NOT EXISTS row_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+ALTER TABLE Bookings ADD COLUMN IF NOT EXISTS row_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+ALTER TABLE Guests ADD COLUMN IF NOT EXISTS row_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+ALTER TABLE deleted_rows ADD COLUMN IF NOT EXISTS row_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX IF NOT EXISTS idx_rooms_row_xid ON Rooms (row_xid);
+CREATE INDEX IF NOT EXISTS idx_bookings_row_xid ON Bookings (row_xid);
+CREATE INDEX IF NOT EXISTS idx_guests_row_xid ON Guests (row_xid);
+CREATE INDEX IF NOT EXISTS idx_deleted_rows_xid ON deleted_rows (table_name, row_xid);
+
+CREATE OR REPLACE FUNCTION bump_row_version()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.row_version := nextval('row_version_seq');
+    NEW.row_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION record_deleted_row()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+    VALUES (lower(TG_TABLE_NAME), to_jsonb(OLD) ->> TG_ARGV[0])
+    ON CONFLICT (table_name, row_id)
+        DO UPDATE SET row_version = nextval('row_version_seq'), row_xid = pg_current_xact_id()::text::bigint,
+                      deleted_at = now();
+    RETURN NULL;
+END
+$$;
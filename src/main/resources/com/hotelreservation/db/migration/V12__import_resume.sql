@@ -0,0 +1,16 @@
+-- Makes resuming an import (ImportService) safe after a crash, on top of V6__bulk_import.sql.
+-- The staging tables were UNLOGGED, so a server crash emptied them while import_jobs.records_read, which is
+-- logged, still counted the chunks already staged: the resumed import skipped those records and merged without
+-- them. The staging tables are now logged, so a committed chunk survives a crash like its records_read does.
+-- A job is also keyed by a hash of the file's content, so an edited file of the same name and size is imported
+-- from the start instead of resuming after the records of the old file. Unfinished jobs recorded before this
+-- migration have no hash and are not resumed.
+
+ALTER TABLE import_rooms SET LOGGED;
+ALTER TABLE import_guests SET LOGGED;
+ALTER TABLE import_bookings SET LOGGED;
+
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS source_hash TEXT;
+
+DROP INDEX IF EXISTS idx_import_jobs_source;
+CREATE INDEX IF NOT EXISTS idx_import_jobs_source_hash ON import_jobs (entity, source_name, source_size, source_hash);
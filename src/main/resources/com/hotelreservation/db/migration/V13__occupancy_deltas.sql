@@ -0,0 +1,81 @@
+-- Append-only deltas for the daily occupancy rollup of V7__occupancy_rollup.sql.
+-- The booking trigger used to add each night of a booking straight into its occupancy_daily row. Every booking
+-- of a popular date and room type updated the same row, so their transactions queued on its row lock until
+-- each committed, and a transaction writing several bookings could lock those rows in one order while another
+-- locked them in the opposite order, deadlocking both. The trigger now appends one row per night to
+-- occupancy_deltas, which no other transaction ever locks. occupancy_compact folds the deltas into
+-- occupancy_daily in (stay_date, room_type) order, and occupancy_daily_current adds the deltas not folded yet,
+-- so reports see every committed booking.
+
+CREATE TABLE IF NOT EXISTS occupancy_deltas (
+    stay_date  DATE           NOT NULL,
+    room_type  TEXT           NOT NULL,
+    rooms_sold INTEGER        NOT NULL,
+    revenue    NUMERIC(14, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_occupancy_deltas_date ON occupancy_deltas (stay_date, room_type);
+
+-- Adds (sign 1) or removes (sign -1) the nights [p_in, p_out) of one booking.
+CREATE OR REPLACE FUNCTION occupancy_apply(p_room_type TEXT, p_rate NUMERIC, p_in DATE, p_out DATE, p_sign INTEGER)
+RETURNS void
+LANGUAGE sql
+AS $$
+    INSERT INTO occupancy_deltas (stay_date, room_type, rooms_sold, revenue)
+    SELECT night::date, p_room_type, p_sign, p_sign * p_rate
+    FROM generate_series(p_in, p_out - 1, interval '1 day') AS night;
+$$;
+
+-- Moves the deltas into occupancy_daily. The rows of occupancy_daily are locked in (stay_date, room_type) order,
+-- so compactions running at the same time wait for each other instead of deadlocking.
+CREATE OR REPLACE FUNCTION occupancy_compact()
+RETURNS void
+LANGUAGE sql
+AS $$
+    WITH moved AS (
+        DELETE FROM occupancy_deltas RETURNING stay_date, room_type, rooms_sold, revenue
+    )
+    INSERT INTO occupancy_daily (stay_date, room_type, rooms_sold, revenue)
+    SELECT stay_date, room_type, sum(rooms_sold), sum(revenue)
+    FROM moved
+    GROUP BY stay_date, room_type
+    ORDER BY stay_date, room_type
+    ON CONFLICT (stay_date, room_type) DO UPDATE
+        SET rooms_sold = occupancy_daily.rooms_sold + EXCLUDED.rooms_sold,
+            revenue = occupancy_daily.revenue + EXCLUDED.revenue;
+$$;
+
+-- The rollup including the deltas not compacted yet.
+CREATE OR REPLACE VIEW occupancy_daily_current AS
+SELECT stay_date, room_type, sum(rooms_sold)::integer AS rooms_sold, sum(revenue) AS revenue
+FROM (SELECT stay_date, room_type, rooms_sold, revenue FROM occupancy_daily
+      UNION ALL
+      SELECT stay_date, room_type, rooms_sold, revenue FROM occupancy_deltas) parts
+GROUP BY stay_date, room_type;
+
+-- Recomputes the rollup from the current bookings and room prices.
+CREATE OR REPLACE FUNCTION occupancy_rebuild()
+RETURNS void
+LANGUAGE sql
+AS $$
+    TRUNCATE occupancy_daily, occupancy_deltas, occupancy_booking_rates;
+    INSERT INTO occupancy_booking_rates (bookingId, room_type, rate, inDate, outDate)
+    SELECT b.bookingId, r.roomType, r.roomPrice, b.inDate, b.outDate
+    FROM Bookings b JOIN Rooms r ON r.roomId = b.roomId
+    WHERE b.bookingStatus IS DISTINCT FROM 'Cancelled' AND b.outDate > b.inDate;
+    INSERT INTO occupancy_daily (stay_date, room_type, rooms_sold, revenue)
+    SELECT night::date, room_type, count(*), sum(rate)
+    FROM occupancy_booking_rates,
+         generate_series(inDate, outDate - 1, interval '1 day') AS night
+    GROUP BY night::date, room_type;
+$$;
+
+CREATE OR REPLACE FUNCTION occupancy_clear()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    TRUNCATE occupancy_daily, occupancy_deltas, occupancy_booking_rates;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,205 @@
+-- Lock ordering for the room type inventory ledger of V8__inventory_ledger.sql and V9__room_holds.sql.
+-- The counters of a stay were updated in whatever order the UPDATE happened to visit them, and moving a booking
+-- or hold updated the nights it left before the nights it took, so two transactions moving stays in opposite
+-- directions could each wait for rows the other had locked. The nights of a write are now created and locked
+-- up front, in (room_type, stay_date) order, before any counter changes.
+-- inventory_ensure also counted the rooms of a type without a lock, so a room added or taken out of order
+-- while a night's row was being created was missed by both: the row took the old counts and the room trigger
+-- did not see the uncommitted row. Creating rows now holds a shared lock on the room type for the rest of the
+-- transaction, and changing a room holds an exclusive one, so the count and the room change come one after
+-- the other. Bookings of the same type share the lock and do not wait for each other.
+
+-- Creates the missing rows of a room type for the nights [p_from, p_to), with the current room counts.
+-- The advisory lock is keyed (0x696e76, hashtext(room type)), the same key inventory_track_room takes.
+CREATE OR REPLACE FUNCTION inventory_ensure(p_room_type TEXT, p_from DATE, p_to DATE)
+RETURNS void
+LANGUAGE sql
+AS $$
+    SELECT pg_advisory_xact_lock_shared(x'696e76'::integer, hashtext(p_room_type));
+    INSERT INTO room_type_inventory (room_type, stay_date, total, out_of_order)
+    SELECT p_room_type, night::date, counts.total, counts.out_of_order
+    FROM (SELECT count(*) AS total, count(*) FILTER (WHERE NOT availability) AS out_of_order
+          FROM Rooms WHERE roomType = p_room_type) AS counts,
+         generate_series(p_from, p_to - 1, interval '1 day') AS night
+    ORDER BY night
+    ON CONFLICT (room_type, stay_date) DO NOTHING;
+$$;
+
+-- Creates the missing rows for the nights [from, to) of up to two stays, in the types of their rooms, and locks
+-- the rows of both in (room_type, stay_date) order. A stay with a NULL room, or a room that does not exist, is
+-- skipped.
+CREATE OR REPLACE FUNCTION inventory_lock_stays(p_room_id TEXT, p_from DATE, p_to DATE,
+                                                p_other_room_id TEXT, p_other_from DATE, p_other_to DATE)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_type       TEXT;
+    v_other_type TEXT;
+BEGIN
+    IF p_to > p_from THEN
+        SELECT roomType INTO v_type FROM Rooms WHERE roomId = p_room_id;
+    END IF;
+    IF p_other_to > p_other_from THEN
+        SELECT roomType INTO v_other_type FROM Rooms WHERE roomId = p_other_room_id;
+    END IF;
+
+    IF v_other_type IS NOT NULL AND (v_type IS NULL OR (v_other_type, p_other_from) < (v_type, p_from)) THEN
+        PERFORM inventory_ensure(v_other_type, p_other_from, p_other_to);
+    END IF;
+    IF v_type IS NOT NULL THEN
+        PERFORM inventory_ensure(v_type, p_from, p_to);
+    END IF;
+    IF v_other_type IS NOT NULL AND v_type IS NOT NULL AND (v_other_type, p_other_from) >= (v_type, p_from) THEN
+        PERFORM inventory_ensure(v_other_type, p_other_from, p_other_to);
+    END IF;
+
+    PERFORM 1 FROM room_type_inventory
+    WHERE (room_type = v_type AND stay_date >= p_from AND stay_date < p_to)
+       OR (room_type = v_other_type AND stay_date >= p_other_from AND stay_date < p_other_to)
+    ORDER BY room_type, stay_date
+    FOR UPDATE;
+END
+$$;
+
+-- Adds p_delta to the nights [p_from, p_to) sold in a room's type.
+CREATE OR REPLACE FUNCTION inventory_adjust_sold(p_room_id TEXT, p_from DATE, p_to DATE, p_delta INTEGER)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_room_type TEXT;
+BEGIN
+    IF p_room_id IS NULL OR p_to <= p_from THEN
+        RETURN;
+    END IF;
+    SELECT roomType INTO v_room_type FROM Rooms WHERE roomId = p_room_id;
+    IF v_room_type IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM inventory_lock_stays(p_room_id, p_from, p_to, NULL, NULL, NULL);
+    UPDATE room_type_inventory SET sold = sold + p_delta
+    WHERE room_type = v_room_type AND stay_date >= p_from AND stay_date < p_to;
+END
+$$;
+
+-- Adds p_delta to the nights [p_from, p_to) held in a room's type.
+CREATE OR REPLACE FUNCTION inventory_adjust_held(p_room_id TEXT, p_from DATE, p_to DATE, p_delta INTEGER)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_room_type TEXT;
+BEGIN
+    IF p_room_id IS NULL OR p_to <= p_from THEN
+        RETURN;
+    END IF;
+    SELECT roomType INTO v_room_type FROM Rooms WHERE roomId = p_room_id;
+    IF v_room_type IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM inventory_lock_stays(p_room_id, p_from, p_to, NULL, NULL, NULL);
+    UPDATE room_type_inventory SET held = held + p_delta
+    WHERE room_type = v_room_type AND stay_date >= p_from AND stay_date < p_to;
+END
+$$;
+
+-- A booking that moves locks the nights it leaves and the nights it takes together before adjusting either.
+CREATE OR REPLACE FUNCTION inventory_track_booking()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomId IS NOT DISTINCT FROM NEW.roomId
+            AND OLD.inDate IS NOT DISTINCT FROM NEW.inDate
+            AND OLD.outDate IS NOT DISTINCT FROM NEW.outDate
+            AND (OLD.bookingStatus IS DISTINCT FROM 'Cancelled') = (NEW.bookingStatus IS DISTINCT FROM 'Cancelled') THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'UPDATE' AND OLD.bookingStatus IS DISTINCT FROM 'Cancelled'
+            AND NEW.bookingStatus IS DISTINCT FROM 'Cancelled' THEN
+        PERFORM inventory_lock_stays(OLD.roomId, OLD.inDate, OLD.outDate, NEW.roomId, NEW.inDate, NEW.outDate);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.bookingStatus IS DISTINCT FROM 'Cancelled' THEN
+        PERFORM inventory_adjust_sold(OLD.roomId, OLD.inDate, OLD.outDate, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.bookingStatus IS DISTINCT FROM 'Cancelled' THEN
+        PERFORM inventory_adjust_sold(NEW.roomId, NEW.inDate, NEW.outDate, 1);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- A hold that moves locks the nights it leaves and the nights it takes together before adjusting either.
+CREATE OR REPLACE FUNCTION inventory_track_hold()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomId IS NOT DISTINCT FROM NEW.roomId
+            AND OLD.inDate IS NOT DISTINCT FROM NEW.inDate
+            AND OLD.outDate IS NOT DISTINCT FROM NEW.outDate THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'UPDATE' THEN
+        PERFORM inventory_lock_stays(OLD.roomId, OLD.inDate, OLD.outDate, NEW.roomId, NEW.inDate, NEW.outDate);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM inventory_adjust_held(OLD.roomId, OLD.inDate, OLD.outDate, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM inventory_adjust_held(NEW.roomId, NEW.inDate, NEW.outDate, 1);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- A room change first takes the exclusive lock of the types it leaves and joins, in name order, so it waits for
+-- the transactions creating rows of those types and they wait for it.
+CREATE OR REPLACE FUNCTION inventory_track_room()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    stay RECORD;
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomType IS NOT DISTINCT FROM NEW.roomType
+            AND OLD.availability IS NOT DISTINCT FROM NEW.availability THEN
+        RETURN NULL;
+    END IF;
+    PERFORM pg_advisory_xact_lock(x'696e76'::integer, hashtext(room_type))
+    FROM (SELECT DISTINCT room_type
+          FROM unnest(ARRAY[CASE WHEN TG_OP <> 'INSERT' THEN OLD.roomType END,
+                            CASE WHEN TG_OP <> 'DELETE' THEN NEW.roomType END]) AS room_type
+          WHERE room_type IS NOT NULL
+          ORDER BY room_type) AS types;
+    -- Rows not yet created take the room counts when they are, so only existing rows are adjusted here
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE room_type_inventory
+        SET total = total - 1, out_of_order = out_of_order - CASE WHEN OLD.availability THEN 0 ELSE 1 END
+        WHERE room_type = OLD.roomType;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE room_type_inventory
+        SET total = total + 1, out_of_order = out_of_order + CASE WHEN NEW.availability THEN 0 ELSE 1 END
+        WHERE room_type = NEW.roomType;
+    END IF;
+    -- A room changing type takes the nights sold in it along
+    IF TG_OP = 'UPDATE' AND OLD.roomType IS DISTINCT FROM NEW.roomType THEN
+        FOR stay IN
+            SELECT inDate, outDate FROM Bookings
+            WHERE roomId = NEW.roomId AND bookingStatus IS DISTINCT FROM 'Cancelled' AND outDate > inDate
+        LOOP
+            UPDATE room_type_inventory SET sold = sold - 1
+            WHERE room_type = OLD.roomType AND stay_date >= stay.inDate AND stay_date < stay.outDate;
+            PERFORM inventory_ensure(NEW.roomType, stay.inDate, stay.outDate);
+            UPDATE room_type_inventory SET sold = sold + 1
+            WHERE room_type = NEW.roomType AND stay_date >= stay.inDate AND stay_date < stay.outDate;
+        END LOOP;
+    END IF;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,22 @@
+-- Exclusion constraint guaranteeing that a room is never held twice for overlapping dates, for the holds of
+-- V9__room_holds.sql. HoldService placed a hold with INSERT ... WHERE NOT EXISTS, which under READ COMMITTED
+-- lets two clerks hold the same room at once: neither sees the other's uncommitted hold. With the constraint,
+-- the second insert waits for the first and then inserts nothing (ON CONFLICT DO NOTHING).
+-- Expired holds still count until they are deleted, so placing a hold deletes the room's expired holds first,
+-- and each instance deletes all expired holds, whoever placed them, when a hold it knows of runs out.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DELETE FROM room_holds WHERE expires_at <= now();
+
+-- Holds that already overlap: the earlier one is kept
+DELETE FROM room_holds h
+USING room_holds o
+WHERE o.roomId = h.roomId
+  AND daterange(o.inDate, o.outDate) && daterange(h.inDate, h.outDate)
+  AND (o.created_at, o.hold_id) < (h.created_at, h.hold_id);
+
+ALTER TABLE room_holds DROP CONSTRAINT IF EXISTS room_holds_no_overlap;
+
+ALTER TABLE room_holds ADD CONSTRAINT room_holds_no_overlap
+    EXCLUDE USING gist (roomId WITH =, daterange(inDate, outDate) WITH &&);
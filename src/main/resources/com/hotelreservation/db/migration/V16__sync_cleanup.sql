@@ -0,0 +1,65 @@
+-- Retires the row versions of V5__row_versions.sql and bounds the tombstones kept for incremental sync.
+-- Since V11__sync_watermark.sql the sync cursor is a transaction ID, and nothing reads row_version any more, yet
+-- every write still drew from row_version_seq and maintained an index on it. The triggers now only stamp row_xid,
+-- and the columns, their indexes and the sequence are dropped.
+-- Tombstones were kept forever. deleted_rows_purge() deletes those older than a retention period and remembers
+-- the newest transaction it purged, so a client whose sync version predates it knows it may have missed a delete
+-- and reloads everything instead.
+
+CREATE OR REPLACE FUNCTION bump_row_version()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.row_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION record_deleted_row()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+    VALUES (lower(TG_TABLE_NAME), to_jsonb(OLD) ->> TG_ARGV[0])
+    ON CONFLICT (table_name, row_id)
+        DO UPDATE SET row_xid = pg_current_xact_id()::text::bigint, deleted_at = now();
+    RETURN NULL;
+END
+$$;
+
+DROP INDEX IF EXISTS idx_rooms_row_version;
+DROP INDEX IF EXISTS idx_bookings_row_version;
+DROP INDEX IF EXISTS idx_guests_row_version;
+DROP INDEX IF EXISTS idx_deleted_rows_version;
+
+ALTER TABLE Rooms DROP COLUMN IF EXISTS row_version;
+ALTER TABLE Bookings DROP COLUMN IF EXISTS row_version;
+ALTER TABLE Guests DROP COLUMN IF EXISTS row_version;
+ALTER TABLE deleted_rows DROP COLUMN IF EXISTS row_version;
+
+DROP SEQUENCE IF EXISTS row_version_seq;
+
+CREATE INDEX IF NOT EXISTS idx_deleted_rows_deleted_at ON deleted_rows (deleted_at);
+
+-- A single row: the newest transaction whose tombstones have been purged
+CREATE TABLE IF NOT EXISTS deleted_rows_purged (
+    id      BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    row_xid BIGINT  NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION deleted_rows_purge(retention interval)
+RETURNS bigint
+LANGUAGE sql
+AS $$
+    WITH purged AS (
+        DELETE FROM deleted_rows WHERE deleted_at < now() - retention RETURNING row_xid
+    ), horizon AS (
+        INSERT INTO deleted_rows_purged (row_xid)
+        SELECT max(row_xid) FROM purged HAVING count(*) > 0
+        ON CONFLICT (id) DO UPDATE SET row_xid = greatest(deleted_rows_purged.row_xid, EXCLUDED.row_xid)
+        RETURNING row_xid
+    )
+    SELECT count(*) FROM purged;
+$$;
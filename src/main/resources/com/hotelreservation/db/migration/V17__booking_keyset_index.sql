@@ -0,0 +1,8 @@
+-- Index for the bookings read in (inDate, bookingId) order: the keyset pages of BookingService.getBookingsPage,
+-- in either direction, BookingService.forEachBooking and streamAllBookings, and the exports of ExportService.
+-- Without it every page sorted the bookings of its date range, however far the user had scrolled; with it a page
+-- starts at the previous page's last booking and reads just the rows it returns, and the streams read the
+-- bookings in order without sorting them all first.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_in_date_id
+    ON Bookings (inDate, bookingId);
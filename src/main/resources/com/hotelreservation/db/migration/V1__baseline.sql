@@ -0,0 +1,43 @@
+-- Baseline schema: the tables used by the application, as expected by the services.
+-- Every migration up to V9 was written to be re-runnable, so on a database that already has the tables
+-- SchemaMigrator applies them all once and records them in schema_version. From V10 on, a released migration is
+-- never edited; changes go into a new one.
+
+CREATE SEQUENCE IF NOT EXISTS rooms_roomid_seq START 101;
+
+CREATE TABLE IF NOT EXISTS Rooms (
+    roomId       VARCHAR(20) PRIMARY KEY DEFAULT nextval('rooms_roomid_seq')::text,
+    roomType     VARCHAR(50)    NOT NULL,
+    roomPrice    NUMERIC(10, 2) NOT NULL,
+    availability BOOLEAN        NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS Guests (
+    guestId       VARCHAR(64) PRIMARY KEY,
+    firstName     VARCHAR(100),
+    lastName      VARCHAR(100),
+    middleName    VARCHAR(100),
+    password      VARCHAR(255),
+    contactNumber VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS Staffs (
+    staffId    VARCHAR(64) PRIMARY KEY,
+    firstName  VARCHAR(100),
+    lastName   VARCHAR(100),
+    middleName VARCHAR(100),
+    password   VARCHAR(255),
+    position   VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS Bookings (
+    bookingId         VARCHAR(64) PRIMARY KEY,
+    guestId           VARCHAR(64) REFERENCES Guests (guestId),
+    roomId            VARCHAR(20) REFERENCES Rooms (roomId),
+    voucherNumber     VARCHAR(64),
+    inDate            DATE NOT NULL,
+    outDate           DATE NOT NULL,
+    specialPreference TEXT,
+    paymentStatus     VARCHAR(30),
+    bookingStatus     VARCHAR(30)
+);
@@ -0,0 +1,30 @@
+-- Trigram indexes backing BookingService.searchBookings().
+-- The search lowercases both sides and matches with LIKE '%term%', which pg_trgm GIN indexes can serve.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Same format as Guest.getFullName(): "first [middle ]last".
+CREATE OR REPLACE FUNCTION guest_full_name(first_name text, middle_name text, last_name text)
+RETURNS text
+LANGUAGE sql
+IMMUTABLE
+AS $$
+    SELECT coalesce(first_name, '') || ' '
+        || CASE WHEN middle_name IS NULL OR middle_name = '' THEN '' ELSE middle_name || ' ' END
+        || coalesce(last_name, '')
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_bookingid_trgm
+    ON Bookings USING gin (lower(bookingId) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_roomid_trgm
+    ON Bookings USING gin (lower(roomId) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_vouchernumber_trgm
+    ON Bookings USING gin (lower(voucherNumber) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_guests_fullname_trgm
+    ON Guests USING gin (lower(guest_full_name(firstName, middleName, lastName)) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_guestid
+    ON Bookings (guestId);
@@ -0,0 +1,16 @@
+-- Exclusion constraint guaranteeing that a room is never booked twice for overlapping dates,
+-- whichever process or clerk writes the booking. Stays are half-open [inDate, outDate), so a check-out
+-- and a check-in on the same day do not conflict. Cancelled bookings do not hold their room.
+-- A conflicting insert or update fails with SQLState 23P01 (exclusion_violation),
+-- which BookingService reports as ReservationResult.ROOM_TAKEN.
+-- The constraint is checked at the end of each statement, but a transaction moving several bookings between
+-- rooms at once (AssignmentService.applyPlan) defers it to commit, so bookings can trade rooms.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE Bookings DROP CONSTRAINT IF EXISTS bookings_room_no_overlap;
+
+ALTER TABLE Bookings ADD CONSTRAINT bookings_room_no_overlap
+    EXCLUDE USING gist (roomId WITH =, daterange(inDate, outDate) WITH &&)
+    WHERE (bookingStatus IS DISTINCT FROM 'Cancelled')
+    DEFERRABLE INITIALLY IMMEDIATE;
@@ -0,0 +1,41 @@
+-- Change notifications consumed by ChangeNotifier.
+-- Every row change on Rooms, Bookings and Guests sends a NOTIFY on the hotel_changes channel with the payload
+-- "<table>:<operation>:<primary key>", e.g. "bookings:UPDATE:3f2c...". Notifications are delivered on commit,
+-- and identical notifications within one transaction are collapsed by the server.
+-- A bulk write that sets hotel.suppress_notify to 'on' for its transaction sends no per-row notifications;
+-- it sends a single "all:RESYNC:<reason>" notification instead, after which listeners reload everything.
+
+CREATE OR REPLACE FUNCTION notify_row_change()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    row_id text;
+BEGIN
+    IF current_setting('hotel.suppress_notify', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        row_id := to_jsonb(OLD) ->> TG_ARGV[0];
+    ELSE
+        row_id := to_jsonb(NEW) ->> TG_ARGV[0];
+    END IF;
+    PERFORM pg_notify('hotel_changes', lower(TG_TABLE_NAME) || ':' || TG_OP || ':' || row_id);
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS rooms_notify_change ON Rooms;
+CREATE TRIGGER rooms_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON Rooms
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('roomid');
+
+DROP TRIGGER IF EXISTS bookings_notify_change ON Bookings;
+CREATE TRIGGER bookings_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON Bookings
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('bookingid');
+
+DROP TRIGGER IF EXISTS guests_notify_change ON Guests;
+CREATE TRIGGER guests_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON Guests
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('guestid');
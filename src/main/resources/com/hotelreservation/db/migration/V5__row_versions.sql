@@ -0,0 +1,82 @@
+-- Row versions and tombstones backing incremental sync (BookingService.getBookingChangesSince,
+-- RoomService.getRoomChangesSince).
+-- Every insert or update of a Rooms, Bookings or Guests row stamps it with the next value of row_version_seq,
+-- and every delete leaves a tombstone in deleted_rows with its own version. A client remembers the highest
+-- version it has seen and later asks only for rows and tombstones with a higher version.
+-- Versions are drawn when a row is written, not when its transaction commits, so a long transaction can commit
+-- a version lower than one a client has already seen; the change notifications of V4__change_notify.sql
+-- cover that window.
+
+CREATE SEQUENCE IF NOT EXISTS row_version_seq;
+
+ALTER TABLE Rooms ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT nextval('row_version_seq');
+ALTER TABLE Bookings ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT nextval('row_version_seq');
+ALTER TABLE Guests ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT nextval('row_version_seq');
+
+CREATE INDEX IF NOT EXISTS idx_rooms_row_version ON Rooms (row_version);
+CREATE INDEX IF NOT EXISTS idx_bookings_row_version ON Bookings (row_version);
+CREATE INDEX IF NOT EXISTS idx_guests_row_version ON Guests (row_version);
+
+-- Tombstones may be purged after a while; a client whose version predates the oldest tombstone reloads fully.
+CREATE TABLE IF NOT EXISTS deleted_rows (
+    table_name  TEXT        NOT NULL,
+    row_id      TEXT        NOT NULL,
+    row_version BIGINT      NOT NULL DEFAULT nextval('row_version_seq'),
+    deleted_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (table_name, row_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_deleted_rows_version ON deleted_rows (table_name, row_version);
+
+CREATE OR REPLACE FUNCTION bump_row_version()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.row_version := nextval('row_version_seq');
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION record_deleted_row()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+    VALUES (lower(TG_TABLE_NAME), to_jsonb(OLD) ->> TG_ARGV[0])
+    ON CONFLICT (table_name, row_id)
+        DO UPDATE SET row_version = nextval('row_version_seq'), deleted_at = now();
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS rooms_bump_row_version ON Rooms;
+CREATE TRIGGER rooms_bump_row_version
+    BEFORE UPDATE ON Rooms
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+
+DROP TRIGGER IF EXISTS bookings_bump_row_version ON Bookings;
+CREATE TRIGGER bookings_bump_row_version
+    BEFORE UPDATE ON Bookings
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+
+DROP TRIGGER IF EXISTS guests_bump_row_version ON Guests;
+CREATE TRIGGER guests_bump_row_version
+    BEFORE UPDATE ON Guests
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+
+DROP TRIGGER IF EXISTS rooms_record_deleted_row ON Rooms;
+CREATE TRIGGER rooms_record_deleted_row
+    AFTER DELETE ON Rooms
+    FOR EACH ROW EXECUTE FUNCTION record_deleted_row('roomid');
+
+DROP TRIGGER IF EXISTS bookings_record_deleted_row ON Bookings;
+CREATE TRIGGER bookings_record_deleted_row
+    AFTER DELETE ON Bookings
+    FOR EACH ROW EXECUTE FUNCTION record_deleted_row('bookingid');
+
+DROP TRIGGER IF EXISTS guests_record_deleted_row ON Guests;
+CREATE TRIGGER guests_record_deleted_row
+    AFTER DELETE ON Guests
+    FOR EACH ROW EXECUTE FUNCTION record_deleted_row('guestid');
@@ -0,0 +1,91 @@
+-- Tables backing ImportService, which loads rooms, guests and bookings from CSV files.
+-- Each import is a row of import_jobs. Its CSV records are streamed with COPY into an UNLOGGED staging table in
+-- chunks, each chunk committed together with the job's records_read, so a failed import resumes after the last
+-- committed chunk. Once loaded, the staged rows are validated and merged into Rooms, Guests and Bookings in one
+-- transaction; rows failing validation are kept in import_rejects with the reason.
+-- Requires V4__change_notify.sql, whose trigger function honours hotel.suppress_notify during the merge.
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    job_id        BIGSERIAL PRIMARY KEY,
+    entity        TEXT        NOT NULL,                   -- rooms, guests or bookings
+    source_name   TEXT        NOT NULL,
+    source_size   BIGINT      NOT NULL,
+    status        TEXT        NOT NULL DEFAULT 'LOADING', -- LOADING, LOADED or MERGED
+    records_read  BIGINT      NOT NULL DEFAULT 0,
+    rows_merged   BIGINT      NOT NULL DEFAULT 0,
+    rows_rejected BIGINT      NOT NULL DEFAULT 0,
+    error         TEXT,                                   -- why the last attempt stopped, if it failed
+    started_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at    TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_source ON import_jobs (entity, source_name, source_size);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS import_rooms (
+    job_id       BIGINT NOT NULL,
+    record_no    BIGINT NOT NULL,
+    roomId       TEXT,
+    roomType     TEXT,
+    roomPrice    TEXT,
+    availability TEXT,
+    PRIMARY KEY (job_id, record_no)
+);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS import_guests (
+    job_id        BIGINT NOT NULL,
+    record_no     BIGINT NOT NULL,
+    guestId       TEXT,
+    firstName     TEXT,
+    lastName      TEXT,
+    middleName    TEXT,
+    password      TEXT,
+    contactNumber TEXT,
+    PRIMARY KEY (job_id, record_no)
+);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS import_bookings (
+    job_id            BIGINT NOT NULL,
+    record_no         BIGINT NOT NULL,
+    bookingId         TEXT,
+    guestId           TEXT,
+    roomId            TEXT,
+    voucherNumber     TEXT,
+    inDate            TEXT,
+    outDate           TEXT,
+    specialPreference TEXT,
+    paymentStatus     TEXT,
+    bookingStatus     TEXT,
+    PRIMARY KEY (job_id, record_no)
+);
+
+CREATE TABLE IF NOT EXISTS import_rejects (
+    job_id    BIGINT NOT NULL REFERENCES import_jobs (job_id) ON DELETE CASCADE,
+    record_no BIGINT NOT NULL,
+    reason    TEXT   NOT NULL,
+    PRIMARY KEY (job_id, record_no)
+);
+
+-- Lenient casts for validating staged text: NULL instead of an error for malformed values.
+CREATE OR REPLACE FUNCTION import_to_date(value TEXT)
+RETURNS DATE
+LANGUAGE plpgsql
+IMMUTABLE
+AS $$
+BEGIN
+    RETURN value::date;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION import_to_numeric(value TEXT)
+RETURNS NUMERIC
+LANGUAGE plpgsql
+IMMUTABLE
+AS $$
+BEGIN
+    RETURN value::numeric;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END
+$$;
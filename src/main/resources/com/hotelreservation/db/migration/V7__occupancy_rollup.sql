@@ -0,0 +1,120 @@
+-- Daily occupancy rollup backing AnalyticsService (occupancy rate, ADR and RevPAR by day and room type).
+-- occupancy_daily holds, per stay date and room type, the room nights sold and their revenue. A trigger on
+-- Bookings keeps it current: each booking that is not cancelled adds one room night per night of its stay,
+-- priced at its room's roomPrice when the booking was written. The type and rate applied are remembered in
+-- occupancy_booking_rates, so changing or cancelling the booking later takes back exactly what it added even
+-- if the room's price has changed since. Reports then read at most one row per day and room type.
+
+CREATE TABLE IF NOT EXISTS occupancy_daily (
+    stay_date  DATE           NOT NULL,
+    room_type  TEXT           NOT NULL,
+    rooms_sold INTEGER        NOT NULL DEFAULT 0,
+    revenue    NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (stay_date, room_type)
+);
+
+CREATE TABLE IF NOT EXISTS occupancy_booking_rates (
+    bookingId TEXT           PRIMARY KEY,
+    room_type TEXT           NOT NULL,
+    rate      NUMERIC(12, 2) NOT NULL,
+    inDate    DATE           NOT NULL,
+    outDate   DATE           NOT NULL
+);
+
+-- Adds (sign 1) or removes (sign -1) the nights [p_in, p_out) of one booking.
+CREATE OR REPLACE FUNCTION occupancy_apply(p_room_type TEXT, p_rate NUMERIC, p_in DATE, p_out DATE, p_sign INTEGER)
+RETURNS void
+LANGUAGE sql
+AS $$
+    INSERT INTO occupancy_daily (stay_date, room_type, rooms_sold, revenue)
+    SELECT night::date, p_room_type, p_sign, p_sign * p_rate
+    FROM generate_series(p_in, p_out - 1, interval '1 day') AS night
+    ON CONFLICT (stay_date, room_type) DO UPDATE
+        SET rooms_sold = occupancy_daily.rooms_sold + EXCLUDED.rooms_sold,
+            revenue = occupancy_daily.revenue + EXCLUDED.revenue;
+$$;
+
+CREATE OR REPLACE FUNCTION occupancy_track_booking()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    previous occupancy_booking_rates%ROWTYPE;
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.bookingId = NEW.bookingId
+            AND OLD.roomId IS NOT DISTINCT FROM NEW.roomId
+            AND OLD.inDate IS NOT DISTINCT FROM NEW.inDate
+            AND OLD.outDate IS NOT DISTINCT FROM NEW.outDate
+            AND OLD.bookingStatus IS NOT DISTINCT FROM NEW.bookingStatus THEN
+        RETURN NULL;
+    END IF;
+
+    -- On insert, a leftover entry for the same booking ID is taken back as well
+    DELETE FROM occupancy_booking_rates
+    WHERE bookingId = CASE WHEN TG_OP = 'INSERT' THEN NEW.bookingId ELSE OLD.bookingId END
+    RETURNING * INTO previous;
+    IF FOUND THEN
+        PERFORM occupancy_apply(previous.room_type, previous.rate, previous.inDate, previous.outDate, -1);
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE')
+            AND NEW.bookingStatus IS DISTINCT FROM 'Cancelled'
+            AND NEW.outDate > NEW.inDate THEN
+        INSERT INTO occupancy_booking_rates (bookingId, room_type, rate, inDate, outDate)
+        SELECT NEW.bookingId, r.roomType, r.roomPrice, NEW.inDate, NEW.outDate
+        FROM Rooms r WHERE r.roomId = NEW.roomId
+        RETURNING * INTO previous;
+        IF FOUND THEN
+            PERFORM occupancy_apply(previous.room_type, previous.rate, previous.inDate, previous.outDate, 1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- Recomputes the rollup from the current bookings and room prices.
+CREATE OR REPLACE FUNCTION occupancy_rebuild()
+RETURNS void
+LANGUAGE sql
+AS $$
+    TRUNCATE occupancy_daily, occupancy_booking_rates;
+    INSERT INTO occupancy_booking_rates (bookingId, room_type, rate, inDate, outDate)
+    SELECT b.bookingId, r.roomType, r.roomPrice, b.inDate, b.outDate
+    FROM Bookings b JOIN Rooms r ON r.roomId = b.roomId
+    WHERE b.bookingStatus IS DISTINCT FROM 'Cancelled' AND b.outDate > b.inDate;
+    INSERT INTO occupancy_daily (stay_date, room_type, rooms_sold, revenue)
+    SELECT night::date, room_type, count(*), sum(rate)
+    FROM occupancy_booking_rates,
+         generate_series(inDate, outDate - 1, interval '1 day') AS night
+    GROUP BY night::date, room_type;
+$$;
+
+CREATE OR REPLACE FUNCTION occupancy_clear()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    TRUNCATE occupancy_daily, occupancy_booking_rates;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS bookings_occupancy_rollup ON Bookings;
+CREATE TRIGGER bookings_occupancy_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON Bookings
+    FOR EACH ROW EXECUTE FUNCTION occupancy_track_booking();
+
+DROP TRIGGER IF EXISTS bookings_occupancy_truncate ON Bookings;
+CREATE TRIGGER bookings_occupancy_truncate
+    AFTER TRUNCATE ON Bookings
+    FOR EACH STATEMENT EXECUTE FUNCTION occupancy_clear();
+
+-- First installation: fill the rollup from the bookings already present.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM occupancy_booking_rates) AND EXISTS (SELECT 1 FROM Bookings) THEN
+        PERFORM occupancy_rebuild();
+    END IF;
+END
+$$;
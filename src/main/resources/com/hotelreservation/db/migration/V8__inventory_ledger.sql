@@ -0,0 +1,193 @@
+-- Room type inventory ledger backing InventoryService: per room type and night, the rooms in total, sold,
+-- held and out of order, so "how many Deluxe rooms are left on each night of this stay" is one indexed range
+-- read instead of a search over individual rooms and bookings.
+-- Triggers on Bookings and Rooms keep the counters in the same transaction as the write that changes them:
+-- a booking that is not cancelled counts as sold for each night of its stay in its room's type, and a room that
+-- is not available counts as out of order. A night's row is created the first time a booking touches it, with
+-- the room counts of that moment; a night without a row has nothing sold. The counters always equal what
+-- room_type_inventory_expected computes from scratch, which InventoryService.reconcile checks and restores.
+
+CREATE TABLE IF NOT EXISTS room_type_inventory (
+    room_type    TEXT    NOT NULL,
+    stay_date    DATE    NOT NULL,
+    total        INTEGER NOT NULL,
+    sold         INTEGER NOT NULL DEFAULT 0,
+    held         INTEGER NOT NULL DEFAULT 0,
+    out_of_order INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (room_type, stay_date)
+);
+
+-- The counters recomputed from Rooms and Bookings, for the nights on which anything is sold.
+-- V9__room_holds.sql replaces this view with one that also counts the nights held.
+CREATE OR REPLACE VIEW room_type_inventory_expected AS
+WITH room_counts AS (
+    SELECT roomType, count(*) AS total, count(*) FILTER (WHERE NOT availability) AS out_of_order
+    FROM Rooms
+    GROUP BY roomType
+), sales AS (
+    SELECT r.roomType, night::date AS stay_date, count(*) AS sold
+    FROM Bookings b
+    JOIN Rooms r ON r.roomId = b.roomId
+    CROSS JOIN LATERAL generate_series(b.inDate, b.outDate - 1, interval '1 day') AS night
+    WHERE b.bookingStatus IS DISTINCT FROM 'Cancelled'
+    GROUP BY r.roomType, night::date
+)
+SELECT c.roomType AS room_type, s.stay_date, c.total::integer AS total, s.sold::integer AS sold,
+       0 AS held, c.out_of_order::integer AS out_of_order
+FROM room_counts c
+JOIN sales s ON s.roomType = c.roomType;
+
+-- Creates the missing rows of a room type for the nights [p_from, p_to), with the current room counts.
+CREATE OR REPLACE FUNCTION inventory_ensure(p_room_type TEXT, p_from DATE, p_to DATE)
+RETURNS void
+LANGUAGE sql
+AS $$
+    INSERT INTO room_type_inventory (room_type, stay_date, total, out_of_order)
+    SELECT p_room_type, night::date, counts.total, counts.out_of_order
+    FROM (SELECT count(*) AS total, count(*) FILTER (WHERE NOT availability) AS out_of_order
+          FROM Rooms WHERE roomType = p_room_type) AS counts,
+         generate_series(p_from, p_to - 1, interval '1 day') AS night
+    ON CONFLICT (room_type, stay_date) DO NOTHING;
+$$;
+
+-- Adds p_delta to the nights [p_from, p_to) sold in a room's type.
+CREATE OR REPLACE FUNCTION inventory_adjust_sold(p_room_id TEXT, p_from DATE, p_to DATE, p_delta INTEGER)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_room_type TEXT;
+BEGIN
+    IF p_room_id IS NULL OR p_to <= p_from THEN
+        RETURN;
+    END IF;
+    SELECT roomType INTO v_room_type FROM Rooms WHERE roomId = p_room_id;
+    IF v_room_type IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM inventory_ensure(v_room_type, p_from, p_to);
+    UPDATE room_type_inventory SET sold = sold + p_delta
+    WHERE room_type = v_room_type AND stay_date >= p_from AND stay_date < p_to;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_track_booking()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomId IS NOT DISTINCT FROM NEW.roomId
+            AND OLD.inDate IS NOT DISTINCT FROM NEW.inDate
+            AND OLD.outDate IS NOT DISTINCT FROM NEW.outDate
+            AND (OLD.bookingStatus IS DISTINCT FROM 'Cancelled') = (NEW.bookingStatus IS DISTINCT FROM 'Cancelled') THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.bookingStatus IS DISTINCT FROM 'Cancelled' THEN
+        PERFORM inventory_adjust_sold(OLD.roomId, OLD.inDate, OLD.outDate, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.bookingStatus IS DISTINCT FROM 'Cancelled' THEN
+        PERFORM inventory_adjust_sold(NEW.roomId, NEW.inDate, NEW.outDate, 1);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_track_room()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    stay RECORD;
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomType IS NOT DISTINCT FROM NEW.roomType
+            AND OLD.availability IS NOT DISTINCT FROM NEW.availability THEN
+        RETURN NULL;
+    END IF;
+    -- Rows not yet created take the room counts when they are, so only existing rows are adjusted here
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE room_type_inventory
+        SET total = total - 1, out_of_order = out_of_order - CASE WHEN OLD.availability THEN 0 ELSE 1 END
+        WHERE room_type = OLD.roomType;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE room_type_inventory
+        SET total = total + 1, out_of_order = out_of_order + CASE WHEN NEW.availability THEN 0 ELSE 1 END
+        WHERE room_type = NEW.roomType;
+    END IF;
+    -- A room changing type takes the nights sold in it along
+    IF TG_OP = 'UPDATE' AND OLD.roomType IS DISTINCT FROM NEW.roomType THEN
+        FOR stay IN
+            SELECT inDate, outDate FROM Bookings
+            WHERE roomId = NEW.roomId AND bookingStatus IS DISTINCT FROM 'Cancelled' AND outDate > inDate
+        LOOP
+            UPDATE room_type_inventory SET sold = sold - 1
+            WHERE room_type = OLD.roomType AND stay_date >= stay.inDate AND stay_date < stay.outDate;
+            PERFORM inventory_ensure(NEW.roomType, stay.inDate, stay.outDate);
+            UPDATE room_type_inventory SET sold = sold + 1
+            WHERE room_type = NEW.roomType AND stay_date >= stay.inDate AND stay_date < stay.outDate;
+        END LOOP;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_clear_sold()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    UPDATE room_type_inventory SET sold = 0 WHERE sold <> 0;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_clear()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    DELETE FROM room_type_inventory;
+    RETURN NULL;
+END
+$$;
+
+-- Replaces the counters with room_type_inventory_expected.
+CREATE OR REPLACE FUNCTION inventory_rebuild()
+RETURNS void
+LANGUAGE sql
+AS $$
+    DELETE FROM room_type_inventory;
+    INSERT INTO room_type_inventory (room_type, stay_date, total, sold, held, out_of_order)
+    SELECT room_type, stay_date, total, sold, held, out_of_order FROM room_type_inventory_expected;
+$$;
+
+DROP TRIGGER IF EXISTS bookings_inventory ON Bookings;
+CREATE TRIGGER bookings_inventory
+    AFTER INSERT OR UPDATE OR DELETE ON Bookings
+    FOR EACH ROW EXECUTE FUNCTION inventory_track_booking();
+
+DROP TRIGGER IF EXISTS bookings_inventory_truncate ON Bookings;
+CREATE TRIGGER bookings_inventory_truncate
+    AFTER TRUNCATE ON Bookings
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_clear_sold();
+
+DROP TRIGGER IF EXISTS rooms_inventory ON Rooms;
+CREATE TRIGGER rooms_inventory
+    AFTER INSERT OR UPDATE OR DELETE ON Rooms
+    FOR EACH ROW EXECUTE FUNCTION inventory_track_room();
+
+DROP TRIGGER IF EXISTS rooms_inventory_truncate ON Rooms;
+CREATE TRIGGER rooms_inventory_truncate
+    AFTER TRUNCATE ON Rooms
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_clear();
+
+-- First installation: fill the ledger from the bookings already present.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM room_type_inventory) THEN
+        PERFORM inventory_rebuild();
+    END IF;
+END
+$$;
@@ -0,0 +1,146 @@
+-- Short-lived room holds backing HoldService: selecting a room in the reservation window holds it for its stay
+-- until the booking is made, the selection changes, the window closes or the hold's TTL runs out, so other
+-- clerks' availability searches stop offering it meanwhile. A hold is soft: it does not stop a booking from
+-- being written, it only hides the room from searches while it is active (expires_at in the future).
+-- The instance that placed a hold deletes it on release or expiry; holds left behind by an instance that
+-- stopped abruptly are ignored once expired and deleted by the next instance that starts or holds the room.
+-- Requires V8__inventory_ledger.sql and V4__change_notify.sql: holds count as held in room_type_inventory, and
+-- every change is announced on the hotel_changes channel as "room_holds:<operation>:<hold_id>".
+
+CREATE TABLE IF NOT EXISTS room_holds (
+    hold_id    TEXT        PRIMARY KEY,
+    roomId     VARCHAR(20) NOT NULL REFERENCES Rooms (roomId),
+    inDate     DATE        NOT NULL,
+    outDate    DATE        NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CHECK (outDate > inDate)
+);
+
+CREATE INDEX IF NOT EXISTS room_holds_room_idx ON room_holds (roomId, inDate);
+CREATE INDEX IF NOT EXISTS room_holds_expires_idx ON room_holds (expires_at);
+
+-- The ledger's expected counters, now also counting the nights held; a night with only holds on it has a row.
+CREATE OR REPLACE VIEW room_type_inventory_expected AS
+WITH room_counts AS (
+    SELECT roomType, count(*) AS total, count(*) FILTER (WHERE NOT availability) AS out_of_order
+    FROM Rooms
+    GROUP BY roomType
+), sales AS (
+    SELECT r.roomType, night::date AS stay_date, count(*) AS sold
+    FROM Bookings b
+    JOIN Rooms r ON r.roomId = b.roomId
+    CROSS JOIN LATERAL generate_series(b.inDate, b.outDate - 1, interval '1 day') AS night
+    WHERE b.bookingStatus IS DISTINCT FROM 'Cancelled'
+    GROUP BY r.roomType, night::date
+), holds AS (
+    SELECT r.roomType, night::date AS stay_date, count(*) AS held
+    FROM room_holds h
+    JOIN Rooms r ON r.roomId = h.roomId
+    CROSS JOIN LATERAL generate_series(h.inDate, h.outDate - 1, interval '1 day') AS night
+    GROUP BY r.roomType, night::date
+), nights AS (
+    SELECT coalesce(s.roomType, h.roomType) AS roomType, coalesce(s.stay_date, h.stay_date) AS stay_date,
+           coalesce(s.sold, 0) AS sold, coalesce(h.held, 0) AS held
+    FROM sales s
+    FULL JOIN holds h ON h.roomType = s.roomType AND h.stay_date = s.stay_date
+)
+SELECT c.roomType AS room_type, n.stay_date, c.total::integer AS total, n.sold::integer AS sold,
+       n.held::integer AS held, c.out_of_order::integer AS out_of_order
+FROM room_counts c
+JOIN nights n ON n.roomType = c.roomType;
+
+-- Adds p_delta to the nights [p_from, p_to) held in a room's type.
+CREATE OR REPLACE FUNCTION inventory_adjust_held(p_room_id TEXT, p_from DATE, p_to DATE, p_delta INTEGER)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_room_type TEXT;
+BEGIN
+    IF p_room_id IS NULL OR p_to <= p_from THEN
+        RETURN;
+    END IF;
+    SELECT roomType INTO v_room_type FROM Rooms WHERE roomId = p_room_id;
+    IF v_room_type IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM inventory_ensure(v_room_type, p_from, p_to);
+    UPDATE room_type_inventory SET held = held + p_delta
+    WHERE room_type = v_room_type AND stay_date >= p_from AND stay_date < p_to;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_track_hold()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.roomId IS NOT DISTINCT FROM NEW.roomId
+            AND OLD.inDate IS NOT DISTINCT FROM NEW.inDate
+            AND OLD.outDate IS NOT DISTINCT FROM NEW.outDate THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM inventory_adjust_held(OLD.roomId, OLD.inDate, OLD.outDate, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM inventory_adjust_held(NEW.roomId, NEW.inDate, NEW.outDate, 1);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- A room changing type takes the nights held in it along. Runs after rooms_inventory (triggers fire in name
+-- order), so rows it creates for the new type already count the room.
+CREATE OR REPLACE FUNCTION inventory_track_room_holds()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    hold RECORD;
+BEGIN
+    IF OLD.roomType IS NOT DISTINCT FROM NEW.roomType THEN
+        RETURN NULL;
+    END IF;
+    FOR hold IN SELECT inDate, outDate FROM room_holds WHERE roomId = NEW.roomId LOOP
+        UPDATE room_type_inventory SET held = held - 1
+        WHERE room_type = OLD.roomType AND stay_date >= hold.inDate AND stay_date < hold.outDate;
+        PERFORM inventory_ensure(NEW.roomType, hold.inDate, hold.outDate);
+        UPDATE room_type_inventory SET held = held + 1
+        WHERE room_type = NEW.roomType AND stay_date >= hold.inDate AND stay_date < hold.outDate;
+    END LOOP;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION inventory_clear_held()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    UPDATE room_type_inventory SET held = 0 WHERE held <> 0;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS room_holds_inventory ON room_holds;
+CREATE TRIGGER room_holds_inventory
+    AFTER INSERT OR UPDATE OR DELETE ON room_holds
+    FOR EACH ROW EXECUTE FUNCTION inventory_track_hold();
+
+DROP TRIGGER IF EXISTS room_holds_inventory_truncate ON room_holds;
+CREATE TRIGGER room_holds_inventory_truncate
+    AFTER TRUNCATE ON room_holds
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_clear_held();
+
+DROP TRIGGER IF EXISTS rooms_inventory_holds ON Rooms;
+CREATE TRIGGER rooms_inventory_holds
+    AFTER UPDATE ON Rooms
+    FOR EACH ROW EXECUTE FUNCTION inventory_track_room_holds();
+
+DROP TRIGGER IF EXISTS room_holds_notify_change ON room_holds;
+CREATE TRIGGER room_holds_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON room_holds
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('hold_id');
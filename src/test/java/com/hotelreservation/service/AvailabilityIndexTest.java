@@ -0,0 +1,140 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Room;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The interval search of {@link AvailabilityIndex}: stays are half-open, so a stay may start on the day another
+ * ends, and a long stay still blocks the nights after later-starting short stays have ended. Checked on
+ * hand-picked cases and against a scan of every stay on random bookings. Runs without a database.
+ */
+class AvailabilityIndexTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2030, 1, 1);
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        index = new AvailabilityIndex();
+        index.recordRoom(new Room("101", "Standard", 100, true));
+        index.recordRoom(new Room("102", "Standard", 100, true));
+        index.recordRoom(new Room("103", "Standard", 100, false));
+        index.recordRoom(new Room("201", "Deluxe", 200, true));
+    }
+
+    @Test
+    void staysMayStartOnTheDayAnotherEnds() {
+        index.recordBooking(booking("b1", "101", 10, 15, "Confirmed"));
+
+        assertEquals(List.of("101", "102"), available(15, 20));
+        assertEquals(List.of("101", "102"), available(5, 10));
+        assertEquals(List.of("102"), available(14, 16));
+        assertEquals(List.of("102"), available(9, 11));
+        assertEquals(List.of("102"), available(1, 30));
+        assertEquals(List.of("102"), available(11, 12));
+    }
+
+    @Test
+    void longStayBlocksNightsAfterLaterShortStaysEnd() {
+        index.recordBooking(booking("long", "101", 0, 30, "Confirmed"));
+        index.recordBooking(booking("short", "101", 4, 5, "Confirmed"));
+
+        assertEquals(List.of("102"), available(20, 22));
+        assertEquals(List.of("101", "102"), available(30, 31));
+
+        index.removeBooking("long");
+        assertEquals(List.of("101", "102"), available(20, 22));
+        assertEquals(List.of("102"), available(4, 5));
+    }
+
+    @Test
+    void cancelledMovedAndRemovedBookingsReleaseTheirNights() {
+        index.recordBooking(booking("b1", "101", 10, 15, "Confirmed"));
+        index.recordBooking(booking("b1", "101", 10, 15, Booking.STATUS_CANCELLED));
+        assertEquals(List.of("101", "102"), available(10, 15));
+
+        index.recordBooking(booking("b2", "101", 10, 15, "Confirmed"));
+        index.moveBooking("b2", "102");
+        assertEquals(List.of("101"), available(10, 15));
+
+        index.removeBooking("b2");
+        assertEquals(List.of("101", "102"), available(10, 15));
+    }
+
+    @Test
+    void bestFitRoomIsTheOneTheStayFillsAGapIn() {
+        index.recordBooking(booking("b1", "102", 0, 10, "Confirmed"));
+        index.recordBooking(booking("b2", "102", 15, 20, "Confirmed"));
+
+        assertEquals("102", index.findBestFitRoom("Standard", date(10), date(15), Set.of()).getRoomId());
+        assertEquals("101", index.findBestFitRoom("Standard", date(10), date(15), Set.of("102")).getRoomId());
+        assertEquals("101", index.findBestFitRoom("Standard", date(9), date(15), Set.of()).getRoomId());
+        assertNull(index.findBestFitRoom("Standard", date(9), date(15), Set.of("101")));
+    }
+
+    @Test
+    void availableRoomsMatchScanOfEveryStay() {
+        Random random = new Random(42);
+        Map<String, int[]> stays = new HashMap<>();
+        String[] roomIds = {"101", "102", "201"};
+        for (int step = 0; step < 2_000; step++) {
+            String bookingId = "b" + random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                index.removeBooking(bookingId);
+                stays.remove(bookingId);
+            } else {
+                int room = random.nextInt(roomIds.length);
+                int from = random.nextInt(365);
+                int to = from + 1 + random.nextInt(random.nextBoolean() ? 3 : 60);
+                index.recordBooking(booking(bookingId, roomIds[room], from, to, "Confirmed"));
+                stays.put(bookingId, new int[]{room, from, to});
+            }
+
+            int from = random.nextInt(370);
+            int to = from + 1 + random.nextInt(20);
+            List<String> expected = new ArrayList<>();
+            for (int room = 0; room < 2; room++) {
+                boolean free = true;
+                for (int[] stay : stays.values()) {
+                    free &= stay[0] != room || stay[2] <= from || stay[1] >= to;
+                }
+                if (free) {
+                    expected.add(roomIds[room]);
+                }
+            }
+            assertEquals(expected, available(from, to), "stay " + from + "-" + to);
+        }
+    }
+
+    private List<String> available(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (Room room : index.findAvailableRooms("Standard", date(from), date(to))) {
+            ids.add(room.getRoomId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static Booking booking(String bookingId, String roomId, int from, int to, String status) {
+        return new Booking(bookingId, "g1", roomId, null, date(from), date(to), null, "Paid", status);
+    }
+
+    private static LocalDate date(int day) {
+        return START_DATE.plusDays(day);
+    }
+}
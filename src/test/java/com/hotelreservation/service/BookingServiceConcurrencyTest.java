@@ -0,0 +1,202 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Booking;
+import com.hotelreservation.model.Guest;
+import com.hotelreservation.util.DatabaseConnection;
+import com.hotelreservation.util.SchemaMigrator;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads booking a handful of rooms over a short window at the same time, so most attempts conflict:
+ * however the attempts interleave, no room may end up booked twice for overlapping dates, and every booking
+ * reported as created must be in the database. Runs against an embedded PostgreSQL server.
+ */
+class BookingServiceConcurrencyTest {
+
+    private static final int ROOMS = 4;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+    private static final int WINDOW_DAYS = 20;
+    private static final LocalDate START_DATE = LocalDate.of(2030, 1, 1);
+
+    private static EmbeddedPostgres postgres;
+    private static String url;
+
+    private final BookingService bookingService = new BookingService();
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        url = postgres.getJdbcUrl("postgres", "postgres");
+        System.setProperty("SUPABASE_DB_URL", url);
+        System.setProperty("SUPABASE_DB_USER", "postgres");
+        System.setProperty("SUPABASE_DB_PASSWORD", "");
+        assertTrue(SchemaMigrator.migrate(), "migrating the embedded database failed");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        DatabaseConnection.shutdown();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void loadRooms() throws SQLException, IOException {
+        execute("TRUNCATE room_holds, Bookings, Guests, Rooms");
+        for (int r = 0; r < ROOMS; r++) {
+            execute("INSERT INTO Rooms (roomId, roomType, roomPrice, availability) VALUES ('" + (101 + r) + "', 'Standard', 100, true)");
+        }
+        execute(readMigration("V3__booking_exclusion.sql"));
+    }
+
+    @Test
+    void concurrentReservationsNeverDoubleBookARoom() throws Exception {
+        int created = runConcurrently(random -> bookingService.reserveRoom(randomBooking(random), newGuest()));
+
+        assertNoOverlaps();
+        assertEquals(created, countBookings());
+    }
+
+    @Test
+    void roomLocksAloneKeepConcurrentReservationsApart() throws Exception {
+        execute("ALTER TABLE Bookings DROP CONSTRAINT bookings_room_no_overlap");
+
+        int created = runConcurrently(random -> bookingService.reserveRoom(randomBooking(random), newGuest()));
+
+        assertNoOverlaps();
+        assertEquals(created, countBookings());
+    }
+
+    @Test
+    void concurrentGroupBookingsNeverDoubleBookARoom() throws Exception {
+        int created = runConcurrently(random -> {
+            Guest guest = newGuest();
+            Booking first = randomBooking(random);
+            Booking second = randomBooking(random);
+            second.setRoomId(String.valueOf(101 + (Integer.parseInt(first.getRoomId()) - 100) % ROOMS));
+            BatchBookingResult result = bookingService.createBookings(List.of(
+                    new BookingRequest(first, guest), new BookingRequest(second, guest)));
+            if (result.isCommitted()) {
+                return ReservationResult.CREATED;
+            }
+            boolean taken = result.getRows().stream()
+                    .anyMatch(row -> row.getStatus() == BatchBookingResult.Status.ROOM_TAKEN);
+            return taken ? ReservationResult.ROOM_TAKEN : ReservationResult.FAILED;
+        });
+
+        assertNoOverlaps();
+        assertEquals(2 * created, countBookings());
+    }
+
+    private interface Attempt {
+        ReservationResult run(Random random);
+    }
+
+    /**
+     * Runs the attempt from all threads at once, checks that each attempt either succeeded or lost to another
+     * booking, and returns how many succeeded.
+     */
+    private static int runConcurrently(Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> outcomes = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            Callable<int[]> worker = () -> {
+                start.await();
+                int[] counts = new int[ReservationResult.values().length];
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    counts[attempt.run(random).ordinal()]++;
+                }
+                return counts;
+            };
+            outcomes.add(executor.submit(worker));
+        }
+        start.countDown();
+
+        int created = 0;
+        int taken = 0;
+        for (Future<int[]> outcome : outcomes) {
+            int[] counts = outcome.get(2, TimeUnit.MINUTES);
+            assertEquals(0, counts[ReservationResult.FAILED.ordinal()], "no attempt should fail");
+            created += counts[ReservationResult.CREATED.ordinal()];
+            taken += counts[ReservationResult.ROOM_TAKEN.ordinal()];
+        }
+        executor.shutdown();
+        assertTrue(created > 0 && taken > 0, "attempts should both succeed and conflict");
+        return created;
+    }
+
+    private static Booking randomBooking(Random random) {
+        LocalDate checkIn = START_DATE.plusDays(random.nextInt(WINDOW_DAYS));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+        return new Booking(UUID.randomUUID().toString(), null, String.valueOf(101 + random.nextInt(ROOMS)), null,
+                checkIn, checkOut, null, "Pending", "Confirmed");
+    }
+
+    private static Guest newGuest() {
+        return new Guest(null, "Test Guest", "", "", "", "555-0100");
+    }
+
+    private static void assertNoOverlaps() throws SQLException {
+        long overlaps = queryLong("SELECT count(*) FROM Bookings a JOIN Bookings b ON a.roomId = b.roomId " +
+                "AND a.bookingId < b.bookingId AND a.inDate < b.outDate AND b.inDate < a.outDate " +
+                "WHERE a.bookingStatus IS DISTINCT FROM 'Cancelled' AND b.bookingStatus IS DISTINCT FROM 'Cancelled'");
+        assertEquals(0, overlaps, "rooms booked twice for overlapping dates");
+    }
+
+    private static long countBookings() throws SQLException {
+        return queryLong("SELECT count(*) FROM Bookings");
+    }
+
+    private static long queryLong(String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, "postgres", "");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, "postgres", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static String readMigration(String script) throws IOException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream("/com/hotelreservation/db/migration/" + script)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Room;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The word-level bit arithmetic of {@link RoomCalendar}: stays starting or ending exactly on a 64-night word
+ * boundary, stays spanning several words, and searches for stays longer than 64 nights, checked both on hand-picked
+ * cases and against a night-by-night model on random calendars.
+ */
+class RoomCalendarTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2030, 1, 1);
+
+    private static final List<Room> ROOMS = List.of(
+            new Room("101", "Standard", 100, true),
+            new Room("102", "Standard", 100, true),
+            new Room("201", "Deluxe", 200, true));
+
+    @Test
+    void stayEndingOnWordBoundaryFillsExactlyOneWord() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        addStay(calendar, "b1", "101", 0, 64);
+
+        assertArrayEquals(new long[]{-1L, 0, 0, 0}, calendar.getBookedNights(0));
+        assertTrue(calendar.isBooked(0, 63));
+        assertFalse(calendar.isBooked(0, 64));
+        assertEquals(64, calendar.countBookedNights(0));
+
+        calendar.removeBooking("b1");
+        assertArrayEquals(new long[4], calendar.getBookedNights(0));
+    }
+
+    @Test
+    void stayStartingOnWordBoundaryLeavesThePreviousWordAlone() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        addStay(calendar, "b1", "101", 64, 128);
+
+        assertArrayEquals(new long[]{0, -1L, 0, 0}, calendar.getBookedNights(0));
+        assertFalse(calendar.isBooked(0, 63));
+        assertTrue(calendar.isBooked(0, 64));
+        assertTrue(calendar.isBooked(0, 127));
+        assertFalse(calendar.isBooked(0, 128));
+
+        calendar.removeBooking("b1");
+        assertArrayEquals(new long[4], calendar.getBookedNights(0));
+    }
+
+    @Test
+    void staySpanningSeveralWordsSetsPartialEndsAndWholeMiddleWords() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        addStay(calendar, "b1", "101", 10, 150);
+
+        long[] nights = calendar.getBookedNights(0);
+        assertEquals(-1L << 10, nights[0]);
+        assertEquals(-1L, nights[1]);
+        assertEquals((1L << 22) - 1, nights[2]);
+        assertEquals(0, nights[3]);
+        assertEquals(140, calendar.countBookedNights(0));
+
+        // A stay of one night in the middle of the range is released without touching its neighbours
+        addStay(calendar, "b2", "102", 127, 128);
+        calendar.removeBooking("b2");
+        assertArrayEquals(new long[4], calendar.getBookedNights(1));
+        assertArrayEquals(nights, calendar.getBookedNights(0));
+
+        calendar.removeBooking("b1");
+        assertArrayEquals(new long[4], calendar.getBookedNights(0));
+    }
+
+    @Test
+    void removingAStayKeepsTheNightsOfAnOverlappingOne() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        addStay(calendar, "b1", "101", 10, 100);
+        addStay(calendar, "b2", "101", 60, 140);
+
+        calendar.removeBooking("b1");
+
+        assertFalse(calendar.isBooked(0, 59));
+        assertTrue(calendar.isBooked(0, 60));
+        assertTrue(calendar.isBooked(0, 139));
+        assertEquals(80, calendar.countBookedNights(0));
+    }
+
+    @Test
+    void findsFreeRoomsForStaysAcrossWordBoundaries() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        addStay(calendar, "b1", "101", 60, 70);
+        addStay(calendar, "b2", "102", 128, 129);
+
+        assertEquals(List.of("102"), roomIds(calendar.findFreeRooms("Standard", date(50), date(100))));
+        assertEquals(List.of("101", "102"), roomIds(calendar.findFreeRooms("Standard", date(70), date(128))));
+        assertEquals(List.of("101"), roomIds(calendar.findFreeRooms("Standard", date(70), date(129))));
+        assertEquals(List.of("101", "102"), roomIds(calendar.findFreeRooms("Standard", date(0), date(60))));
+        // Nights outside the window are not known and count as booked
+        assertEquals(List.of(), roomIds(calendar.findFreeRooms("Standard", date(190), date(201))));
+    }
+
+    @Test
+    void findsFirstFreeStartForStaysLongerThanAWord() {
+        RoomCalendar calendar = new RoomCalendar(START_DATE, 200, ROOMS);
+        // 101 is free for nights 10-99 (90 nights) and 110-199; 102 for nights 50-119 (70 nights) and 130-199
+        addStay(calendar, "b1", "101", 0, 10);
+        addStay(calendar, "b2", "101", 100, 110);
+        addStay(calendar, "b3", "102", 0, 50);
+        addStay(calendar, "b4", "102", 120, 130);
+
+        assertEquals(date(10), calendar.findFirstFreeStart("Standard", 65));
+        assertEquals(date(10), calendar.findFirstFreeStart("Standard", 90));
+        assertNull(calendar.findFirstFreeStart("Standard", 91));
+        assertEquals(date(0), calendar.findFirstFreeStart("Deluxe", 200));
+        assertNull(calendar.findFirstFreeStart("Deluxe", 201));
+    }
+
+    @Test
+    void findFirstFreeStartMatchesNightByNightModel() {
+        Random random = new Random(42);
+        for (int window : new int[]{1, 63, 64, 65, 128, 130, 200}) {
+            for (int round = 0; round < 50; round++) {
+                RoomCalendar calendar = new RoomCalendar(START_DATE, window, ROOMS);
+                boolean[][] booked = new boolean[ROOMS.size()][window];
+                for (int stay = 0; stay < 6; stay++) {
+                    int room = random.nextInt(ROOMS.size());
+                    int from = random.nextInt(window);
+                    int to = from + 1 + random.nextInt(Math.min(window - from, 80));
+                    addStay(calendar, "b" + stay, ROOMS.get(room).getRoomId(), from, to);
+                    for (int day = from; day < to; day++) {
+                        booked[room][day] = true;
+                    }
+                }
+
+                for (int room = 0; room < ROOMS.size(); room++) {
+                    for (int day = 0; day < window; day++) {
+                        assertEquals(booked[room][day], calendar.isBooked(room, day));
+                    }
+                }
+                int nights = 1 + random.nextInt(window);
+                assertEquals(firstFreeStart(booked, "Standard", nights), calendar.findFirstFreeStart("Standard", nights),
+                        "window " + window + ", " + nights + " nights");
+            }
+        }
+    }
+
+    @Test
+    void addingAndRemovingStaysMatchesNightByNightModel() {
+        Random random = new Random(7);
+        int window = 200;
+        RoomCalendar calendar = new RoomCalendar(START_DATE, window, ROOMS);
+        List<int[]> stays = new ArrayList<>();
+        for (int step = 0; step < 500; step++) {
+            if (!stays.isEmpty() && random.nextBoolean()) {
+                int[] stay = stays.remove(random.nextInt(stays.size()));
+                calendar.removeBooking("b" + stay[0]);
+            } else {
+                int from = random.nextInt(window);
+                int to = from + 1 + random.nextInt(window - from);
+                int[] stay = {step, random.nextInt(ROOMS.size()), from, to};
+                stays.add(stay);
+                addStay(calendar, "b" + step, ROOMS.get(stay[1]).getRoomId(), from, to);
+            }
+
+            for (int room = 0; room < ROOMS.size(); room++) {
+                int count = 0;
+                for (int day = 0; day < window; day++) {
+                    boolean expected = false;
+                    for (int[] stay : stays) {
+                        expected |= stay[1] == room && stay[2] <= day && day < stay[3];
+                    }
+                    assertEquals(expected, calendar.isBooked(room, day), "room " + room + ", night " + day);
+                    count += expected ? 1 : 0;
+                }
+                assertEquals(count, calendar.countBookedNights(room));
+            }
+        }
+    }
+
+    private static LocalDate firstFreeStart(boolean[][] booked, String roomType, int nights) {
+        int days = booked[0].length;
+        for (int start = 0; start + nights <= days; start++) {
+            for (int room = 0; room < ROOMS.size(); room++) {
+                if (!ROOMS.get(room).getRoomType().equals(roomType)) {
+                    continue;
+                }
+                boolean free = true;
+                for (int day = start; day < start + nights && free; day++) {
+                    free = !booked[room][day];
+                }
+                if (free) {
+                    return date(start);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void addStay(RoomCalendar calendar, String bookingId, String roomId, int from, int to) {
+        calendar.addStay(bookingId, roomId, date(from), date(to));
+    }
+
+    private static LocalDate date(int day) {
+        return START_DATE.plusDays(day);
+    }
+
+    private static List<String> roomIds(List<Room> rooms) {
+        List<String> ids = new ArrayList<>();
+        for (Room room : rooms) {
+            ids.add(room.getRoomId());
+        }
+        return ids;
+    }
+}